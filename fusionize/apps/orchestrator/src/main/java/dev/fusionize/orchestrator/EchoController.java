@@ -4,8 +4,11 @@ import dev.fusionize.user.AuthenticatedUser;
 
 import dev.fusionize.web.services.FileInboundConnectorService;
 import dev.fusionize.web.services.HttpInboundConnectorService;
+import dev.fusionize.workflow.admission.AdmissionController;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.Map;
@@ -16,13 +19,16 @@ public class EchoController {
     private final EmailBoxService emailBoxService;
     private final HttpInboundConnectorService httpInboundConnectorService;
     private final FileInboundConnectorService fileInboundConnectorService;
+    private final AdmissionController admission;
 
     public EchoController(EmailBoxService emailBoxService,
                           HttpInboundConnectorService httpInboundConnectorService,
-                          FileInboundConnectorService fileInboundConnectorService) {
+                          FileInboundConnectorService fileInboundConnectorService,
+                          AdmissionController admission) {
         this.emailBoxService = emailBoxService;
         this.httpInboundConnectorService = httpInboundConnectorService;
         this.fileInboundConnectorService = fileInboundConnectorService;
+        this.admission = admission;
     }
 
     @GetMapping("/echo")
@@ -41,6 +47,7 @@ public class EchoController {
             @RequestBody Map<String, Object> body,
             @PathVariable("workflowKey") String workflowKey,
             @PathVariable("workflowNodeKey") String workflowNodeKey) {
+        rejectIfSaturated();
         httpInboundConnectorService.invoke(new HttpInboundConnectorService.HttpConnectorKey(workflowKey, workflowNodeKey), body);
         return "added";
     }
@@ -50,7 +57,18 @@ public class EchoController {
             @RequestParam("file") MultipartFile file,
             @PathVariable("workflowKey") String workflowKey,
             @PathVariable("workflowNodeKey") String workflowNodeKey) {
+        rejectIfSaturated();
         fileInboundConnectorService.invoke(new FileInboundConnectorService.IngestKey(workflowKey, workflowNodeKey), file);
         return "added";
     }
+
+    /**
+     * Turns triggers away while too many are waiting for admission, so
+     * callers back off instead of piling up executions.
+     */
+    private void rejectIfSaturated() {
+        if (admission.isSaturated()) {
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Too many workflow executions waiting");
+        }
+    }
 }
@@ -5,6 +5,8 @@ import dev.fusionize.common.payload.ServicePayload;
 import dev.fusionize.common.payload.ServiceResponse;
 import dev.fusionize.workflow.*;
 import dev.fusionize.workflow.descriptor.WorkflowDescriptor;
+import dev.fusionize.workflow.events.Event;
+import dev.fusionize.workflow.events.EventRepoStore;
 import dev.fusionize.workflow.registry.WorkflowExecutionRepoRegistry;
 import dev.fusionize.workflow.registry.WorkflowRepoRegistry;
 import org.slf4j.Logger;
@@ -29,16 +31,19 @@ public class WorkflowController {
     private final WorkflowExecutionRepoRegistry workflowExecutionRepoRegistry;
     private final WorkflowLogger workflowLogger;
     private final WorkflowInteractionLogger interactionLogger;
+    private final EventRepoStore eventRepoStore;
     private final WorkflowDescriptor workflowDescriptor;
 
     public WorkflowController(WorkflowRepoRegistry workflowRepoRegistry,
                               WorkflowExecutionRepoRegistry workflowExecutionRepoRegistry,
                               WorkflowLogger workflowLogger,
-                              WorkflowInteractionLogger interactionLogger) {
+                              WorkflowInteractionLogger interactionLogger,
+                              EventRepoStore eventRepoStore) {
         this.workflowRepoRegistry = workflowRepoRegistry;
         this.workflowExecutionRepoRegistry = workflowExecutionRepoRegistry;
         this.workflowLogger = workflowLogger;
         this.interactionLogger = interactionLogger;
+        this.eventRepoStore = eventRepoStore;
         this.workflowDescriptor = new WorkflowDescriptor();
     }
 
@@ -107,6 +112,18 @@ public class WorkflowController {
                 .build();
     }
 
+    @GetMapping("/{workflowId}/executions/{workflowExecutionId}/events")
+    public ServicePayload<List<Event>> getWorkflowExecutionEvents(@PathVariable String workflowId,
+                                                                  @PathVariable String workflowExecutionId) {
+        List<Event> events = eventRepoStore.findByWorkflowExecutionId(workflowExecutionId);
+        return new ServicePayload.Builder<List<Event>>()
+                .response(new ServiceResponse.Builder<List<Event>>()
+                        .status(200)
+                        .message(events)
+                        .build())
+                .build();
+    }
+
     @PostMapping("/register")
     public ServicePayload<Workflow> registerWorkflow(
             @RequestBody String workflowDefinition,
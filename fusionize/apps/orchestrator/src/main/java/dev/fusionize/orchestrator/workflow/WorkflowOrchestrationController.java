@@ -3,29 +3,63 @@ package dev.fusionize.orchestrator.workflow;
 import dev.fusionize.Application;
 import dev.fusionize.common.payload.ServicePayload;
 import dev.fusionize.common.payload.ServiceResponse;
+import dev.fusionize.workflow.admission.AdmissionController;
+import dev.fusionize.workflow.context.Context;
+import dev.fusionize.workflow.lease.ExecutionLeaseManager;
+import dev.fusionize.workflow.lease.ParkedEvent;
 import dev.fusionize.workflow.orchestrator.Orchestrator;
+import dev.fusionize.workflow.replay.ReplayJob;
+import dev.fusionize.workflow.replay.ReplayJobManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
 @RestController
 @RequestMapping(Application.API_PREFIX + "/workflow-orchestration")
 public class WorkflowOrchestrationController {
     private static final Logger log = LoggerFactory.getLogger(WorkflowOrchestrationController.class);
 
     private final Orchestrator orchestrator;
-    public WorkflowOrchestrationController( Orchestrator orchestrator) {
+    private final ReplayJobManager replayJobManager;
+    private final AdmissionController admission;
+    private final ExecutionLeaseManager leases;
+    public WorkflowOrchestrationController( Orchestrator orchestrator, ReplayJobManager replayJobManager,
+                                            AdmissionController admission, ExecutionLeaseManager leases) {
         this.orchestrator = orchestrator;
+        this.replayJobManager = replayJobManager;
+        this.admission = admission;
+        this.leases = leases;
     }
 
     @PutMapping("/replay/{workflowId}/{workflowExecutionId}/{workflowNodeExecutionId}")
     public ServicePayload<String> replayWorkflowNodeExecution(@PathVariable String workflowId,
                                                                       @PathVariable String workflowExecutionId,
                                                                       @PathVariable String workflowNodeExecutionId) {
-        orchestrator.replayExecution(workflowId, workflowExecutionId, workflowNodeExecutionId);
+        CompletableFuture<Void> replay =
+                orchestrator.replayExecution(workflowId, workflowExecutionId, workflowNodeExecutionId);
+        if (replay.isCompletedExceptionally()) {
+            log.warn("Did not replay workflow node execution {} of execution {}",
+                    workflowNodeExecutionId, workflowExecutionId);
+            return new ServicePayload.Builder<String>()
+                    .response(new ServiceResponse.Builder<String>()
+                            .status(409)
+                            .message("Not replayed")
+                            .build())
+                    .build();
+        }
         log.info("Replayed a workflow node execution with id {} and execution id {}", workflowNodeExecutionId, workflowExecutionId);
         return new ServicePayload.Builder<String>()
                 .response(new ServiceResponse.Builder<String>()
@@ -34,4 +68,151 @@ public class WorkflowOrchestrationController {
                         .build())
                 .build();
     }
+
+    /**
+     * Starts one execution of the workflow per given initial context, as far
+     * as admission allows. If only some of them are admitted, the executions
+     * of the leading contexts are started and their ids answered with 429, so
+     * the remaining contexts can be submitted again later. Answers 429 without
+     * starting any while too many executions are waiting for admission.
+     */
+    @PostMapping("/start/{workflowId}")
+    public ServicePayload<List<String>> startWorkflowExecutions(@PathVariable String workflowId,
+                                                                @RequestBody List<Map<String, Object>> contexts) {
+        if (admission.isSaturated()) {
+            log.warn("Rejected {} executions of workflow {}: admission queue is full", contexts.size(), workflowId);
+            return startPayload(429, null);
+        }
+        int admitted = admission.admit(workflowId, contexts.size());
+        if (admitted == 0 && !contexts.isEmpty()) {
+            log.warn("Rejected {} executions of workflow {}: no capacity to admit them", contexts.size(), workflowId);
+            return startPayload(429, null);
+        }
+        List<Context> initialContexts = contexts.stream()
+                .limit(admitted)
+                .map(data -> Context.builder().addAll(data == null ? Map.of() : data).build())
+                .toList();
+        List<String> workflowExecutionIds;
+        try {
+            workflowExecutionIds = orchestrator.orchestrateAll(workflowId, initialContexts);
+        } catch (IllegalArgumentException e) {
+            admission.cancel(workflowId, admitted);
+            log.warn("Failed to start executions of workflow {}: {}", workflowId, e.getMessage());
+            return startPayload(404, null);
+        } catch (RuntimeException e) {
+            admission.cancel(workflowId, admitted);
+            throw e;
+        }
+        if (admitted < contexts.size()) {
+            log.warn("Started {} of {} executions of workflow {}, the rest were not admitted",
+                    admitted, contexts.size(), workflowId);
+            return startPayload(429, workflowExecutionIds);
+        }
+        log.info("Started {} executions of workflow {}", workflowExecutionIds.size(), workflowId);
+        return startPayload(200, workflowExecutionIds);
+    }
+
+    private static ServicePayload<List<String>> startPayload(int status, List<String> workflowExecutionIds) {
+        return new ServicePayload.Builder<List<String>>()
+                .response(new ServiceResponse.Builder<List<String>>()
+                        .status(status)
+                        .message(workflowExecutionIds)
+                        .build())
+                .build();
+    }
+
+    /**
+     * Submits a job replaying the failed node executions of the selected
+     * executions of a workflow.
+     */
+    @PostMapping("/replay-jobs")
+    public ServicePayload<ReplayJob> submitReplayJob(@RequestBody ReplayJob request) {
+        ReplayJob job;
+        try {
+            job = replayJobManager.submit(request);
+        } catch (IllegalArgumentException e) {
+            log.warn("Rejected replay job of workflow {}: {}", request.getWorkflowId(), e.getMessage());
+            return replayJobPayload(400, null);
+        }
+        return replayJobPayload(200, job);
+    }
+
+    @GetMapping("/replay-jobs")
+    public ServicePayload<List<ReplayJob>> listReplayJobs(@RequestParam(required = false) String workflowId) {
+        return new ServicePayload.Builder<List<ReplayJob>>()
+                .response(new ServiceResponse.Builder<List<ReplayJob>>()
+                        .status(200)
+                        .message(replayJobManager.list(workflowId))
+                        .build())
+                .build();
+    }
+
+    @GetMapping("/replay-jobs/{jobId}")
+    public ServicePayload<ReplayJob> getReplayJob(@PathVariable String jobId) {
+        return replayJobManager.get(jobId)
+                .map(job -> replayJobPayload(200, job))
+                .orElseGet(() -> replayJobPayload(404, null));
+    }
+
+    @PutMapping("/replay-jobs/{jobId}/pause")
+    public ServicePayload<ReplayJob> pauseReplayJob(@PathVariable String jobId) {
+        return transitionReplayJob(jobId, replayJobManager::pause);
+    }
+
+    @PutMapping("/replay-jobs/{jobId}/resume")
+    public ServicePayload<ReplayJob> resumeReplayJob(@PathVariable String jobId) {
+        return transitionReplayJob(jobId, replayJobManager::resume);
+    }
+
+    @PutMapping("/replay-jobs/{jobId}/cancel")
+    public ServicePayload<ReplayJob> cancelReplayJob(@PathVariable String jobId) {
+        return transitionReplayJob(jobId, replayJobManager::cancel);
+    }
+
+    private ServicePayload<ReplayJob> transitionReplayJob(String jobId,
+                                                          Function<String, Optional<ReplayJob>> transition) {
+        try {
+            return transition.apply(jobId)
+                    .map(job -> replayJobPayload(200, job))
+                    .orElseGet(() -> replayJobPayload(404, null));
+        } catch (IllegalStateException e) {
+            log.warn("Rejected replay job transition: {}", e.getMessage());
+            return replayJobPayload(409, null);
+        }
+    }
+
+    /**
+     * Lists the events given up on after too many requeues, of one execution
+     * or of all.
+     */
+    @GetMapping("/parked-events")
+    public ServicePayload<List<ParkedEvent>> listParkedEvents(
+            @RequestParam(required = false) String workflowExecutionId) {
+        return new ServicePayload.Builder<List<ParkedEvent>>()
+                .response(new ServiceResponse.Builder<List<ParkedEvent>>()
+                        .status(200)
+                        .message(leases.parked(workflowExecutionId))
+                        .build())
+                .build();
+    }
+
+    @PutMapping("/parked-events/{eventId}/replay")
+    public ServicePayload<String> replayParkedEvent(@PathVariable String eventId) {
+        boolean replayed = leases.replayParked(eventId);
+        return new ServicePayload.Builder<String>()
+                .response(new ServiceResponse.Builder<String>()
+                        .status(replayed ? 200 : 404)
+                        .message(replayed ? "Replayed" : "Not found")
+                        .build())
+                .build();
+    }
+
+    private static ServicePayload<ReplayJob> replayJobPayload(int status, ReplayJob job) {
+        return new ServicePayload.Builder<ReplayJob>()
+                .response(new ServiceResponse.Builder<ReplayJob>()
+                        .status(status)
+                        .message(job)
+                        .build())
+                .build();
+    }
 }
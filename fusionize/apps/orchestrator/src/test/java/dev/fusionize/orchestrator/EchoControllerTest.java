@@ -2,18 +2,24 @@ package dev.fusionize.orchestrator;
 
 import dev.fusionize.web.services.FileInboundConnectorService;
 import dev.fusionize.web.services.HttpInboundConnectorService;
+import dev.fusionize.workflow.admission.AdmissionController;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 class EchoControllerTest {
@@ -27,6 +33,9 @@ class EchoControllerTest {
     @Mock
     private FileInboundConnectorService fileInboundConnectorService;
 
+    @Mock
+    private AdmissionController admission;
+
     @InjectMocks
     private EchoController echoController;
 
@@ -74,4 +83,20 @@ class EchoControllerTest {
                 new FileInboundConnectorService.IngestKey(workflowKey, workflowNodeKey), file);
         assertThat(result).isEqualTo("added");
     }
+
+    @Test
+    void shouldRejectTriggers_whenAdmissionIsSaturated() {
+        // setup
+        var body = Map.<String, Object>of("key", "value");
+        when(admission.isSaturated()).thenReturn(true);
+
+        // expectation & validation
+        assertThatThrownBy(() -> echoController.httpInbound(body, "wf-1", "node-1"))
+                .isInstanceOf(ResponseStatusException.class)
+                .satisfies(e -> assertThat(((ResponseStatusException) e).getStatusCode())
+                        .isEqualTo(HttpStatus.TOO_MANY_REQUESTS));
+        assertThatThrownBy(() -> echoController.fileInbound(mock(MultipartFile.class), "wf-1", "node-1"))
+                .isInstanceOf(ResponseStatusException.class);
+        verifyNoInteractions(httpInboundConnectorService, fileInboundConnectorService);
+    }
 }
@@ -1,6 +1,9 @@
 package dev.fusionize.orchestrator.workflow;
 
 import dev.fusionize.workflow.*;
+import dev.fusionize.workflow.events.EventRepoStore;
+import dev.fusionize.workflow.events.OrchestrationEvent;
+import dev.fusionize.workflow.events.orchestration.ActivationRequestEvent;
 import dev.fusionize.workflow.registry.WorkflowExecutionRepoRegistry;
 import dev.fusionize.workflow.registry.WorkflowRepoRegistry;
 import org.junit.jupiter.api.BeforeEach;
@@ -33,6 +36,9 @@ class WorkflowControllerAdditionalTest {
     @Mock
     private WorkflowInteractionLogger interactionLogger;
 
+    @Mock
+    private EventRepoStore eventRepoStore;
+
     private WorkflowController workflowController;
 
     @BeforeEach
@@ -40,7 +46,7 @@ class WorkflowControllerAdditionalTest {
         // setup
         workflowController = new WorkflowController(
                 workflowRepoRegistry, workflowExecutionRepoRegistry,
-                workflowLogger, interactionLogger);
+                workflowLogger, interactionLogger, eventRepoStore);
     }
 
     @Test
@@ -166,6 +172,23 @@ class WorkflowControllerAdditionalTest {
         assertThat(result.getResponse().getMessage()).isEmpty();
     }
 
+    @Test
+    void shouldReturnWorkflowExecutionEvents() {
+        // setup
+        var event = ActivationRequestEvent.builder(this)
+                .origin(OrchestrationEvent.Origin.ORCHESTRATOR)
+                .workflowExecutionId("exec-1")
+                .build();
+        when(eventRepoStore.findByWorkflowExecutionId("exec-1")).thenReturn(List.of(event));
+
+        // expectation
+        var result = workflowController.getWorkflowExecutionEvents("wf-1", "exec-1");
+
+        // validation
+        assertThat(result.getResponse().getStatus()).isEqualTo(200);
+        assertThat(result.getResponse().getMessage()).containsExactly(event);
+    }
+
     @Test
     void shouldReturnWorkflowExecutionInteractions() {
         // setup
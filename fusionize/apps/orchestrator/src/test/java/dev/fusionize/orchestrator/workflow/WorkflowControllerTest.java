@@ -4,6 +4,7 @@ import dev.fusionize.workflow.Workflow;
 import dev.fusionize.workflow.WorkflowExecution;
 import dev.fusionize.workflow.WorkflowInteractionLogger;
 import dev.fusionize.workflow.WorkflowLogger;
+import dev.fusionize.workflow.events.EventRepoStore;
 import dev.fusionize.workflow.registry.WorkflowExecutionRepoRegistry;
 import dev.fusionize.workflow.registry.WorkflowRepoRegistry;
 import org.junit.jupiter.api.Test;
@@ -40,6 +41,9 @@ class WorkflowControllerTest {
     @MockitoBean
     private WorkflowExecutionRepoRegistry workflowExecutionRepoRegistry;
 
+    @MockitoBean
+    private EventRepoStore eventRepoStore;
+
     @InjectMocks
     private WorkflowController workflowController;
 
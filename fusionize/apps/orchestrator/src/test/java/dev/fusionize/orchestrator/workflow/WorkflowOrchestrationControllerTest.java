@@ -1,14 +1,30 @@
 package dev.fusionize.orchestrator.workflow;
 
+import dev.fusionize.workflow.admission.AdmissionController;
+import dev.fusionize.workflow.context.Context;
+import dev.fusionize.workflow.lease.ExecutionLeaseManager;
 import dev.fusionize.workflow.orchestrator.Orchestrator;
+import dev.fusionize.workflow.replay.ReplayJob;
+import dev.fusionize.workflow.replay.ReplayJobManager;
+import dev.fusionize.workflow.replay.ReplayJobState;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 class WorkflowOrchestrationControllerTest {
@@ -16,6 +32,15 @@ class WorkflowOrchestrationControllerTest {
     @Mock
     private Orchestrator orchestrator;
 
+    @Mock
+    private ReplayJobManager replayJobManager;
+
+    @Mock
+    private AdmissionController admission;
+
+    @Mock
+    private ExecutionLeaseManager leases;
+
     @InjectMocks
     private WorkflowOrchestrationController workflowOrchestrationController;
 
@@ -25,6 +50,8 @@ class WorkflowOrchestrationControllerTest {
         var workflowId = "wf-1";
         var workflowExecutionId = "exec-1";
         var workflowNodeExecutionId = "node-exec-1";
+        when(orchestrator.replayExecution(workflowId, workflowExecutionId, workflowNodeExecutionId))
+                .thenReturn(CompletableFuture.completedFuture(null));
 
         // expectation
         workflowOrchestrationController.replayWorkflowNodeExecution(
@@ -40,6 +67,8 @@ class WorkflowOrchestrationControllerTest {
         var workflowId = "wf-1";
         var workflowExecutionId = "exec-1";
         var workflowNodeExecutionId = "node-exec-1";
+        when(orchestrator.replayExecution(workflowId, workflowExecutionId, workflowNodeExecutionId))
+                .thenReturn(CompletableFuture.completedFuture(null));
 
         // expectation
         var result = workflowOrchestrationController.replayWorkflowNodeExecution(
@@ -49,4 +78,189 @@ class WorkflowOrchestrationControllerTest {
         assertThat(result.getResponse().getStatus()).isEqualTo(200);
         assertThat(result.getResponse().getMessage()).isEqualTo("Replayed");
     }
+
+    @Test
+    void shouldReturnConflict_whenExecutionIsLeasedElsewhere() {
+        // setup
+        when(orchestrator.replayExecution("wf-1", "exec-1", "node-exec-1"))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("leased to another node")));
+
+        // expectation
+        var result = workflowOrchestrationController.replayWorkflowNodeExecution("wf-1", "exec-1", "node-exec-1");
+
+        // validation
+        assertThat(result.getResponse().getStatus()).isEqualTo(409);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldStartOneExecutionPerContext() {
+        // setup
+        var contexts = List.<Map<String, Object>>of(Map.of("row", 1), Map.of("row", 2));
+        when(admission.admit("wf-1", 2)).thenReturn(2);
+        when(orchestrator.orchestrateAll(eq("wf-1"), any(List.class))).thenReturn(List.of("exec-1", "exec-2"));
+
+        // expectation
+        var result = workflowOrchestrationController.startWorkflowExecutions("wf-1", contexts);
+
+        // validation
+        ArgumentCaptor<List<Context>> captor = ArgumentCaptor.forClass(List.class);
+        verify(orchestrator).orchestrateAll(eq("wf-1"), captor.capture());
+        assertThat(captor.getValue()).hasSize(2);
+        assertThat(captor.getValue().get(1).var("row", Integer.class)).contains(2);
+        assertThat(result.getResponse().getStatus()).isEqualTo(200);
+        assertThat(result.getResponse().getMessage()).containsExactly("exec-1", "exec-2");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldReturnNotFound_whenWorkflowDoesNotExist() {
+        // setup
+        when(admission.admit("missing", 1)).thenReturn(1);
+        when(orchestrator.orchestrateAll(eq("missing"), any(List.class)))
+                .thenThrow(new IllegalArgumentException("Workflow not found: missing"));
+
+        // expectation
+        var result = workflowOrchestrationController.startWorkflowExecutions("missing", List.of(Map.of()));
+
+        // validation
+        assertThat(result.getResponse().getStatus()).isEqualTo(404);
+        verify(admission).cancel("missing", 1);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldStartOnlyAdmittedExecutions() {
+        // setup
+        var contexts = List.<Map<String, Object>>of(Map.of("row", 1), Map.of("row", 2), Map.of("row", 3));
+        when(admission.admit("wf-1", 3)).thenReturn(2);
+        when(orchestrator.orchestrateAll(eq("wf-1"), any(List.class))).thenReturn(List.of("exec-1", "exec-2"));
+
+        // expectation
+        var result = workflowOrchestrationController.startWorkflowExecutions("wf-1", contexts);
+
+        // validation
+        ArgumentCaptor<List<Context>> captor = ArgumentCaptor.forClass(List.class);
+        verify(orchestrator).orchestrateAll(eq("wf-1"), captor.capture());
+        assertThat(captor.getValue()).extracting(c -> c.var("row", Integer.class).orElseThrow())
+                .containsExactly(1, 2);
+        assertThat(result.getResponse().getStatus()).isEqualTo(429);
+        assertThat(result.getResponse().getMessage()).containsExactly("exec-1", "exec-2");
+    }
+
+    @Test
+    void shouldReturnTooManyRequests_whenNoExecutionIsAdmitted() {
+        // setup
+        when(admission.admit("wf-1", 1)).thenReturn(0);
+
+        // expectation
+        var result = workflowOrchestrationController.startWorkflowExecutions("wf-1", List.of(Map.of()));
+
+        // validation
+        assertThat(result.getResponse().getStatus()).isEqualTo(429);
+        verifyNoInteractions(orchestrator);
+    }
+
+    @Test
+    void shouldReturnTooManyRequests_whenAdmissionIsSaturated() {
+        // setup
+        when(admission.isSaturated()).thenReturn(true);
+
+        // expectation
+        var result = workflowOrchestrationController.startWorkflowExecutions("wf-1", List.of(Map.of()));
+
+        // validation
+        assertThat(result.getResponse().getStatus()).isEqualTo(429);
+        verifyNoInteractions(orchestrator);
+    }
+
+    @Test
+    void shouldSubmitReplayJob() {
+        // setup
+        var request = new ReplayJob();
+        request.setWorkflowId("wf-1");
+        var submitted = new ReplayJob();
+        submitted.setId("job-1");
+        submitted.setState(ReplayJobState.RUNNING);
+        when(replayJobManager.submit(request)).thenReturn(submitted);
+
+        // expectation
+        var result = workflowOrchestrationController.submitReplayJob(request);
+
+        // validation
+        assertThat(result.getResponse().getStatus()).isEqualTo(200);
+        assertThat(result.getResponse().getMessage()).isSameAs(submitted);
+    }
+
+    @Test
+    void shouldReturnBadRequest_whenReplayJobIsInvalid() {
+        // setup
+        var request = new ReplayJob();
+        when(replayJobManager.submit(request)).thenThrow(new IllegalArgumentException("A workflowId is required"));
+
+        // expectation
+        var result = workflowOrchestrationController.submitReplayJob(request);
+
+        // validation
+        assertThat(result.getResponse().getStatus()).isEqualTo(400);
+    }
+
+    @Test
+    void shouldReturnNotFound_whenReplayJobDoesNotExist() {
+        // setup
+        when(replayJobManager.get("missing")).thenReturn(Optional.empty());
+        when(replayJobManager.pause("missing")).thenReturn(Optional.empty());
+
+        // expectation
+        var got = workflowOrchestrationController.getReplayJob("missing");
+        var paused = workflowOrchestrationController.pauseReplayJob("missing");
+
+        // validation
+        assertThat(got.getResponse().getStatus()).isEqualTo(404);
+        assertThat(paused.getResponse().getStatus()).isEqualTo(404);
+    }
+
+    @Test
+    void shouldCancelReplayJob() {
+        // setup
+        var cancelled = new ReplayJob();
+        cancelled.setId("job-1");
+        cancelled.setState(ReplayJobState.CANCELLED);
+        when(replayJobManager.cancel("job-1")).thenReturn(Optional.of(cancelled));
+
+        // expectation
+        var result = workflowOrchestrationController.cancelReplayJob("job-1");
+
+        // validation
+        assertThat(result.getResponse().getStatus()).isEqualTo(200);
+        assertThat(result.getResponse().getMessage().getState()).isEqualTo(ReplayJobState.CANCELLED);
+    }
+
+    @Test
+    void shouldReturnConflict_whenReplayJobCannotTransition() {
+        // setup
+        when(replayJobManager.resume("job-1"))
+                .thenThrow(new IllegalStateException("Replay job job-1 is COMPLETED"));
+
+        // expectation
+        var result = workflowOrchestrationController.resumeReplayJob("job-1");
+
+        // validation
+        assertThat(result.getResponse().getStatus()).isEqualTo(409);
+    }
+
+    @Test
+    void shouldReplayParkedEvent() {
+        // setup
+        when(leases.replayParked("event-1")).thenReturn(true);
+        when(leases.replayParked("missing")).thenReturn(false);
+
+        // expectation
+        var replayed = workflowOrchestrationController.replayParkedEvent("event-1");
+        var missing = workflowOrchestrationController.replayParkedEvent("missing");
+
+        // validation
+        assertThat(replayed.getResponse().getStatus()).isEqualTo(200);
+        assertThat(missing.getResponse().getStatus()).isEqualTo(404);
+    }
 }
@@ -48,10 +48,9 @@ public class ClassifierService {
     }
 
     public Response classify(ClassifyPackage pkg) throws AgentConfigNotFoundException, ChatModelException, JsonProcessingException {
-        if (!pkg.context.contains(pkg.inputVar) || pkg.context.getData().get(pkg.inputVar) == null) {
-            throw new IllegalArgumentException("Input var not found: " + pkg.inputVar);
-        }
-        String dataString = pkg.context.getData().get(pkg.inputVar).toString();
+        String dataString = pkg.context.var(pkg.inputVar, Object.class)
+                .orElseThrow(() -> new IllegalArgumentException("Input var not found: " + pkg.inputVar))
+                .toString();
         ChatClient chatClient = this.agentConfigManager.getChatClient(pkg.agent);
 
         logInfo(pkg.logger, "Classifying data into categories: {}", pkg.categories);
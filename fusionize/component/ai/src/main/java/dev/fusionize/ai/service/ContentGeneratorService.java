@@ -37,10 +37,9 @@ public class ContentGeneratorService {
     }
 
     public Response generate(GeneratePackage pkg) throws AgentConfigNotFoundException, ChatModelException {
-        if (!pkg.context.contains(pkg.inputVar) || pkg.context.getData().get(pkg.inputVar) == null) {
-            throw new IllegalArgumentException("Input var not found: " + pkg.inputVar);
-        }
-        String dataString = pkg.context.getData().get(pkg.inputVar).toString();
+        String dataString = pkg.context.var(pkg.inputVar, Object.class)
+                .orElseThrow(() -> new IllegalArgumentException("Input var not found: " + pkg.inputVar))
+                .toString();
         ChatClient chatClient = this.agentConfigManager.getChatClient(pkg.agent);
 
         logInfo(pkg.logger, "Generating content using template");
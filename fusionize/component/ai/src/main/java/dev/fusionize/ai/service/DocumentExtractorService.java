@@ -78,7 +78,7 @@ public class DocumentExtractorService {
             return resourceContent;
         }
 
-        return pkg.context().getData().get(pkg.inputVar());
+        return pkg.context().var(pkg.inputVar(), Object.class).orElse(null);
     }
 
     private Object tryReadFromResource(ExtractionPackage pkg) {
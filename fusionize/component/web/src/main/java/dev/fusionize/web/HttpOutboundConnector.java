@@ -59,7 +59,7 @@ public class HttpOutboundConnector implements ComponentRuntime {
     public void run(Context context, ComponentUpdateEmitter emitter) {
         try {
             String resolvedUrl = resolveUrl(context);
-            Object body = inputVar != null ? context.getData().get(inputVar) : null;
+            Object body = inputVar != null ? context.var(inputVar, Object.class).orElse(null) : null;
 
             emitter.logger().info("Executing {} {}", method, resolvedUrl);
 
@@ -57,7 +57,7 @@ public class WebhookEmitter implements ComponentRuntime {
     @Override
     public void run(Context context, ComponentUpdateEmitter emitter) {
         try {
-            Object payload = context.getData().get(inputVar);
+            Object payload = context.var(inputVar, Object.class).orElse(null);
             String resolvedUrl = resolveUrl(url, context);
 
             emitter.logger().info("Sending webhook to {}", resolvedUrl);
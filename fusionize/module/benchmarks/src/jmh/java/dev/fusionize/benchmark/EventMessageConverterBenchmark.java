@@ -0,0 +1,101 @@
+package dev.fusionize.benchmark;
+
+import dev.fusionize.worker.EventMessageConverter;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encodes and decodes worker events with each AMQP message format.
+ * <p>
+ * Encoding also counts the body bytes it produces, reported as
+ * {@code bodyBytes} in the same unit as the score, so dividing one by the
+ * other gives the body size and the run shows what a format saves on the wire
+ * next to what it costs.
+ * <pre>
+ * ./gradlew :fusionize:module:benchmarks:jmh -Pjmh.includes=EventMessageConverterBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class EventMessageConverterBenchmark {
+
+    public enum Codec {
+        JSON(EventMessageConverter.Format.JSON, 0),
+        SMILE(EventMessageConverter.Format.SMILE, 0),
+        SMILE_GZIP(EventMessageConverter.Format.SMILE, 1024);
+
+        private final EventMessageConverter.Format format;
+        private final int compressionThreshold;
+
+        Codec(EventMessageConverter.Format format, int compressionThreshold) {
+            this.format = format;
+            this.compressionThreshold = compressionThreshold;
+        }
+    }
+
+    @Param
+    Codec codec;
+
+    @Param({"activation", "invocation"})
+    String event;
+
+    @Param({"10", "500"})
+    int rows;
+
+    private EventMessageConverter converter;
+    private Object payload;
+    private Message message;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        converter = new EventMessageConverter(codec.format, codec.compressionThreshold);
+        payload = "activation".equals(event) ? Payloads.activation(rows) : Payloads.invocation(rows);
+        message = converter.toMessage(payload, new MessageProperties());
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Body {
+        public long bodyBytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            bodyBytes = 0;
+        }
+    }
+
+    @Benchmark
+    public Message encode(Body body) {
+        Message encoded = converter.toMessage(payload, new MessageProperties());
+        body.bodyBytes += encoded.getBody().length;
+        return encoded;
+    }
+
+    @Benchmark
+    public Object decode() {
+        // the converter clears the content encoding of the message it reads
+        return converter.fromMessage(new Message(message.getBody(), copy(message.getMessageProperties())));
+    }
+
+    private static MessageProperties copy(MessageProperties properties) {
+        MessageProperties copy = new MessageProperties();
+        copy.setContentType(properties.getContentType());
+        copy.setContentEncoding(properties.getContentEncoding());
+        copy.setContentLength(properties.getContentLength());
+        properties.getHeaders().forEach(copy::setHeader);
+        return copy;
+    }
+}
@@ -0,0 +1,64 @@
+package dev.fusionize.benchmark;
+
+import dev.fusionize.workflow.context.Context;
+import dev.fusionize.workflow.events.OrchestrationEvent;
+import dev.fusionize.workflow.events.orchestration.ActivationRequestEvent;
+import dev.fusionize.workflow.events.orchestration.InvocationResponseEvent;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Events shaped like the ones workers exchange: a request carrying the
+ * execution's context to a component, and the component's response.
+ */
+final class Payloads {
+    private static final Payloads SOURCE = new Payloads();
+
+    private Payloads() {
+    }
+
+    static ActivationRequestEvent activation(int rows) {
+        return ActivationRequestEvent.builder(SOURCE)
+                .origin(OrchestrationEvent.Origin.ORCHESTRATOR)
+                .workflowId("WF1760785262000A1B2C3D4E5F6G")
+                .workflowExecutionId("WE1760785262000A1B2C3D4E5F6H")
+                .workflowNodeId("enrich-customers")
+                .workflowNodeExecutionId("NE1760785262000A1B2C3D4E5F6J")
+                .component("http.request")
+                .context(context(rows))
+                .build();
+    }
+
+    static InvocationResponseEvent invocation(int rows) {
+        return InvocationResponseEvent.builder(SOURCE)
+                .origin(OrchestrationEvent.Origin.RUNTIME_ENGINE)
+                .workflowId("WF1760785262000A1B2C3D4E5F6G")
+                .workflowExecutionId("WE1760785262000A1B2C3D4E5F6H")
+                .workflowNodeId("enrich-customers")
+                .workflowNodeExecutionId("NE1760785262000A1B2C3D4E5F6J")
+                .component("http.request")
+                .context(context(rows))
+                .build();
+    }
+
+    private static Context context(int rows) {
+        List<Map<String, Object>> customers = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            Map<String, Object> customer = new LinkedHashMap<>();
+            customer.put("id", i);
+            customer.put("name", "customer-" + i);
+            customer.put("email", "customer-" + i + "@example.com");
+            customer.put("active", i % 2 == 0);
+            customer.put("balance", i * 12.5);
+            customers.add(customer);
+        }
+        return Context.builder()
+                .add("customers", customers)
+                .add("status", "pending")
+                .add("page", 1)
+                .build();
+    }
+}
@@ -0,0 +1,75 @@
+package dev.fusionize.benchmark;
+
+import dev.fusionize.common.utility.KeyUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.io.StringWriter;
+import java.util.Date;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generates IDs with {@link KeyUtil#getTimestampId(String)} and with the
+ * implementation it replaced, once from a single thread and once from
+ * several threads sharing the sequence.
+ * <pre>
+ * ./gradlew :fusionize:module:benchmarks:jmh -Pjmh.includes=TimestampIdBenchmark -Pjmh.profilers=gc
+ * </pre>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TimestampIdBenchmark {
+
+    @Benchmark
+    public String timestampId() {
+        return KeyUtil.getTimestampId("NE");
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String timestampIdContended() {
+        return KeyUtil.getTimestampId("NE");
+    }
+
+    @Benchmark
+    public String previousTimestampId() {
+        return PreviousTimestampId.next("NE");
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String previousTimestampIdContended() {
+        return PreviousTimestampId.next("NE");
+    }
+
+    /**
+     * KeyUtil.getTimestampId before IDs sorted in creation order: the time
+     * and 8 random alphanumeric characters, each drawn into its own String.
+     */
+    static final class PreviousTimestampId {
+
+        private PreviousTimestampId() {
+        }
+
+        static String next(String prefix) {
+            Date d = new Date();
+            return prefix + d.getTime() + randomAlphaNumericKey(8);
+        }
+
+        private static String randomAlphaNumericKey(int length) {
+            Random random = new Random();
+            StringWriter keyStringWriter = new StringWriter();
+            for (int i = 0; i < length; i++) {
+                int seed = random.nextInt(26);
+                keyStringWriter.append(seed % 36 < 10
+                        ? Character.toString((char) (48 + seed % 10))
+                        : Character.toString((char) (65 + seed % 26)));
+            }
+            return keyStringWriter.toString();
+        }
+    }
+}
@@ -3,9 +3,8 @@ package dev.fusionize.common.utility;
 import org.apache.commons.codec.digest.DigestUtils;
 
 import java.io.StringWriter;
-import java.util.Date;
-import java.util.Random;
 import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
 
 
 public class KeyUtil {
@@ -38,17 +37,19 @@ public class KeyUtil {
     }
 
     private static String getKey(int length, boolean numeric, boolean alphabetic) {
-        Random random = new Random();
-        StringWriter keyStringWriter=new StringWriter();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
         if(length<1) length=5;
+        char[] key = new char[length];
         for(int i=0;i<length;i++){
             int seed = random.nextInt(26);
-            keyStringWriter.append(
-                    numeric && alphabetic ? getAlphaNumericKey(seed) :
-                            alphabetic ? getAlphabeticalKey(seed) : getNumericKey(seed)
-            );
+            key[i] = numeric && alphabetic ? getAlphaNumericChar(seed) :
+                    alphabetic ? (char) (65 + seed) : (char) (48 + seed % 10);
         }
-        return keyStringWriter.toString();
+        return new String(key);
+    }
+
+    private static char getAlphaNumericChar(int seed) {
+        return seed % 36 < 10 ? (char) (48 + seed % 10) : (char) (65 + seed % 26);
     }
 
     public static String getHash(String sequence) {
@@ -78,9 +79,11 @@ public class KeyUtil {
         return uuid.replaceAll("-","");
     }
 
+    /**
+     * An ID sorting in creation order, see {@link SortableId}.
+     */
     public static String getTimestampId(String prefix) {
-        Date d = new Date();
-        return prefix + d.getTime() + getRandomAlphaNumericKey(8);
+        return SortableId.next(prefix);
     }
 }
 
@@ -0,0 +1,83 @@
+package dev.fusionize.common.utility;
+
+import java.security.SecureRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates IDs that sort in creation order.
+ * <p>
+ * An ID is the prefix, the creation time in epoch milliseconds as 13 decimal
+ * digits and 12 base 36 digits holding the node and a sequence. The time and
+ * sequence share one atomic counter, so IDs of one process are strictly
+ * increasing even within a millisecond; a sequence overflowing a millisecond
+ * borrows from the next one. IDs of different nodes created in the same
+ * millisecond sort by node.
+ */
+public final class SortableId {
+    static final int SEQUENCE_BITS = 22;
+    static final int NODE_BITS = 40;
+    static final long MAX_NODE = (1L << NODE_BITS) - 1;
+    static final int TIME_DIGITS = 13;
+    static final int SUFFIX_DIGITS = 12;
+    private static final char[] DIGITS = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ".toCharArray();
+
+    // epoch millis << SEQUENCE_BITS | sequence
+    private static final AtomicLong last = new AtomicLong();
+    private static final SecureRandom random = new SecureRandom();
+    private static volatile long node = randomNode();
+
+    private SortableId() {
+    }
+
+    /**
+     * Sets the node this process generates IDs as. Without one a random node
+     * is picked at startup.
+     */
+    public static void setNode(long node) {
+        if (node < 0 || node > MAX_NODE) {
+            throw new IllegalArgumentException("Node must be between 0 and " + MAX_NODE);
+        }
+        SortableId.node = node;
+    }
+
+    public static long getNode() {
+        return node;
+    }
+
+    /**
+     * A random node in the range {@link #setNode(long)} accepts.
+     */
+    public static long randomNode() {
+        return random.nextLong() & MAX_NODE;
+    }
+
+    public static String next(String prefix) {
+        long now = System.currentTimeMillis() << SEQUENCE_BITS;
+        long state;
+        long next;
+        do {
+            state = last.get();
+            next = Math.max(state + 1, now);
+        } while (!last.compareAndSet(state, next));
+        return format(prefix, next >>> SEQUENCE_BITS, node, next & ((1L << SEQUENCE_BITS) - 1));
+    }
+
+    static String format(String prefix, long millis, long node, long sequence) {
+        int offset = prefix == null ? 0 : prefix.length();
+        char[] id = new char[offset + TIME_DIGITS + SUFFIX_DIGITS];
+        if (prefix != null) {
+            prefix.getChars(0, offset, id, 0);
+        }
+        int end = offset + TIME_DIGITS;
+        for (int i = end - 1; i >= offset; i--) {
+            id[i] = DIGITS[(int) (millis % 10)];
+            millis /= 10;
+        }
+        long suffix = node << SEQUENCE_BITS | sequence;
+        for (int i = id.length - 1; i >= end; i--) {
+            id[i] = DIGITS[(int) (suffix % 36)];
+            suffix /= 36;
+        }
+        return new String(id);
+    }
+}
@@ -0,0 +1,73 @@
+package dev.fusionize.common.utility;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SortableIdTest {
+
+    @Test
+    void shouldIncreaseWithinMillisecond() {
+        // setup
+        List<String> ids = new ArrayList<>();
+
+        // expectation
+        for (int i = 0; i < 10_000; i++) {
+            ids.add(SortableId.next("TEST"));
+        }
+
+        // validation
+        assertThat(ids).isSorted().doesNotHaveDuplicates();
+        assertThat(ids).allSatisfy(id -> assertThat(id).startsWith("TEST")
+                .hasSize(4 + SortableId.TIME_DIGITS + SortableId.SUFFIX_DIGITS));
+    }
+
+    @Test
+    void shouldStayUniqueAcrossThreads() throws Exception {
+        // setup
+        Set<String> ids = ConcurrentHashMap.newKeySet();
+        CountDownLatch done = new CountDownLatch(8);
+
+        // expectation
+        for (int t = 0; t < 8; t++) {
+            Thread.ofPlatform().start(() -> {
+                for (int i = 0; i < 5_000; i++) {
+                    ids.add(SortableId.next("EVNT"));
+                }
+                done.countDown();
+            });
+        }
+        done.await();
+
+        // validation
+        assertThat(ids).hasSize(40_000);
+    }
+
+    @Test
+    void shouldFormatTimeNodeAndSequence() {
+        // expectation
+        String id = SortableId.format("WEXE", 1_700_000_000_123L, 1, 35);
+
+        // validation
+        assertThat(id).isEqualTo("WEXE1700000000123" + "00000002HWDF");
+        assertThat(SortableId.format("WEXE", 1_700_000_000_123L, 1, 36))
+                .isGreaterThan(id);
+        assertThat(SortableId.format("WEXE", 1_700_000_000_124L, 0, 0))
+                .isGreaterThan(SortableId.format("WEXE", 1_700_000_000_123L, SortableId.MAX_NODE, 0));
+    }
+
+    @Test
+    void shouldRejectNodeOutOfRange() {
+        // expectation & validation
+        assertThatThrownBy(() -> SortableId.setNode(-1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> SortableId.setNode(SortableId.MAX_NODE + 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -5,15 +5,35 @@ import org.springframework.context.annotation.Configuration;
 
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Configuration
 public class AsyncComponentExecutorConfig {
 
-    @Bean(name = "componentExecutor")
-    public ExecutorService componentExecutor() {
-        // Creates a thread pool that creates new threads as needed, but will reuse
-        // previously constructed threads when they are available.
-        // This is suitable for tasks that might block.
-        return Executors.newCachedThreadPool();
+    @Bean(name = "componentExecutor", destroyMethod = "shutdown")
+    public ExecutorService componentExecutor(ComponentExecutorProperties properties) {
+        if (properties.getMode() == ComponentExecutorProperties.Mode.VIRTUAL) {
+            // blocking components park their virtual thread instead of holding a platform thread
+            return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("fusionize-component-", 0).factory());
+        }
+        // bounded platform threads; the queue is bounded per component domain by the bulkheads
+        int threads = Math.max(1, properties.getMaxThreads());
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), daemonThreads("fusionize-component-"));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + count.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
     }
 }
@@ -0,0 +1,140 @@
+package dev.fusionize.workflow.component;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Settings of the executor running component activations and invocations.
+ * <p>
+ * Every component domain runs in its own bulkhead limiting how many of its
+ * tasks run and wait at once, so one slow or flooded component cannot starve
+ * the others. Requests beyond a bulkhead's limits are answered with a busy
+ * failure that the orchestrator retries after {@link #getBusyRetryDelay()}.
+ */
+@Component
+@ConfigurationProperties(prefix = "fusionize.worker.component-executor")
+public class ComponentExecutorProperties {
+    public enum Mode {
+        /**
+         * A bounded pool of platform threads.
+         */
+        PLATFORM,
+        /**
+         * A virtual thread per task, for components blocking on I/O.
+         */
+        VIRTUAL
+    }
+
+    private Mode mode = Mode.PLATFORM;
+    private int maxThreads = 256;
+    private Bulkhead bulkhead = new Bulkhead();
+    private Map<String, Bulkhead> bulkheads = new HashMap<>();
+    private Duration busyRetryDelay = Duration.ofSeconds(2);
+    private int busyRetryAttempts = 5;
+    private Duration busyRetryWindow = Duration.ofMinutes(10);
+
+    public static class Bulkhead {
+        private int maxConcurrent = 64;
+        private int maxQueued = 1_024;
+
+        public Bulkhead() {
+        }
+
+        public Bulkhead(int maxConcurrent, int maxQueued) {
+            this.maxConcurrent = maxConcurrent;
+            this.maxQueued = maxQueued;
+        }
+
+        public int getMaxConcurrent() {
+            return maxConcurrent;
+        }
+
+        public void setMaxConcurrent(int maxConcurrent) {
+            this.maxConcurrent = maxConcurrent;
+        }
+
+        public int getMaxQueued() {
+            return maxQueued;
+        }
+
+        public void setMaxQueued(int maxQueued) {
+            this.maxQueued = maxQueued;
+        }
+    }
+
+    /**
+     * The bulkhead limits of a component domain, falling back to the default
+     * bulkhead.
+     */
+    public Bulkhead bulkheadFor(String domain) {
+        return bulkheads.getOrDefault(domain, bulkhead);
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public void setMode(Mode mode) {
+        this.mode = mode;
+    }
+
+    /**
+     * Size of the platform thread pool shared by all bulkheads.
+     */
+    public int getMaxThreads() {
+        return maxThreads;
+    }
+
+    public void setMaxThreads(int maxThreads) {
+        this.maxThreads = maxThreads;
+    }
+
+    public Bulkhead getBulkhead() {
+        return bulkhead;
+    }
+
+    public void setBulkhead(Bulkhead bulkhead) {
+        this.bulkhead = bulkhead;
+    }
+
+    public Map<String, Bulkhead> getBulkheads() {
+        return bulkheads;
+    }
+
+    public void setBulkheads(Map<String, Bulkhead> bulkheads) {
+        this.bulkheads = bulkheads;
+    }
+
+    public Duration getBusyRetryDelay() {
+        return busyRetryDelay;
+    }
+
+    public void setBusyRetryDelay(Duration busyRetryDelay) {
+        this.busyRetryDelay = busyRetryDelay;
+    }
+
+    public int getBusyRetryAttempts() {
+        return busyRetryAttempts;
+    }
+
+    public void setBusyRetryAttempts(int busyRetryAttempts) {
+        this.busyRetryAttempts = busyRetryAttempts;
+    }
+
+    /**
+     * How long the busy retries of a node execution are counted after its
+     * last busy response. A node execution whose retry is never answered is
+     * forgotten after it.
+     */
+    public Duration getBusyRetryWindow() {
+        return busyRetryWindow;
+    }
+
+    public void setBusyRetryWindow(Duration busyRetryWindow) {
+        this.busyRetryWindow = busyRetryWindow;
+    }
+}
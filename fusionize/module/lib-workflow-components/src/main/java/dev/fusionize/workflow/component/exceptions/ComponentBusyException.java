@@ -0,0 +1,24 @@
+package dev.fusionize.workflow.component.exceptions;
+import dev.fusionize.common.exception.ApplicationException;
+
+/**
+ * A component could not be run because its bulkhead is full. The request
+ * can be retried later.
+ */
+public class ComponentBusyException extends ApplicationException {
+    public ComponentBusyException() {
+        super();
+    }
+
+    public ComponentBusyException(String message) {
+        super(message);
+    }
+
+    public ComponentBusyException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public ComponentBusyException(Throwable cause) {
+        super(cause);
+    }
+}
@@ -14,7 +14,7 @@ public class DelayComponentFactory implements LocalComponentRuntimeFactory<Delay
                 .withName(getName())
                 .withDescription("""
 **Description**:
-The `DelayComponent` pauses the workflow execution for a specified duration. It uses a shared `ScheduledExecutorService` to handle the wait time without blocking a thread. Once the delay executes, it updates the context and proceeds.
+The `DelayComponent` pauses the workflow execution for a specified duration. The wait is kept in a durable timer, so it neither blocks a thread nor holds the workflow in memory, and it survives restarts. Once the delay has passed, the workflow proceeds with the updated context.
 
 **Configuration**:
 - `delay` (Integer): The duration to wait in milliseconds. Defaults to 5000 (5 seconds) if not specified.
@@ -111,7 +111,7 @@ public class ForkComponent implements LocalComponentRuntime {
     public void run(Context context, ComponentUpdateEmitter emitter) {
 
         Map<String, Boolean> optionNodes = new HashMap<>();
-        Map<String, Object> evalContext = new HashMap<>(context.getData());
+        Map<String, Object> evalContext = context.vars();
 
         boolean exclusiveMatchFound = false;
 
@@ -4,6 +4,8 @@ import dev.fusionize.common.utility.TextUtil;
 import dev.fusionize.workflow.WorkflowExecution;
 import dev.fusionize.workflow.WorkflowNodeExecution;
 import dev.fusionize.workflow.component.local.LocalComponentRuntime;
+import dev.fusionize.workflow.component.local.join.JoinState;
+import dev.fusionize.workflow.component.local.join.JoinStateStore;
 import dev.fusionize.workflow.component.runtime.ComponentRuntimeConfig;
 import dev.fusionize.workflow.component.runtime.interfaces.ComponentUpdateEmitter;
 import dev.fusionize.workflow.context.Context;
@@ -27,11 +29,15 @@ import java.util.Map;
  * <li>{@code mergeStrategy}: Strategy to merge data from incoming contexts
  * (PICK_FIRST or PICK_LAST).</li>
  * </ul>
+ * With a {@link JoinStateStore} every arrival is recorded incrementally and
+ * the arrival that meets the condition merges the branches, exactly once.
+ * Without one, every arrival re-evaluates all branches of the join.
  */
 public class JoinComponent implements LocalComponentRuntime {
     public static final String NAME = "join";
 
     private final WorkflowExecutionRegistry workflowExecutionRegistry;
+    private final JoinStateStore joinStateStore;
     public static final String CONF_MERGE_STRATEGY = "mergeStrategy";
     public static final String CONF_WAIT_MODE = "waitMode";
     public static final String CONF_THRESHOLD_CT = "thresholdCount";
@@ -44,7 +50,12 @@ public class JoinComponent implements LocalComponentRuntime {
     private final List<String> awaits = new ArrayList<>();
 
     public JoinComponent(WorkflowExecutionRegistry workflowExecutionRegistry) {
+        this(workflowExecutionRegistry, null);
+    }
+
+    public JoinComponent(WorkflowExecutionRegistry workflowExecutionRegistry, JoinStateStore joinStateStore) {
         this.workflowExecutionRegistry = workflowExecutionRegistry;
+        this.joinStateStore = joinStateStore;
     }
 
     /**
@@ -116,6 +127,11 @@ public class JoinComponent implements LocalComponentRuntime {
             return;
         }
 
+        if (joinStateStore != null) {
+            runIncremental(context, emitter, executionId, nodeId, currentExecutionNodeId);
+            return;
+        }
+
         WorkflowExecution workflowExecution = workflowExecutionRegistry.getWorkflowExecution(executionId);
         if (workflowExecution == null) {
             emitter.failure(new Exception("JoinComponent requires WorkflowNodeExecution to exist"));
@@ -168,6 +184,61 @@ public class JoinComponent implements LocalComponentRuntime {
         }
     }
 
+    /**
+     * Records this arrival with the awaited nodes in its own history, and
+     * merges the arrived branches if this arrival meets the condition and
+     * wins the merge claim. Earlier arrivals' contexts are only loaded then.
+     * A redelivered arrival that claimed the merge before merges again.
+     */
+    private void runIncremental(Context context, ComponentUpdateEmitter emitter, String executionId,
+                                String nodeId, String currentExecutionNodeId) {
+        List<String> found = new ArrayList<>();
+        for (WorkflowGraphNodeRecursive node : context.currentNodes()) {
+            collectFoundAwaitedNodes(node, awaits, found, nodeId);
+        }
+        JoinState state = joinStateStore.arrive(executionId, nodeId, currentExecutionNodeId,
+                found.stream().distinct().toList());
+
+        if (state.getMergedBy() != null && !state.getMergedBy().equals(currentExecutionNodeId)) {
+            emitter.logger().info("Condition met by earlier execution {}. Current {} skipping.", state.getMergedBy(),
+                    currentExecutionNodeId);
+            return;
+        }
+        if (!isConditionMet(state.getSatisfied())) {
+            emitter.logger().info("Wait condition not yet met. Awaited: {}, Found: {}, Mode: {}", awaits,
+                    state.getSatisfied(), waitMode);
+            return;
+        }
+        if (!joinStateStore.claimMerge(state, currentExecutionNodeId)) {
+            emitter.logger().info("Condition met by a concurrent execution. Current {} skipping.",
+                    currentExecutionNodeId);
+            return;
+        }
+
+        List<Context> contextsToMerge = new ArrayList<>();
+        WorkflowExecution workflowExecution = null;
+        // merged in node execution order, as when all branches are re-evaluated
+        for (String arrival : state.getArrivals().stream().sorted().toList()) {
+            if (arrival.equals(currentExecutionNodeId)) {
+                contextsToMerge.add(context);
+                continue;
+            }
+            if (workflowExecution == null) {
+                workflowExecution = workflowExecutionRegistry.getWorkflowExecution(executionId);
+                if (workflowExecution == null) {
+                    joinStateStore.releaseMerge(state, currentExecutionNodeId);
+                    emitter.failure(new Exception("JoinComponent requires WorkflowNodeExecution to exist"));
+                    return;
+                }
+            }
+            WorkflowNodeExecution exec = workflowExecution.findNodeByWorkflowNodeExecutionId(arrival);
+            if (exec != null && exec.getStageContext() != null) {
+                contextsToMerge.add(exec.getStageContext());
+            }
+        }
+        emitter.success(mergeContexts(contextsToMerge));
+    }
+
     private boolean isConditionMet(List<String> satisfiedAwaits) {
         long uniqueFound = satisfiedAwaits.stream().distinct().count();
 
@@ -189,7 +260,14 @@ public class JoinComponent implements LocalComponentRuntime {
         Context mergedContext = new Context();
 
         for (Context ctx : contexts) {
-            mergeRecursive(mergedContext.getData(), ctx.getData());
+            mergeRecursive(mergedContext.getData(), ctx.dataView());
+            // offloaded values are taken over by reference, like a value overwritten inline
+            if (ctx.offloadedView() != null) {
+                ctx.offloadedView().forEach((key, reference) -> {
+                    mergedContext.getData().remove(key);
+                    mergedContext.getOffloaded().put(key, reference);
+                });
+            }
         }
 
         // Merge Decisions and GraphNodes (Deduplicate by ID)
@@ -197,13 +275,13 @@ public class JoinComponent implements LocalComponentRuntime {
         Map<String, dev.fusionize.workflow.context.WorkflowGraphNode> graphNodesMap = new java.util.HashMap<>();
 
         for (Context ctx : contexts) {
-            if (ctx.getDecisions() != null) {
-                for (dev.fusionize.workflow.context.WorkflowDecision d : ctx.getDecisions()) {
+            if (ctx.decisionsView() != null) {
+                for (dev.fusionize.workflow.context.WorkflowDecision d : ctx.decisionsView()) {
                     decisionsMap.putIfAbsent(d.getDecisionNode(), d);
                 }
             }
-            if (ctx.getGraphNodes() != null) {
-                for (dev.fusionize.workflow.context.WorkflowGraphNode n : ctx.getGraphNodes()) {
+            if (ctx.graphNodesView() != null) {
+                for (dev.fusionize.workflow.context.WorkflowGraphNode n : ctx.graphNodesView()) {
                     graphNodesMap.compute(n.getNode(), (key, existing) -> {
                         if (existing == null) {
                             return n;
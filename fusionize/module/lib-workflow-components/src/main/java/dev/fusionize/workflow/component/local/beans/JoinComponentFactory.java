@@ -2,15 +2,25 @@ package dev.fusionize.workflow.component.local.beans;
 
 import dev.fusionize.workflow.component.WorkflowComponent;
 import dev.fusionize.workflow.component.local.LocalComponentRuntimeFactory;
+import dev.fusionize.workflow.component.local.join.JoinStateStore;
 import dev.fusionize.workflow.registry.WorkflowExecutionRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 @Component
 public class JoinComponentFactory implements LocalComponentRuntimeFactory<JoinComponent> {
     private final WorkflowExecutionRegistry workflowExecutionRegistry;
+    private final JoinStateStore joinStateStore;
 
     public JoinComponentFactory(WorkflowExecutionRegistry workflowExecutionRegistry) {
+        this(workflowExecutionRegistry, null);
+    }
+
+    @Autowired
+    public JoinComponentFactory(WorkflowExecutionRegistry workflowExecutionRegistry,
+                                JoinStateStore joinStateStore) {
         this.workflowExecutionRegistry = workflowExecutionRegistry;
+        this.joinStateStore = joinStateStore;
     }
 
 
@@ -57,6 +67,6 @@ mergeStrategy: "PICK_LAST"
 
     @Override
     public JoinComponent create() {
-        return new JoinComponent(this.workflowExecutionRegistry);
+        return new JoinComponent(this.workflowExecutionRegistry, this.joinStateStore);
     }
 }
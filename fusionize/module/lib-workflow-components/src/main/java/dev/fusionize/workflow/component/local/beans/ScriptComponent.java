@@ -59,11 +59,11 @@ public class ScriptComponent implements LocalComponentRuntime {
     public void run(Context context, ComponentUpdateEmitter emitter) {
         try {
             Context cloneContext = context.renew();
-            ConcurrentHashMap<String, Object> ctxData = new ConcurrentHashMap<>(cloneContext.getData());
+            ConcurrentHashMap<String, Object> ctxData = new ConcurrentHashMap<>(cloneContext.vars());
 
             Object nativeCtx = new ScriptHelper().createNativeContextObject(ctxData, engine);
 
-            Map<String, Object> evalContext = new HashMap<>(cloneContext.getData());
+            Map<String, Object> evalContext = new HashMap<>(ctxData);
             evalContext.put("context", nativeCtx);
             evalContext.put("logger", new LoggerWrapper(emitter.logger()));
 
@@ -86,7 +86,10 @@ public class ScriptComponent implements LocalComponentRuntime {
 
             emitter.logger().info("Script ran successfully {}", ctxData);
 
+            // the script saw every value loaded, so all of them go back inline and
+            // the orchestrator offloads the large ones again
             cloneContext.setData(ctxData);
+            cloneContext.setOffloaded(new ConcurrentHashMap<>());
             emitter.success(cloneContext);
 
         } catch (Exception e) {
@@ -0,0 +1,111 @@
+package dev.fusionize.workflow.component.local.join;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Bookkeeping of one join node in one workflow execution: the branches that
+ * arrived so far, the awaited nodes they satisfied, and which arrival merged
+ * them once the wait condition was met.
+ * <p>
+ * A join cannot tell when its last branch arrived, so states are kept until
+ * they expire a while after the join was first reached.
+ */
+@Document(collection = JoinState.COLLECTION)
+public class JoinState {
+    public static final String COLLECTION = "workflow-join-state";
+
+    @Id
+    private String id;
+    private String workflowExecutionId;
+    private String workflowNodeId;
+    private List<String> arrivals = new ArrayList<>();
+    private List<String> satisfied = new ArrayList<>();
+    private int arrivalCount;
+    private String mergedBy;
+    @Indexed(expireAfter = "30d")
+    private Date createdDate;
+
+    public static String idOf(String workflowExecutionId, String workflowNodeId) {
+        return workflowExecutionId + ":" + workflowNodeId;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getWorkflowExecutionId() {
+        return workflowExecutionId;
+    }
+
+    public void setWorkflowExecutionId(String workflowExecutionId) {
+        this.workflowExecutionId = workflowExecutionId;
+    }
+
+    public String getWorkflowNodeId() {
+        return workflowNodeId;
+    }
+
+    public void setWorkflowNodeId(String workflowNodeId) {
+        this.workflowNodeId = workflowNodeId;
+    }
+
+    /**
+     * Node execution ids of the arrived branches, in arrival order.
+     */
+    public List<String> getArrivals() {
+        return arrivals;
+    }
+
+    public void setArrivals(List<String> arrivals) {
+        this.arrivals = arrivals;
+    }
+
+    /**
+     * Awaited node ids found in the history of the arrived branches.
+     */
+    public List<String> getSatisfied() {
+        return satisfied;
+    }
+
+    public void setSatisfied(List<String> satisfied) {
+        this.satisfied = satisfied;
+    }
+
+    public int getArrivalCount() {
+        return arrivalCount;
+    }
+
+    public void setArrivalCount(int arrivalCount) {
+        this.arrivalCount = arrivalCount;
+    }
+
+    /**
+     * Node execution id of the arrival that merged the branches, or
+     * {@code null} while the join is waiting.
+     */
+    public String getMergedBy() {
+        return mergedBy;
+    }
+
+    public void setMergedBy(String mergedBy) {
+        this.mergedBy = mergedBy;
+    }
+
+    public Date getCreatedDate() {
+        return createdDate;
+    }
+
+    public void setCreatedDate(Date createdDate) {
+        this.createdDate = createdDate;
+    }
+}
@@ -0,0 +1,72 @@
+package dev.fusionize.workflow.component.local.join;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Date;
+
+/**
+ * Keeps {@link JoinState} up to date with single atomic updates, so an
+ * arriving branch costs one round trip however wide the join is, and
+ * concurrent arrivals cannot both see the condition met.
+ */
+@Component
+public class JoinStateStore {
+    private final MongoTemplate mongoTemplate;
+
+    public JoinStateStore(@Qualifier("workerMongoTemplate") MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * Records an arriving branch and the awaited nodes it satisfies.
+     *
+     * @return the join state including this arrival
+     */
+    public JoinState arrive(String workflowExecutionId, String workflowNodeId,
+                            String workflowNodeExecutionId, Collection<String> satisfied) {
+        Query query = Query.query(Criteria.where("_id").is(JoinState.idOf(workflowExecutionId, workflowNodeId)));
+        Update update = new Update()
+                .addToSet("arrivals", workflowNodeExecutionId)
+                .addToSet("satisfied").each(satisfied.toArray())
+                .inc("arrivalCount", 1)
+                .setOnInsert("workflowExecutionId", workflowExecutionId)
+                .setOnInsert("workflowNodeId", workflowNodeId)
+                .setOnInsert("createdDate", new Date());
+        FindAndModifyOptions options = FindAndModifyOptions.options().upsert(true).returnNew(true);
+        try {
+            return mongoTemplate.findAndModify(query, update, options, JoinState.class, JoinState.COLLECTION);
+        } catch (DuplicateKeyException e) {
+            // a concurrent arrival created the state first; the retry updates it
+            return mongoTemplate.findAndModify(query, update, options, JoinState.class, JoinState.COLLECTION);
+        }
+    }
+
+    /**
+     * Claims the merge of the join for an arrival. Only the first arrival
+     * claiming a join succeeds, again whenever it is redelivered.
+     */
+    public boolean claimMerge(JoinState state, String workflowNodeExecutionId) {
+        Query query = Query.query(Criteria.where("_id").is(state.getId()).orOperator(
+                Criteria.where("mergedBy").isNull(),
+                Criteria.where("mergedBy").is(workflowNodeExecutionId)));
+        return mongoTemplate.updateFirst(query, Update.update("mergedBy", workflowNodeExecutionId),
+                JoinState.COLLECTION).getMatchedCount() > 0;
+    }
+
+    /**
+     * Gives up the merge claim of an arrival that failed to merge, so that a
+     * later arrival can merge instead.
+     */
+    public void releaseMerge(JoinState state, String workflowNodeExecutionId) {
+        Query query = Query.query(Criteria.where("_id").is(state.getId()).and("mergedBy").is(workflowNodeExecutionId));
+        mongoTemplate.updateFirst(query, new Update().unset("mergedBy"), JoinState.COLLECTION);
+    }
+}
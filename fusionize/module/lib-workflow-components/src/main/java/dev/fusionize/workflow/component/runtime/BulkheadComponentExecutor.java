@@ -0,0 +1,182 @@
+package dev.fusionize.workflow.component.runtime;
+
+import dev.fusionize.workflow.component.ComponentExecutorProperties;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs component tasks on the component executor, isolated per component
+ * domain. Each domain gets a bulkhead with a maximum number of running tasks
+ * and a bounded waiting queue; a task submitted to a full bulkhead is
+ * rejected with a {@link RejectedExecutionException} instead of piling up.
+ */
+@Component
+public class BulkheadComponentExecutor implements MeterBinder {
+    private static final Logger log = LoggerFactory.getLogger(BulkheadComponentExecutor.class);
+
+    private final ComponentExecutorProperties properties;
+    private final ExecutorService executor;
+    private final Map<String, Bulkhead> bulkheads = new ConcurrentHashMap<>();
+    private volatile MeterRegistry registry;
+
+    public BulkheadComponentExecutor(ComponentExecutorProperties properties,
+                                     @Qualifier("componentExecutor") ExecutorService executor) {
+        this.properties = properties;
+        this.executor = executor;
+    }
+
+    /**
+     * Runs the task in the bulkhead of the given component domain.
+     *
+     * @throws RejectedExecutionException if the bulkhead is full
+     */
+    public void execute(String domain, Runnable task) {
+        bulkhead(domain).submit(task);
+    }
+
+    /**
+     * The bulkhead domain of a node component in {@code actor:domain} form.
+     */
+    public static String domainOf(String component) {
+        if (component == null) {
+            return "";
+        }
+        int separator = component.indexOf(':');
+        return separator < 0 ? component : component.substring(separator + 1);
+    }
+
+    public int getActive(String domain) {
+        Bulkhead bulkhead = bulkheads.get(domain);
+        return bulkhead == null ? 0 : bulkhead.active.get();
+    }
+
+    public int getQueued(String domain) {
+        Bulkhead bulkhead = bulkheads.get(domain);
+        return bulkhead == null ? 0 : bulkhead.queued.get();
+    }
+
+    public long getRejected(String domain) {
+        Bulkhead bulkhead = bulkheads.get(domain);
+        return bulkhead == null ? 0 : bulkhead.rejected.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.registry = registry;
+        bulkheads.values().forEach(bulkhead -> bulkhead.bindTo(registry));
+    }
+
+    private Bulkhead bulkhead(String domain) {
+        return bulkheads.computeIfAbsent(domain, d -> {
+            ComponentExecutorProperties.Bulkhead limits = properties.bulkheadFor(d);
+            Bulkhead bulkhead = new Bulkhead(d, Math.max(1, limits.getMaxConcurrent()),
+                    Math.max(0, limits.getMaxQueued()));
+            MeterRegistry current = registry;
+            if (current != null) {
+                bulkhead.bindTo(current);
+            }
+            return bulkhead;
+        });
+    }
+
+    private final class Bulkhead {
+        private final String domain;
+        private final int maxConcurrent;
+        private final int maxQueued;
+        private final Queue<Runnable> waiting = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger active = new AtomicInteger();
+        private final AtomicInteger queued = new AtomicInteger();
+        private final LongAdder rejected = new LongAdder();
+
+        private Bulkhead(String domain, int maxConcurrent, int maxQueued) {
+            this.domain = domain;
+            this.maxConcurrent = maxConcurrent;
+            this.maxQueued = maxQueued;
+        }
+
+        private void submit(Runnable task) {
+            if (waiting.isEmpty() && tryAcquire()) {
+                schedule(task);
+                return;
+            }
+            if (queued.incrementAndGet() > maxQueued) {
+                queued.decrementAndGet();
+                rejected.increment();
+                throw new RejectedExecutionException("Bulkhead " + domain + " is full");
+            }
+            waiting.add(task);
+            drain();
+        }
+
+        /**
+         * Starts waiting tasks while there are free slots. Called whenever a
+         * task is queued or a slot is released, so no task is left waiting
+         * with a slot free.
+         */
+        private void drain() {
+            while (!waiting.isEmpty() && tryAcquire()) {
+                Runnable next = waiting.poll();
+                if (next == null) {
+                    active.decrementAndGet();
+                    continue;
+                }
+                queued.decrementAndGet();
+                schedule(next);
+            }
+        }
+
+        private boolean tryAcquire() {
+            while (true) {
+                int current = active.get();
+                if (current >= maxConcurrent) {
+                    return false;
+                }
+                if (active.compareAndSet(current, current + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        private void schedule(Runnable task) {
+            try {
+                executor.execute(() -> {
+                    try {
+                        task.run();
+                    } finally {
+                        active.decrementAndGet();
+                        drain();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                active.decrementAndGet();
+                rejected.increment();
+                log.warn("Component executor rejected a task of bulkhead {}", domain);
+                throw e;
+            }
+        }
+
+        private void bindTo(MeterRegistry registry) {
+            Gauge.builder("fusionize.component.bulkhead.active", active, AtomicInteger::get)
+                    .tag("domain", domain).register(registry);
+            Gauge.builder("fusionize.component.bulkhead.queued", queued, AtomicInteger::get)
+                    .tag("domain", domain).register(registry);
+            FunctionCounter.builder("fusionize.component.bulkhead.rejected", rejected, LongAdder::sum)
+                    .tag("domain", domain).register(registry);
+        }
+    }
+}
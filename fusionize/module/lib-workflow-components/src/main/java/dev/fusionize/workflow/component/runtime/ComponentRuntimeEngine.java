@@ -4,11 +4,16 @@ import dev.fusionize.workflow.WorkflowInteraction;
 import dev.fusionize.workflow.WorkflowInteractionLogger;
 import dev.fusionize.workflow.WorkflowLogger;
 import dev.fusionize.workflow.component.ComponentConfig;
+import dev.fusionize.workflow.component.exceptions.ComponentBusyException;
 import dev.fusionize.workflow.component.exceptions.ComponentNotFoundException;
+import dev.fusionize.workflow.component.local.LocalComponentRuntime;
 import dev.fusionize.workflow.component.runtime.interfaces.ComponentRuntime;
 import dev.fusionize.workflow.component.runtime.interfaces.ComponentUpdateEmitter;
+import dev.fusionize.workflow.component.timer.TimerService;
 import dev.fusionize.workflow.context.Context;
+import dev.fusionize.workflow.context.ContextDelta;
 import dev.fusionize.workflow.context.ContextRuntimeData;
+import dev.fusionize.workflow.context.ContextValueStore;
 import dev.fusionize.workflow.events.Event;
 import dev.fusionize.workflow.events.EventPublisher;
 import dev.fusionize.workflow.events.OrchestrationEvent;
@@ -16,34 +21,53 @@ import dev.fusionize.workflow.events.orchestration.ActivationRequestEvent;
 import dev.fusionize.workflow.events.orchestration.ActivationResponseEvent;
 import dev.fusionize.workflow.events.orchestration.InvocationRequestEvent;
 import dev.fusionize.workflow.events.orchestration.InvocationResponseEvent;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
 
-import org.springframework.beans.factory.annotation.Qualifier;
-import java.util.concurrent.ExecutorService;
-
 @Service
 public class ComponentRuntimeEngine {
     public static final String ERR_CODE_COMP_NOT_FOUND = "(wcre101) Runtime component not found";
+    public static final String ERR_CODE_COMP_BUSY = "(wcre102) Runtime component busy";
 
     private final ComponentRuntimeRegistry componentRuntimeRegistry;
     private final EventPublisher<Event> eventPublisher;
     private final WorkflowLogger workflowLogger;
     private final WorkflowInteractionLogger interactionLogger;
-    private final ExecutorService executor;
+    private final BulkheadComponentExecutor bulkheads;
+    private final ObjectProvider<TimerService> timers;
+    private final ObjectProvider<ContextValueStore> valueStores;
 
     public ComponentRuntimeEngine(ComponentRuntimeRegistry componentRuntimeRegistry,
                                   EventPublisher<Event> eventPublisher,
                                   WorkflowLogger workflowLogger, WorkflowInteractionLogger interactionLogger,
-                                  @Qualifier("componentExecutor") ExecutorService executor) {
+                                  BulkheadComponentExecutor bulkheads) {
+        this(componentRuntimeRegistry, eventPublisher, workflowLogger, interactionLogger, bulkheads, null, null);
+    }
+
+    @Autowired
+    public ComponentRuntimeEngine(ComponentRuntimeRegistry componentRuntimeRegistry,
+                                  EventPublisher<Event> eventPublisher,
+                                  WorkflowLogger workflowLogger, WorkflowInteractionLogger interactionLogger,
+                                  BulkheadComponentExecutor bulkheads,
+                                  ObjectProvider<TimerService> timers,
+                                  ObjectProvider<ContextValueStore> valueStores) {
         this.componentRuntimeRegistry = componentRuntimeRegistry;
         this.eventPublisher = eventPublisher;
         this.workflowLogger = workflowLogger;
         this.interactionLogger = interactionLogger;
-        this.executor = executor;
+        this.bulkheads = bulkheads;
+        this.timers = timers;
+        this.valueStores = valueStores;
     }
 
     private Optional<ComponentRuntime> getRuntimeComponent(OrchestrationEvent orchestrationEvent) {
@@ -61,7 +85,26 @@ public class ComponentRuntimeEngine {
         return componentRuntimeRegistry.get(component, ComponentRuntimeConfig.from(componentConfig));
     }
 
+    /**
+     * Whether the event's component resolves to a {@link LocalComponentRuntime}
+     * running in this process.
+     */
+    public boolean isLocal(OrchestrationEvent orchestrationEvent) {
+        return getRuntimeComponent(orchestrationEvent)
+                .map(LocalComponentRuntime.class::isInstance)
+                .orElse(false);
+    }
+
     public ActivationResponseEvent activateComponent(ActivationRequestEvent activationRequestEvent) {
+        return activateComponent(activationRequestEvent, eventPublisher::publish);
+    }
+
+    /**
+     * Activates the component and hands the response to the given responder
+     * instead of publishing it.
+     */
+    public ActivationResponseEvent activateComponent(ActivationRequestEvent activationRequestEvent,
+                                                     Consumer<ActivationResponseEvent> responder) {
         Optional<ComponentRuntime> optionalWorkflowComponentRuntime = getRuntimeComponent(activationRequestEvent);
         if (optionalWorkflowComponentRuntime.isEmpty()) {
             ActivationResponseEvent responseEvent = ActivationResponseEvent.from(
@@ -73,6 +116,7 @@ public class ComponentRuntimeEngine {
 
         Supplier<ActivationResponseEvent> supplier = () -> ActivationResponseEvent.from(
                 this, OrchestrationEvent.Origin.RUNTIME_ENGINE, activationRequestEvent);
+        ContextDelta.Baseline baseline = baseline(activationRequestEvent);
 
         ComponentRuntime runtime = optionalWorkflowComponentRuntime.get();
         CompletableFuture.runAsync(() -> runtime.canActivate(
@@ -81,15 +125,28 @@ public class ComponentRuntimeEngine {
                     @Override
                     public void success(Context updatedContext) {
                         ActivationResponseEvent responseEvent = supplier.get();
-                        responseEvent.setContext(updatedContext);
-                        eventPublisher.publish(responseEvent);
+                        respondWith(responseEvent, activationRequestEvent, baseline, updatedContext);
+                        responder.accept(responseEvent);
+                    }
+
+                    @Override
+                    public void successAfter(Duration delay, Context updatedContext) {
+                        TimerService timerService = timerService();
+                        if (timerService == null) {
+                            ComponentUpdateEmitter.super.successAfter(delay, updatedContext);
+                            return;
+                        }
+                        // the timer publishes the response; neither it nor this emitter stays in memory
+                        ActivationResponseEvent responseEvent = supplier.get();
+                        respondWith(responseEvent, activationRequestEvent, baseline, updatedContext);
+                        timerService.schedule(Instant.now().plus(delay), responseEvent);
                     }
 
                     @Override
                     public void failure(Exception ex) {
                         ActivationResponseEvent responseEvent = supplier.get();
                         responseEvent.setException(ex);
-                        eventPublisher.publish(responseEvent);
+                        responder.accept(responseEvent);
                     }
 
                     @Override
@@ -127,20 +184,74 @@ public class ComponentRuntimeEngine {
                         };
                     }
 
-                }), executor).whenComplete((result, throwable) -> {
+                }), bulkhead(activationRequestEvent, () -> {
+                    ActivationResponseEvent responseEvent = supplier.get();
+                    responseEvent.setException(busy(activationRequestEvent));
+                    responseEvent.setBusy(true);
+                    responder.accept(responseEvent);
+                })).whenComplete((result, throwable) -> {
                     if (throwable != null) {
                         ActivationResponseEvent responseEvent = supplier.get();
                         responseEvent.setException(
                                 new InterruptedException("activation interrupted: " + throwable.getMessage()));
-                        eventPublisher.publish(responseEvent);
+                        responder.accept(responseEvent);
                     }
                 });
 
         return null;
     }
 
+    /**
+     * Runs tasks in the bulkhead of the event's component domain. A task the
+     * bulkhead rejects is not run and {@code onBusy} answers the request.
+     */
+    private Executor bulkhead(OrchestrationEvent orchestrationEvent, Runnable onBusy) {
+        String domain = BulkheadComponentExecutor.domainOf(orchestrationEvent.getComponent());
+        return task -> {
+            try {
+                bulkheads.execute(domain, task);
+            } catch (RejectedExecutionException e) {
+                onBusy.run();
+            }
+        };
+    }
+
+    /**
+     * Captures the request's context when the orchestrator versioned it, so
+     * that the response only needs to carry the changes.
+     */
+    private static ContextDelta.Baseline baseline(OrchestrationEvent requestEvent) {
+        if (requestEvent.getContextVersion() == null || requestEvent.getContext() == null) {
+            return null;
+        }
+        return ContextDelta.baseline(requestEvent.getContext());
+    }
+
+    private static void respondWith(OrchestrationEvent responseEvent, OrchestrationEvent requestEvent,
+                                    ContextDelta.Baseline baseline, Context updatedContext) {
+        if (baseline == null || updatedContext == null) {
+            responseEvent.setContext(updatedContext);
+            return;
+        }
+        responseEvent.setContextDelta(baseline.diff(updatedContext, requestEvent.getContextVersion()));
+    }
+
+    private TimerService timerService() {
+        return timers == null ? null : timers.getIfAvailable();
+    }
+
+    private ContextValueStore valueStore() {
+        return valueStores == null ? null : valueStores.getIfAvailable();
+    }
+
+    private ComponentBusyException busy(OrchestrationEvent orchestrationEvent) {
+        return new ComponentBusyException(ERR_CODE_COMP_BUSY + " " + orchestrationEvent.getComponent());
+    }
+
     private Context getContext(OrchestrationEvent orchestrationEvent) {
         Context context = orchestrationEvent.getContext().renew();
+        // offloaded values are loaded back when the component reads them
+        context.setValueStore(valueStore());
         context.setRuntimeData(ContextRuntimeData.from(
                 orchestrationEvent.getOrchestrationEventContext().workflowExecution(),
                 orchestrationEvent.getOrchestrationEventContext().nodeExecution()));
@@ -148,6 +259,15 @@ public class ComponentRuntimeEngine {
     }
 
     public InvocationResponseEvent invokeComponent(InvocationRequestEvent invocationRequestEvent) {
+        return invokeComponent(invocationRequestEvent, eventPublisher::publish);
+    }
+
+    /**
+     * Runs the component and hands the response to the given responder
+     * instead of publishing it.
+     */
+    public InvocationResponseEvent invokeComponent(InvocationRequestEvent invocationRequestEvent,
+                                                   Consumer<InvocationResponseEvent> responder) {
         Optional<ComponentRuntime> optionalWorkflowComponentRuntime = getRuntimeComponent(invocationRequestEvent);
         if (optionalWorkflowComponentRuntime.isEmpty()) {
             InvocationResponseEvent invocationResponseEvent = InvocationResponseEvent.from(
@@ -158,21 +278,35 @@ public class ComponentRuntimeEngine {
         ComponentRuntime runtime = optionalWorkflowComponentRuntime.get();
         Supplier<InvocationResponseEvent> supplier = () -> InvocationResponseEvent.from(
                 this, OrchestrationEvent.Origin.RUNTIME_ENGINE, invocationRequestEvent);
+        ContextDelta.Baseline baseline = baseline(invocationRequestEvent);
         CompletableFuture.runAsync(() -> runtime.run(
                 getContext(invocationRequestEvent),
                 new ComponentUpdateEmitter() {
                     @Override
                     public void success(Context updatedContext) {
                         InvocationResponseEvent responseEvent = supplier.get();
-                        responseEvent.setContext(updatedContext);
-                        eventPublisher.publish(responseEvent);
+                        respondWith(responseEvent, invocationRequestEvent, baseline, updatedContext);
+                        responder.accept(responseEvent);
+                    }
+
+                    @Override
+                    public void successAfter(Duration delay, Context updatedContext) {
+                        TimerService timerService = timerService();
+                        if (timerService == null) {
+                            ComponentUpdateEmitter.super.successAfter(delay, updatedContext);
+                            return;
+                        }
+                        // the timer publishes the response; neither it nor this emitter stays in memory
+                        InvocationResponseEvent responseEvent = supplier.get();
+                        respondWith(responseEvent, invocationRequestEvent, baseline, updatedContext);
+                        timerService.schedule(Instant.now().plus(delay), responseEvent);
                     }
 
                     @Override
                     public void failure(Exception ex) {
                         InvocationResponseEvent responseEvent = supplier.get();
                         responseEvent.setException(ex);
-                        eventPublisher.publish(responseEvent);
+                        responder.accept(responseEvent);
                     }
 
                     @Override
@@ -209,12 +343,17 @@ public class ComponentRuntimeEngine {
 
                         };
                     }
-                }), executor).whenComplete((result, throwable) -> {
+                }), bulkhead(invocationRequestEvent, () -> {
+                    InvocationResponseEvent responseEvent = supplier.get();
+                    responseEvent.setException(busy(invocationRequestEvent));
+                    responseEvent.setBusy(true);
+                    responder.accept(responseEvent);
+                })).whenComplete((result, throwable) -> {
                     if (throwable != null) {
                         InvocationResponseEvent responseEvent = supplier.get();
                         responseEvent.setException(
                                 new InterruptedException("component run interrupted: " + throwable.getMessage()));
-                        eventPublisher.publish(responseEvent);
+                        responder.accept(responseEvent);
                     }
                 });
 
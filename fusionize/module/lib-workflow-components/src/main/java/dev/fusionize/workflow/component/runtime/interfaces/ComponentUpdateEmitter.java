@@ -6,9 +6,28 @@ import dev.fusionize.workflow.context.Context;
 import org.slf4j.helpers.FormattingTuple;
 import org.slf4j.helpers.MessageFormatter;
 
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
 public interface ComponentUpdateEmitter {
     void success(Context updatedContext);
 
+    /**
+     * Reports success once the delay has passed. The runtime engine keeps
+     * the pending response in a durable timer rather than in memory, so it
+     * survives restarts; this default only waits in memory.
+     */
+    default void successAfter(Duration delay, Context updatedContext) {
+        CompletableFuture.delayedExecutor(delay.toMillis(), TimeUnit.MILLISECONDS).execute(() -> {
+            try {
+                success(updatedContext);
+            } catch (Exception e) {
+                failure(e);
+            }
+        });
+    }
+
     void failure(Exception ex);
 
     Logger logger();
@@ -0,0 +1,74 @@
+package dev.fusionize.workflow.component.timer;
+
+import dev.fusionize.workflow.events.Event;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+/**
+ * A pending timer: the event to publish and when. {@code owner} and
+ * {@code leaseUntil} are set while a worker holds the timer in memory.
+ */
+@Document(collection = DurableTimer.COLLECTION)
+@CompoundIndex(name = "due_lease", def = "{'dueAt': 1, 'leaseUntil': 1}")
+public class DurableTimer {
+    public static final String COLLECTION = "workflow-timer";
+
+    @Id
+    private String id;
+    private Date dueAt;
+    private Event event;
+    private String owner;
+    private Date leaseUntil;
+    private Date createdDate;
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public Date getDueAt() {
+        return dueAt;
+    }
+
+    public void setDueAt(Date dueAt) {
+        this.dueAt = dueAt;
+    }
+
+    public Event getEvent() {
+        return event;
+    }
+
+    public void setEvent(Event event) {
+        this.event = event;
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    public void setOwner(String owner) {
+        this.owner = owner;
+    }
+
+    public Date getLeaseUntil() {
+        return leaseUntil;
+    }
+
+    public void setLeaseUntil(Date leaseUntil) {
+        this.leaseUntil = leaseUntil;
+    }
+
+    public Date getCreatedDate() {
+        return createdDate;
+    }
+
+    public void setCreatedDate(Date createdDate) {
+        this.createdDate = createdDate;
+    }
+}
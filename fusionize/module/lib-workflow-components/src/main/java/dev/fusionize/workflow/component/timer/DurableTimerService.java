@@ -0,0 +1,284 @@
+package dev.fusionize.workflow.component.timer;
+
+import dev.fusionize.common.utility.KeyUtil;
+import dev.fusionize.workflow.events.Event;
+import dev.fusionize.workflow.events.EventPublisher;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link TimerService} keeping timers in the {@code workflow-timer} collection
+ * and firing them from an in-memory {@link HierarchicalTimingWheel}.
+ * <p>
+ * Workers poll for timers due within the horizon and claim them in batches
+ * with a lease, so every timer is held by one worker and the timers spread
+ * over the running workers. A claimed timer only takes its id in memory; its
+ * event is loaded when it fires. Timers of a worker that goes away are
+ * claimed by another once their lease runs out, and overdue timers fire on
+ * the first poll after a restart. Events are published before their timers
+ * are removed, so a timer fires at least once.
+ */
+@Component
+@ConditionalOnProperty(prefix = "fusionize.worker.timer", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class DurableTimerService implements TimerService, SmartLifecycle, MeterBinder {
+    private static final Logger log = LoggerFactory.getLogger(DurableTimerService.class);
+
+    private final TimerProperties properties;
+    private final MongoTemplate mongoTemplate;
+    private final EventPublisher<Event> eventPublisher;
+    private final Clock clock;
+    private final String owner = KeyUtil.getFlatUUID();
+    private final Set<String> held = ConcurrentHashMap.newKeySet();
+    private final Queue<String> expired = new ConcurrentLinkedQueue<>();
+    private final LongAdder scheduled = new LongAdder();
+    private final LongAdder fired = new LongAdder();
+    private HierarchicalTimingWheel<String> wheel;
+    private ScheduledExecutorService scheduler;
+    private volatile boolean running;
+
+    @Autowired
+    public DurableTimerService(TimerProperties properties,
+                               @Qualifier("workerMongoTemplate") MongoTemplate mongoTemplate,
+                               EventPublisher<Event> eventPublisher) {
+        this(properties, mongoTemplate, eventPublisher, Clock.systemUTC());
+    }
+
+    DurableTimerService(TimerProperties properties, MongoTemplate mongoTemplate,
+                        EventPublisher<Event> eventPublisher, Clock clock) {
+        this.properties = properties;
+        this.mongoTemplate = mongoTemplate;
+        this.eventPublisher = eventPublisher;
+        this.clock = clock;
+        this.wheel = newWheel();
+    }
+
+    @Override
+    public String schedule(Instant dueAt, Event event) {
+        Instant now = clock.instant();
+        DurableTimer timer = new DurableTimer();
+        timer.setId(KeyUtil.getFlatUUID());
+        timer.setDueAt(Date.from(dueAt));
+        timer.setEvent(event);
+        timer.setCreatedDate(Date.from(now));
+        // a timer due within the horizon is claimed right away instead of waiting for the next poll
+        boolean near = running && dueAt.isBefore(now.plus(properties.getHorizon()));
+        if (near) {
+            timer.setOwner(owner);
+            timer.setLeaseUntil(Date.from(dueAt.plus(properties.getLease())));
+        }
+        mongoTemplate.insert(timer, DurableTimer.COLLECTION);
+        scheduled.increment();
+        if (near) {
+            hold(timer.getId(), dueAt);
+        }
+        return timer.getId();
+    }
+
+    @Override
+    public boolean cancel(String timerId) {
+        held.remove(timerId);
+        return mongoTemplate.remove(Query.query(Criteria.where("_id").is(timerId)), DurableTimer.COLLECTION)
+                .getDeletedCount() > 0;
+    }
+
+    /**
+     * Claims the unclaimed timers due within the horizon, batch by batch, and
+     * takes them into the wheel.
+     */
+    void poll() {
+        Instant now = clock.instant();
+        Date leaseUntil = Date.from(now.plus(properties.getHorizon()).plus(properties.getLease()));
+        Criteria claimable = new Criteria().orOperator(
+                Criteria.where("owner").isNull(),
+                Criteria.where("leaseUntil").lt(Date.from(now)));
+        while (true) {
+            Query candidates = Query.query(new Criteria().andOperator(
+                            Criteria.where("dueAt").lt(Date.from(now.plus(properties.getHorizon()))), claimable))
+                    .with(Sort.by(Sort.Direction.ASC, "dueAt"))
+                    .limit(properties.getBatchSize());
+            candidates.fields().include("_id");
+            List<String> ids = mongoTemplate.find(candidates, DurableTimer.class, DurableTimer.COLLECTION)
+                    .stream().map(DurableTimer::getId).toList();
+            if (ids.isEmpty()) {
+                return;
+            }
+            mongoTemplate.updateMulti(
+                    Query.query(new Criteria().andOperator(Criteria.where("_id").in(ids), claimable)),
+                    new Update().set("owner", owner).set("leaseUntil", leaseUntil),
+                    DurableTimer.COLLECTION);
+            Query claimed = Query.query(Criteria.where("_id").in(ids).and("owner").is(owner));
+            claimed.fields().include("_id").include("dueAt");
+            for (DurableTimer timer : mongoTemplate.find(claimed, DurableTimer.class, DurableTimer.COLLECTION)) {
+                hold(timer.getId(), timer.getDueAt().toInstant());
+            }
+            if (ids.size() < properties.getBatchSize()) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Advances the wheel and fires the timers that came due.
+     */
+    void tick() {
+        synchronized (this) {
+            wheel.advance(clock.millis(), expired::add);
+        }
+        List<String> batch = new ArrayList<>();
+        String id;
+        while ((id = expired.poll()) != null) {
+            // cancelled timers are no longer held
+            if (held.remove(id)) {
+                batch.add(id);
+            }
+            if (batch.size() >= properties.getBatchSize()) {
+                fire(batch);
+                batch = new ArrayList<>();
+            }
+        }
+        if (!batch.isEmpty()) {
+            fire(batch);
+        }
+    }
+
+    private void fire(List<String> ids) {
+        List<DurableTimer> timers = mongoTemplate.find(
+                Query.query(Criteria.where("_id").in(ids).and("owner").is(owner)),
+                DurableTimer.class, DurableTimer.COLLECTION);
+        List<String> published = new ArrayList<>(timers.size());
+        for (DurableTimer timer : timers) {
+            try {
+                eventPublisher.publish(timer.getEvent());
+                published.add(timer.getId());
+            } catch (Exception e) {
+                // left in place; it is claimed again when its lease runs out
+                log.error("Failed to fire timer {}: {}", timer.getId(), e.getMessage(), e);
+            }
+        }
+        if (!published.isEmpty()) {
+            mongoTemplate.remove(Query.query(Criteria.where("_id").in(published)), DurableTimer.COLLECTION);
+            fired.add(published.size());
+        }
+    }
+
+    private void hold(String id, Instant dueAt) {
+        if (!held.add(id)) {
+            return;
+        }
+        boolean added;
+        synchronized (this) {
+            added = wheel.add(id, dueAt.toEpochMilli());
+        }
+        if (!added) {
+            expired.add(id);
+        }
+    }
+
+    private HierarchicalTimingWheel<String> newWheel() {
+        return new HierarchicalTimingWheel<>(Math.max(1, properties.getTick().toMillis()),
+                Math.max(2, properties.getWheelSize()), clock.millis());
+    }
+
+    int getHeld() {
+        return held.size();
+    }
+
+    public long getScheduled() {
+        return scheduled.sum();
+    }
+
+    public long getFired() {
+        return fired.sum();
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "fusionize-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long tickMillis = Math.max(1, properties.getTick().toMillis());
+        // the first poll recovers the timers that came due while no worker held them
+        scheduler.scheduleWithFixedDelay(this::pollQuietly, 0,
+                properties.getPollInterval().toMillis(), TimeUnit.MILLISECONDS);
+        scheduler.scheduleAtFixedRate(this::tickQuietly, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        // hand the held timers back so another worker can claim them right away
+        try {
+            mongoTemplate.updateMulti(Query.query(Criteria.where("owner").is(owner)),
+                    new Update().unset("owner").unset("leaseUntil"), DurableTimer.COLLECTION);
+        } catch (Exception e) {
+            log.warn("Failed to release timers: {}", e.getMessage());
+        }
+        synchronized (this) {
+            held.clear();
+            expired.clear();
+            wheel = newWheel();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("fusionize.timer.held", held, Set::size).register(registry);
+        FunctionCounter.builder("fusionize.timer.scheduled", scheduled, LongAdder::sum).register(registry);
+        FunctionCounter.builder("fusionize.timer.fired", fired, LongAdder::sum).register(registry);
+    }
+
+    private void pollQuietly() {
+        try {
+            poll();
+        } catch (Exception e) {
+            log.error("Timer poll failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private void tickQuietly() {
+        try {
+            tick();
+        } catch (Exception e) {
+            log.error("Timer tick failed: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package dev.fusionize.workflow.component.timer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * A hierarchical timing wheel holding timers by deadline in epoch millis.
+ * <p>
+ * The innermost wheel has {@code wheelSize} buckets of one tick each; a timer
+ * beyond its span goes to an overflow wheel whose tick is the span of the
+ * wheel below, and is moved down as the time comes closer. Adding a timer and
+ * expiring a bucket are constant time however many timers are pending. A
+ * timer expires once its whole tick has passed, so never early and at most
+ * one tick late.
+ * <p>
+ * Not thread safe.
+ */
+class HierarchicalTimingWheel<T> {
+    private final long tickMillis;
+    private final int wheelSize;
+    private final long interval;
+    private final List<Entry<T>>[] buckets;
+    private final HierarchicalTimingWheel<T> root;
+    private long currentTime;
+    private HierarchicalTimingWheel<T> overflow;
+    private int size;
+
+    private record Entry<T>(T item, long deadline) {
+    }
+
+    HierarchicalTimingWheel(long tickMillis, int wheelSize, long startMillis) {
+        this(tickMillis, wheelSize, startMillis - startMillis % tickMillis, null);
+    }
+
+    @SuppressWarnings("unchecked")
+    private HierarchicalTimingWheel(long tickMillis, int wheelSize, long currentTime,
+                                    HierarchicalTimingWheel<T> root) {
+        this.tickMillis = tickMillis;
+        this.wheelSize = wheelSize;
+        this.interval = tickMillis * wheelSize;
+        this.buckets = new List[wheelSize];
+        this.currentTime = currentTime;
+        this.root = root == null ? this : root;
+    }
+
+    /**
+     * Adds a timer.
+     *
+     * @return false if the deadline already passed; the timer is not added
+     */
+    boolean add(T item, long deadline) {
+        if (deadline < currentTime) {
+            return false;
+        }
+        root.size++;
+        place(new Entry<>(item, deadline));
+        return true;
+    }
+
+    /**
+     * Moves the wheel up to {@code now}, handing every expired timer to the
+     * consumer in deadline order of their ticks.
+     */
+    void advance(long now, Consumer<T> expired) {
+        while (currentTime + tickMillis <= now) {
+            List<Entry<T>> bucket = take(currentTime);
+            currentTime += tickMillis;
+            if (bucket != null) {
+                size -= bucket.size();
+                bucket.forEach(entry -> expired.accept(entry.item()));
+            }
+            if (overflow != null) {
+                overflow.cascade(currentTime);
+            }
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void place(Entry<T> entry) {
+        if (entry.deadline() < currentTime + interval) {
+            int index = (int) ((entry.deadline() / tickMillis) % wheelSize);
+            if (buckets[index] == null) {
+                buckets[index] = new ArrayList<>();
+            }
+            buckets[index].add(entry);
+            return;
+        }
+        if (overflow == null) {
+            // aligned to its own tick, so each of its buckets moves down exactly when this wheel reaches it
+            overflow = new HierarchicalTimingWheel<>(interval, wheelSize, currentTime - currentTime % interval, root);
+        }
+        overflow.place(entry);
+    }
+
+    /**
+     * Moves the buckets of this overflow wheel the wheel below has reached
+     * down into the wheels below.
+     */
+    private void cascade(long time) {
+        while (currentTime <= time) {
+            List<Entry<T>> bucket = take(currentTime);
+            currentTime += tickMillis;
+            if (bucket != null) {
+                bucket.forEach(root::place);
+            }
+            if (overflow != null) {
+                overflow.cascade(currentTime);
+            }
+        }
+    }
+
+    private List<Entry<T>> take(long time) {
+        int index = (int) ((time / tickMillis) % wheelSize);
+        List<Entry<T>> bucket = buckets[index];
+        buckets[index] = null;
+        return bucket;
+    }
+}
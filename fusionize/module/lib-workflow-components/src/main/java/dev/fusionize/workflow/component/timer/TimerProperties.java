@@ -0,0 +1,94 @@
+package dev.fusionize.workflow.component.timer;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Settings of the durable timer service.
+ * <p>
+ * Timers are kept in Mongo until they fire. Only timers due within
+ * {@code horizon} are claimed by a worker and held in its timing wheel, so a
+ * timer far in the future costs no memory until shortly before it is due.
+ */
+@Component
+@ConfigurationProperties(prefix = "fusionize.worker.timer")
+public class TimerProperties {
+    private boolean enabled = true;
+    private Duration tick = Duration.ofMillis(100);
+    private int wheelSize = 512;
+    private Duration horizon = Duration.ofMinutes(1);
+    private Duration pollInterval = Duration.ofSeconds(10);
+    private Duration lease = Duration.ofMinutes(1);
+    private int batchSize = 500;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Resolution of the timing wheel; timers fire at most one tick late.
+     */
+    public Duration getTick() {
+        return tick;
+    }
+
+    public void setTick(Duration tick) {
+        this.tick = tick;
+    }
+
+    public int getWheelSize() {
+        return wheelSize;
+    }
+
+    public void setWheelSize(int wheelSize) {
+        this.wheelSize = wheelSize;
+    }
+
+    /**
+     * How far ahead of their due time timers are claimed into memory.
+     */
+    public Duration getHorizon() {
+        return horizon;
+    }
+
+    public void setHorizon(Duration horizon) {
+        this.horizon = horizon;
+    }
+
+    public Duration getPollInterval() {
+        return pollInterval;
+    }
+
+    public void setPollInterval(Duration pollInterval) {
+        this.pollInterval = pollInterval;
+    }
+
+    /**
+     * How long after its due time a claimed timer that has not fired can be
+     * claimed by another worker.
+     */
+    public Duration getLease() {
+        return lease;
+    }
+
+    public void setLease(Duration lease) {
+        this.lease = lease;
+    }
+
+    /**
+     * Maximum number of timers claimed or fired in one Mongo round trip.
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+}
@@ -0,0 +1,26 @@
+package dev.fusionize.workflow.component.timer;
+
+import dev.fusionize.workflow.events.Event;
+
+import java.time.Instant;
+
+/**
+ * Publishes events at a later time. Scheduled events survive restarts and are
+ * published once, by one of the workers.
+ */
+public interface TimerService {
+
+    /**
+     * Schedules the event to be published at {@code dueAt}.
+     *
+     * @return the id of the timer
+     */
+    String schedule(Instant dueAt, Event event);
+
+    /**
+     * Cancels a timer that has not fired yet.
+     *
+     * @return false if the timer fired already or does not exist
+     */
+    boolean cancel(String timerId);
+}
@@ -5,6 +5,7 @@ import org.junit.jupiter.api.Test;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -15,7 +16,7 @@ class AsyncComponentExecutorConfigTest {
     @Test
     void shouldCreateExecutorService() {
         // setup
-        var executor = config.componentExecutor();
+        var executor = config.componentExecutor(new ComponentExecutorProperties());
 
         // expectation
         // the factory method should return a non-null ExecutorService instance
@@ -28,7 +29,7 @@ class AsyncComponentExecutorConfigTest {
     @Test
     void shouldReturnNonShutdownExecutor() {
         // setup
-        var executor = config.componentExecutor();
+        var executor = config.componentExecutor(new ComponentExecutorProperties());
 
         // expectation
         // a freshly created executor should not be in shutdown state
@@ -41,7 +42,7 @@ class AsyncComponentExecutorConfigTest {
     @Test
     void shouldAcceptAndExecuteTasks() throws InterruptedException {
         // setup
-        var executor = config.componentExecutor();
+        var executor = config.componentExecutor(new ComponentExecutorProperties());
         var latch = new CountDownLatch(1);
 
         // expectation
@@ -51,4 +52,25 @@ class AsyncComponentExecutorConfigTest {
         assertThat(latch.await(1, TimeUnit.SECONDS)).isTrue();
         executor.shutdownNow();
     }
+
+    @Test
+    void shouldRunTasksOnVirtualThreadsInVirtualMode() throws InterruptedException {
+        // setup
+        var properties = new ComponentExecutorProperties();
+        properties.setMode(ComponentExecutorProperties.Mode.VIRTUAL);
+        var executor = config.componentExecutor(properties);
+        var virtual = new AtomicBoolean();
+        var latch = new CountDownLatch(1);
+
+        // expectation
+        executor.execute(() -> {
+            virtual.set(Thread.currentThread().isVirtual());
+            latch.countDown();
+        });
+
+        // validation
+        assertThat(latch.await(1, TimeUnit.SECONDS)).isTrue();
+        assertThat(virtual).isTrue();
+        executor.shutdownNow();
+    }
 }
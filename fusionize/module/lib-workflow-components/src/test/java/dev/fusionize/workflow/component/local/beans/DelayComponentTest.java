@@ -10,10 +10,12 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.Duration;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
-import static org.mockito.Mockito.timeout;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -53,7 +55,7 @@ class DelayComponentTest {
         component.run(context, emitter);
 
         // validation
-        verify(emitter, timeout(2000)).success(any(Context.class));
+        verify(emitter).successAfter(eq(Duration.ofMillis(100)), any(Context.class));
         verify(logger).info(anyString(), any(Object.class));
     }
 
@@ -85,7 +87,7 @@ class DelayComponentTest {
     }
 
     @Test
-    void shouldScheduleDelayAndCallSuccess() {
+    void shouldScheduleDelayedSuccess() {
         // setup
         var component = new DelayComponent();
         var config = ComponentRuntimeConfig.builder()
@@ -99,7 +101,7 @@ class DelayComponentTest {
         component.run(context, emitter);
 
         // validation
-        verify(emitter, timeout(2000)).success(any(Context.class));
+        verify(emitter).successAfter(eq(Duration.ofMillis(50)), any(Context.class));
     }
 
     @Test
@@ -118,7 +120,7 @@ class DelayComponentTest {
 
         // validation
         ArgumentCaptor<Context> captor = ArgumentCaptor.forClass(Context.class);
-        verify(emitter, timeout(2000)).success(captor.capture());
+        verify(emitter).successAfter(eq(Duration.ofMillis(50)), captor.capture());
         assertThat(captor.getValue().var(DelayComponent.VAR_DELAYED, Integer.class)).hasValue(50);
     }
 }
@@ -57,12 +57,12 @@ class JoinComponentDuplicationTest {
             }
 
             @Override
-            public void updateNodeExecution(String workflowExecutionId, WorkflowNodeExecution nodeExecution) {
+            public void updateNodeExecution(WorkflowExecution workflowExecution, WorkflowNodeExecution nodeExecution) {
 
             }
 
             @Override
-            public void updateStatus(String workflowExecutionId, WorkflowExecutionStatus status) {
+            public void updateStatus(WorkflowExecution workflowExecution, WorkflowExecutionStatus status) {
 
             }
         };
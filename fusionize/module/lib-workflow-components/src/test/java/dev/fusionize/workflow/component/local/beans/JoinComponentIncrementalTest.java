@@ -0,0 +1,308 @@
+package dev.fusionize.workflow.component.local.beans;
+
+import dev.fusionize.workflow.WorkflowExecution;
+import dev.fusionize.workflow.WorkflowExecutionStatus;
+import dev.fusionize.workflow.WorkflowNodeExecution;
+import dev.fusionize.workflow.WorkflowNodeExecutionState;
+import dev.fusionize.workflow.component.local.join.JoinState;
+import dev.fusionize.workflow.component.local.join.JoinStateStore;
+import dev.fusionize.workflow.component.runtime.ComponentRuntimeConfig;
+import dev.fusionize.workflow.component.runtime.interfaces.ComponentUpdateEmitter;
+import dev.fusionize.workflow.context.Context;
+import dev.fusionize.workflow.context.ContextRuntimeData;
+import dev.fusionize.workflow.context.WorkflowGraphNode;
+import dev.fusionize.workflow.registry.WorkflowExecutionRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JoinComponentIncrementalTest {
+
+    private static final String JOIN_NODE = "join";
+
+    private InMemoryJoinStateStore store;
+    private AtomicInteger executionLoads;
+    private Map<String, WorkflowNodeExecution> nodeExecutions;
+    private JoinComponent joinComponent;
+
+    @BeforeEach
+    void setUp() {
+        store = new InMemoryJoinStateStore();
+        executionLoads = new AtomicInteger();
+        nodeExecutions = new HashMap<>();
+        WorkflowExecution workflowExecution = new WorkflowExecution() {
+            @Override
+            public WorkflowNodeExecution findNodeByWorkflowNodeExecutionId(String workflowNodeExecutionId) {
+                return nodeExecutions.get(workflowNodeExecutionId);
+            }
+        };
+        WorkflowExecutionRegistry registry = new WorkflowExecutionRegistry() {
+            @Override
+            public List<WorkflowExecution> getWorkflowExecutions(String workflowId) {
+                return List.of();
+            }
+
+            @Override
+            public WorkflowExecution getWorkflowExecution(String id) {
+                executionLoads.incrementAndGet();
+                return workflowExecution;
+            }
+
+            @Override
+            public WorkflowExecution register(WorkflowExecution workflowExecution) {
+                return workflowExecution;
+            }
+
+            @Override
+            public void updateNodeExecution(WorkflowExecution workflowExecution, WorkflowNodeExecution nodeExecution) {
+            }
+
+            @Override
+            public void updateStatus(WorkflowExecution workflowExecution, WorkflowExecutionStatus status) {
+            }
+        };
+        joinComponent = new JoinComponent(registry, store);
+    }
+
+    @Test
+    void shouldMergeOnceWhenLastAwaitArrives() {
+        // setup
+        configure(List.of("A", "B", "C"), null);
+        Context a = arrival("exec-1", "A", "x", 1);
+        Context b = arrival("exec-2", "B", "y", 2);
+        Context c = arrival("exec-3", "C", "z", 3);
+        TestEmitter emitter = new TestEmitter();
+
+        // expectation
+        joinComponent.run(a, emitter);
+        joinComponent.run(b, emitter);
+        joinComponent.run(c, emitter);
+        joinComponent.run(arrival("exec-4", "A", "w", 4), emitter);
+
+        // validation
+        assertThat(emitter.merged).hasSize(1);
+        Context merged = emitter.merged.get(0);
+        assertThat(merged.getData()).containsEntry("x", 1).containsEntry("y", 2).containsEntry("z", 3);
+        assertThat(store.state.getMergedBy()).isEqualTo("exec-3");
+        // earlier branches are loaded once, at the merge
+        assertThat(executionLoads).hasValue(1);
+    }
+
+    @Test
+    void shouldNotLoadExecutionWhileWaiting() {
+        // setup
+        configure(List.of("A", "B"), null);
+        TestEmitter emitter = new TestEmitter();
+
+        // expectation
+        joinComponent.run(arrival("exec-1", "A", "x", 1), emitter);
+        joinComponent.run(arrival("exec-2", "A", "x", 2), emitter);
+
+        // validation
+        assertThat(emitter.merged).isEmpty();
+        assertThat(executionLoads).hasValue(0);
+        assertThat(store.state.getArrivalCount()).isEqualTo(2);
+        assertThat(store.state.getSatisfied()).containsExactly("A");
+    }
+
+    @Test
+    void shouldMergeFirstArrivalInAnyMode() {
+        // setup
+        configure(List.of("A", "B"), "ANY");
+        TestEmitter emitter = new TestEmitter();
+
+        // expectation
+        joinComponent.run(arrival("exec-1", "B", "y", 2), emitter);
+        joinComponent.run(arrival("exec-2", "A", "x", 1), emitter);
+
+        // validation
+        assertThat(emitter.merged).hasSize(1);
+        assertThat(emitter.merged.get(0).getData()).containsEntry("y", 2).doesNotContainKey("x");
+        assertThat(executionLoads).hasValue(0);
+    }
+
+    @Test
+    void shouldSkipWhenMergeClaimedConcurrently() {
+        // setup
+        configure(List.of("A"), null);
+        store.claimable = false;
+        TestEmitter emitter = new TestEmitter();
+
+        // expectation
+        joinComponent.run(arrival("exec-1", "A", "x", 1), emitter);
+
+        // validation
+        assertThat(emitter.merged).isEmpty();
+    }
+
+    @Test
+    void shouldMergeAgain_whenMergingArrivalIsRedelivered() {
+        // setup
+        configure(List.of("A", "B"), null);
+        TestEmitter emitter = new TestEmitter();
+        joinComponent.run(arrival("exec-1", "A", "x", 1), emitter);
+        Context b = arrival("exec-2", "B", "y", 2);
+        joinComponent.run(b, emitter);
+
+        // expectation
+        joinComponent.run(b, emitter);
+
+        // validation
+        assertThat(emitter.merged).hasSize(2);
+        assertThat(emitter.merged.get(1).getData()).containsEntry("x", 1).containsEntry("y", 2);
+        assertThat(store.state.getMergedBy()).isEqualTo("exec-2");
+    }
+
+    @Test
+    void shouldReleaseMergeClaim_whenMergeFails() {
+        // setup
+        configure(List.of("A", "B"), null);
+        TestEmitter emitter = new TestEmitter();
+        joinComponent.run(arrival("exec-1", "A", "x", 1), emitter);
+        Context b = arrival("exec-2", "B", "y", 2);
+        JoinComponent failing = new JoinComponent(new WorkflowExecutionRegistry() {
+            @Override
+            public List<WorkflowExecution> getWorkflowExecutions(String workflowId) {
+                return List.of();
+            }
+
+            @Override
+            public WorkflowExecution getWorkflowExecution(String id) {
+                return null;
+            }
+
+            @Override
+            public WorkflowExecution register(WorkflowExecution workflowExecution) {
+                return workflowExecution;
+            }
+
+            @Override
+            public void updateNodeExecution(WorkflowExecution workflowExecution, WorkflowNodeExecution nodeExecution) {
+            }
+
+            @Override
+            public void updateStatus(WorkflowExecution workflowExecution, WorkflowExecutionStatus status) {
+            }
+        }, store);
+        ComponentRuntimeConfig config = new ComponentRuntimeConfig();
+        config.set(JoinComponent.CONF_AWAIT, List.of("A", "B"));
+        failing.configure(config);
+
+        // expectation & validation
+        assertThatThrownBy(() -> failing.run(b, emitter)).isInstanceOf(RuntimeException.class);
+        assertThat(store.state.getMergedBy()).isNull();
+        joinComponent.run(b, emitter);
+        assertThat(emitter.merged).hasSize(1);
+    }
+
+    private void configure(List<String> awaits, String waitMode) {
+        ComponentRuntimeConfig config = new ComponentRuntimeConfig();
+        config.set(JoinComponent.CONF_AWAIT, awaits);
+        if (waitMode != null) {
+            config.set(JoinComponent.CONF_WAIT_MODE, waitMode);
+        }
+        joinComponent.configure(config);
+    }
+
+    private Context arrival(String nodeExecutionId, String branch, String key, Object value) {
+        Context context = new Context();
+        context.set(key, value);
+        WorkflowGraphNode node = new WorkflowGraphNode();
+        node.setNode(branch);
+        node.setParents(List.of());
+        node.setState(WorkflowNodeExecutionState.DONE);
+        context.getGraphNodes().add(node);
+        ContextRuntimeData runtimeData = new ContextRuntimeData();
+        runtimeData.setWorkflowExecutionId("wf-exec");
+        runtimeData.setWorkflowNodeId(JOIN_NODE);
+        runtimeData.setWorkflowNodeExecutionId(nodeExecutionId);
+        context.setRuntimeData(runtimeData);
+
+        WorkflowNodeExecution execution = new WorkflowNodeExecution();
+        execution.setWorkflowNodeExecutionId(nodeExecutionId);
+        execution.setStageContext(context);
+        nodeExecutions.put(nodeExecutionId, execution);
+        return context;
+    }
+
+    static class InMemoryJoinStateStore extends JoinStateStore {
+        JoinState state;
+        boolean claimable = true;
+
+        InMemoryJoinStateStore() {
+            super(null);
+        }
+
+        @Override
+        public JoinState arrive(String workflowExecutionId, String workflowNodeId,
+                                String workflowNodeExecutionId, Collection<String> satisfied) {
+            if (state == null) {
+                state = new JoinState();
+                state.setId(JoinState.idOf(workflowExecutionId, workflowNodeId));
+            }
+            if (!state.getArrivals().contains(workflowNodeExecutionId)) {
+                state.getArrivals().add(workflowNodeExecutionId);
+            }
+            satisfied.stream().filter(s -> !state.getSatisfied().contains(s)).forEach(state.getSatisfied()::add);
+            state.setArrivalCount(state.getArrivalCount() + 1);
+            JoinState copy = new JoinState();
+            copy.setId(state.getId());
+            copy.setArrivals(new ArrayList<>(state.getArrivals()));
+            copy.setSatisfied(new ArrayList<>(state.getSatisfied()));
+            copy.setArrivalCount(state.getArrivalCount());
+            copy.setMergedBy(state.getMergedBy());
+            return copy;
+        }
+
+        @Override
+        public boolean claimMerge(JoinState claimed, String workflowNodeExecutionId) {
+            if (!claimable || (state.getMergedBy() != null
+                    && !state.getMergedBy().equals(workflowNodeExecutionId))) {
+                return false;
+            }
+            state.setMergedBy(workflowNodeExecutionId);
+            return true;
+        }
+
+        @Override
+        public void releaseMerge(JoinState claimed, String workflowNodeExecutionId) {
+            if (workflowNodeExecutionId.equals(state.getMergedBy())) {
+                state.setMergedBy(null);
+            }
+        }
+    }
+
+    static class TestEmitter implements ComponentUpdateEmitter {
+        final List<Context> merged = new ArrayList<>();
+
+        @Override
+        public void success(Context updatedContext) {
+            merged.add(updatedContext);
+        }
+
+        @Override
+        public void failure(Exception ex) {
+            throw new RuntimeException(ex);
+        }
+
+        @Override
+        public Logger logger() {
+            return (message, level, throwable) -> {
+            };
+        }
+
+        @Override
+        public InteractionLogger interactionLogger() {
+            return null;
+        }
+    }
+}
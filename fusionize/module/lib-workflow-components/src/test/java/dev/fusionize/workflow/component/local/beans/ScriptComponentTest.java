@@ -3,6 +3,7 @@ package dev.fusionize.workflow.component.local.beans;
 import dev.fusionize.workflow.component.runtime.ComponentRuntimeConfig;
 import dev.fusionize.workflow.component.runtime.interfaces.ComponentUpdateEmitter;
 import dev.fusionize.workflow.context.Context;
+import dev.fusionize.workflow.context.ContextResourceReference;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -116,6 +117,24 @@ class ScriptComponentTest {
         assertEquals("new value", emitter.capturedContext.getData().get("new"), "New data should be added");
     }
 
+    @Test
+    void testJsContextUpdate_OffloadedValue() {
+        context.setValueStore((reference, type) -> "stored");
+        context.getOffloaded().put("big", ContextResourceReference.builder().withReferenceKey("ref-1").build());
+
+        ComponentRuntimeConfig config = new ComponentRuntimeConfig();
+        config.set(ScriptComponent.CONF_SCRIPT, "context.big = `${big} and changed`;");
+        config.set(ScriptComponent.CONF_PARSER, "js");
+        component.configure(config);
+
+        component.run(context, emitter);
+
+        assertTrue(emitter.successCalled);
+        assertEquals("stored and changed", emitter.capturedContext.getData().get("big"));
+        assertTrue(emitter.capturedContext.getOffloaded().isEmpty(), "No stale reference should be kept");
+        assertEquals("stored and changed", emitter.capturedContext.varString("big").orElseThrow());
+    }
+
     static class TestEmitter implements ComponentUpdateEmitter {
         boolean successCalled = false;
         Context capturedContext;
@@ -0,0 +1,111 @@
+package dev.fusionize.workflow.component.local.join;
+
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class JoinStateStoreTest {
+    private MongoTemplate mongoTemplate;
+    private JoinStateStore store;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        store = new JoinStateStore(mongoTemplate);
+    }
+
+    @Test
+    void shouldRecordArrivalAtomically() {
+        // setup
+        JoinState state = new JoinState();
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(JoinState.class), eq(JoinState.COLLECTION))).thenReturn(state);
+
+        // expectation
+        JoinState result = store.arrive("wf-exec", "join", "exec-1", List.of("A", "B"));
+
+        // validation
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        ArgumentCaptor<FindAndModifyOptions> options = ArgumentCaptor.forClass(FindAndModifyOptions.class);
+        verify(mongoTemplate).findAndModify(query.capture(), update.capture(), options.capture(),
+                eq(JoinState.class), eq(JoinState.COLLECTION));
+        assertThat(result).isSameAs(state);
+        assertThat(query.getValue().getQueryObject().get("_id")).isEqualTo("wf-exec:join");
+        Document updateObject = update.getValue().getUpdateObject();
+        assertThat(updateObject.get("$addToSet", Document.class)).containsKeys("arrivals", "satisfied");
+        assertThat(updateObject.get("$inc", Document.class)).containsEntry("arrivalCount", 1);
+        assertThat(options.getValue().isUpsert()).isTrue();
+        assertThat(options.getValue().isReturnNew()).isTrue();
+    }
+
+    @Test
+    void shouldRetryWhenConcurrentArrivalCreatedState() {
+        // setup
+        JoinState state = new JoinState();
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(JoinState.class), eq(JoinState.COLLECTION)))
+                .thenThrow(new DuplicateKeyException("duplicate"))
+                .thenReturn(state);
+
+        // expectation
+        JoinState result = store.arrive("wf-exec", "join", "exec-2", List.of());
+
+        // validation
+        assertThat(result).isSameAs(state);
+    }
+
+    @Test
+    void shouldClaimMergeOnlyWhileUnmerged() {
+        // setup
+        JoinState state = new JoinState();
+        state.setId("wf-exec:join");
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(JoinState.COLLECTION)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null), UpdateResult.acknowledged(0, 0L, null));
+
+        // expectation
+        boolean first = store.claimMerge(state, "exec-1");
+        boolean second = store.claimMerge(state, "exec-2");
+
+        // validation
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, times(2)).updateFirst(query.capture(), any(Update.class), eq(JoinState.COLLECTION));
+        assertThat(query.getValue().getQueryObject().getList("$or", Document.class))
+                .extracting(d -> d.get("mergedBy"))
+                .containsExactly(null, "exec-2");
+        assertThat(first).isTrue();
+        assertThat(second).isFalse();
+    }
+
+    @Test
+    void shouldReleaseOnlyOwnMergeClaim() {
+        // setup
+        JoinState state = new JoinState();
+        state.setId("wf-exec:join");
+
+        // expectation
+        store.releaseMerge(state, "exec-1");
+
+        // validation
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(query.capture(), update.capture(), eq(JoinState.COLLECTION));
+        assertThat(query.getValue().getQueryObject()).containsEntry("_id", "wf-exec:join")
+                .containsEntry("mergedBy", "exec-1");
+        assertThat(update.getValue().getUpdateObject().get("$unset", Document.class)).containsKey("mergedBy");
+    }
+}
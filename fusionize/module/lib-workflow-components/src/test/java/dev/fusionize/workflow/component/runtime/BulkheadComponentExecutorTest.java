@@ -0,0 +1,140 @@
+package dev.fusionize.workflow.component.runtime;
+
+import dev.fusionize.workflow.component.ComponentExecutorProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+class BulkheadComponentExecutorTest {
+
+    private final List<Runnable> scheduled = new ArrayList<>();
+    private BulkheadComponentExecutor bulkheads;
+
+    @BeforeEach
+    void setUp() {
+        ExecutorService executor = Mockito.mock(ExecutorService.class);
+        doAnswer(invocation -> scheduled.add(invocation.getArgument(0))).when(executor).execute(any(Runnable.class));
+        ComponentExecutorProperties properties = new ComponentExecutorProperties();
+        properties.setBulkhead(new ComponentExecutorProperties.Bulkhead(2, 1));
+        properties.setBulkheads(Map.of("fuz.slow", new ComponentExecutorProperties.Bulkhead(1, 0)));
+        bulkheads = new BulkheadComponentExecutor(properties, executor);
+    }
+
+    @Test
+    void shouldQueueTasksBeyondMaxConcurrent() {
+        // setup
+        AtomicInteger ran = new AtomicInteger();
+
+        // expectation
+        bulkheads.execute("fuz.http", ran::incrementAndGet);
+        bulkheads.execute("fuz.http", ran::incrementAndGet);
+        bulkheads.execute("fuz.http", ran::incrementAndGet);
+
+        // validation
+        assertThat(scheduled).hasSize(2);
+        assertThat(bulkheads.getActive("fuz.http")).isEqualTo(2);
+        assertThat(bulkheads.getQueued("fuz.http")).isEqualTo(1);
+        scheduled.get(0).run();
+        assertThat(scheduled).hasSize(3);
+        assertThat(bulkheads.getQueued("fuz.http")).isZero();
+        scheduled.get(1).run();
+        scheduled.get(2).run();
+        assertThat(ran).hasValue(3);
+        assertThat(bulkheads.getActive("fuz.http")).isZero();
+    }
+
+    @Test
+    void shouldRejectWhenQueueIsFull() {
+        // setup
+        bulkheads.execute("fuz.http", () -> { });
+        bulkheads.execute("fuz.http", () -> { });
+        bulkheads.execute("fuz.http", () -> { });
+
+        // expectation
+        assertThatThrownBy(() -> bulkheads.execute("fuz.http", () -> { }))
+                .isInstanceOf(RejectedExecutionException.class);
+
+        // validation
+        assertThat(bulkheads.getRejected("fuz.http")).isEqualTo(1);
+        assertThat(scheduled).hasSize(2);
+    }
+
+    @Test
+    void shouldIsolateDomains() {
+        // setup
+        bulkheads.execute("fuz.slow", () -> { });
+
+        // expectation
+        assertThatThrownBy(() -> bulkheads.execute("fuz.slow", () -> { }))
+                .isInstanceOf(RejectedExecutionException.class);
+        bulkheads.execute("fuz.http", () -> { });
+
+        // validation
+        assertThat(bulkheads.getActive("fuz.slow")).isEqualTo(1);
+        assertThat(bulkheads.getActive("fuz.http")).isEqualTo(1);
+        assertThat(bulkheads.getRejected("fuz.http")).isZero();
+    }
+
+    @Test
+    void shouldReleaseSlotWhenTaskFails() {
+        // setup
+        bulkheads.execute("fuz.slow", () -> {
+            throw new IllegalStateException("boom");
+        });
+
+        // expectation
+        assertThatThrownBy(() -> scheduled.get(0).run()).isInstanceOf(IllegalStateException.class);
+
+        // validation
+        assertThat(bulkheads.getActive("fuz.slow")).isZero();
+        bulkheads.execute("fuz.slow", () -> { });
+        assertThat(scheduled).hasSize(2);
+    }
+
+    @Test
+    void shouldPublishGaugesPerDomain() {
+        // setup
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        bulkheads.execute("fuz.http", () -> { });
+        bulkheads.bindTo(registry);
+
+        // expectation
+        bulkheads.execute("fuz.slow", () -> { });
+        assertThatThrownBy(() -> bulkheads.execute("fuz.slow", () -> { }))
+                .isInstanceOf(RejectedExecutionException.class);
+
+        // validation
+        assertThat(registry.get("fusionize.component.bulkhead.active").tag("domain", "fuz.http").gauge().value())
+                .isEqualTo(1.0);
+        assertThat(registry.get("fusionize.component.bulkhead.queued").tag("domain", "fuz.slow").gauge().value())
+                .isZero();
+        assertThat(registry.get("fusionize.component.bulkhead.rejected").tag("domain", "fuz.slow")
+                .functionCounter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void shouldTakeDomainFromComponent() {
+        // setup
+        String remote = "system:fuz.connector.HttpInbound";
+
+        // expectation
+        String domain = BulkheadComponentExecutor.domainOf(remote);
+
+        // validation
+        assertThat(domain).isEqualTo("fuz.connector.HttpInbound");
+        assertThat(BulkheadComponentExecutor.domainOf("script")).isEqualTo("script");
+    }
+}
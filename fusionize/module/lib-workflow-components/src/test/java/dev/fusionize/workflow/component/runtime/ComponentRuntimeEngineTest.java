@@ -2,9 +2,14 @@ package dev.fusionize.workflow.component.runtime;
 
 import dev.fusionize.workflow.*;
 import dev.fusionize.workflow.component.ComponentConfig;
+import dev.fusionize.workflow.component.ComponentExecutorProperties;
+import dev.fusionize.workflow.component.exceptions.ComponentBusyException;
+import dev.fusionize.workflow.component.local.LocalComponentRuntime;
 import dev.fusionize.workflow.component.runtime.interfaces.ComponentRuntime;
 import dev.fusionize.workflow.component.runtime.interfaces.ComponentUpdateEmitter;
+import dev.fusionize.workflow.component.timer.TimerService;
 import dev.fusionize.workflow.context.Context;
+import dev.fusionize.workflow.context.ContextDelta;
 import dev.fusionize.workflow.events.Event;
 import dev.fusionize.workflow.events.EventPublisher;
 import dev.fusionize.workflow.events.OrchestrationEvent;
@@ -17,9 +22,16 @@ import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.beans.factory.ObjectProvider;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -46,7 +58,8 @@ class ComponentRuntimeEngineTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
-        engine = new ComponentRuntimeEngine(registry, eventPublisher, workflowLogger, interactionLogger, executor);
+        engine = new ComponentRuntimeEngine(registry, eventPublisher, workflowLogger, interactionLogger,
+                new BulkheadComponentExecutor(new ComponentExecutorProperties(), executor));
 
         // Mock executor to run immediately
         doAnswer(invocation -> {
@@ -128,6 +141,116 @@ class ComponentRuntimeEngineTest {
         assertNull(publishedEvent.getException());
     }
 
+    @Test
+    void isLocal_ShouldOnlyAcceptLocalRuntimes() {
+        ActivationRequestEvent request = createActivationRequest();
+        when(registry.get(anyString(), any())).thenReturn(Optional.of(componentRuntime));
+        assertFalse(engine.isLocal(request));
+
+        when(registry.get(anyString(), any())).thenReturn(Optional.of(mock(LocalComponentRuntime.class)));
+        assertTrue(engine.isLocal(request));
+    }
+
+    @Test
+    void activateComponent_WithResponder_ShouldNotPublish() {
+        ActivationRequestEvent request = createActivationRequest();
+        when(registry.get(anyString(), any())).thenReturn(Optional.of(componentRuntime));
+        doAnswer(invocation -> {
+            ComponentUpdateEmitter emitter = invocation.getArgument(1);
+            emitter.success(new Context());
+            return null;
+        }).when(componentRuntime).canActivate(any(Context.class), any(ComponentUpdateEmitter.class));
+        List<ActivationResponseEvent> responses = new ArrayList<>();
+
+        engine.activateComponent(request, responses::add);
+
+        assertEquals(1, responses.size());
+        verify(eventPublisher, never()).publish(any());
+    }
+
+    @Test
+    void invokeComponent_WhenBulkheadFull_ShouldRespondBusy() {
+        InvocationRequestEvent request = createInvocationRequest();
+        when(registry.get(anyString(), any())).thenReturn(Optional.of(componentRuntime));
+        BulkheadComponentExecutor bulkheads = mock(BulkheadComponentExecutor.class);
+        doThrow(new RejectedExecutionException("full")).when(bulkheads).execute(anyString(), any(Runnable.class));
+        engine = new ComponentRuntimeEngine(registry, eventPublisher, workflowLogger, interactionLogger, bulkheads);
+
+        engine.invokeComponent(request);
+
+        verify(componentRuntime, never()).run(any(Context.class), any(ComponentUpdateEmitter.class));
+        ArgumentCaptor<InvocationResponseEvent> captor = ArgumentCaptor.forClass(InvocationResponseEvent.class);
+        verify(eventPublisher).publish(captor.capture());
+        assertTrue(captor.getValue().isBusy());
+        assertTrue(captor.getValue().getException().getMessage().startsWith(ComponentBusyException.class.getName()));
+        assertTrue(captor.getValue().getException().getMessage().contains(ComponentRuntimeEngine.ERR_CODE_COMP_BUSY));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void invokeComponent_WhenSucceedingAfterDelay_ShouldScheduleDurableTimer() {
+        InvocationRequestEvent request = createInvocationRequest();
+        when(registry.get(anyString(), any())).thenReturn(Optional.of(componentRuntime));
+        TimerService timerService = mock(TimerService.class);
+        ObjectProvider<TimerService> timers = mock(ObjectProvider.class);
+        when(timers.getIfAvailable()).thenReturn(timerService);
+        engine = new ComponentRuntimeEngine(registry, eventPublisher, workflowLogger, interactionLogger,
+                new BulkheadComponentExecutor(new ComponentExecutorProperties(), executor),
+                timers, null);
+        Context delayed = new Context();
+        doAnswer(invocation -> {
+            ComponentUpdateEmitter emitter = invocation.getArgument(1);
+            emitter.successAfter(Duration.ofHours(2), delayed);
+            return null;
+        }).when(componentRuntime).run(any(Context.class), any(ComponentUpdateEmitter.class));
+
+        Instant before = Instant.now();
+        engine.invokeComponent(request, response -> fail("response must wait for the timer"));
+
+        ArgumentCaptor<Instant> dueAt = ArgumentCaptor.forClass(Instant.class);
+        ArgumentCaptor<Event> scheduled = ArgumentCaptor.forClass(Event.class);
+        verify(timerService).schedule(dueAt.capture(), scheduled.capture());
+        assertFalse(dueAt.getValue().isBefore(before.plus(Duration.ofHours(2))));
+        assertInstanceOf(InvocationResponseEvent.class, scheduled.getValue());
+        assertSame(delayed, ((InvocationResponseEvent) scheduled.getValue()).getContext());
+        verify(eventPublisher, never()).publish(any());
+    }
+
+    @Test
+    void invokeComponent_WhenContextVersioned_ShouldRespondWithDelta() {
+        // setup
+        InvocationRequestEvent request = createInvocationRequest();
+        request.getContext().set("kept", "value");
+        request.getContext().set("dropped", "value");
+        request.setContextVersion(ContextDelta.version(request.getContext()));
+        when(registry.get(anyString(), any())).thenReturn(Optional.of(componentRuntime));
+
+        // expectation
+        doAnswer(invocation -> {
+            Context context = invocation.getArgument(0);
+            context.set("added", 1);
+            context.getData().remove("dropped");
+            ComponentUpdateEmitter emitter = invocation.getArgument(1);
+            emitter.success(context);
+            return null;
+        }).when(componentRuntime).run(any(Context.class), any(ComponentUpdateEmitter.class));
+
+        engine.invokeComponent(request);
+
+        // validation
+        ArgumentCaptor<InvocationResponseEvent> captor = ArgumentCaptor.forClass(InvocationResponseEvent.class);
+        verify(eventPublisher).publish(captor.capture());
+        InvocationResponseEvent response = captor.getValue();
+        assertNull(response.getContext());
+        ContextDelta delta = response.getContextDelta();
+        assertEquals(request.getContextVersion(), delta.getBaseVersion());
+        assertEquals(Map.of("added", 1), delta.getSet());
+        assertEquals(List.of("dropped"), delta.getRemoved());
+        assertNull(delta.getDecisions());
+        assertNull(delta.getGraphNodes());
+        assertTrue(delta.appliesTo(request.getContext()));
+    }
+
     private ActivationRequestEvent createActivationRequest() {
         return (ActivationRequestEvent) createOrchestrationEvent(new ActivationRequestEvent());
     }
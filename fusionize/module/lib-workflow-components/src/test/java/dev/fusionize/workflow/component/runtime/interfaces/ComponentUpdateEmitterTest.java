@@ -6,10 +6,15 @@ import dev.fusionize.workflow.component.runtime.interfaces.ComponentUpdateEmitte
 import dev.fusionize.workflow.context.Context;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 class ComponentUpdateEmitterTest {
 
@@ -38,11 +43,24 @@ class ComponentUpdateEmitterTest {
         assertEquals(WorkflowLog.LogLevel.DEBUG, logs.get(3).level);
     }
 
+    @Test
+    void testDefaultSuccessAfter() throws Exception {
+        TestEmitter emitter = new TestEmitter();
+        Context context = new Context();
+
+        emitter.successAfter(Duration.ofMillis(50), context);
+
+        assertFalse(emitter.succeeded.isDone());
+        assertSame(context, emitter.succeeded.get(2, TimeUnit.SECONDS));
+    }
+
     static class TestEmitter implements ComponentUpdateEmitter {
         private final List<LogEntry> logs = new ArrayList<>();
+        private final CompletableFuture<Context> succeeded = new CompletableFuture<>();
 
         @Override
         public void success(Context updatedContext) {
+            succeeded.complete(updatedContext);
         }
 
         @Override
@@ -0,0 +1,180 @@
+package dev.fusionize.workflow.component.timer;
+
+import com.mongodb.client.result.DeleteResult;
+import dev.fusionize.workflow.events.Event;
+import dev.fusionize.workflow.events.EventPublisher;
+import dev.fusionize.workflow.events.orchestration.InvocationResponseEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class DurableTimerServiceTest {
+    private MongoTemplate mongoTemplate;
+    private EventPublisher<Event> eventPublisher;
+    private TestClock clock;
+    private DurableTimerService timers;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        eventPublisher = mock(EventPublisher.class);
+        clock = new TestClock(Instant.parse("2026-01-01T00:00:00Z"));
+        TimerProperties properties = new TimerProperties();
+        properties.setTick(Duration.ofMillis(100));
+        timers = new DurableTimerService(properties, mongoTemplate, eventPublisher, clock);
+    }
+
+    @Test
+    void shouldPersistScheduledTimer() {
+        // setup
+        var event = new InvocationResponseEvent();
+        var dueAt = clock.instant().plus(Duration.ofHours(3));
+
+        // expectation
+        String id = timers.schedule(dueAt, event);
+
+        // validation
+        ArgumentCaptor<DurableTimer> captor = ArgumentCaptor.forClass(DurableTimer.class);
+        verify(mongoTemplate).insert(captor.capture(), eq(DurableTimer.COLLECTION));
+        assertThat(captor.getValue().getId()).isEqualTo(id);
+        assertThat(captor.getValue().getDueAt()).isEqualTo(Date.from(dueAt));
+        assertThat(captor.getValue().getEvent()).isSameAs(event);
+        // far timers are not held until a poll claims them
+        assertThat(captor.getValue().getOwner()).isNull();
+        assertThat(timers.getHeld()).isZero();
+    }
+
+    @Test
+    void shouldClaimDueTimersAndFireThemWhenDue() {
+        // setup
+        var event = new InvocationResponseEvent();
+        var dueAt = clock.instant().plus(Duration.ofSeconds(5));
+        var claimed = timer("t1", dueAt, null);
+        var stored = timer("t1", dueAt, event);
+        when(mongoTemplate.find(any(Query.class), eq(DurableTimer.class), eq(DurableTimer.COLLECTION)))
+                .thenReturn(List.of(claimed), List.of(claimed), List.of(stored));
+
+        // expectation
+        timers.poll();
+        timers.tick();
+        verify(eventPublisher, never()).publish(any());
+        clock.advance(Duration.ofSeconds(6));
+        timers.tick();
+
+        // validation
+        verify(mongoTemplate).updateMulti(any(Query.class), any(Update.class), eq(DurableTimer.COLLECTION));
+        verify(eventPublisher).publish(event);
+        verify(mongoTemplate).remove(any(Query.class), eq(DurableTimer.COLLECTION));
+        assertThat(timers.getFired()).isEqualTo(1);
+        assertThat(timers.getHeld()).isZero();
+    }
+
+    @Test
+    void shouldFireOverdueTimersOnFirstTick() {
+        // setup
+        var event = new InvocationResponseEvent();
+        var dueAt = clock.instant().minus(Duration.ofMinutes(30));
+        when(mongoTemplate.find(any(Query.class), eq(DurableTimer.class), eq(DurableTimer.COLLECTION)))
+                .thenReturn(List.of(timer("t1", dueAt, null)), List.of(timer("t1", dueAt, null)),
+                        List.of(timer("t1", dueAt, event)));
+
+        // expectation
+        timers.poll();
+        timers.tick();
+
+        // validation
+        verify(eventPublisher).publish(event);
+    }
+
+    @Test
+    void shouldNotFireCancelledTimer() {
+        // setup
+        var dueAt = clock.instant().plus(Duration.ofSeconds(5));
+        when(mongoTemplate.find(any(Query.class), eq(DurableTimer.class), eq(DurableTimer.COLLECTION)))
+                .thenReturn(List.of(timer("t1", dueAt, null)), List.of(timer("t1", dueAt, null)));
+        when(mongoTemplate.remove(any(Query.class), eq(DurableTimer.COLLECTION)))
+                .thenReturn(DeleteResult.acknowledged(1));
+        timers.poll();
+
+        // expectation
+        boolean cancelled = timers.cancel("t1");
+        clock.advance(Duration.ofSeconds(6));
+        timers.tick();
+
+        // validation
+        assertThat(cancelled).isTrue();
+        verify(eventPublisher, never()).publish(any());
+    }
+
+    @Test
+    void shouldKeepTimerWhenPublishFails() {
+        // setup
+        var event = new InvocationResponseEvent();
+        var dueAt = clock.instant();
+        when(mongoTemplate.find(any(Query.class), eq(DurableTimer.class), eq(DurableTimer.COLLECTION)))
+                .thenReturn(List.of(timer("t1", dueAt, null)), List.of(timer("t1", dueAt, null)),
+                        List.of(timer("t1", dueAt, event)));
+        doThrow(new IllegalStateException("broker down")).when(eventPublisher).publish(event);
+        timers.poll();
+        clock.advance(Duration.ofSeconds(1));
+
+        // expectation
+        timers.tick();
+
+        // validation
+        verify(mongoTemplate, never()).remove(any(Query.class), eq(DurableTimer.COLLECTION));
+        assertThat(timers.getFired()).isZero();
+    }
+
+    private static DurableTimer timer(String id, Instant dueAt, Event event) {
+        DurableTimer timer = new DurableTimer();
+        timer.setId(id);
+        timer.setDueAt(Date.from(dueAt));
+        timer.setEvent(event);
+        return timer;
+    }
+
+    private static class TestClock extends Clock {
+        private Instant now;
+
+        TestClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package dev.fusionize.workflow.component.timer;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HierarchicalTimingWheelTest {
+
+    @Test
+    void shouldExpireOnlyAfterDeadlineTick() {
+        // setup
+        var wheel = new HierarchicalTimingWheel<String>(10, 8, 1_000);
+        List<String> expired = new ArrayList<>();
+        wheel.add("a", 1_025);
+
+        // expectation
+        wheel.advance(1_025, expired::add);
+        var early = List.copyOf(expired);
+        wheel.advance(1_030, expired::add);
+
+        // validation
+        assertThat(early).isEmpty();
+        assertThat(expired).containsExactly("a");
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void shouldCascadeFromOverflowWheels() {
+        // setup
+        var wheel = new HierarchicalTimingWheel<String>(10, 4, 0);
+        List<String> expired = new ArrayList<>();
+        wheel.add("near", 15);
+        wheel.add("overflow", 95);
+        wheel.add("far", 1_234);
+
+        // expectation
+        wheel.advance(90, expired::add);
+        var beforeOverflow = List.copyOf(expired);
+        wheel.advance(100, expired::add);
+        var beforeFar = List.copyOf(expired);
+        wheel.advance(1_240, expired::add);
+
+        // validation
+        assertThat(beforeOverflow).containsExactly("near");
+        assertThat(beforeFar).containsExactly("near", "overflow");
+        assertThat(expired).containsExactly("near", "overflow", "far");
+    }
+
+    @Test
+    void shouldRejectPassedDeadlines() {
+        // setup
+        var wheel = new HierarchicalTimingWheel<String>(10, 8, 1_000);
+        wheel.advance(1_100, item -> { });
+
+        // expectation
+        boolean added = wheel.add("late", 1_050);
+
+        // validation
+        assertThat(added).isFalse();
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void shouldExpireManyTimersInDeadlineOrder() {
+        // setup
+        var wheel = new HierarchicalTimingWheel<Integer>(1, 16, 0);
+        List<Integer> expired = new ArrayList<>();
+        for (int deadline = 5_000; deadline > 0; deadline -= 7) {
+            wheel.add(deadline, deadline);
+        }
+
+        // expectation
+        wheel.advance(5_001, expired::add);
+
+        // validation
+        assertThat(expired).hasSize(715).isSorted();
+    }
+}
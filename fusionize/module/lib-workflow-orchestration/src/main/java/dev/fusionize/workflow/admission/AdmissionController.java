@@ -0,0 +1,382 @@
+package dev.fusionize.workflow.admission;
+
+import dev.fusionize.workflow.WorkflowExecution;
+import dev.fusionize.workflow.WorkflowExecutionStatus;
+import dev.fusionize.workflow.WorkflowNodeType;
+import dev.fusionize.workflow.events.OrchestrationEvent;
+import dev.fusionize.workflow.events.PartitionedEventDispatcher;
+import dev.fusionize.workflow.events.orchestration.InvocationResponseEvent;
+import dev.fusionize.workflow.lease.ExecutionLeaseManager;
+import dev.fusionize.workflow.orchestrator.Orchestrator;
+import dev.fusionize.workflow.registry.WorkflowExecutionRepoRegistry;
+import dev.fusionize.workflow.registry.WorkflowRepoRegistry;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds back triggers that would start executions over the caps of
+ * {@link AdmissionProperties}.
+ * <p>
+ * An execution starts when the invocation response of its start node is
+ * handled, so that is where triggers are gated: a response over the caps is
+ * stored as an {@link AdmissionTicket} instead and handled once capacity
+ * frees up, in the configured order. The in-flight counts are loaded from
+ * Mongo every {@code refreshInterval} and counted up locally in between, so
+ * with several nodes the caps can be exceeded by the triggers admitted
+ * elsewhere within one interval.
+ * <p>
+ * A ticket is deleted only after the orchestrator handled its trigger, so a
+ * node failing in between leaves it to be admitted again once its claim runs
+ * out. Admitted triggers are handled on the lane of their listening
+ * execution, in order with the events of that execution.
+ */
+@Component
+public class AdmissionController implements DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger(AdmissionController.class);
+
+    private final AdmissionProperties properties;
+    private final MongoTemplate mongoTemplate;
+    private final Orchestrator orchestrator;
+    private final WorkflowRepoRegistry workflowRegistry;
+    private final WorkflowExecutionRepoRegistry workflowExecutionRegistry;
+    private final ExecutionLeaseManager leases;
+    private final PartitionedEventDispatcher lanes;
+    private final Clock clock;
+    private final Map<String, Long> inFlight = new HashMap<>();
+    private final Map<String, Long> queued = new HashMap<>();
+    private long totalInFlight;
+    private long totalQueued;
+    // tickets that failed to start during the current run
+    private final Set<String> skippedTickets = ConcurrentHashMap.newKeySet();
+    private ScheduledExecutorService scheduler;
+
+    @Autowired
+    public AdmissionController(AdmissionProperties properties,
+                               @Qualifier("workerMongoTemplate") MongoTemplate mongoTemplate,
+                               Orchestrator orchestrator,
+                               WorkflowRepoRegistry workflowRegistry,
+                               WorkflowExecutionRepoRegistry workflowExecutionRegistry,
+                               ExecutionLeaseManager leases,
+                               PartitionedEventDispatcher lanes) {
+        this(properties, mongoTemplate, orchestrator, workflowRegistry, workflowExecutionRegistry, leases, lanes,
+                Clock.systemUTC());
+        if (properties.isEnabled()) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "workflow-admission");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long interval = properties.getRefreshInterval().toMillis();
+            scheduler.scheduleWithFixedDelay(this::runQuietly, 0, interval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    AdmissionController(AdmissionProperties properties, MongoTemplate mongoTemplate,
+                        Orchestrator orchestrator, WorkflowRepoRegistry workflowRegistry,
+                        WorkflowExecutionRepoRegistry workflowExecutionRegistry,
+                        ExecutionLeaseManager leases, PartitionedEventDispatcher lanes, Clock clock) {
+        this.properties = properties;
+        this.mongoTemplate = mongoTemplate;
+        this.orchestrator = orchestrator;
+        this.workflowRegistry = workflowRegistry;
+        this.workflowExecutionRegistry = workflowExecutionRegistry;
+        this.leases = leases;
+        this.lanes = lanes;
+        this.clock = clock;
+    }
+
+    /**
+     * Stores the event for later if it would start an execution over the
+     * caps, or while earlier triggers of its workflow are waiting.
+     *
+     * @param event an invocation response with its orchestration context
+     * @return whether the event was deferred and must not be handled now
+     */
+    public boolean defer(InvocationResponseEvent event) {
+        if (!properties.isEnabled() || !isTrigger(event)) {
+            return false;
+        }
+        String workflowId = event.getWorkflowId();
+        long waiting;
+        synchronized (this) {
+            if (queued.getOrDefault(workflowId, 0L) == 0 && tryAcquire(workflowId)) {
+                return false;
+            }
+            queued.merge(workflowId, 1L, Long::sum);
+            waiting = ++totalQueued;
+        }
+        // the context is reloaded when the ticket is admitted
+        event.setOrchestrationEventContext(null);
+        mongoTemplate.insert(AdmissionTicket.of(event, Date.from(clock.instant())));
+        log.info("Deferred a trigger of workflow {}, {} waiting", workflowId, waiting);
+        return true;
+    }
+
+    /**
+     * Counts executions of the workflow started directly, without a trigger
+     * through its start node, in flight right away, as far as the caps allow.
+     * None are admitted while triggers of the workflow are waiting.
+     *
+     * @return how many of the executions may start now
+     */
+    public synchronized int admit(String workflowId, int executions) {
+        if (!properties.isEnabled()) {
+            return executions;
+        }
+        if (queued.getOrDefault(workflowId, 0L) > 0) {
+            return 0;
+        }
+        int admitted = 0;
+        while (admitted < executions && tryAcquire(workflowId)) {
+            admitted++;
+        }
+        return admitted;
+    }
+
+    /**
+     * Takes executions {@link #admit admitted} but not started out of the
+     * in-flight count again.
+     */
+    public synchronized void cancel(String workflowId, int executions) {
+        if (!properties.isEnabled() || executions <= 0) {
+            return;
+        }
+        inFlight.merge(workflowId, -(long) executions, Long::sum);
+        totalInFlight -= executions;
+    }
+
+    /**
+     * Whether so many triggers are waiting that entry points should turn new
+     * ones away.
+     */
+    public synchronized boolean isSaturated() {
+        return properties.isEnabled() && totalQueued >= properties.getMaxQueued();
+    }
+
+    private static boolean isTrigger(InvocationResponseEvent event) {
+        OrchestrationEvent.EventContext oc = event.getOrchestrationEventContext();
+        return event.getException() == null && oc != null
+                && oc.nodeExecution().getWorkflowNode() != null
+                && oc.nodeExecution().getWorkflowNode().getType() == WorkflowNodeType.START;
+    }
+
+    private boolean tryAcquire(String workflowId) {
+        if (!hasCapacity(workflowId)) {
+            return false;
+        }
+        inFlight.merge(workflowId, 1L, Long::sum);
+        totalInFlight++;
+        return true;
+    }
+
+    private boolean hasCapacity(String workflowId) {
+        int limit = properties.limitFor(workflowId);
+        return (properties.getMaxInFlight() <= 0 || totalInFlight < properties.getMaxInFlight())
+                && (limit <= 0 || inFlight.getOrDefault(workflowId, 0L) < limit);
+    }
+
+    void run() {
+        refresh();
+        admitWaiting();
+    }
+
+    private void runQuietly() {
+        try {
+            run();
+        } catch (Exception e) {
+            log.error("Admission run failed", e);
+        }
+    }
+
+    /**
+     * Reloads the in-flight and waiting counts.
+     */
+    void refresh() {
+        Date activeSince = Date.from(clock.instant().minus(properties.getStaleAfter()));
+        Map<String, Long> executions = countByWorkflow(Criteria.where("status").is(WorkflowExecutionStatus.IN_PROGRESS)
+                .and("updatedDate").gte(activeSince), WorkflowExecution.class);
+        Map<String, Long> tickets = countByWorkflow(new Criteria(), AdmissionTicket.class);
+        synchronized (this) {
+            inFlight.clear();
+            inFlight.putAll(executions);
+            totalInFlight = executions.values().stream().mapToLong(Long::longValue).sum();
+            queued.clear();
+            queued.putAll(tickets);
+            totalQueued = tickets.values().stream().mapToLong(Long::longValue).sum();
+        }
+    }
+
+    private Map<String, Long> countByWorkflow(Criteria criteria, Class<?> type) {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(criteria),
+                Aggregation.group("workflowId").count().as("count"));
+        Map<String, Long> counts = new HashMap<>();
+        for (Document result : mongoTemplate.aggregate(aggregation, type, Document.class)) {
+            counts.put(result.getString("_id"), ((Number) result.get("count")).longValue());
+        }
+        return counts;
+    }
+
+    /**
+     * Hands waiting triggers to the lanes of their listening executions while
+     * there is capacity. A ticket that cannot be started is put back and
+     * skipped for the rest of the run, and so are the other tickets of its
+     * workflow if its listening execution is leased elsewhere.
+     */
+    void admitWaiting() {
+        skippedTickets.clear();
+        Set<String> skippedWorkflows = new HashSet<>();
+        AdmissionTicket ticket;
+        while ((ticket = next(skippedWorkflows)) != null) {
+            InvocationResponseEvent event = ticket.getEvent();
+            if (!leases.acquire(event.getWorkflowExecutionId())) {
+                // the listening execution is handled elsewhere; its node admits it
+                unclaim(ticket);
+                skippedWorkflows.add(ticket.getWorkflowId());
+                continue;
+            }
+            AdmissionTicket admitted = ticket;
+            try {
+                lanes.dispatch(event.getWorkflowExecutionId(), () -> start(admitted));
+            } catch (RuntimeException e) {
+                log.error("Failed to start an admitted execution of workflow {}", ticket.getWorkflowId(), e);
+                skip(ticket);
+            }
+        }
+    }
+
+    /**
+     * Handles the trigger of a ticket the way its invocation response would
+     * have been, on the lane of its listening execution.
+     */
+    private void start(AdmissionTicket ticket) {
+        InvocationResponseEvent event = ticket.getEvent();
+        try {
+            event.ensureOrchestrationEventContext(workflowExecutionRegistry, workflowRegistry);
+            orchestrator.onInvoked(event);
+            leases.releaseIfCompleted(event);
+        } catch (Exception e) {
+            log.error("Failed to start an admitted execution of workflow {}", ticket.getWorkflowId(), e);
+            skip(ticket);
+            return;
+        }
+        mongoTemplate.remove(claimed(ticket), AdmissionTicket.class);
+    }
+
+    /**
+     * Puts a ticket back for the next run rather than failing it over and
+     * over now.
+     */
+    private void skip(AdmissionTicket ticket) {
+        skippedTickets.add(ticket.getId());
+        unclaim(ticket);
+    }
+
+    /**
+     * Claims the next ticket to admit and counts its execution in flight, or
+     * returns {@code null} if none can be admitted.
+     */
+    private AdmissionTicket next(Set<String> skippedWorkflows) {
+        String workflowId;
+        synchronized (this) {
+            List<String> candidates = queued.entrySet().stream()
+                    .filter(e -> e.getValue() > 0 && hasCapacity(e.getKey()))
+                    .map(Map.Entry::getKey)
+                    .filter(id -> !skippedWorkflows.contains(id))
+                    .toList();
+            if (candidates.isEmpty()) {
+                return null;
+            }
+            workflowId = properties.getOrder() == AdmissionProperties.Order.WEIGHTED_FAIR
+                    ? fairest(candidates)
+                    : null;
+            Date now = Date.from(clock.instant());
+            Query query = Query.query((workflowId == null
+                            ? Criteria.where("workflowId").in(candidates)
+                            : Criteria.where("workflowId").is(workflowId))
+                            .and("_id").nin(List.copyOf(skippedTickets))
+                            .orOperator(Criteria.where("claimedUntil").is(null),
+                                    Criteria.where("claimedUntil").lte(now)))
+                    .with(Sort.by(Sort.Direction.ASC, "_id"));
+            Update claim = new Update()
+                    .set("claimedBy", leases.getOwner())
+                    .set("claimedUntil", Date.from(clock.instant().plus(properties.getClaimTimeout())));
+            AdmissionTicket ticket = mongoTemplate.findAndModify(query, claim,
+                    FindAndModifyOptions.options().returnNew(true), AdmissionTicket.class);
+            if (ticket == null) {
+                // admitted or being admitted by another node
+                for (String emptied : workflowId == null ? candidates : List.of(workflowId)) {
+                    totalQueued -= queued.remove(emptied);
+                }
+                return next(skippedWorkflows);
+            }
+            queued.merge(ticket.getWorkflowId(), -1L, Long::sum);
+            totalQueued--;
+            tryAcquire(ticket.getWorkflowId());
+            return ticket;
+        }
+    }
+
+    /**
+     * Puts a claimed ticket back in the queue and takes its execution out of
+     * the in-flight count again.
+     */
+    private void unclaim(AdmissionTicket ticket) {
+        mongoTemplate.updateFirst(claimed(ticket),
+                new Update().unset("claimedBy").unset("claimedUntil"), AdmissionTicket.class);
+        release(ticket.getWorkflowId());
+    }
+
+    private Query claimed(AdmissionTicket ticket) {
+        return Query.query(Criteria.where("_id").is(ticket.getId())
+                .and("claimedBy").is(ticket.getClaimedBy()));
+    }
+
+    private String fairest(List<String> candidates) {
+        return candidates.stream()
+                .min(Comparator.<String>comparingDouble(id ->
+                                (inFlight.getOrDefault(id, 0L) + 1) / (double) properties.weightFor(id))
+                        .thenComparingLong(id -> inFlight.getOrDefault(id, 0L))
+                        .thenComparing(Comparator.naturalOrder()))
+                .orElseThrow();
+    }
+
+    private synchronized void release(String workflowId) {
+        inFlight.merge(workflowId, -1L, Long::sum);
+        totalInFlight--;
+        queued.merge(workflowId, 1L, Long::sum);
+        totalQueued++;
+    }
+
+    @Override
+    public void destroy() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package dev.fusionize.workflow.admission;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Caps on the executions in flight, i.e. IN_PROGRESS and updated within
+ * {@code staleAfter}. A cap of {@code 0} leaves the count unlimited.
+ */
+@Component
+@ConfigurationProperties(prefix = "fusionize.worker.admission")
+public class AdmissionProperties {
+    private boolean enabled = false;
+    private int maxInFlight = 0;
+    private int maxInFlightPerWorkflow = 0;
+    private Map<String, Integer> workflowLimits = new HashMap<>();
+    private Map<String, Integer> weights = new HashMap<>();
+    private Order order = Order.FIFO;
+    private int maxQueued = 10_000;
+    private Duration refreshInterval = Duration.ofSeconds(1);
+    private Duration staleAfter = Duration.ofHours(1);
+    private Duration claimTimeout = Duration.ofMinutes(1);
+
+    public enum Order {
+        /**
+         * The oldest waiting trigger of any workflow with capacity first.
+         */
+        FIFO,
+        /**
+         * The workflow with the fewest executions in flight for its weight
+         * first, then its oldest waiting trigger.
+         */
+        WEIGHTED_FAIR
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    public void setMaxInFlight(int maxInFlight) {
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * Cap of each workflow not listed in {@code workflowLimits}.
+     */
+    public int getMaxInFlightPerWorkflow() {
+        return maxInFlightPerWorkflow;
+    }
+
+    public void setMaxInFlightPerWorkflow(int maxInFlightPerWorkflow) {
+        this.maxInFlightPerWorkflow = maxInFlightPerWorkflow;
+    }
+
+    /**
+     * Caps by workflowId.
+     */
+    public Map<String, Integer> getWorkflowLimits() {
+        return workflowLimits;
+    }
+
+    public void setWorkflowLimits(Map<String, Integer> workflowLimits) {
+        this.workflowLimits = workflowLimits;
+    }
+
+    /**
+     * Weights by workflowId for {@link Order#WEIGHTED_FAIR}; unlisted
+     * workflows weigh 1.
+     */
+    public Map<String, Integer> getWeights() {
+        return weights;
+    }
+
+    public void setWeights(Map<String, Integer> weights) {
+        this.weights = weights;
+    }
+
+    public Order getOrder() {
+        return order;
+    }
+
+    public void setOrder(Order order) {
+        this.order = order;
+    }
+
+    /**
+     * Waiting triggers above which entry points turn new triggers away.
+     */
+    public int getMaxQueued() {
+        return maxQueued;
+    }
+
+    public void setMaxQueued(int maxQueued) {
+        this.maxQueued = maxQueued;
+    }
+
+    /**
+     * How often the counts are reloaded and waiting triggers admitted.
+     */
+    public Duration getRefreshInterval() {
+        return refreshInterval;
+    }
+
+    public void setRefreshInterval(Duration refreshInterval) {
+        this.refreshInterval = refreshInterval;
+    }
+
+    /**
+     * Age of the last update after which an IN_PROGRESS execution, e.g. one
+     * left with a failed node, no longer counts as in flight.
+     */
+    public Duration getStaleAfter() {
+        return staleAfter;
+    }
+
+    public void setStaleAfter(Duration staleAfter) {
+        this.staleAfter = staleAfter;
+    }
+
+    /**
+     * How long a ticket being admitted stays claimed by its node before
+     * other nodes may admit it.
+     */
+    public Duration getClaimTimeout() {
+        return claimTimeout;
+    }
+
+    public void setClaimTimeout(Duration claimTimeout) {
+        this.claimTimeout = claimTimeout;
+    }
+
+    int limitFor(String workflowId) {
+        return workflowLimits.getOrDefault(workflowId, maxInFlightPerWorkflow);
+    }
+
+    int weightFor(String workflowId) {
+        return Math.max(1, weights.getOrDefault(workflowId, 1));
+    }
+}
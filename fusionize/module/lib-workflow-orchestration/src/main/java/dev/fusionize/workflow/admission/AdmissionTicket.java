@@ -0,0 +1,87 @@
+package dev.fusionize.workflow.admission;
+
+import dev.fusionize.common.utility.KeyUtil;
+import dev.fusionize.workflow.events.orchestration.InvocationResponseEvent;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+/**
+ * A trigger waiting for admission: the invocation response of a start node
+ * that would have started an execution over the caps. Ids sort by creation,
+ * so the queue is read in id order.
+ * <p>
+ * A node admitting the ticket claims it until {@code claimedUntil} and
+ * deletes it once the execution started; a claim that runs out, e.g. because
+ * its node died, makes the ticket admissible again.
+ */
+@Document(collection = "workflow-admission-queue")
+public class AdmissionTicket {
+    @Id
+    private String id;
+    @Indexed
+    private String workflowId;
+    private InvocationResponseEvent event;
+    private Date enqueuedDate;
+    private String claimedBy;
+    private Date claimedUntil;
+
+    public static AdmissionTicket of(InvocationResponseEvent event, Date enqueuedDate) {
+        AdmissionTicket ticket = new AdmissionTicket();
+        ticket.setId(KeyUtil.getTimestampId("ADMT"));
+        ticket.setWorkflowId(event.getWorkflowId());
+        ticket.setEvent(event);
+        ticket.setEnqueuedDate(enqueuedDate);
+        return ticket;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getWorkflowId() {
+        return workflowId;
+    }
+
+    public void setWorkflowId(String workflowId) {
+        this.workflowId = workflowId;
+    }
+
+    public InvocationResponseEvent getEvent() {
+        return event;
+    }
+
+    public void setEvent(InvocationResponseEvent event) {
+        this.event = event;
+    }
+
+    public Date getEnqueuedDate() {
+        return enqueuedDate;
+    }
+
+    public void setEnqueuedDate(Date enqueuedDate) {
+        this.enqueuedDate = enqueuedDate;
+    }
+
+    public String getClaimedBy() {
+        return claimedBy;
+    }
+
+    public void setClaimedBy(String claimedBy) {
+        this.claimedBy = claimedBy;
+    }
+
+    public Date getClaimedUntil() {
+        return claimedUntil;
+    }
+
+    public void setClaimedUntil(Date claimedUntil) {
+        this.claimedUntil = claimedUntil;
+    }
+}
@@ -0,0 +1,100 @@
+package dev.fusionize.workflow.claimcheck;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Offloading of large context values to the {@code storage} file storage
+ * domain. Offloaded values are kept for {@code retainAfterCompletion} after
+ * their execution completed, or after {@code orphanAfter} found them orphaned.
+ */
+@Component
+@ConfigurationProperties(prefix = "fusionize.worker.claim-check")
+public class ClaimCheckProperties {
+    private boolean enabled = false;
+    private String storage;
+    private String prefix = "claim-check";
+    private long threshold = 256 * 1024;
+    private Duration retainAfterCompletion = Duration.ofHours(1);
+    private Duration orphanAfter = Duration.ofDays(1);
+    private Duration sweepInterval = Duration.ofHours(1);
+    private int batchSize = 500;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getStorage() {
+        return storage;
+    }
+
+    public void setStorage(String storage) {
+        this.storage = storage;
+    }
+
+    public String getPrefix() {
+        return prefix;
+    }
+
+    public void setPrefix(String prefix) {
+        this.prefix = prefix;
+    }
+
+    /**
+     * Estimated size in bytes above which a value is offloaded.
+     */
+    public long getThreshold() {
+        return threshold;
+    }
+
+    public void setThreshold(long threshold) {
+        this.threshold = threshold;
+    }
+
+    /**
+     * How long the offloaded values of a completed execution stay readable,
+     * e.g. for callers fetching its result.
+     */
+    public Duration getRetainAfterCompletion() {
+        return retainAfterCompletion;
+    }
+
+    public void setRetainAfterCompletion(Duration retainAfterCompletion) {
+        this.retainAfterCompletion = retainAfterCompletion;
+    }
+
+    /**
+     * How long an offloaded value may go unreleased before the sweep releases
+     * it anyway, when it was stored without an execution or its execution is
+     * gone or completed.
+     */
+    public Duration getOrphanAfter() {
+        return orphanAfter;
+    }
+
+    public void setOrphanAfter(Duration orphanAfter) {
+        this.orphanAfter = orphanAfter;
+    }
+
+    public Duration getSweepInterval() {
+        return sweepInterval;
+    }
+
+    public void setSweepInterval(Duration sweepInterval) {
+        this.sweepInterval = sweepInterval;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+}
@@ -0,0 +1,374 @@
+package dev.fusionize.workflow.claimcheck;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import dev.fusionize.common.utility.KeyUtil;
+import dev.fusionize.storage.StorageConfigManager;
+import dev.fusionize.storage.file.FileStorageService;
+import dev.fusionize.workflow.WorkflowExecution;
+import dev.fusionize.workflow.WorkflowExecutionStatus;
+import dev.fusionize.workflow.context.Context;
+import dev.fusionize.workflow.context.ContextDelta;
+import dev.fusionize.workflow.context.ContextResourceReference;
+import dev.fusionize.workflow.context.ContextValueStore;
+import dev.fusionize.workflow.events.orchestration.InvocationResponseEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Array;
+import java.time.Clock;
+import java.time.temporal.TemporalAccessor;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps large values out of stored and published contexts.
+ * <p>
+ * Values whose estimated size exceeds the threshold are written as gzip
+ * compressed JSON to the configured file storage and replaced in the context
+ * by a reference, which {@link Context#var} resolves through this store on
+ * first access. Each stored value is recorded in the
+ * {@code workflow-claim-check} manifest; once its execution completes the
+ * values are released and removed after {@code retainAfterCompletion}. Values
+ * still unreleased after {@code orphanAfter} are released by the sweep unless
+ * their execution is still running.
+ * <p>
+ * Values are offloaded where the orchestrator takes in an invocation
+ * response, so the response itself still carries the values a component
+ * produced inline and each of them has to fit the event transport, e.g. the
+ * 16 MB document limit of Mongo. Everything stored and dispatched from then
+ * on only carries the reference.
+ */
+@Component
+public class ContextClaimCheck implements ContextValueStore, DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger(ContextClaimCheck.class);
+    static final String MIME = "application/json";
+    private static final List<WorkflowExecutionStatus> COMPLETED = List.of(
+            WorkflowExecutionStatus.SUCCESS, WorkflowExecutionStatus.ERROR, WorkflowExecutionStatus.TERMINATED);
+
+    private final ClaimCheckProperties properties;
+    private final MongoTemplate mongoTemplate;
+    private final ObjectProvider<StorageConfigManager> storageConfigManager;
+    private final Clock clock;
+    private final ObjectMapper objectMapper = JsonMapper.builder()
+            .findAndAddModules()
+            .build();
+    private ScheduledExecutorService scheduler;
+
+    @Autowired
+    public ContextClaimCheck(ClaimCheckProperties properties,
+                             @Qualifier("workerMongoTemplate") MongoTemplate mongoTemplate,
+                             ObjectProvider<StorageConfigManager> storageConfigManager) {
+        this(properties, mongoTemplate, storageConfigManager, Clock.systemUTC());
+        if (properties.isEnabled()) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "workflow-claim-check");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long interval = properties.getSweepInterval().toMillis();
+            scheduler.scheduleWithFixedDelay(this::sweepQuietly, interval, interval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    ContextClaimCheck(ClaimCheckProperties properties, MongoTemplate mongoTemplate,
+                      ObjectProvider<StorageConfigManager> storageConfigManager, Clock clock) {
+        this.properties = properties;
+        this.mongoTemplate = mongoTemplate;
+        this.storageConfigManager = storageConfigManager;
+        this.clock = clock;
+    }
+
+    /**
+     * Offloads the large values an invocation response brings in, whether as
+     * a whole context or as a delta. Called once per response rather than
+     * per attempt to store it, so a retried write does not store them again.
+     */
+    public void offload(InvocationResponseEvent event) {
+        offload(event.getWorkflowExecutionId(), event.getContext());
+        offload(event.getWorkflowExecutionId(), event.getContextDelta());
+    }
+
+    /**
+     * Offloads the values of the context that are larger than the threshold.
+     */
+    public void offload(String workflowExecutionId, Context context) {
+        if (context != null) {
+            offload(workflowExecutionId, context.getData(), context::offload);
+        }
+    }
+
+    /**
+     * Offloads the set values of the delta that are larger than the threshold.
+     */
+    public void offload(String workflowExecutionId, ContextDelta delta) {
+        if (delta != null) {
+            offload(workflowExecutionId, delta.getSet(), delta::offload);
+        }
+    }
+
+    private void offload(String workflowExecutionId, Map<String, Object> values,
+                         BiConsumer<String, ContextResourceReference> offloader) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        Map<String, Object> large = new LinkedHashMap<>();
+        Map<String, Long> sizes = new LinkedHashMap<>();
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            long size = estimateSize(entry.getValue(), properties.getThreshold());
+            if (size > properties.getThreshold()) {
+                large.put(entry.getKey(), entry.getValue());
+                sizes.put(entry.getKey(), size);
+            }
+        }
+        if (large.isEmpty()) {
+            return;
+        }
+        FileStorageService storage = storage(properties.getStorage()).orElse(null);
+        if (storage == null) {
+            log.warn("Claim check storage {} not found, keeping {} large values inline",
+                    properties.getStorage(), large.size());
+            return;
+        }
+        for (Map.Entry<String, Object> entry : large.entrySet()) {
+            try {
+                ContextResourceReference reference = store(storage, workflowExecutionId,
+                        entry.getKey(), entry.getValue(), sizes.get(entry.getKey()));
+                offloader.accept(entry.getKey(), reference);
+            } catch (IOException e) {
+                log.error("Failed to offload context value {} of execution {}",
+                        entry.getKey(), workflowExecutionId, e);
+            }
+        }
+    }
+
+    private ContextResourceReference store(FileStorageService storage, String workflowExecutionId,
+                                           String key, Object value, long size) throws IOException {
+        String path = String.join("/", properties.getPrefix(),
+                pathSegment(workflowExecutionId == null ? "unassigned" : workflowExecutionId),
+                pathSegment(key) + "-" + KeyUtil.getFlatUUID() + ".json.gz");
+        OutputStream out = storage.write(List.of(path)).get(path);
+        try (OutputStream gzip = new GZIPOutputStream(out)) {
+            objectMapper.writeValue(gzip, value);
+        }
+        if (!Boolean.TRUE.equals(storage.save(List.of(path)).get(path))) {
+            throw new IOException("Failed to store claim check " + path);
+        }
+        ClaimCheck claimCheck = new ClaimCheck();
+        claimCheck.setWorkflowExecutionId(workflowExecutionId);
+        claimCheck.setKey(key);
+        claimCheck.setStorage(properties.getStorage());
+        claimCheck.setPath(path);
+        claimCheck.setSize(size);
+        claimCheck.setCreatedDate(Date.from(clock.instant()));
+        mongoTemplate.save(claimCheck);
+        return ContextResourceReference.builder()
+                .withStorage(properties.getStorage())
+                .withReferenceKey(path)
+                .withName(key)
+                .withMime(MIME)
+                .withSize(size)
+                .build();
+    }
+
+    @Override
+    public Object load(ContextResourceReference reference, Class<?> type) throws IOException {
+        FileStorageService storage = storage(reference.getStorage())
+                .orElseThrow(() -> new IOException("Claim check storage not found: " + reference.getStorage()));
+        String path = reference.getReferenceKey();
+        InputStream in = storage.read(List.of(path)).get(path);
+        if (in == null) {
+            throw new IOException("Claim check not found: " + path);
+        }
+        try (InputStream gzip = new GZIPInputStream(in)) {
+            return objectMapper.readValue(gzip, type);
+        }
+    }
+
+    /**
+     * Releases the offloaded values of a completed execution, to be removed
+     * once {@code retainAfterCompletion} has passed.
+     */
+    public void release(String workflowExecutionId) {
+        if (!properties.isEnabled() || workflowExecutionId == null) {
+            return;
+        }
+        mongoTemplate.updateMulti(Query.query(Criteria.where("workflowExecutionId").is(workflowExecutionId)
+                        .and("releasedDate").is(null)),
+                new Update().set("releasedDate", Date.from(clock.instant())), ClaimCheck.class);
+    }
+
+    /**
+     * Releases the values unreleased for longer than {@code orphanAfter} that
+     * no running execution holds: values stored without an execution and those
+     * of executions that are gone or completed without releasing them.
+     *
+     * @return the number of values released
+     */
+    long releaseOrphans() {
+        Criteria stale = Criteria.where("releasedDate").is(null)
+                .and("createdDate").lte(Date.from(clock.instant().minus(properties.getOrphanAfter())));
+        List<String> executionIds = mongoTemplate.findDistinct(Query.query(stale), "workflowExecutionId",
+                ClaimCheck.class, String.class);
+        Set<String> running = new HashSet<>();
+        if (!executionIds.isEmpty()) {
+            Query query = Query.query(Criteria.where("_id").in(executionIds).and("status").nin(COMPLETED));
+            query.fields().include("_id");
+            mongoTemplate.find(query, WorkflowExecution.class)
+                    .forEach(execution -> running.add(execution.getWorkflowExecutionId()));
+        }
+        return mongoTemplate.updateMulti(Query.query(stale.and("workflowExecutionId").nin(running)),
+                new Update().set("releasedDate", Date.from(clock.instant())), ClaimCheck.class)
+                .getModifiedCount();
+    }
+
+    /**
+     * Removes one batch of released values that are past their retention.
+     *
+     * @return the number of values removed
+     */
+    int sweep() {
+        Date cutoff = Date.from(clock.instant().minus(properties.getRetainAfterCompletion()));
+        Query query = Query.query(Criteria.where("releasedDate").lte(cutoff)).limit(properties.getBatchSize());
+        List<ClaimCheck> expired = mongoTemplate.find(query, ClaimCheck.class);
+        Map<String, List<ClaimCheck>> byStorage = new LinkedHashMap<>();
+        for (ClaimCheck claimCheck : expired) {
+            byStorage.computeIfAbsent(claimCheck.getStorage(), k -> new ArrayList<>()).add(claimCheck);
+        }
+        List<String> removed = new ArrayList<>();
+        for (Map.Entry<String, List<ClaimCheck>> group : byStorage.entrySet()) {
+            Optional<FileStorageService> storage = storage(group.getKey());
+            if (storage.isEmpty()) {
+                log.warn("Claim check storage {} not found, keeping {} released values",
+                        group.getKey(), group.getValue().size());
+                continue;
+            }
+            storage.get().remove(group.getValue().stream().map(ClaimCheck::getPath).toList());
+            group.getValue().forEach(claimCheck -> removed.add(claimCheck.getId()));
+        }
+        if (!removed.isEmpty()) {
+            mongoTemplate.remove(Query.query(Criteria.where("_id").in(removed)), ClaimCheck.class);
+        }
+        return removed.size();
+    }
+
+    private void sweepQuietly() {
+        try {
+            long orphaned = releaseOrphans();
+            if (orphaned > 0) {
+                log.warn("Released {} orphaned claim checks", orphaned);
+            }
+            int removed;
+            do {
+                removed = sweep();
+                if (removed > 0) {
+                    log.info("Removed {} released claim checks", removed);
+                }
+            } while (removed >= properties.getBatchSize());
+        } catch (Exception e) {
+            log.error("Claim check sweep failed", e);
+        }
+    }
+
+    /**
+     * Estimates the serialized size of a value, counting no further than just
+     * past the limit.
+     */
+    long estimateSize(Object value, long limit) {
+        return estimate(value, 0, limit);
+    }
+
+    private long estimate(Object value, long size, long limit) {
+        if (size > limit) {
+            return size;
+        }
+        if (value == null) {
+            return size + 4;
+        }
+        if (value instanceof CharSequence chars) {
+            return size + chars.length() + 2;
+        }
+        if (value instanceof Number || value instanceof Boolean || value instanceof Character
+                || value instanceof Enum<?> || value instanceof Date || value instanceof TemporalAccessor) {
+            return size + 16;
+        }
+        if (value instanceof byte[] bytes) {
+            // base64 in JSON
+            return size + (bytes.length + 2L) / 3 * 4;
+        }
+        if (value instanceof Map<?, ?> map) {
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                size = estimate(entry.getValue(), estimate(entry.getKey(), size, limit), limit);
+                if (size > limit) {
+                    return size;
+                }
+            }
+            return size + 2;
+        }
+        if (value instanceof Collection<?> collection) {
+            for (Object element : collection) {
+                size = estimate(element, size, limit);
+                if (size > limit) {
+                    return size;
+                }
+            }
+            return size + 2;
+        }
+        if (value.getClass().isArray()) {
+            int length = Array.getLength(value);
+            for (int i = 0; i < length && size <= limit; i++) {
+                size = estimate(Array.get(value, i), size, limit);
+            }
+            return size;
+        }
+        try {
+            return size + objectMapper.writeValueAsBytes(value).length;
+        } catch (IOException e) {
+            return size;
+        }
+    }
+
+    private Optional<FileStorageService> storage(String domain) {
+        StorageConfigManager manager = storageConfigManager.getIfAvailable();
+        if (domain == null || manager == null) {
+            return Optional.empty();
+        }
+        return manager.getConfig(domain).map(manager::getFileStorageService);
+    }
+
+    private static String pathSegment(String key) {
+        return key.replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+
+    @Override
+    public void destroy() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+}
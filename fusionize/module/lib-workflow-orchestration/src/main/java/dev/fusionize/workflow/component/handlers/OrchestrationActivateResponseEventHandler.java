@@ -4,6 +4,7 @@ import dev.fusionize.workflow.events.Event;
 import dev.fusionize.workflow.events.EventHandler;
 import dev.fusionize.workflow.events.OrchestrationEvent;
 import dev.fusionize.workflow.events.orchestration.ActivationResponseEvent;
+import dev.fusionize.workflow.lease.ExecutionLeaseManager;
 import dev.fusionize.workflow.orchestrator.Orchestrator;
 import dev.fusionize.workflow.registry.WorkflowExecutionRepoRegistry;
 import dev.fusionize.workflow.registry.WorkflowRepoRegistry;
@@ -14,12 +15,15 @@ public class OrchestrationActivateResponseEventHandler implements EventHandler<A
     private final Orchestrator orchestrator;
     private final WorkflowRepoRegistry workflowRegistry;
     private final WorkflowExecutionRepoRegistry workflowExecutionRegistry;
+    private final ExecutionLeaseManager leases;
     public OrchestrationActivateResponseEventHandler(Orchestrator orchestrator,
                                                      WorkflowRepoRegistry workflowRegistry,
-                                                     WorkflowExecutionRepoRegistry workflowExecutionRegistry) {
+                                                     WorkflowExecutionRepoRegistry workflowExecutionRegistry,
+                                                     ExecutionLeaseManager leases) {
         this.orchestrator = orchestrator;
         this.workflowRegistry = workflowRegistry;
         this.workflowExecutionRegistry = workflowExecutionRegistry;
+        this.leases = leases;
     }
 
 
@@ -32,8 +36,12 @@ public class OrchestrationActivateResponseEventHandler implements EventHandler<A
 
     @Override
     public Event handle(ActivationResponseEvent event) throws Exception {
+        if (!leases.claim(event)) {
+            return null;
+        }
         event.ensureOrchestrationEventContext(workflowExecutionRegistry, workflowRegistry);
         orchestrator.onActivated(event);
+        leases.releaseIfCompleted(event);
         return null;
     }
 
@@ -1,9 +1,11 @@
 package dev.fusionize.workflow.component.handlers;
 
+import dev.fusionize.workflow.admission.AdmissionController;
 import dev.fusionize.workflow.events.Event;
 import dev.fusionize.workflow.events.EventHandler;
 import dev.fusionize.workflow.events.OrchestrationEvent;
 import dev.fusionize.workflow.events.orchestration.InvocationResponseEvent;
+import dev.fusionize.workflow.lease.ExecutionLeaseManager;
 import dev.fusionize.workflow.orchestrator.Orchestrator;
 import dev.fusionize.workflow.registry.WorkflowExecutionRepoRegistry;
 import dev.fusionize.workflow.registry.WorkflowRepoRegistry;
@@ -14,12 +16,18 @@ public class OrchestrationInvocationResponseEventHandler implements EventHandler
     private final Orchestrator orchestrator;
     private final WorkflowRepoRegistry workflowRegistry;
     private final WorkflowExecutionRepoRegistry workflowExecutionRegistry;
+    private final ExecutionLeaseManager leases;
+    private final AdmissionController admission;
     public OrchestrationInvocationResponseEventHandler(Orchestrator orchestrator,
                                                        WorkflowRepoRegistry workflowRegistry,
-                                                       WorkflowExecutionRepoRegistry workflowExecutionRegistry) {
+                                                       WorkflowExecutionRepoRegistry workflowExecutionRegistry,
+                                                       ExecutionLeaseManager leases,
+                                                       AdmissionController admission) {
         this.orchestrator = orchestrator;
         this.workflowRegistry = workflowRegistry;
         this.workflowExecutionRegistry = workflowExecutionRegistry;
+        this.leases = leases;
+        this.admission = admission;
     }
 
 
@@ -32,8 +40,15 @@ public class OrchestrationInvocationResponseEventHandler implements EventHandler
 
     @Override
     public Event handle(InvocationResponseEvent event) throws Exception {
+        if (!leases.claim(event)) {
+            return null;
+        }
         event.ensureOrchestrationEventContext(workflowExecutionRegistry, workflowRegistry);
+        if (admission.defer(event)) {
+            return null;
+        }
         orchestrator.onInvoked(event);
+        leases.releaseIfCompleted(event);
         return null;
     }
 
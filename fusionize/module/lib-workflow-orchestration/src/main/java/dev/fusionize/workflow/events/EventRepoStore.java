@@ -1,11 +1,15 @@
 package dev.fusionize.workflow.events;
 
 import dev.fusionize.workflow.events.repo.EventRepository;
+import dev.fusionize.workflow.retention.RetainedCollection;
+import dev.fusionize.workflow.retention.WorkflowArchive;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,9 +18,16 @@ public class EventRepoStore implements EventStore<Event> {
     public static Logger logger = LoggerFactory.getLogger(EventRepoStore.class);
 
     private final EventRepository eventRepository;
+    private final WorkflowArchive archive;
 
     public EventRepoStore(EventRepository eventRepository) {
+        this(eventRepository, null);
+    }
+
+    @Autowired
+    public EventRepoStore(EventRepository eventRepository, WorkflowArchive archive) {
         this.eventRepository = eventRepository;
+        this.archive = archive;
     }
 
     @Override
@@ -29,6 +40,15 @@ public class EventRepoStore implements EventStore<Event> {
 
     }
 
+    /**
+     * Unlike {@link #save(Event)} failures are thrown, so that a batch
+     * publisher does not send events it could not store.
+     */
+    @Override
+    public void saveAll(List<Event> events) {
+        eventRepository.saveAll(events);
+    }
+
     @Override
     public Optional<Event> findByEventId(String eventId) {
         try {
@@ -61,4 +81,29 @@ public class EventRepoStore implements EventStore<Event> {
             return new ArrayList<>();
         }
     }
+
+    /**
+     * The events of one workflow execution, including those already archived,
+     * oldest first.
+     */
+    public List<Event> findByWorkflowExecutionId(String workflowExecutionId) {
+        List<Event> live;
+        try {
+            live = eventRepository.findByWorkflowExecutionId(workflowExecutionId);
+        } catch (Exception e) {
+            logger.error(e.getMessage(),e);
+            live = new ArrayList<>();
+        }
+        if (archive == null) {
+            return live;
+        }
+        List<Event> archived = archive.read(RetainedCollection.EVENT, workflowExecutionId, Event.class);
+        if (archived.isEmpty()) {
+            return live;
+        }
+        List<Event> all = new ArrayList<>(archived);
+        all.addAll(live);
+        all.sort(Comparator.comparing(Event::getGeneratedDate, Comparator.nullsFirst(Comparator.naturalOrder())));
+        return all;
+    }
 }
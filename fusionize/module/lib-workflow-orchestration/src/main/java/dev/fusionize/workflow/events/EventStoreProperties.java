@@ -0,0 +1,202 @@
+package dev.fusionize.workflow.events;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Settings for the event store. {@code mode} selects the implementation:
+ * {@code sync} (default) writes every event inline through
+ * {@link EventRepoStore}, {@code write-behind} uses {@link WriteBehindEventStore}
+ * and {@code segment} keeps events in local files via {@link SegmentedFileEventStore}.
+ */
+@Component
+@ConfigurationProperties(prefix = "fusionize.worker.event-store")
+public class EventStoreProperties {
+
+    public enum OverflowPolicy {
+        /** Wait for room in the buffer. */
+        BLOCK,
+        /** Discard the oldest buffered write to make room. */
+        DROP_OLDEST,
+        /** Keep only a sample of the writes that arrive while the buffer is full. */
+        SAMPLE
+    }
+
+    private String mode = "sync";
+    private int capacity = 10_000;
+    private int batchSize = 500;
+    private Duration flushInterval = Duration.ofMillis(50);
+    private OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+    private double overflowSampleRate = 0.1;
+    private Duration retryBackoff = Duration.ofMillis(100);
+    private Duration maxRetryBackoff = Duration.ofSeconds(10);
+    private Map<String, Double> sampling = new HashMap<>();
+    private Segment segment = new Segment();
+
+    public String getMode() {
+        return mode;
+    }
+
+    public void setMode(String mode) {
+        this.mode = mode;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public void setCapacity(int capacity) {
+        this.capacity = capacity;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public Duration getFlushInterval() {
+        return flushInterval;
+    }
+
+    public void setFlushInterval(Duration flushInterval) {
+        this.flushInterval = flushInterval;
+    }
+
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    public double getOverflowSampleRate() {
+        return overflowSampleRate;
+    }
+
+    public void setOverflowSampleRate(double overflowSampleRate) {
+        this.overflowSampleRate = overflowSampleRate;
+    }
+
+    /**
+     * Delay before a batch that failed to write is written again, doubled on
+     * every further failure up to {@code maxRetryBackoff}.
+     */
+    public Duration getRetryBackoff() {
+        return retryBackoff;
+    }
+
+    public void setRetryBackoff(Duration retryBackoff) {
+        this.retryBackoff = retryBackoff;
+    }
+
+    public Duration getMaxRetryBackoff() {
+        return maxRetryBackoff;
+    }
+
+    public void setMaxRetryBackoff(Duration maxRetryBackoff) {
+        this.maxRetryBackoff = maxRetryBackoff;
+    }
+
+    /**
+     * Fraction (0..1) of events to keep per event class, keyed by the
+     * canonical class name. Classes that are not listed are always kept.
+     */
+    public Map<String, Double> getSampling() {
+        return sampling;
+    }
+
+    public void setSampling(Map<String, Double> sampling) {
+        this.sampling = sampling;
+    }
+
+    public Segment getSegment() {
+        return segment;
+    }
+
+    public void setSegment(Segment segment) {
+        this.segment = segment;
+    }
+
+    public static class Segment {
+        private String directory = "data/event-log";
+        private DataSize segmentSize = DataSize.ofMegabytes(64);
+        private int fsyncBatch = 256;
+        private Duration fsyncInterval = Duration.ofMillis(50);
+        private Duration retention = Duration.ofDays(7);
+        private double compactionThreshold = 0.5;
+        private Duration maintenanceInterval = Duration.ofMinutes(5);
+
+        public String getDirectory() {
+            return directory;
+        }
+
+        public void setDirectory(String directory) {
+            this.directory = directory;
+        }
+
+        public DataSize getSegmentSize() {
+            return segmentSize;
+        }
+
+        public void setSegmentSize(DataSize segmentSize) {
+            this.segmentSize = segmentSize;
+        }
+
+        /**
+         * Number of appended records after which the active segment is forced
+         * to disk, in addition to the periodic {@code fsyncInterval}.
+         */
+        public int getFsyncBatch() {
+            return fsyncBatch;
+        }
+
+        public void setFsyncBatch(int fsyncBatch) {
+            this.fsyncBatch = fsyncBatch;
+        }
+
+        public Duration getFsyncInterval() {
+            return fsyncInterval;
+        }
+
+        public void setFsyncInterval(Duration fsyncInterval) {
+            this.fsyncInterval = fsyncInterval;
+        }
+
+        public Duration getRetention() {
+            return retention;
+        }
+
+        public void setRetention(Duration retention) {
+            this.retention = retention;
+        }
+
+        /**
+         * Sealed segments whose share of live records drops below this ratio
+         * are rewritten without the superseded records.
+         */
+        public double getCompactionThreshold() {
+            return compactionThreshold;
+        }
+
+        public void setCompactionThreshold(double compactionThreshold) {
+            this.compactionThreshold = compactionThreshold;
+        }
+
+        public Duration getMaintenanceInterval() {
+            return maintenanceInterval;
+        }
+
+        public void setMaintenanceInterval(Duration maintenanceInterval) {
+            this.maintenanceInterval = maintenanceInterval;
+        }
+    }
+}
@@ -0,0 +1,591 @@
+package dev.fusionize.workflow.events;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * {@link EventStore} backed by append-only segment files on local disk, for
+ * single node and edge deployments that should not pay a Mongo round trip per
+ * event.
+ * <p>
+ * Events are appended sequentially to the active segment and forced to disk
+ * every {@code fsyncBatch} records or {@code fsyncInterval}, whichever comes
+ * first. The active segment is rolled once it reaches {@code segmentSize}.
+ * An in-memory index on eventId, correlationId and causationId is rebuilt from
+ * the segments on startup. Lookups deserialize straight from memory-mapped
+ * sealed segments and read records of the active segment from its channel.
+ * Sealed segments are deleted once older than {@code retention} and
+ * rewritten without superseded records (an event saved again after processing)
+ * once their live share drops below {@code compactionThreshold}.
+ * <p>
+ * Each record is {@code [length][crc32][payload]}, where the payload holds the
+ * ids and event class followed by the JSON body. Incomplete records at the
+ * tail of a segment are truncated during recovery, and recovered segments are
+ * sealed so appends always start a new one.
+ */
+@Component
+@Primary
+@ConditionalOnProperty(prefix = "fusionize.worker.event-store", name = "mode", havingValue = "segment")
+public class SegmentedFileEventStore implements EventStore<Event>, MeterBinder, DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger(SegmentedFileEventStore.class);
+    private static final String SUFFIX = ".log";
+    private static final int RECORD_HEADER = 8;
+
+    private record Location(Segment segment, int position) {
+    }
+
+    private record Header(String eventId, String correlationId, String causationId, String eventType) {
+    }
+
+    private static final class Segment {
+        private final long id;
+        private final Path path;
+        private final FileChannel channel;
+        private MappedByteBuffer mapped;
+        // no longer appended to, so its mapping covers every record
+        private boolean sealed;
+        private long size;
+        private long lastAppend;
+        private int records;
+
+        private Segment(long id, Path path) throws IOException {
+            this.id = id;
+            this.path = path;
+            this.channel = FileChannel.open(path,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        }
+
+        /**
+         * Returns the payload of the record at the given position.
+         */
+        private synchronized ByteBuffer payload(int position) throws IOException {
+            return read(position + RECORD_HEADER, length(position));
+        }
+
+        private synchronized ByteBuffer record(int position) throws IOException {
+            return read(position, RECORD_HEADER + length(position));
+        }
+
+        private int length(int position) throws IOException {
+            return read(position, Integer.BYTES).getInt(0);
+        }
+
+        /**
+         * Reads a sealed segment through a mapping of the whole segment, made
+         * once. The active segment grows with every append, so it is read from
+         * the channel rather than mapped again each time a lookup lands past
+         * the last mapping.
+         */
+        private ByteBuffer read(long position, int length) throws IOException {
+            if (mapped == null && sealed) {
+                mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            }
+            if (mapped != null && position + length <= mapped.capacity()) {
+                return mapped.slice((int) position, length);
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(length);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, position + buffer.position()) < 0) {
+                    throw new EOFException("Record at " + position + " runs past the end of " + path);
+                }
+            }
+            return buffer.flip();
+        }
+
+        private void close() throws IOException {
+            mapped = null;
+            channel.close();
+        }
+    }
+
+    private final EventStoreProperties.Segment properties;
+    private final Path directory;
+    private final long segmentSize;
+    private final Clock clock;
+    private final ObjectMapper objectMapper = JsonMapper.builder()
+            .findAndAddModules()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .build();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TreeMap<Long, Segment> segments = new TreeMap<>();
+    private final Map<String, Location> byEventId = new HashMap<>();
+    private final Map<String, Set<String>> byCorrelationId = new HashMap<>();
+    private final Map<String, Set<String>> byCausationId = new HashMap<>();
+    private final ScheduledExecutorService scheduler;
+    private Segment active;
+    private int unsynced;
+
+    private final LongAdder appended = new LongAdder();
+    private final LongAdder fsyncs = new LongAdder();
+    private final LongAdder retired = new LongAdder();
+    private final LongAdder compacted = new LongAdder();
+
+    @Autowired
+    public SegmentedFileEventStore(EventStoreProperties properties) throws IOException {
+        this(properties, Clock.systemUTC());
+    }
+
+    SegmentedFileEventStore(EventStoreProperties properties, Clock clock) throws IOException {
+        this.properties = properties.getSegment();
+        this.directory = Paths.get(this.properties.getDirectory());
+        this.segmentSize = Math.min(Integer.MAX_VALUE, this.properties.getSegmentSize().toBytes());
+        this.clock = clock;
+        Files.createDirectories(directory);
+        recover();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "fusionize-event-log-maintenance");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long fsyncMillis = Math.max(1, this.properties.getFsyncInterval().toMillis());
+        long maintenanceMillis = Math.max(1, this.properties.getMaintenanceInterval().toMillis());
+        scheduler.scheduleWithFixedDelay(this::syncQuietly, fsyncMillis, fsyncMillis, TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::maintainQuietly, maintenanceMillis, maintenanceMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void save(Event event) {
+        ByteBuffer record;
+        try {
+            byte[] payload = encode(event);
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            record = ByteBuffer.allocate(RECORD_HEADER + payload.length)
+                    .putInt(payload.length)
+                    .putInt((int) crc.getValue())
+                    .put(payload)
+                    .flip();
+        } catch (IOException e) {
+            log.error("Failed to encode event {}", event.getEventId(), e);
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (active.size > 0 && active.size + record.capacity() > segmentSize) {
+                roll();
+            }
+            int position = (int) active.size;
+            while (record.hasRemaining()) {
+                active.channel.write(record, position + record.position());
+            }
+            active.size += record.capacity();
+            active.records++;
+            active.lastAppend = clock.millis();
+            index(new Header(event.getEventId(), event.getCorrelationId(), event.getCausationId(),
+                    event.getClass().getName()), new Location(active, position));
+            appended.increment();
+            if (++unsynced >= properties.getFsyncBatch()) {
+                sync();
+            }
+        } catch (IOException e) {
+            log.error("Failed to append event {}", event.getEventId(), e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Optional<Event> findByEventId(String eventId) {
+        lock.readLock().lock();
+        try {
+            Location location = byEventId.get(eventId);
+            return location == null ? Optional.empty() : read(location);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Event> findByCausationId(String causationId) {
+        return findAll(byCausationId, causationId);
+    }
+
+    @Override
+    public List<Event> findByCorrelationId(String correlationId) {
+        return findAll(byCorrelationId, correlationId);
+    }
+
+    private List<Event> findAll(Map<String, Set<String>> index, String key) {
+        lock.readLock().lock();
+        try {
+            List<Event> events = new ArrayList<>();
+            for (String eventId : index.getOrDefault(key, Set.of())) {
+                Location location = byEventId.get(eventId);
+                if (location != null) {
+                    read(location).ifPresent(events::add);
+                }
+            }
+            return events;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Optional<Event> read(Location location) {
+        try {
+            ByteBuffer payload = location.segment().payload(location.position());
+            Header header = readHeader(payload);
+            Class<?> type = Class.forName(header.eventType(), false, Event.class.getClassLoader());
+            if (!Event.class.isAssignableFrom(type)) {
+                log.error("Unexpected event type {} in {}", header.eventType(), location.segment().path);
+                return Optional.empty();
+            }
+            return Optional.of((Event) objectMapper.readValue(new ByteBufferBackedInputStream(payload), type));
+        } catch (Exception e) {
+            log.error("Failed to read event from {}", location.segment().path, e);
+            return Optional.empty();
+        }
+    }
+
+    private byte[] encode(Event event) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(512);
+        DataOutputStream data = new DataOutputStream(out);
+        writeString(data, event.getEventId());
+        writeString(data, event.getCorrelationId());
+        writeString(data, event.getCausationId());
+        writeString(data, event.getClass().getName());
+        data.flush();
+        objectMapper.writeValue(out, event);
+        return out.toByteArray();
+    }
+
+    private static void writeString(DataOutputStream data, String value) throws IOException {
+        if (value == null) {
+            data.writeShort(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        data.writeShort(bytes.length);
+        data.write(bytes);
+    }
+
+    /**
+     * Reads the ids and event type, leaving the buffer positioned at the body.
+     */
+    private static Header readHeader(ByteBuffer payload) {
+        return new Header(readString(payload), readString(payload), readString(payload), readString(payload));
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        short length = buffer.getShort();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private void index(Header header, Location location) {
+        byEventId.put(header.eventId(), location);
+        if (header.correlationId() != null) {
+            byCorrelationId.computeIfAbsent(header.correlationId(), k -> new LinkedHashSet<>()).add(header.eventId());
+        }
+        if (header.causationId() != null) {
+            byCausationId.computeIfAbsent(header.causationId(), k -> new LinkedHashSet<>()).add(header.eventId());
+        }
+    }
+
+    private void recover() throws IOException {
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.filter(p -> p.getFileName().toString().endsWith(SUFFIX)).sorted().toList();
+        }
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            Segment segment = new Segment(Long.parseLong(name.substring(0, name.length() - SUFFIX.length())), file);
+            segment.lastAppend = Files.getLastModifiedTime(file).toMillis();
+            scan(segment);
+            if (segment.size == 0) {
+                segment.close();
+                Files.delete(file);
+                continue;
+            }
+            segment.sealed = true;
+            segments.put(segment.id, segment);
+        }
+        // recovered segments stay sealed, appends go to a fresh one
+        active = openSegment(segments.isEmpty() ? 1 : segments.lastKey() + 1);
+        log.info("Recovered {} events from {} segments in {}", byEventId.size(), segments.size(), directory);
+    }
+
+    private void scan(Segment segment) throws IOException {
+        long fileSize = segment.channel.size();
+        segment.size = fileSize;
+        int position = 0;
+        if (fileSize > 0) {
+            MappedByteBuffer mapped = segment.channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+            while (position + RECORD_HEADER <= fileSize) {
+                int length = mapped.getInt(position);
+                int checksum = mapped.getInt(position + 4);
+                if (length < 0 || position + RECORD_HEADER + (long) length > fileSize) {
+                    break;
+                }
+                ByteBuffer payload = mapped.slice(position + RECORD_HEADER, length);
+                CRC32 crc = new CRC32();
+                crc.update(payload.duplicate());
+                if ((int) crc.getValue() != checksum) {
+                    break;
+                }
+                index(readHeader(payload), new Location(segment, position));
+                segment.records++;
+                position += RECORD_HEADER + length;
+            }
+        }
+        if (position < fileSize) {
+            log.warn("Truncating {} bytes of incomplete records in {}", fileSize - position, segment.path);
+            segment.channel.truncate(position);
+            segment.size = position;
+        }
+    }
+
+    private Segment openSegment(long id) throws IOException {
+        Segment segment = new Segment(id, directory.resolve(String.format("%020d%s", id, SUFFIX)));
+        segment.lastAppend = clock.millis();
+        segments.put(id, segment);
+        return segment;
+    }
+
+    private void roll() throws IOException {
+        sync();
+        active.sealed = true;
+        active = openSegment(active.id + 1);
+    }
+
+    void sync() throws IOException {
+        lock.writeLock().lock();
+        try {
+            if (unsynced > 0) {
+                active.channel.force(false);
+                unsynced = 0;
+                fsyncs.increment();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void syncQuietly() {
+        try {
+            sync();
+        } catch (Exception e) {
+            log.error("Failed to sync event log", e);
+        }
+    }
+
+    /**
+     * Retires sealed segments past retention and compacts sparse ones.
+     */
+    void maintain() throws IOException {
+        lock.writeLock().lock();
+        try {
+            long cutoff = clock.millis() - properties.getRetention().toMillis();
+            Iterator<Map.Entry<Long, Segment>> iterator = segments.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<Long, Segment> entry = iterator.next();
+                Segment segment = entry.getValue();
+                if (segment == active) {
+                    continue;
+                }
+                if (segment.lastAppend < cutoff) {
+                    retire(segment);
+                    iterator.remove();
+                    continue;
+                }
+                Segment compactedSegment = compact(segment);
+                if (compactedSegment == null) {
+                    iterator.remove();
+                } else {
+                    entry.setValue(compactedSegment);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void maintainQuietly() {
+        try {
+            maintain();
+        } catch (Exception e) {
+            log.error("Event log maintenance failed", e);
+        }
+    }
+
+    private void retire(Segment segment) throws IOException {
+        byEventId.values().removeIf(location -> location.segment() == segment);
+        pruneIndex(byCorrelationId);
+        pruneIndex(byCausationId);
+        segment.close();
+        Files.deleteIfExists(segment.path);
+        retired.increment();
+        log.info("Retired event log segment {}", segment.path);
+    }
+
+    private void pruneIndex(Map<String, Set<String>> index) {
+        index.values().forEach(ids -> ids.removeIf(id -> !byEventId.containsKey(id)));
+        index.values().removeIf(Set::isEmpty);
+    }
+
+    /**
+     * Rewrites a sealed segment with only the records the index still points
+     * to.
+     *
+     * @return the segment to keep, which is the same one if compaction was not
+     * worthwhile, or {@code null} if no live records were left
+     */
+    private Segment compact(Segment segment) throws IOException {
+        Map<String, Integer> live = new LinkedHashMap<>();
+        int position = 0;
+        while (position < segment.size) {
+            ByteBuffer payload = segment.payload(position);
+            int length = payload.remaining();
+            String eventId = readHeader(payload).eventId();
+            Location location = byEventId.get(eventId);
+            if (location != null && location.segment() == segment && location.position() == position) {
+                live.put(eventId, position);
+            }
+            position += RECORD_HEADER + length;
+        }
+        if (segment.records == 0 || (double) live.size() / segment.records >= properties.getCompactionThreshold()) {
+            return segment;
+        }
+        if (live.isEmpty()) {
+            retire(segment);
+            return null;
+        }
+
+        Path compactedPath = segment.path.resolveSibling(segment.path.getFileName() + ".compact");
+        Map<String, Integer> positions = new HashMap<>();
+        long written = 0;
+        try (FileChannel out = FileChannel.open(compactedPath,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (Map.Entry<String, Integer> record : live.entrySet()) {
+                ByteBuffer bytes = segment.record(record.getValue());
+                positions.put(record.getKey(), (int) written);
+                while (bytes.hasRemaining()) {
+                    written += out.write(bytes, written);
+                }
+            }
+            out.force(true);
+        }
+        segment.close();
+        Files.move(compactedPath, segment.path,
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        Files.setLastModifiedTime(segment.path, FileTime.fromMillis(segment.lastAppend));
+
+        Segment rewritten = new Segment(segment.id, segment.path);
+        rewritten.size = written;
+        rewritten.sealed = true;
+        rewritten.records = live.size();
+        rewritten.lastAppend = segment.lastAppend;
+        positions.forEach((eventId, offset) -> byEventId.put(eventId, new Location(rewritten, offset)));
+        compacted.increment();
+        log.info("Compacted event log segment {} to {} records", segment.path, live.size());
+        return rewritten;
+    }
+
+    public int getSegmentCount() {
+        lock.readLock().lock();
+        try {
+            return segments.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long getSizeBytes() {
+        lock.readLock().lock();
+        try {
+            return segments.values().stream().mapToLong(s -> s.size).sum();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long getAppended() {
+        return appended.sum();
+    }
+
+    public long getFsyncs() {
+        return fsyncs.sum();
+    }
+
+    public long getRetired() {
+        return retired.sum();
+    }
+
+    public long getCompacted() {
+        return compacted.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("fusionize.event.log.segments", this, SegmentedFileEventStore::getSegmentCount).register(registry);
+        Gauge.builder("fusionize.event.log.bytes", this, SegmentedFileEventStore::getSizeBytes).register(registry);
+        FunctionCounter.builder("fusionize.event.log.appended", appended, LongAdder::sum).register(registry);
+        FunctionCounter.builder("fusionize.event.log.fsyncs", fsyncs, LongAdder::sum).register(registry);
+        FunctionCounter.builder("fusionize.event.log.retired", retired, LongAdder::sum).register(registry);
+        FunctionCounter.builder("fusionize.event.log.compacted", compacted, LongAdder::sum).register(registry);
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        scheduler.shutdownNow();
+        lock.writeLock().lock();
+        try {
+            sync();
+            for (Segment segment : segments.values()) {
+                segment.close();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,375 @@
+package dev.fusionize.workflow.events;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Predicate;
+
+/**
+ * {@link EventStore} that takes event writes off the orchestration path.
+ * <p>
+ * Saves are queued in a bounded buffer and drained by a background writer that
+ * upserts them by {@code eventId} in unordered bulk writes. Repeated saves of
+ * an event that is still buffered (e.g. once on publish and again once it has
+ * been processed) are coalesced into a single write of the latest state.
+ * <p>
+ * When the buffer is full the configured {@link EventStoreProperties.OverflowPolicy}
+ * applies. Independently of that, event classes listed under
+ * {@code sampling} are only kept for a stable fraction of their event ids, so
+ * both writes of a sampled event are either kept or dropped together.
+ * Lookups see buffered events before they reach Mongo.
+ * <p>
+ * A batch that fails to write is kept and written again after a backoff
+ * growing up to {@code maxRetryBackoff}, ahead of newer saves, which wait in
+ * the buffer meanwhile. Events saved again in the meantime are written with
+ * their latest state. {@link #saveAll(List)} writes its events on the
+ * caller's thread and returns once they are stored.
+ */
+@Component
+@Primary
+@ConditionalOnProperty(prefix = "fusionize.worker.event-store", name = "mode", havingValue = "write-behind")
+public class WriteBehindEventStore implements EventStore<Event>, MeterBinder, DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger(WriteBehindEventStore.class);
+
+    private final EventStoreProperties properties;
+    private final EventRepoStore delegate;
+    private final MongoTemplate mongoTemplate;
+    private final ArrayBlockingQueue<String> buffer;
+    private final Map<String, Event> pending = new ConcurrentHashMap<>();
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final Thread writer;
+    private volatile boolean running = true;
+    // ids of the last failed batch, written again once retryAt has passed; guarded by this
+    private final List<String> retrying = new ArrayList<>();
+    private long retryAt;
+    private int attempts;
+
+    private final LongAdder written = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder sampledOut = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    public WriteBehindEventStore(EventStoreProperties properties,
+                                 EventRepoStore delegate,
+                                 @Qualifier("workerMongoTemplate") MongoTemplate mongoTemplate) {
+        this.properties = properties;
+        this.delegate = delegate;
+        this.mongoTemplate = mongoTemplate;
+        this.buffer = new ArrayBlockingQueue<>(Math.max(1, properties.getCapacity()));
+        this.batchSize = Math.max(1, properties.getBatchSize());
+        this.flushIntervalNanos = properties.getFlushInterval().toNanos();
+        this.writer = new Thread(this::run, "fusionize-event-store-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    @Override
+    public void save(Event event) {
+        if (event.getEventId() == null) {
+            delegate.save(event);
+            return;
+        }
+        Double rate = properties.getSampling().get(event.getEventClass());
+        if (rate != null && !keep(event.getEventId(), rate)) {
+            sampledOut.increment();
+            return;
+        }
+        boolean[] buffered = {false};
+        pending.compute(event.getEventId(), (id, previous) -> {
+            buffered[0] = previous == null;
+            return event;
+        });
+        if (!buffered[0]) {
+            coalesced.increment();
+            return;
+        }
+        enqueue(event.getEventId());
+    }
+
+    private void enqueue(String eventId) {
+        if (buffer.offer(eventId)) {
+            return;
+        }
+        switch (properties.getOverflowPolicy()) {
+            case DROP_OLDEST -> {
+                while (!buffer.offer(eventId)) {
+                    String oldest = buffer.poll();
+                    if (oldest != null && pending.remove(oldest) != null) {
+                        dropped.increment();
+                    }
+                }
+            }
+            case SAMPLE -> {
+                if (keep(eventId, properties.getOverflowSampleRate())) {
+                    put(eventId);
+                } else {
+                    pending.remove(eventId);
+                    dropped.increment();
+                }
+            }
+            default -> put(eventId);
+        }
+    }
+
+    private void put(String eventId) {
+        try {
+            buffer.put(eventId);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            pending.remove(eventId);
+            dropped.increment();
+        }
+    }
+
+    static boolean keep(String eventId, double rate) {
+        if (rate >= 1) {
+            return true;
+        }
+        if (rate <= 0) {
+            return false;
+        }
+        return Math.floorMod(eventId.hashCode(), 10_000) < rate * 10_000;
+    }
+
+    /**
+     * Writes the events right away, together with the buffered writes they
+     * supersede.
+     *
+     * @throws RuntimeException if the write failed; the events are not kept
+     */
+    @Override
+    public void saveAll(List<Event> events) {
+        List<Event> kept = new ArrayList<>(events.size());
+        for (Event event : events) {
+            if (event.getEventId() == null) {
+                delegate.save(event);
+                continue;
+            }
+            Double rate = properties.getSampling().get(event.getEventClass());
+            if (rate != null && !keep(event.getEventId(), rate)) {
+                sampledOut.increment();
+                continue;
+            }
+            kept.add(event);
+        }
+        if (kept.isEmpty()) {
+            return;
+        }
+        synchronized (this) {
+            // a buffered copy written after these would bring back an older state
+            kept.forEach(event -> {
+                if (pending.remove(event.getEventId()) != null) {
+                    coalesced.increment();
+                }
+            });
+            try {
+                write(kept);
+            } catch (RuntimeException e) {
+                failed.add(kept.size());
+                throw e;
+            }
+        }
+    }
+
+    private void run() {
+        int taken = 0;
+        while (running) {
+            // after a batch short of full, or none while a failed one waits for its backoff
+            if (taken < batchSize) {
+                LockSupport.parkNanos(flushIntervalNanos);
+            }
+            taken = flush();
+        }
+        drain();
+    }
+
+    /**
+     * Writes the failed batch once its backoff has passed, or else one batch
+     * from the buffer.
+     *
+     * @return the number of events taken from the buffer or retried
+     */
+    synchronized int flush() {
+        List<String> ids = new ArrayList<>(batchSize);
+        if (!retrying.isEmpty()) {
+            if (System.nanoTime() - retryAt < 0) {
+                return 0;
+            }
+            ids.addAll(retrying);
+            retrying.clear();
+        } else {
+            buffer.drainTo(ids, batchSize);
+        }
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        List<Event> events = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            Event event = pending.remove(id);
+            if (event != null) {
+                events.add(event);
+            }
+        }
+        if (events.isEmpty()) {
+            return ids.size();
+        }
+        try {
+            write(events);
+            attempts = 0;
+        } catch (Exception e) {
+            failed.add(events.size());
+            retry(events);
+            log.error("Failed to write {} events, retrying in {} ms (attempt {})", events.size(),
+                    backoffMillis(), attempts, e);
+        }
+        return ids.size();
+    }
+
+    private void write(List<Event> events) {
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Event.class);
+        for (Event event : events) {
+            Document document = new Document();
+            mongoTemplate.getConverter().write(event, document);
+            document.remove("_id");
+            bulk.replaceOne(Query.query(Criteria.where("eventId").is(event.getEventId())),
+                    document, FindAndReplaceOptions.options().upsert());
+        }
+        bulk.execute();
+        written.add(events.size());
+    }
+
+    private void retry(List<Event> events) {
+        for (Event event : events) {
+            // an event saved again since is buffered with its latest state already
+            if (pending.putIfAbsent(event.getEventId(), event) == null) {
+                retrying.add(event.getEventId());
+            }
+        }
+        attempts++;
+        retryAt = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(backoffMillis());
+    }
+
+    private long backoffMillis() {
+        long base = Math.max(1, properties.getRetryBackoff().toMillis());
+        long max = Math.max(base, properties.getMaxRetryBackoff().toMillis());
+        int doublings = Math.min(Math.max(0, attempts - 1), 30);
+        return Math.min(max, base << doublings);
+    }
+
+    /**
+     * Writes what is left on shutdown, giving the failed batch and every
+     * other one a single further attempt.
+     */
+    private synchronized void drain() {
+        retryAt = System.nanoTime();
+        int lost = 0;
+        while (!retrying.isEmpty() || !buffer.isEmpty()) {
+            int attempt = attempts;
+            flush();
+            if (attempts > attempt) {
+                lost += retrying.size();
+                retrying.forEach(pending::remove);
+                retrying.clear();
+            }
+        }
+        if (lost > 0) {
+            log.error("Lost {} events that could not be written on shutdown", lost);
+        }
+    }
+
+    @Override
+    public Optional<Event> findByEventId(String eventId) {
+        Event buffered = pending.get(eventId);
+        return buffered != null ? Optional.of(buffered) : delegate.findByEventId(eventId);
+    }
+
+    @Override
+    public List<Event> findByCausationId(String causationId) {
+        return withPending(delegate.findByCausationId(causationId),
+                e -> Objects.equals(causationId, e.getCausationId()));
+    }
+
+    @Override
+    public List<Event> findByCorrelationId(String correlationId) {
+        return withPending(delegate.findByCorrelationId(correlationId),
+                e -> Objects.equals(correlationId, e.getCorrelationId()));
+    }
+
+    private List<Event> withPending(List<Event> stored, Predicate<Event> filter) {
+        Map<String, Event> merged = new LinkedHashMap<>();
+        stored.forEach(e -> merged.put(e.getEventId(), e));
+        pending.values().stream().filter(filter).forEach(e -> merged.put(e.getEventId(), e));
+        return new ArrayList<>(merged.values());
+    }
+
+    public int getBufferSize() {
+        return buffer.size();
+    }
+
+    public long getWritten() {
+        return written.sum();
+    }
+
+    public long getCoalesced() {
+        return coalesced.sum();
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    public long getSampledOut() {
+        return sampledOut.sum();
+    }
+
+    public long getFailed() {
+        return failed.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("fusionize.event.store.buffer.size", buffer, ArrayBlockingQueue::size).register(registry);
+        Gauge.builder("fusionize.event.store.buffer.occupancy", buffer,
+                b -> (double) b.size() / (b.size() + b.remainingCapacity())).register(registry);
+        FunctionCounter.builder("fusionize.event.store.written", written, LongAdder::sum).register(registry);
+        FunctionCounter.builder("fusionize.event.store.coalesced", coalesced, LongAdder::sum).register(registry);
+        FunctionCounter.builder("fusionize.event.store.dropped", dropped, LongAdder::sum).register(registry);
+        FunctionCounter.builder("fusionize.event.store.sampled.out", sampledOut, LongAdder::sum).register(registry);
+        FunctionCounter.builder("fusionize.event.store.failed", failed, LongAdder::sum).register(registry);
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(writer);
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+    }
+}
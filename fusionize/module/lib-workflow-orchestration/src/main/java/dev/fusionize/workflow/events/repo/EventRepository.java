@@ -2,6 +2,7 @@ package dev.fusionize.workflow.events.repo;
 
 import dev.fusionize.workflow.events.Event;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -13,5 +14,9 @@ public interface EventRepository extends MongoRepository<Event, String>{
     Optional<Event> findByEventId(String id);
     List<Event> findByCorrelationId(String id);
     List<Event> findByCausationId(String id);
+
+    // the field is declared on the orchestration events, not on Event
+    @Query(value = "{ 'workflowExecutionId': ?0 }", sort = "{ 'generatedDate': 1 }")
+    List<Event> findByWorkflowExecutionId(String id);
 }
 
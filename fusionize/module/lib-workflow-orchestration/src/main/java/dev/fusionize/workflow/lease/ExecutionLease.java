@@ -0,0 +1,50 @@
+package dev.fusionize.workflow.lease;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+/**
+ * Ownership of one workflow execution, keyed by its workflowExecutionId.
+ */
+@Document(collection = "workflow-execution-lease")
+public class ExecutionLease {
+    @Id
+    private String workflowExecutionId;
+    private String owner;
+    private Date expiresAt;
+    private Date acquiredDate;
+
+    public String getWorkflowExecutionId() {
+        return workflowExecutionId;
+    }
+
+    public void setWorkflowExecutionId(String workflowExecutionId) {
+        this.workflowExecutionId = workflowExecutionId;
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    public void setOwner(String owner) {
+        this.owner = owner;
+    }
+
+    public Date getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(Date expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    public Date getAcquiredDate() {
+        return acquiredDate;
+    }
+
+    public void setAcquiredDate(Date acquiredDate) {
+        this.acquiredDate = acquiredDate;
+    }
+}
@@ -0,0 +1,336 @@
+package dev.fusionize.workflow.lease;
+
+import dev.fusionize.common.utility.KeyUtil;
+import dev.fusionize.workflow.WorkflowExecution;
+import dev.fusionize.workflow.WorkflowExecutionStatus;
+import dev.fusionize.workflow.events.Event;
+import dev.fusionize.workflow.events.EventPublisher;
+import dev.fusionize.workflow.events.OrchestrationEvent;
+import dev.fusionize.workflow.registry.WorkflowExecutionCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Assigns workflow executions to the orchestrator nodes handling them.
+ * <p>
+ * A node handles the events of an execution only while it holds its lease in
+ * the {@code workflow-execution-lease} collection. Leases of executions that
+ * had events within the lease duration are renewed by a heartbeat, the others
+ * are left to expire, and any node can take over an expired lease, so the
+ * executions of a node that went away continue elsewhere. Events of an
+ * execution leased to another node are published again after a delay until
+ * they reach the owner or the lease expires, and are parked in the
+ * {@code workflow-event-parked} collection after {@code maxRequeues} attempts,
+ * from where operators can replay them. Leases are released when the
+ * execution completes or the node shuts down.
+ * <p>
+ * A node's cached copy of an execution is only authoritative while it holds
+ * the lease, so pending writes of an execution are flushed and its cached copy
+ * dropped whenever the lease is lost or left to expire.
+ */
+@Component
+public class ExecutionLeaseManager implements DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger(ExecutionLeaseManager.class);
+    private static final Set<WorkflowExecutionStatus> COMPLETED = Set.of(
+            WorkflowExecutionStatus.SUCCESS, WorkflowExecutionStatus.ERROR, WorkflowExecutionStatus.TERMINATED);
+
+    private final ExecutionLeaseProperties properties;
+    private final MongoTemplate mongoTemplate;
+    private final EventPublisher<Event> eventPublisher;
+    private final WorkflowExecutionCache cache;
+    private final Clock clock;
+    private final String owner;
+    // workflowExecutionId -> expiry of the lease held by this node
+    private final Map<String, Instant> owned = new ConcurrentHashMap<>();
+    // workflowExecutionId -> last time an event of the execution was handled here
+    private final Map<String, Instant> lastActive = new ConcurrentHashMap<>();
+    private ScheduledExecutorService scheduler;
+
+    @Autowired
+    public ExecutionLeaseManager(ExecutionLeaseProperties properties,
+                                 @Qualifier("workerMongoTemplate") MongoTemplate mongoTemplate,
+                                 EventPublisher<Event> eventPublisher,
+                                 WorkflowExecutionCache cache) {
+        this(properties, mongoTemplate, eventPublisher, cache, Clock.systemUTC());
+        if (properties.isEnabled()) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "workflow-execution-lease");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long interval = properties.getHeartbeat().toMillis();
+            scheduler.scheduleAtFixedRate(this::heartbeatQuietly, interval, interval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    ExecutionLeaseManager(ExecutionLeaseProperties properties, MongoTemplate mongoTemplate,
+                          EventPublisher<Event> eventPublisher, WorkflowExecutionCache cache, Clock clock) {
+        this.properties = properties;
+        this.mongoTemplate = mongoTemplate;
+        this.eventPublisher = eventPublisher;
+        this.cache = cache;
+        this.clock = clock;
+        this.owner = properties.getOwner() != null ? properties.getOwner() : "orchestrator-" + KeyUtil.getFlatUUID();
+    }
+
+    /**
+     * Acquires the lease of the event's execution, or publishes the event
+     * again when another node holds it. An event requeued
+     * {@code maxRequeues} times already is parked instead.
+     *
+     * @return whether this node may handle the event
+     */
+    public boolean claim(OrchestrationEvent event) {
+        if (!properties.isEnabled() || event.getWorkflowExecutionId() == null
+                || acquire(event.getWorkflowExecutionId())) {
+            return true;
+        }
+        if (event.getRequeues() >= properties.getMaxRequeues()) {
+            park(event);
+            return false;
+        }
+        log.debug("Execution {} is leased to another node, requeueing event {}",
+                event.getWorkflowExecutionId(), event.getEventId());
+        requeue(event);
+        return false;
+    }
+
+    /**
+     * Acquires or renews the lease of an execution unless another node holds
+     * it. Taking a lease over drops the node's cached copy of the execution,
+     * so it is acquired before the execution is read.
+     */
+    public boolean acquire(String workflowExecutionId) {
+        if (!properties.isEnabled()) {
+            return true;
+        }
+        Instant now = clock.instant();
+        lastActive.put(workflowExecutionId, now);
+        Instant held = owned.get(workflowExecutionId);
+        if (held != null && now.plus(properties.getHeartbeat()).isBefore(held)) {
+            return true;
+        }
+        Instant expiresAt = now.plus(properties.getDuration());
+        Query query = Query.query(Criteria.where("_id").is(workflowExecutionId).orOperator(
+                Criteria.where("owner").is(owner),
+                Criteria.where("expiresAt").lt(Date.from(now))));
+        Update update = new Update()
+                .set("owner", owner)
+                .set("expiresAt", Date.from(expiresAt))
+                .set("acquiredDate", Date.from(now));
+        try {
+            // a lease held by another node fails the upsert on the _id
+            mongoTemplate.upsert(query, update, ExecutionLease.class);
+        } catch (DuplicateKeyException e) {
+            forget(workflowExecutionId);
+            return false;
+        }
+        if (held == null) {
+            // a copy cached while another node held the lease may be stale
+            cache.invalidate(workflowExecutionId);
+            log.debug("Acquired lease of execution {}", workflowExecutionId);
+        }
+        owned.put(workflowExecutionId, expiresAt);
+        return true;
+    }
+
+    /**
+     * Releases the lease of the event's execution once the execution
+     * completed.
+     */
+    public void releaseIfCompleted(OrchestrationEvent event) {
+        OrchestrationEvent.EventContext context = event.getOrchestrationEventContext();
+        WorkflowExecution execution = context == null ? null : context.workflowExecution();
+        if (properties.isEnabled() && execution != null && COMPLETED.contains(execution.getStatus())) {
+            release(execution.getWorkflowExecutionId());
+        }
+    }
+
+    public void release(String workflowExecutionId) {
+        lastActive.remove(workflowExecutionId);
+        if (owned.remove(workflowExecutionId) == null) {
+            return;
+        }
+        mongoTemplate.remove(Query.query(Criteria.where("_id").is(workflowExecutionId)
+                .and("owner").is(owner)), ExecutionLease.class);
+    }
+
+    /**
+     * Parked events of an execution, or of all executions for {@code null},
+     * oldest first.
+     */
+    public List<ParkedEvent> parked(String workflowExecutionId) {
+        Query query = workflowExecutionId == null
+                ? new Query()
+                : Query.query(Criteria.where("workflowExecutionId").is(workflowExecutionId));
+        return mongoTemplate.find(query.with(Sort.by(Sort.Direction.ASC, "parkedDate")), ParkedEvent.class);
+    }
+
+    /**
+     * Publishes a parked event again as a renewed event with its requeues
+     * reset, and removes it once published.
+     *
+     * @return false if no such event is parked
+     */
+    public boolean replayParked(String eventId) {
+        ParkedEvent parked = mongoTemplate.findById(eventId, ParkedEvent.class);
+        if (parked == null) {
+            return false;
+        }
+        OrchestrationEvent renewed = parked.getEvent().renew();
+        if (renewed == null) {
+            throw new IllegalStateException("Failed to renew parked event " + eventId);
+        }
+        renewed.setRequeues(0);
+        eventPublisher.publish(renewed);
+        mongoTemplate.remove(Query.query(Criteria.where("_id").is(eventId)), ParkedEvent.class);
+        log.info("Replayed parked event {} of execution {} as {}",
+                eventId, parked.getWorkflowExecutionId(), renewed.getEventId());
+        return true;
+    }
+
+    public boolean owns(String workflowExecutionId) {
+        return owned.containsKey(workflowExecutionId);
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    /**
+     * Renews the leases held by this node of executions active within the
+     * lease duration, forgets the expired ones and those taken over by other
+     * nodes in the meantime.
+     */
+    void heartbeat() {
+        if (owned.isEmpty()) {
+            return;
+        }
+        Instant now = clock.instant();
+        Instant activeSince = now.minus(properties.getDuration());
+        Instant expiresAt = now.plus(properties.getDuration());
+        List<String> ids = new ArrayList<>();
+        for (Map.Entry<String, Instant> lease : owned.entrySet()) {
+            Instant active = lastActive.get(lease.getKey());
+            if (active != null && !active.isBefore(activeSince)) {
+                ids.add(lease.getKey());
+            } else if (!lease.getValue().isAfter(now) && owned.remove(lease.getKey(), lease.getValue())) {
+                // idle long enough for the lease to run out; the next event acquires it again
+                lastActive.remove(lease.getKey(), active);
+                cache.invalidate(lease.getKey());
+                log.debug("Let lease of idle execution {} expire", lease.getKey());
+            }
+        }
+        if (ids.isEmpty()) {
+            return;
+        }
+        Query mine = Query.query(Criteria.where("_id").in(ids).and("owner").is(owner));
+        mongoTemplate.updateMulti(mine, Update.update("expiresAt", Date.from(expiresAt)), ExecutionLease.class);
+        Set<String> kept = mongoTemplate.find(mine, ExecutionLease.class).stream()
+                .map(ExecutionLease::getWorkflowExecutionId)
+                .collect(Collectors.toSet());
+        for (String id : ids) {
+            if (kept.contains(id)) {
+                owned.computeIfPresent(id, (k, v) -> expiresAt);
+            } else if (owned.containsKey(id)) {
+                forget(id);
+                log.warn("Lost lease of execution {} to another node", id);
+            }
+        }
+    }
+
+    private void heartbeatQuietly() {
+        try {
+            heartbeat();
+        } catch (Exception e) {
+            log.error("Execution lease heartbeat failed", e);
+        }
+    }
+
+    /**
+     * Stops holding an execution: drops its lease and hands pending writes of
+     * the cached copy to the store, so the next owner loads them.
+     */
+    private void forget(String workflowExecutionId) {
+        owned.remove(workflowExecutionId);
+        lastActive.remove(workflowExecutionId);
+        cache.invalidate(workflowExecutionId);
+    }
+
+    private void park(OrchestrationEvent event) {
+        ExecutionLease lease = mongoTemplate.findById(event.getWorkflowExecutionId(), ExecutionLease.class);
+        ParkedEvent parked = new ParkedEvent();
+        parked.setEventId(event.getEventId());
+        parked.setWorkflowExecutionId(event.getWorkflowExecutionId());
+        parked.setEvent(event);
+        parked.setLeasedTo(lease == null ? null : lease.getOwner());
+        parked.setParkedDate(Date.from(clock.instant()));
+        mongoTemplate.save(parked);
+        log.error("Parked event {} after {} requeues, execution {} is still leased to {}",
+                event.getEventId(), event.getRequeues(), event.getWorkflowExecutionId(),
+                lease == null ? "another node" : lease.getOwner());
+    }
+
+    private void requeue(OrchestrationEvent event) {
+        OrchestrationEvent renewed = event.renew();
+        if (renewed == null) {
+            log.error("Failed to requeue event {}", event.getEventId());
+            return;
+        }
+        renewed.setRequeues(event.getRequeues() + 1);
+        if (scheduler == null) {
+            eventPublisher.publish(renewed);
+            return;
+        }
+        scheduler.schedule(() -> {
+            try {
+                eventPublisher.publish(renewed);
+            } catch (Exception e) {
+                log.error("Failed to requeue event {}", event.getEventId(), e);
+            }
+        }, properties.getRequeueDelay().toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void destroy() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        if (!properties.isEnabled() || owned.isEmpty()) {
+            return;
+        }
+        try {
+            // hand the executions over to the other nodes right away, with their pending writes
+            owned.keySet().forEach(cache::invalidate);
+            mongoTemplate.remove(Query.query(Criteria.where("_id").in(new ArrayList<>(owned.keySet()))
+                    .and("owner").is(owner)), ExecutionLease.class);
+            owned.clear();
+            lastActive.clear();
+        } catch (Exception e) {
+            log.warn("Failed to release execution leases", e);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package dev.fusionize.workflow.lease;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Ownership of workflow executions by orchestrator nodes. A node holds the
+ * lease of an execution for {@code duration}, renewing it every
+ * {@code heartbeat} while the execution had events within {@code duration};
+ * another node takes the execution over once the lease expired.
+ */
+@Component
+@ConfigurationProperties(prefix = "fusionize.worker.execution-lease")
+public class ExecutionLeaseProperties {
+    private boolean enabled = false;
+    private String owner;
+    private Duration duration = Duration.ofSeconds(30);
+    private Duration heartbeat = Duration.ofSeconds(10);
+    private Duration requeueDelay = Duration.ofSeconds(1);
+    private int maxRequeues = 120;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Name this node holds leases as, or {@code null} for a random one.
+     */
+    public String getOwner() {
+        return owner;
+    }
+
+    public void setOwner(String owner) {
+        this.owner = owner;
+    }
+
+    public Duration getDuration() {
+        return duration;
+    }
+
+    public void setDuration(Duration duration) {
+        this.duration = duration;
+    }
+
+    public Duration getHeartbeat() {
+        return heartbeat;
+    }
+
+    public void setHeartbeat(Duration heartbeat) {
+        this.heartbeat = heartbeat;
+    }
+
+    /**
+     * Delay before an event of an execution owned by another node is
+     * published again.
+     */
+    public Duration getRequeueDelay() {
+        return requeueDelay;
+    }
+
+    public void setRequeueDelay(Duration requeueDelay) {
+        this.requeueDelay = requeueDelay;
+    }
+
+    /**
+     * Times an event is published again before it is parked instead. With
+     * leases running out after {@code duration}, an event requeued this often
+     * points to a node holding on to its executions.
+     */
+    public int getMaxRequeues() {
+        return maxRequeues;
+    }
+
+    public void setMaxRequeues(int maxRequeues) {
+        this.maxRequeues = maxRequeues;
+    }
+}
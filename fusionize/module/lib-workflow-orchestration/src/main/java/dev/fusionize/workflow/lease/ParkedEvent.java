@@ -0,0 +1,66 @@
+package dev.fusionize.workflow.lease;
+
+import dev.fusionize.workflow.events.OrchestrationEvent;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+/**
+ * An event given up on after {@code maxRequeues} requeues, kept until an
+ * operator replays it, keyed by its eventId.
+ */
+@Document(collection = ParkedEvent.COLLECTION)
+public class ParkedEvent {
+    public static final String COLLECTION = "workflow-event-parked";
+
+    @Id
+    private String eventId;
+    @Indexed
+    private String workflowExecutionId;
+    private OrchestrationEvent event;
+    // the node holding the execution's lease when the event was parked
+    private String leasedTo;
+    private Date parkedDate;
+
+    public String getEventId() {
+        return eventId;
+    }
+
+    public void setEventId(String eventId) {
+        this.eventId = eventId;
+    }
+
+    public String getWorkflowExecutionId() {
+        return workflowExecutionId;
+    }
+
+    public void setWorkflowExecutionId(String workflowExecutionId) {
+        this.workflowExecutionId = workflowExecutionId;
+    }
+
+    public OrchestrationEvent getEvent() {
+        return event;
+    }
+
+    public void setEvent(OrchestrationEvent event) {
+        this.event = event;
+    }
+
+    public String getLeasedTo() {
+        return leasedTo;
+    }
+
+    public void setLeasedTo(String leasedTo) {
+        this.leasedTo = leasedTo;
+    }
+
+    public Date getParkedDate() {
+        return parkedDate;
+    }
+
+    public void setParkedDate(Date parkedDate) {
+        this.parkedDate = parkedDate;
+    }
+}
@@ -3,10 +3,15 @@ package dev.fusionize.workflow.logging;
 import dev.fusionize.workflow.WorkflowInteraction;
 import dev.fusionize.workflow.WorkflowInteractionLogger;
 import dev.fusionize.workflow.listeners.InteractionListener;
+import dev.fusionize.workflow.retention.RetainedCollection;
+import dev.fusionize.workflow.retention.WorkflowArchive;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CopyOnWriteArrayList;
@@ -15,9 +20,17 @@ import java.util.concurrent.CopyOnWriteArrayList;
 public class WorkflowInteractionRepoLogger implements WorkflowInteractionLogger {
     private final WorkflowInteractionRepository repository;
     private final List<InteractionListener> listeners = new CopyOnWriteArrayList<>();
+    private final WorkflowArchive archive;
 
     public WorkflowInteractionRepoLogger(WorkflowInteractionRepository repository, List<InteractionListener> listeners) {
+        this(repository, listeners, null);
+    }
+
+    @Autowired
+    public WorkflowInteractionRepoLogger(WorkflowInteractionRepository repository, List<InteractionListener> listeners,
+                                         WorkflowArchive archive) {
         this.repository = repository;
+        this.archive = archive;
         if (listeners != null) {
             this.listeners.addAll(listeners);
         }
@@ -51,6 +64,19 @@ public class WorkflowInteractionRepoLogger implements WorkflowInteractionLogger
 
     @Override
     public List<WorkflowInteraction> getInteractions(String workflowExecutionId) {
-        return repository.findByWorkflowExecutionIdOrderByTimestampAsc(workflowExecutionId);
+        List<WorkflowInteraction> live = repository.findByWorkflowExecutionIdOrderByTimestampAsc(workflowExecutionId);
+        if (archive == null) {
+            return live;
+        }
+        List<WorkflowInteraction> archived = archive.read(
+                RetainedCollection.INTERACTION, workflowExecutionId, WorkflowInteraction.class);
+        if (archived.isEmpty()) {
+            return live;
+        }
+        List<WorkflowInteraction> all = new ArrayList<>(archived);
+        all.addAll(live);
+        all.sort(Comparator.comparing(WorkflowInteraction::getTimestamp,
+                Comparator.nullsFirst(Comparator.naturalOrder())));
+        return all;
     }
 }
@@ -3,10 +3,15 @@ package dev.fusionize.workflow.logging;
 import dev.fusionize.workflow.listeners.LogListener;
 import dev.fusionize.workflow.WorkflowLog;
 import dev.fusionize.workflow.WorkflowLogger;
+import dev.fusionize.workflow.retention.RetainedCollection;
+import dev.fusionize.workflow.retention.WorkflowArchive;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CopyOnWriteArrayList;
@@ -15,9 +20,16 @@ import java.util.concurrent.CopyOnWriteArrayList;
 public class WorkflowLogRepoLogger implements WorkflowLogger {
     private final WorkflowLogRepository repository;
     private final List<LogListener> listeners = new CopyOnWriteArrayList<>();
+    private final WorkflowArchive archive;
 
     public WorkflowLogRepoLogger(WorkflowLogRepository repository, List<LogListener> listeners) {
+        this(repository, listeners, null);
+    }
+
+    @Autowired
+    public WorkflowLogRepoLogger(WorkflowLogRepository repository, List<LogListener> listeners, WorkflowArchive archive) {
         this.repository = repository;
+        this.archive = archive;
         if (listeners != null) {
             this.listeners.addAll(listeners);
         }
@@ -52,6 +64,17 @@ public class WorkflowLogRepoLogger implements WorkflowLogger {
     }
 
     public List<WorkflowLog> getLogs(String workflowExecutionId) {
-        return repository.findByWorkflowExecutionIdOrderByTimestampAsc(workflowExecutionId);
+        List<WorkflowLog> live = repository.findByWorkflowExecutionIdOrderByTimestampAsc(workflowExecutionId);
+        if (archive == null) {
+            return live;
+        }
+        List<WorkflowLog> archived = archive.read(RetainedCollection.LOG, workflowExecutionId, WorkflowLog.class);
+        if (archived.isEmpty()) {
+            return live;
+        }
+        List<WorkflowLog> all = new ArrayList<>(archived);
+        all.addAll(live);
+        all.sort(Comparator.comparing(WorkflowLog::getTimestamp, Comparator.nullsFirst(Comparator.naturalOrder())));
+        return all;
     }
 }
@@ -0,0 +1,95 @@
+package dev.fusionize.workflow.orchestrator;
+
+import dev.fusionize.workflow.events.PartitionedEventDispatcher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs a read-modify-write of a workflow execution again when its write finds
+ * the execution changed by someone else, after a random delay so that
+ * concurrent writers spread out.
+ * <p>
+ * The first attempt runs on the calling thread. Retries wait out their delay
+ * on a thread of their own instead of holding up the lane of the caller, and
+ * then run on the lane of the execution again, so that they stay in order with
+ * the other events of the execution.
+ */
+@Component
+public class ConflictRetry implements DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger(ConflictRetry.class);
+
+    private final ConflictRetryProperties properties;
+    private final PartitionedEventDispatcher lanes;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "workflow-conflict-retry");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ConflictRetry(ConflictRetryProperties properties, PartitionedEventDispatcher lanes) {
+        this.properties = properties;
+        this.lanes = lanes;
+    }
+
+    /**
+     * @param attempt the read-modify-write; it must not have side effects
+     *                before its write
+     * @param reload  loads the execution again before the next attempt
+     * @return completes once an attempt was written, or exceptionally with an
+     * {@link OptimisticLockingFailureException} if the last attempt conflicted
+     * @throws RuntimeException any other failure of the first attempt
+     */
+    public CompletableFuture<Void> run(String workflowExecutionId, Runnable attempt, Runnable reload) {
+        CompletableFuture<Void> written = new CompletableFuture<>();
+        attempt(workflowExecutionId, attempt, reload, 1, written);
+        return written;
+    }
+
+    private void attempt(String workflowExecutionId, Runnable attempt, Runnable reload, int n,
+                         CompletableFuture<Void> written) {
+        try {
+            attempt.run();
+        } catch (OptimisticLockingFailureException e) {
+            int attempts = Math.max(1, properties.getAttempts());
+            if (n >= attempts) {
+                log.error("Giving up on workflow execution {} after {} conflicting writes",
+                        workflowExecutionId, n);
+                written.completeExceptionally(e);
+                return;
+            }
+            log.debug("Workflow execution {} changed concurrently, retrying ({}/{})",
+                    workflowExecutionId, n, attempts);
+            scheduler.schedule(() -> lanes.dispatch(workflowExecutionId, () -> {
+                try {
+                    reload.run();
+                    attempt(workflowExecutionId, attempt, reload, n + 1, written);
+                } catch (RuntimeException failure) {
+                    log.error("Retry of workflow execution {} failed", workflowExecutionId, failure);
+                    written.completeExceptionally(failure);
+                }
+            }), backoff(n), TimeUnit.MILLISECONDS);
+            return;
+        }
+        written.complete(null);
+    }
+
+    private long backoff(int attempt) {
+        long bound = Math.min(properties.getMaxBackoff().toMillis(),
+                properties.getBackoff().toMillis() << Math.min(attempt - 1, 20));
+        return bound <= 0 ? 0 : ThreadLocalRandom.current().nextLong(bound + 1);
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.shutdownNow();
+    }
+}
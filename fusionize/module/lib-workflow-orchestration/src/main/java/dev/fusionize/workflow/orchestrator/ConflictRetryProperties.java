@@ -0,0 +1,49 @@
+package dev.fusionize.workflow.orchestrator;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Settings for {@link ConflictRetry}.
+ */
+@Component
+@ConfigurationProperties(prefix = "fusionize.worker.conflict-retry")
+public class ConflictRetryProperties {
+    private int attempts = 8;
+    private Duration backoff = Duration.ofMillis(5);
+    private Duration maxBackoff = Duration.ofMillis(200);
+
+    /**
+     * How often a change to a workflow execution is tried before the conflict
+     * is given up on.
+     */
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    /**
+     * Upper bound of the random delay before the second attempt, doubled with
+     * every further attempt up to the max backoff.
+     */
+    public Duration getBackoff() {
+        return backoff;
+    }
+
+    public void setBackoff(Duration backoff) {
+        this.backoff = backoff;
+    }
+
+    public Duration getMaxBackoff() {
+        return maxBackoff;
+    }
+
+    public void setMaxBackoff(Duration maxBackoff) {
+        this.maxBackoff = maxBackoff;
+    }
+}
@@ -0,0 +1,176 @@
+package dev.fusionize.workflow.orchestrator;
+
+import dev.fusionize.workflow.component.handlers.OrchestrationActivateResponseEventHandler;
+import dev.fusionize.workflow.component.handlers.OrchestrationInvocationResponseEventHandler;
+import dev.fusionize.workflow.component.runtime.ComponentRuntimeEngine;
+import dev.fusionize.workflow.events.Event;
+import dev.fusionize.workflow.events.EventHandler;
+import dev.fusionize.workflow.events.EventStore;
+import dev.fusionize.workflow.events.OrchestrationEvent;
+import dev.fusionize.workflow.events.PartitionedEventDispatcher;
+import dev.fusionize.workflow.events.orchestration.ActivationRequestEvent;
+import dev.fusionize.workflow.events.orchestration.ActivationResponseEvent;
+import dev.fusionize.workflow.events.orchestration.InvocationRequestEvent;
+import dev.fusionize.workflow.events.orchestration.InvocationResponseEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs components backed by a local runtime in process and feeds their
+ * responses straight to the response event handlers, skipping the publish,
+ * persist and re-consume round trip of the four orchestration events. Leases
+ * and admission apply to these responses just as to those from the event bus.
+ * <p>
+ * Responses are handled on the lane of their workflow execution, so the fast
+ * path requires partitioned dispatch. Events are still written to the event
+ * store, unless persistence is turned off, by a small pool of its own with a
+ * bounded queue, so a slow store neither holds up the lanes nor takes threads
+ * from the components.
+ */
+@Component
+public class LocalComponentFastPath implements DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger(LocalComponentFastPath.class);
+
+    private final LocalFastPathProperties properties;
+    private final ComponentRuntimeEngine componentRuntimeEngine;
+    private final ObjectProvider<OrchestrationActivateResponseEventHandler> activationHandler;
+    private final ObjectProvider<OrchestrationInvocationResponseEventHandler> invocationHandler;
+    private final PartitionedEventDispatcher laneDispatcher;
+    private final EventStore<Event> eventStore;
+    private final ExecutorService executor;
+
+    @Autowired
+    public LocalComponentFastPath(LocalFastPathProperties properties,
+                                  ComponentRuntimeEngine componentRuntimeEngine,
+                                  ObjectProvider<OrchestrationActivateResponseEventHandler> activationHandler,
+                                  ObjectProvider<OrchestrationInvocationResponseEventHandler> invocationHandler,
+                                  PartitionedEventDispatcher laneDispatcher,
+                                  EventStore<Event> eventStore) {
+        this(properties, componentRuntimeEngine, activationHandler, invocationHandler, laneDispatcher, eventStore,
+                persistExecutor(properties));
+    }
+
+    LocalComponentFastPath(LocalFastPathProperties properties,
+                           ComponentRuntimeEngine componentRuntimeEngine,
+                           ObjectProvider<OrchestrationActivateResponseEventHandler> activationHandler,
+                           ObjectProvider<OrchestrationInvocationResponseEventHandler> invocationHandler,
+                           PartitionedEventDispatcher laneDispatcher,
+                           EventStore<Event> eventStore,
+                           ExecutorService executor) {
+        if (properties.isEnabled() && !laneDispatcher.isEnabled()) {
+            throw new IllegalStateException("The local fast path needs partitioned event dispatch: "
+                    + "enable fusionize.worker.event-dispatch or disable fusionize.worker.local-fast-path");
+        }
+        this.properties = properties;
+        this.componentRuntimeEngine = componentRuntimeEngine;
+        this.activationHandler = activationHandler;
+        this.invocationHandler = invocationHandler;
+        this.laneDispatcher = laneDispatcher;
+        this.eventStore = eventStore;
+        this.executor = executor;
+    }
+
+    /**
+     * Activates the component in process if it is local.
+     *
+     * @return false if the request has to go through the event bus instead
+     */
+    public boolean activate(ActivationRequestEvent request) {
+        if (!accepts(request)) {
+            return false;
+        }
+        persist(request);
+        ActivationResponseEvent immediate = componentRuntimeEngine.activateComponent(request,
+                response -> handOff(response, activationHandler.getObject()));
+        if (immediate != null) {
+            handOff(immediate, activationHandler.getObject());
+        }
+        return true;
+    }
+
+    /**
+     * Invokes the component in process if it is local.
+     *
+     * @return false if the request has to go through the event bus instead
+     */
+    public boolean invoke(InvocationRequestEvent request) {
+        if (!accepts(request)) {
+            return false;
+        }
+        persist(request);
+        InvocationResponseEvent immediate = componentRuntimeEngine.invokeComponent(request,
+                response -> handOff(response, invocationHandler.getObject()));
+        if (immediate != null) {
+            handOff(immediate, invocationHandler.getObject());
+        }
+        return true;
+    }
+
+    private boolean accepts(OrchestrationEvent request) {
+        return properties.isEnabled()
+                && request.getOrchestrationEventContext() != null
+                && componentRuntimeEngine.isLocal(request);
+    }
+
+    private <T extends OrchestrationEvent> void handOff(T response, EventHandler<T> handler) {
+        laneDispatcher.dispatch(response.getWorkflowExecutionId(), () -> {
+            try {
+                handler.handle(response);
+            } catch (Exception e) {
+                log.error("Local fast path failed for node execution {}",
+                        response.getWorkflowNodeExecutionId(), e);
+            }
+            persist(response);
+        });
+    }
+
+    private void persist(OrchestrationEvent event) {
+        if (!properties.isPersistEvents()) {
+            return;
+        }
+        event.setProcessedDate(new Date());
+        try {
+            executor.execute(() -> {
+                try {
+                    eventStore.save(event);
+                } catch (Exception e) {
+                    log.warn("Could not persist event {}", event.getEventId(), e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.warn("Event persistence is backed up, not persisting event {}", event.getEventId());
+        }
+    }
+
+    private static ExecutorService persistExecutor(LocalFastPathProperties properties) {
+        int threads = Math.max(1, properties.getPersistThreads());
+        AtomicInteger count = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, properties.getPersistQueueCapacity())), runnable -> {
+                    Thread thread = new Thread(runnable, "fusionize-fast-path-persist-" + count.getAndIncrement());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        executor.shutdown();
+        // the events still queued are written before the store goes away
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,59 @@
+package dev.fusionize.workflow.orchestrator;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings for {@link LocalComponentFastPath}.
+ * <p>
+ * Local components are then run in process, so the orchestrator node must host
+ * them; events of an execution are no longer spread across other nodes.
+ */
+@Component
+@ConfigurationProperties(prefix = "fusionize.worker.local-fast-path")
+public class LocalFastPathProperties {
+    private boolean enabled = false;
+    private boolean persistEvents = true;
+    private int persistThreads = 2;
+    private int persistQueueCapacity = 10_000;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isPersistEvents() {
+        return persistEvents;
+    }
+
+    public void setPersistEvents(boolean persistEvents) {
+        this.persistEvents = persistEvents;
+    }
+
+    /**
+     * Threads writing the fast path's events to the event store, apart from
+     * the threads running components.
+     */
+    public int getPersistThreads() {
+        return persistThreads;
+    }
+
+    public void setPersistThreads(int persistThreads) {
+        this.persistThreads = persistThreads;
+    }
+
+    /**
+     * Events waiting to be written; once full, further events are not
+     * persisted rather than holding up the execution lanes.
+     */
+    public int getPersistQueueCapacity() {
+        return persistQueueCapacity;
+    }
+
+    public void setPersistQueueCapacity(int persistQueueCapacity) {
+        this.persistQueueCapacity = persistQueueCapacity;
+    }
+}
@@ -1,11 +1,16 @@
 package dev.fusionize.workflow.orchestrator;
 
 import dev.fusionize.workflow.*;
+import dev.fusionize.workflow.claimcheck.ContextClaimCheck;
+import dev.fusionize.workflow.context.Context;
+import dev.fusionize.workflow.context.ContextDelta;
 import dev.fusionize.workflow.context.ContextFactory;
 import dev.fusionize.workflow.events.OrchestrationEvent;
 import dev.fusionize.workflow.events.orchestration.ActivationResponseEvent;
 import dev.fusionize.workflow.events.orchestration.InvocationResponseEvent;
+import dev.fusionize.workflow.lease.ExecutionLeaseManager;
 import dev.fusionize.workflow.registry.WorkflowExecutionRepoRegistry;
+import dev.fusionize.workflow.registry.WorkflowExecutionUnitOfWork;
 import dev.fusionize.workflow.registry.WorkflowRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -13,24 +18,38 @@ import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Component
 public class Orchestrator {
 
     private static final Logger log = LoggerFactory.getLogger(Orchestrator.class);
+    private static final Set<WorkflowExecutionStatus> COMPLETED = Set.of(
+            WorkflowExecutionStatus.SUCCESS, WorkflowExecutionStatus.ERROR, WorkflowExecutionStatus.TERMINATED);
     private final WorkflowRegistry workflowRegistry;
     private final WorkflowExecutionRepoRegistry workflowExecutionRegistry;
     private final OrchestratorComponentDispatcher componentDispatcher;
     private final OrchestratorWorkflowNavigator workflowNavigator;
+    private final ContextClaimCheck claimCheck;
+    private final ConflictRetry conflictRetry;
+    private final ExecutionLeaseManager leases;
 
     public Orchestrator(WorkflowRegistry workflowRegistry,
             WorkflowExecutionRepoRegistry workflowExecutionRegistry,
             OrchestratorComponentDispatcher componentDispatcher,
-            OrchestratorWorkflowNavigator workflowNavigator) {
+            OrchestratorWorkflowNavigator workflowNavigator,
+            ContextClaimCheck claimCheck,
+            ConflictRetry conflictRetry,
+            ExecutionLeaseManager leases) {
         this.workflowRegistry = workflowRegistry;
         this.workflowExecutionRegistry = workflowExecutionRegistry;
         this.componentDispatcher = componentDispatcher;
         this.workflowNavigator = workflowNavigator;
+        this.claimCheck = claimCheck;
+        this.conflictRetry = conflictRetry;
+        this.leases = leases;
     }
 
     public void orchestrate(String workflowId) {
@@ -43,87 +62,248 @@ public class Orchestrator {
         workflowExecutionRegistry.deleteIdlesFor(workflow.getWorkflowId());
         List<WorkflowNodeExecution> nodes = workflow.getNodes().stream()
                 .map(n -> WorkflowNodeExecution.of(n, ContextFactory.empty()))
-                .peek(ne -> we.getNodes().add(ne)).toList();
+                .peek(we::addNode).toList();
+        leases.acquire(we.getWorkflowExecutionId());
         workflowExecutionRegistry.register(we);
         nodes.forEach(ne -> componentDispatcher.dispatchActivation(we, ne));
     }
 
+    /**
+     * Starts one execution of the workflow per initial context.
+     *
+     * @return the ids of the started executions, in the order of the contexts
+     * @throws IllegalArgumentException if the workflow does not exist
+     */
+    public List<String> orchestrateAll(String workflowId, List<Context> contexts) {
+        Workflow workflow = workflowRegistry.getWorkflow(workflowId);
+        if (workflow == null) {
+            throw new IllegalArgumentException("Workflow not found: " + workflowId);
+        }
+        return orchestrateAll(workflow, contexts);
+    }
+
+    /**
+     * Starts one execution of the workflow per initial context, the way its
+     * first start node would when triggered with that context: the executions
+     * are built IN_PROGRESS with the start node DONE, stored with a single
+     * insert, and the activations of the nodes after the start node published
+     * as one batch. The listening execution of the workflow is left as is.
+     *
+     * @return the ids of the started executions, in the order of the contexts
+     * @throws IllegalArgumentException if the workflow has no start node
+     */
+    public List<String> orchestrateAll(Workflow workflow, List<Context> contexts) {
+        WorkflowNode start = workflow.getCompiledWorkflow().rootNodes().stream()
+                .filter(n -> n.getType() == WorkflowNodeType.START)
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException(
+                        "Workflow has no start node: " + workflow.getWorkflowId()));
+        List<WorkflowExecution> executions = new ArrayList<>(contexts.size());
+        List<OrchestrationEvent.EventContext> activations = new ArrayList<>(contexts.size());
+        for (Context context : contexts) {
+            WorkflowExecution we = WorkflowExecution.of(workflow);
+            WorkflowNodeExecution ne = WorkflowNodeExecution.of(start,
+                    context == null ? ContextFactory.empty() : context);
+            we.addNode(ne);
+            workflowNavigator.start(we, ne)
+                    .forEach(child -> activations.add(new OrchestrationEvent.EventContext(we, child)));
+            executions.add(we);
+            leases.acquire(we.getWorkflowExecutionId());
+        }
+        workflowExecutionRegistry.registerAll(executions);
+        componentDispatcher.dispatchActivations(activations);
+        return executions.stream().map(WorkflowExecution::getWorkflowExecutionId).toList();
+    }
+
 
     private void proceedExecution(WorkflowExecution we, WorkflowNodeExecution ne) {
         workflowNavigator.navigate(we, ne, (
                 WorkflowExecution nextWe, WorkflowNodeExecution nextNe) -> {
-            workflowExecutionRegistry.register(nextWe);
+            if (nextWe != we) {
+                // an execution started by a start node is held by the node starting it
+                leases.acquire(nextWe.getWorkflowExecutionId());
+            }
+            workflowExecutionRegistry.commit(WorkflowExecutionUnitOfWork.of(nextWe).node(nextNe));
+            releaseIfCompleted(nextWe);
             nextNe.getChildren().forEach(cne -> componentDispatcher.dispatchActivation(nextWe, cne));
         });
 
     }
 
-    public void replayExecution(String workflowId, String workflowExecutionId, String workflowNodeExecutionId) {
+    /**
+     * Runs a node execution again from its activation, on this node only
+     * while it holds the execution's lease.
+     *
+     * @return a future completed once the reset node is stored and its
+     * activation dispatched, or exceptionally if that failed or the execution
+     * is leased to another node
+     */
+    public CompletableFuture<Void> replayExecution(String workflowId, String workflowExecutionId,
+                                                   String workflowNodeExecutionId) {
+        if (!leases.acquire(workflowExecutionId)) {
+            return CompletableFuture.failedFuture(new IllegalStateException(
+                    "Workflow execution " + workflowExecutionId + " is leased to another node"));
+        }
         Workflow workflow = workflowRegistry.getWorkflow(workflowId);
+        AtomicReference<OrchestrationEvent.EventContext> replayed = new AtomicReference<>();
+        return conflictRetry.run(workflowExecutionId,
+                        () -> replayed.set(resetForReplay(workflow, workflowExecutionId, workflowNodeExecutionId)),
+                        () -> {})
+                .thenRun(() -> componentDispatcher.dispatchActivation(
+                        replayed.get().workflowExecution(), replayed.get().nodeExecution()))
+                .whenComplete((done, failure) -> {
+                    if (failure != null) {
+                        logFailure(workflowExecutionId, failure);
+                    }
+                });
+    }
+
+    private OrchestrationEvent.EventContext resetForReplay(Workflow workflow, String workflowExecutionId,
+                                                          String workflowNodeExecutionId) {
         WorkflowExecution workflowExecution = workflowExecutionRegistry.getWorkflowExecution(workflowExecutionId);
         workflowExecution.setWorkflow(workflow);
         WorkflowNodeExecution workflowNodeExecution = workflowExecution.findNodeByWorkflowNodeExecutionId(workflowNodeExecutionId);
         WorkflowNode workflowNode = workflow.findNode(workflowNodeExecution.getWorkflowNodeId());
         workflowNodeExecution.setWorkflowNode(workflowNode);
-        workflowNodeExecution.setChildren(new ArrayList<>());
-        workflowNodeExecution.setChildren(new ArrayList<>());
-        workflowExecutionRegistry.register(workflowExecution);
-
-        componentDispatcher.dispatchActivation(workflowExecution, workflowNodeExecution);
+        // no longer FAILED, so its responses are handled and it counts as working again
+        workflowNodeExecution.setState(WorkflowNodeExecutionState.IDLE);
+        workflowExecution.clearChildren(workflowNodeExecution);
+        workflowExecutionRegistry.commit(WorkflowExecutionUnitOfWork.of(workflowExecution).node(workflowNodeExecution));
+        return new OrchestrationEvent.EventContext(workflowExecution, workflowNodeExecution);
     }
 
     public void onActivated(ActivationResponseEvent activationResponseEvent) {
-        OrchestrationEvent.EventContext oc = activationResponseEvent.getOrchestrationEventContext();
+        if (componentDispatcher.retryIfBusy(activationResponseEvent)) {
+            return;
+        }
+        componentDispatcher.clearBusy(activationResponseEvent);
         if (activationResponseEvent.getException() != null) {
             log.error("Error onActivated -> {}", activationResponseEvent.getException().getMessage(),
                     activationResponseEvent.getException());
             // todo handle escalation or compensation
-            oc.nodeExecution().setState(WorkflowNodeExecutionState.FAILED);
-            if(oc.nodeExecution().getWorkflowNode().getType().equals(WorkflowNodeType.START)){
-                oc.workflowExecution().setStatus(WorkflowExecutionStatus.ERROR);
-            }
-        } else {
-            componentDispatcher.dispatchInvocation(oc.workflowExecution(), oc.nodeExecution());
-            if(oc.nodeExecution().getWorkflowNode().getType().equals(WorkflowNodeType.WAIT)){
-                oc.nodeExecution().setState(WorkflowNodeExecutionState.WAITING);
-            }else if(!oc.nodeExecution().getWorkflowNode().getType().equals(WorkflowNodeType.START)){
-                oc.nodeExecution().setState(WorkflowNodeExecutionState.WORKING);
-            }
-            workflowExecutionRegistry.updateStatus(oc.workflowExecution().getWorkflowExecutionId(),
-                    oc.workflowExecution().getStatus());
-            workflowExecutionRegistry.updateNodeExecution(oc.workflowExecution().getWorkflowExecutionId(),
-                    oc.nodeExecution());
+            conflictRetry.run(activationResponseEvent.getWorkflowExecutionId(),
+                            () -> markFailed(activationResponseEvent), () -> reloadContext(activationResponseEvent))
+                    .exceptionally(failure -> logFailure(activationResponseEvent.getWorkflowExecutionId(), failure));
+            return;
+        }
+        conflictRetry.run(activationResponseEvent.getWorkflowExecutionId(),
+                        () -> markActivated(activationResponseEvent), () -> reloadContext(activationResponseEvent))
+                // dispatched once the state is stored, so a retried write does not invoke twice
+                .thenRun(() -> {
+                    OrchestrationEvent.EventContext oc = activationResponseEvent.getOrchestrationEventContext();
+                    componentDispatcher.dispatchInvocation(oc.workflowExecution(), oc.nodeExecution());
+                })
+                .exceptionally(failure -> logFailure(activationResponseEvent.getWorkflowExecutionId(), failure));
+    }
 
+    private void markActivated(ActivationResponseEvent activationResponseEvent) {
+        OrchestrationEvent.EventContext oc = activationResponseEvent.getOrchestrationEventContext();
+        if(oc.nodeExecution().getWorkflowNode().getType().equals(WorkflowNodeType.WAIT)){
+            oc.nodeExecution().setState(WorkflowNodeExecutionState.WAITING);
+        }else if(!oc.nodeExecution().getWorkflowNode().getType().equals(WorkflowNodeType.START)){
+            oc.nodeExecution().setState(WorkflowNodeExecutionState.WORKING);
         }
+        workflowExecutionRegistry.commit(
+                WorkflowExecutionUnitOfWork.of(oc.workflowExecution()).node(oc.nodeExecution()));
     }
 
     public void onInvoked(InvocationResponseEvent invocationResponseEvent) {
-        OrchestrationEvent.EventContext oc = invocationResponseEvent.getOrchestrationEventContext();
-
+        if (componentDispatcher.retryIfBusy(invocationResponseEvent)) {
+            return;
+        }
+        componentDispatcher.clearBusy(invocationResponseEvent);
+        String nodeExecutionId = invocationResponseEvent.getWorkflowNodeExecutionId();
         if (invocationResponseEvent.getException() != null) {
+            componentDispatcher.forgetDispatchedContext(nodeExecutionId);
             log.error("Error onInvoked -> {}", invocationResponseEvent.getException().getMessage(),
                     invocationResponseEvent.getException());
             // todo handle escalation or compensation
-            oc.nodeExecution().setState(WorkflowNodeExecutionState.FAILED);
-            workflowExecutionRegistry.updateNodeExecution(oc.workflowExecution().getWorkflowExecutionId(),
-                    oc.nodeExecution());
-            if(oc.nodeExecution().getWorkflowNode().getType().equals(WorkflowNodeType.START)){
-                oc.workflowExecution().setStatus(WorkflowExecutionStatus.ERROR);
-                workflowExecutionRegistry.updateStatus(oc.workflowExecution().getWorkflowExecutionId(),
-                        oc.workflowExecution().getStatus());
-            }
-            workflowExecutionRegistry.register(oc.workflowExecution());
+            conflictRetry.run(invocationResponseEvent.getWorkflowExecutionId(),
+                            () -> markFailed(invocationResponseEvent), () -> reloadContext(invocationResponseEvent))
+                    .exceptionally(failure -> logFailure(invocationResponseEvent.getWorkflowExecutionId(), failure));
             return;
         }
+        // once, so that a retried write does not store the values again
+        claimCheck.offload(invocationResponseEvent);
+        conflictRetry.run(invocationResponseEvent.getWorkflowExecutionId(),
+                        () -> proceedInvoked(invocationResponseEvent), () -> reloadContext(invocationResponseEvent))
+                .whenComplete((written, failure) -> componentDispatcher.forgetDispatchedContext(nodeExecutionId))
+                .exceptionally(failure -> logFailure(invocationResponseEvent.getWorkflowExecutionId(), failure));
+    }
+
+    private void proceedInvoked(InvocationResponseEvent invocationResponseEvent) {
+        OrchestrationEvent.EventContext oc = invocationResponseEvent.getOrchestrationEventContext();
         if(oc.nodeExecution().getState().equals(WorkflowNodeExecutionState.DONE) ||
                 oc.nodeExecution().getState().equals(WorkflowNodeExecutionState.FAILED)){
             log.warn("Skipping onInvoked -> node is not in WORKING state");
         }else{
-            log.info(invocationResponseEvent.getContext().toString());
-            oc.nodeExecution().setStageContext(invocationResponseEvent.getContext());
+            Context base = baseOf(invocationResponseEvent.getContextDelta(), oc.nodeExecution());
+            if (base == null) {
+                // invoking the component again could repeat its side effects
+                markFailed(invocationResponseEvent);
+                return;
+            }
+            Context context = invocationResponseEvent.resolveContext(base);
+            log.info(String.valueOf(context));
+            oc.nodeExecution().setStageContext(context);
             proceedExecution(oc.workflowExecution(), oc.nodeExecution());
         }
+    }
+
+    private void markFailed(OrchestrationEvent responseEvent) {
+        OrchestrationEvent.EventContext oc = responseEvent.getOrchestrationEventContext();
+        oc.nodeExecution().setState(WorkflowNodeExecutionState.FAILED);
+        if(oc.nodeExecution().getWorkflowNode().getType().equals(WorkflowNodeType.START)){
+            oc.workflowExecution().setStatus(WorkflowExecutionStatus.ERROR);
+        }
+        workflowExecutionRegistry.commit(
+                WorkflowExecutionUnitOfWork.of(oc.workflowExecution()).node(oc.nodeExecution()));
+        releaseIfCompleted(oc.workflowExecution());
+    }
+
+    private void releaseIfCompleted(WorkflowExecution we) {
+        if (COMPLETED.contains(we.getStatus())) {
+            claimCheck.release(we.getWorkflowExecutionId());
+        }
+    }
+
+    private Void logFailure(String workflowExecutionId, Throwable failure) {
+        log.error("Failed to update workflow execution {}", workflowExecutionId, failure);
+        return null;
+    }
 
+    /**
+     * Replaces the execution an event was handled against with the stored one.
+     */
+    private void reloadContext(OrchestrationEvent responseEvent) {
+        responseEvent.setOrchestrationEventContext(null);
+        try {
+            responseEvent.ensureOrchestrationEventContext(workflowExecutionRegistry, workflowRegistry);
+        } catch (Exception e) {
+            throw new IllegalStateException("Could not reload workflow execution "
+                    + responseEvent.getWorkflowExecutionId(), e);
+        }
+    }
+
+    /**
+     * The context a response's delta was taken against: the stage context of
+     * the node execution, or the context its invocation was dispatched with if
+     * the stage context changed since. {@code null} if neither fits.
+     */
+    private Context baseOf(ContextDelta delta, WorkflowNodeExecution ne) {
+        if (delta == null || delta.appliesTo(ne.getStageContext())) {
+            return ne.getStageContext();
+        }
+        Context dispatched = componentDispatcher.dispatchedContext(ne.getWorkflowNodeExecutionId());
+        if (delta.appliesTo(dispatched)) {
+            log.warn("Context of node execution {} changed since version {} was dispatched, "
+                    + "applying the response to the dispatched context", ne.getWorkflowNodeExecutionId(),
+                    delta.getBaseVersion());
+            return dispatched;
+        }
+        log.error("Context of node execution {} changed since version {} was dispatched and that version "
+                + "is no longer known, failing it", ne.getWorkflowNodeExecutionId(), delta.getBaseVersion());
+        return null;
     }
 
 
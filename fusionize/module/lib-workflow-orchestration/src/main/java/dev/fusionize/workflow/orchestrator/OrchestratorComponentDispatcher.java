@@ -2,37 +2,112 @@ package dev.fusionize.workflow.orchestrator;
 
 import dev.fusionize.workflow.WorkflowExecution;
 import dev.fusionize.workflow.WorkflowNodeExecution;
+import dev.fusionize.workflow.component.ComponentExecutorProperties;
 import dev.fusionize.workflow.component.local.beans.NoopComponent;
+import dev.fusionize.workflow.context.Context;
+import dev.fusionize.workflow.context.ContextDelta;
 import dev.fusionize.workflow.events.Event;
 import dev.fusionize.workflow.events.EventPublisher;
 import dev.fusionize.workflow.events.OrchestrationEvent;
 import dev.fusionize.workflow.events.orchestration.ActivationRequestEvent;
+import dev.fusionize.workflow.events.orchestration.ActivationResponseEvent;
 import dev.fusionize.workflow.events.orchestration.InvocationRequestEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
 @Component
-public class OrchestratorComponentDispatcher {
+public class OrchestratorComponentDispatcher implements DisposableBean {
 
     private static final Logger log = LoggerFactory.getLogger(OrchestratorComponentDispatcher.class);
+    private static final int MAX_DISPATCHED_CONTEXTS = 10_000;
     private final EventPublisher<Event> eventPublisher;
+    private final LocalComponentFastPath localFastPath;
+    private final ComponentExecutorProperties executorProperties;
+    private final ScheduledExecutorService retryScheduler;
+    private final Map<String, Integer> busyAttempts = new ConcurrentHashMap<>();
+    // contexts versioned invocations left with, by node execution; bounded since responses may never come
+    private final Map<String, Context> dispatchedContexts = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Context> eldest) {
+                    return size() > MAX_DISPATCHED_CONTEXTS;
+                }
+            });
+
+    @Autowired
+    public OrchestratorComponentDispatcher(EventPublisher<Event> eventPublisher,
+                                           LocalComponentFastPath localFastPath,
+                                           ComponentExecutorProperties executorProperties) {
+        this(eventPublisher, localFastPath, executorProperties, Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "fusionize-busy-retry");
+            thread.setDaemon(true);
+            return thread;
+        }));
+    }
 
-    public OrchestratorComponentDispatcher(EventPublisher<Event> eventPublisher) {
+    OrchestratorComponentDispatcher(EventPublisher<Event> eventPublisher,
+                                    LocalComponentFastPath localFastPath,
+                                    ComponentExecutorProperties executorProperties,
+                                    ScheduledExecutorService retryScheduler) {
         this.eventPublisher = eventPublisher;
+        this.localFastPath = localFastPath;
+        this.executorProperties = executorProperties;
+        this.retryScheduler = retryScheduler;
     }
 
     public void dispatchActivation(WorkflowExecution we, WorkflowNodeExecution ne) {
+        ActivationRequestEvent activationRequestEvent = activationRequest(we, ne);
+        if (activationRequestEvent == null || localFastPath.activate(activationRequestEvent)) {
+            return;
+        }
+        versionContext(activationRequestEvent);
+        eventPublisher.publish(activationRequestEvent);
+    }
+
+    /**
+     * Dispatches the activations of many node executions, publishing those
+     * not run in process as one batch.
+     */
+    public void dispatchActivations(List<OrchestrationEvent.EventContext> targets) {
+        List<Event> batch = new ArrayList<>(targets.size());
+        for (OrchestrationEvent.EventContext target : targets) {
+            ActivationRequestEvent activationRequestEvent = activationRequest(target.workflowExecution(),
+                    target.nodeExecution());
+            if (activationRequestEvent == null || localFastPath.activate(activationRequestEvent)) {
+                continue;
+            }
+            versionContext(activationRequestEvent);
+            batch.add(activationRequestEvent);
+        }
+        if (!batch.isEmpty()) {
+            eventPublisher.publishAll(batch);
+        }
+    }
+
+    private ActivationRequestEvent activationRequest(WorkflowExecution we, WorkflowNodeExecution ne) {
         if(we == null || ne == null || we.getWorkflow() == null || ne.getWorkflowNode() == null) {
             log.error("Invalid workflow execution, cannot dispatch activation");
-            return;
+            return null;
         }
         String component = ne.getWorkflowNode().getComponent();
         if (component == null || component.trim().isEmpty()) {
             component = NoopComponent.NAME;
         }
 
-        ActivationRequestEvent activationRequestEvent = ActivationRequestEvent.builder(this)
+        return ActivationRequestEvent.builder(this)
                 .origin(OrchestrationEvent.Origin.ORCHESTRATOR)
                 .workflowExecutionId(we.getWorkflowExecutionId())
                 .workflowId(we.getWorkflowId())
@@ -41,7 +116,6 @@ public class OrchestratorComponentDispatcher {
                 .orchestrationEventContext(we, ne)
                 .component(component)
                 .context(ne.getStageContext()).build();
-        eventPublisher.publish(activationRequestEvent);
     }
 
     public void dispatchInvocation(WorkflowExecution we, WorkflowNodeExecution ne) {
@@ -64,7 +138,95 @@ public class OrchestratorComponentDispatcher {
                 .component(component)
                 .context(ne.getStageContext())
                 .build();
+        if (localFastPath.invoke(invocationRequestEvent)) {
+            return;
+        }
+        versionContext(invocationRequestEvent);
+        if (invocationRequestEvent.getContext() != null) {
+            dispatchedContexts.put(ne.getWorkflowNodeExecutionId(), invocationRequestEvent.getContext().renew());
+        }
         eventPublisher.publish(invocationRequestEvent);
     }
 
+    /**
+     * The context the last invocation of a node execution was dispatched
+     * with, which the delta of its response was taken against, or
+     * {@code null} if it is no longer known here.
+     */
+    public Context dispatchedContext(String workflowNodeExecutionId) {
+        return dispatchedContexts.get(workflowNodeExecutionId);
+    }
+
+    /**
+     * Forgets the dispatched context of a node execution once its response
+     * was handled.
+     */
+    public void forgetDispatchedContext(String workflowNodeExecutionId) {
+        if (workflowNodeExecutionId != null) {
+            dispatchedContexts.remove(workflowNodeExecutionId);
+        }
+    }
+
+    /**
+     * Marks the context of a request leaving this process with its version,
+     * so that the response only carries the changes the component made.
+     */
+    private static void versionContext(OrchestrationEvent requestEvent) {
+        if (requestEvent.getContext() != null) {
+            requestEvent.setContextVersion(ContextDelta.version(requestEvent.getContext()));
+        }
+    }
+
+    /**
+     * Dispatches the request again after the busy retry delay when the
+     * component answered busy, up to the configured number of attempts per
+     * node execution within the busy retry window.
+     *
+     * @return whether the request will be retried; if not the response is a
+     * regular failure
+     */
+    public boolean retryIfBusy(OrchestrationEvent responseEvent) {
+        if (!responseEvent.isBusy() || responseEvent.getOrchestrationEventContext() == null) {
+            return false;
+        }
+        WorkflowExecution we = responseEvent.getOrchestrationEventContext().workflowExecution();
+        WorkflowNodeExecution ne = responseEvent.getOrchestrationEventContext().nodeExecution();
+        if (we == null || ne == null) {
+            return false;
+        }
+        String key = ne.getWorkflowNodeExecutionId();
+        int attempt = busyAttempts.merge(key, 1, Integer::sum);
+        if (attempt > executorProperties.getBusyRetryAttempts()) {
+            busyAttempts.remove(key);
+            return false;
+        }
+        boolean activation = responseEvent instanceof ActivationResponseEvent;
+        log.warn("Component {} busy, retrying {} of node execution {} ({}/{})", responseEvent.getComponent(),
+                activation ? "activation" : "invocation", key, attempt, executorProperties.getBusyRetryAttempts());
+        retryScheduler.schedule(() -> {
+            if (activation) {
+                dispatchActivation(we, ne);
+            } else {
+                dispatchInvocation(we, ne);
+            }
+        }, executorProperties.getBusyRetryDelay().toMillis(), TimeUnit.MILLISECONDS);
+        // forgotten unless another busy response counted it up in the meantime
+        retryScheduler.schedule(() -> busyAttempts.remove(key, attempt),
+                executorProperties.getBusyRetryWindow().toMillis(), TimeUnit.MILLISECONDS);
+        return true;
+    }
+
+    /**
+     * Forgets the busy retries of a node execution once a component answered.
+     */
+    public void clearBusy(OrchestrationEvent responseEvent) {
+        if (!busyAttempts.isEmpty() && responseEvent.getWorkflowNodeExecutionId() != null) {
+            busyAttempts.remove(responseEvent.getWorkflowNodeExecutionId());
+        }
+    }
+
+    @Override
+    public void destroy() {
+        retryScheduler.shutdownNow();
+    }
 }
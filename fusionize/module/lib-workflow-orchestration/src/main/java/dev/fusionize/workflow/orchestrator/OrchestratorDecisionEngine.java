@@ -1,5 +1,6 @@
 package dev.fusionize.workflow.orchestrator;
 
+import dev.fusionize.workflow.CompiledWorkflow;
 import dev.fusionize.workflow.WorkflowNode;
 import dev.fusionize.workflow.WorkflowNodeExecution;
 import dev.fusionize.workflow.WorkflowNodeType;
@@ -14,7 +15,7 @@ public class OrchestratorDecisionEngine {
 
     public List<WorkflowNode> determineNextNodes(WorkflowNodeExecution ne) {
         List<WorkflowNode> allChildren = ne.getWorkflowNode().getChildren();
-        if (ne.getStageContext().getDecisions().isEmpty()) {
+        if (ne.getStageContext().decisionsView().isEmpty()) {
             return allChildren;
         }
         if (!WorkflowNodeType.DECISION.equals(ne.getWorkflowNode().getType())) {
@@ -32,4 +33,23 @@ public class OrchestratorDecisionEngine {
         return allChildren.stream().filter(n -> n.getWorkflowNodeKey() != null)
                 .filter(n -> lastDecision.getOptionNodes().get(n.getWorkflowNodeKey())).toList();
     }
+
+    public List<WorkflowNode> determineNextNodes(CompiledWorkflow compiled, WorkflowNodeExecution ne) {
+        int index = compiled == null ? -1 : compiled.indexOf(ne.getWorkflowNodeId());
+        if (index < 0) {
+            return determineNextNodes(ne);
+        }
+        List<WorkflowNode> allChildren = compiled.children(index);
+        if (ne.getStageContext().decisionsView().isEmpty()
+                || !compiled.isType(index, WorkflowNodeType.DECISION)) {
+            return allChildren;
+        }
+        String nodeKey = compiled.node(index).getWorkflowNodeKey();
+        WorkflowDecision lastDecision = ne.getStageContext().latestDecisionForNode(nodeKey);
+        if (lastDecision.getDecisionNode() == null || nodeKey == null
+                || !lastDecision.getDecisionNode().equals(nodeKey)) {
+            return new ArrayList<>();
+        }
+        return compiled.selectedOptions(index, lastDecision.getOptionNodes());
+    }
 }
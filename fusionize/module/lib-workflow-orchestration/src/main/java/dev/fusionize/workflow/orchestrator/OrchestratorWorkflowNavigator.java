@@ -1,5 +1,6 @@
 package dev.fusionize.workflow.orchestrator;
 
+import dev.fusionize.workflow.CompiledWorkflow;
 import dev.fusionize.workflow.WorkflowExecution;
 import dev.fusionize.workflow.WorkflowExecutionStatus;
 import dev.fusionize.workflow.WorkflowNodeExecution;
@@ -41,16 +42,34 @@ public class OrchestratorWorkflowNavigator {
         }
 
         // 3. Determine and attach next node executions
-        List<WorkflowNodeExecution> children = createNextExecutions(current);
-        current.getChildren().addAll(children);
+        CompiledWorkflow compiled = we.getWorkflow().getCompiledWorkflow();
+        List<WorkflowNodeExecution> children = createNextExecutions(compiled, current);
+        we.addChildren(current, children);
 
         // 4. Handle loop re-entry (replace old execution)
-        reconcileExecutionInWorkflow(we, current);
+        reconcileExecutionInWorkflow(compiled, we, current);
 
         // 5. Continue navigation
         next.accept(we, current);
     }
 
+    /**
+     * Starts a new execution at one of its start nodes as if the trigger of
+     * the node had fired with the node's stage context: the execution turns
+     * IN_PROGRESS, the start node DONE and the executions of the next nodes
+     * are attached to it.
+     *
+     * @param start a start node execution already added to the execution
+     * @return the next node executions, to be activated
+     */
+    public List<WorkflowNodeExecution> start(WorkflowExecution we, WorkflowNodeExecution start) {
+        we.setStatus(WorkflowExecutionStatus.IN_PROGRESS);
+        start.setState(WorkflowNodeExecutionState.DONE);
+        List<WorkflowNodeExecution> children = createNextExecutions(we.getWorkflow().getCompiledWorkflow(), start);
+        we.addChildren(start, children);
+        return children;
+    }
+
     private boolean isStartNode(WorkflowNodeExecution ne) {
         return ne.getWorkflowNode().getType() == WorkflowNodeType.START;
     }
@@ -78,30 +97,25 @@ public class OrchestratorWorkflowNavigator {
         return renewed;
     }
 
-    private List<WorkflowNodeExecution> createNextExecutions(WorkflowNodeExecution parent) {
-        return decisionEngine.determineNextNodes(parent).stream()
+    private List<WorkflowNodeExecution> createNextExecutions(CompiledWorkflow compiled, WorkflowNodeExecution parent) {
+        return decisionEngine.determineNextNodes(compiled, parent).stream()
                 .map(n -> WorkflowNodeExecution.of(
                         n,
-                        ContextFactory.from(parent, n)
+                        ContextFactory.from(parent, n, compiled)
                 ))
                 .toList();
     }
 
     private void reconcileExecutionInWorkflow(
+            CompiledWorkflow compiled,
             WorkflowExecution we,
             WorkflowNodeExecution ne
     ) {
-        boolean exists = we.getWorkflow().getNodes().stream()
-                .anyMatch(n -> n.getWorkflowNodeId().equals(ne.getWorkflowNodeId()));
-
-        if (!exists) {
+        // only root nodes are re-entered by a loop
+        if (!compiled.isRoot(compiled.indexOf(ne.getWorkflowNodeId()))) {
             return;
         }
 
-        we.getNodes().removeIf(
-                existing -> existing.getWorkflowNodeExecutionId()
-                        .equals(ne.getWorkflowNodeExecutionId())
-        );
-        we.getNodes().add(ne);
+        we.replaceNode(ne);
     }
 }
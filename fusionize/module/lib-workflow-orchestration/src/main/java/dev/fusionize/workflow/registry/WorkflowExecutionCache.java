@@ -0,0 +1,401 @@
+package dev.fusionize.workflow.registry;
+
+import dev.fusionize.workflow.WorkflowExecution;
+import dev.fusionize.workflow.WorkflowExecutionStatus;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/**
+ * Bounded, per-node cache of hot workflow executions in front of
+ * {@link WorkflowExecutionRepoRegistry}.
+ * <p>
+ * While an execution is cached the cached instance is authoritative: reads are
+ * served from memory and writes only mark the entry dirty. A background writer
+ * flushes dirty entries once they are older than the write-behind window, so
+ * all writes landing inside the window are coalesced into one save. Completed
+ * executions are evicted after {@code completedTtl}, untouched entries after
+ * {@code idleTtl}, and the least recently used entry once {@code maxSize} is
+ * exceeded. Dirty entries are always flushed before they are evicted.
+ * <p>
+ * Flushes only replace the stored execution while it is at the revision the
+ * cached copy was loaded at. A flush finding it written by someone else drops
+ * the cached copy, so that the next read loads the stored one; writes that
+ * flush right away report the conflict to their caller to be applied again.
+ */
+@Component
+public class WorkflowExecutionCache implements MeterBinder, DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger(WorkflowExecutionCache.class);
+
+    @FunctionalInterface
+    public interface Writer {
+        void write(WorkflowExecution workflowExecution);
+    }
+
+    private static final class Entry {
+        private final WorkflowExecution execution;
+        private long lastAccess;
+        private long completedAt;
+        private long dirtySince;
+        private long version;
+        private long flushedVersion;
+
+        private Entry(WorkflowExecution execution) {
+            this.execution = execution;
+        }
+
+        private boolean isDirty() {
+            return version != flushedVersion;
+        }
+    }
+
+    private final WorkflowExecutionCacheProperties properties;
+    private final Clock clock;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder flushes = new LongAdder();
+    private final LongAdder flushFailures = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private volatile Writer writer;
+    private ScheduledExecutorService flusher;
+
+    @Autowired
+    public WorkflowExecutionCache(WorkflowExecutionCacheProperties properties) {
+        this(properties, Clock.systemUTC());
+    }
+
+    WorkflowExecutionCache(WorkflowExecutionCacheProperties properties, Clock clock) {
+        this.properties = properties;
+        this.clock = clock;
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * Binds the cache to its backing store and starts the background flusher.
+     * Does nothing when the cache is disabled.
+     *
+     * @param writer persists a single execution to the backing store
+     */
+    public synchronized void start(Writer writer) {
+        if (!isEnabled() || this.writer != null) {
+            return;
+        }
+        this.writer = writer;
+        long interval = Math.max(1, properties.getFlushInterval().toMillis());
+        flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "workflow-execution-cache-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushDueQuietly, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Returns the cached execution, or {@code null} on a miss.
+     */
+    public WorkflowExecution get(String workflowExecutionId) {
+        if (workflowExecutionId == null) {
+            return null;
+        }
+        synchronized (entries) {
+            Entry entry = entries.get(workflowExecutionId);
+            if (entry == null) {
+                misses.increment();
+                return null;
+            }
+            hits.increment();
+            entry.lastAccess = now();
+            return entry.execution;
+        }
+    }
+
+    /**
+     * Caches an execution that was just loaded from the backing store.
+     */
+    public void put(WorkflowExecution workflowExecution) {
+        List<Entry> evicted;
+        synchronized (entries) {
+            Entry entry = entries.computeIfAbsent(workflowExecution.getWorkflowExecutionId(),
+                    id -> new Entry(workflowExecution));
+            entry.lastAccess = now();
+            updateCompletion(entry);
+            evicted = evictOverflow();
+        }
+        evicted.forEach(this::flushAndForget);
+    }
+
+    /**
+     * Records a write of the execution. The write is flushed to the backing
+     * store by the background writer, or immediately when the write-behind
+     * window is zero.
+     *
+     * @throws OptimisticLockingFailureException if an immediate flush found the
+     * stored execution written since it was loaded
+     */
+    public void write(WorkflowExecution workflowExecution) {
+        Entry entry;
+        List<Entry> evicted;
+        synchronized (entries) {
+            entry = entries.get(workflowExecution.getWorkflowExecutionId());
+            if (entry == null || entry.execution != workflowExecution) {
+                Entry replaced = entry;
+                entry = new Entry(workflowExecution);
+                if (replaced != null) {
+                    entry.version = replaced.version;
+                    entry.flushedVersion = replaced.flushedVersion;
+                }
+                entries.put(workflowExecution.getWorkflowExecutionId(), entry);
+            }
+            touch(entry);
+            evicted = evictOverflow();
+        }
+        evicted.forEach(this::flushAndForget);
+        if (properties.getWriteBehindWindow().isZero()) {
+            flush(entry);
+        }
+    }
+
+    /**
+     * Marks a cached execution dirty after it was changed in place.
+     *
+     * @return {@code true} if the execution is cached and the write was recorded
+     * @throws OptimisticLockingFailureException if an immediate flush found the
+     * stored execution written since it was loaded
+     */
+    public boolean markDirty(String workflowExecutionId) {
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(workflowExecutionId);
+            if (entry == null) {
+                return false;
+            }
+            touch(entry);
+        }
+        if (properties.getWriteBehindWindow().isZero()) {
+            flush(entry);
+        }
+        return true;
+    }
+
+    /**
+     * Flushes the execution if it is dirty and removes it from the cache.
+     */
+    public void invalidate(String workflowExecutionId) {
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.remove(workflowExecutionId);
+        }
+        if (entry != null) {
+            flushAndForget(entry);
+        }
+    }
+
+    /**
+     * Drops all matching executions without flushing pending writes.
+     */
+    public void discardIf(Predicate<WorkflowExecution> predicate) {
+        synchronized (entries) {
+            entries.values().removeIf(entry -> predicate.test(entry.execution));
+        }
+    }
+
+    /**
+     * Flushes every dirty entry whose write-behind window has elapsed and
+     * evicts expired entries.
+     */
+    void flushDue() {
+        long now = now();
+        long window = properties.getWriteBehindWindow().toMillis();
+        long completedTtl = properties.getCompletedTtl().toMillis();
+        long idleTtl = properties.getIdleTtl().toMillis();
+        List<Entry> due = new ArrayList<>();
+        List<Entry> expired = new ArrayList<>();
+        synchronized (entries) {
+            Iterator<Entry> iterator = entries.values().iterator();
+            while (iterator.hasNext()) {
+                Entry entry = iterator.next();
+                boolean completedExpired = entry.completedAt > 0 && now - entry.completedAt >= completedTtl;
+                boolean idleExpired = now - entry.lastAccess >= idleTtl;
+                if (completedExpired || idleExpired) {
+                    iterator.remove();
+                    expired.add(entry);
+                } else if (entry.isDirty() && now - entry.dirtySince >= window) {
+                    due.add(entry);
+                }
+            }
+        }
+        due.forEach(this::flushQuietly);
+        expired.forEach(this::flushAndForget);
+    }
+
+    /**
+     * Flushes every dirty entry regardless of its write-behind window.
+     */
+    public void flushAll() {
+        List<Entry> dirty;
+        synchronized (entries) {
+            dirty = entries.values().stream().filter(Entry::isDirty).toList();
+        }
+        dirty.forEach(this::flushQuietly);
+    }
+
+    @Override
+    public void destroy() {
+        if (flusher != null) {
+            flusher.shutdown();
+        }
+        flushAll();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("fusionize.execution.cache.hits", hits, LongAdder::sum).register(registry);
+        FunctionCounter.builder("fusionize.execution.cache.misses", misses, LongAdder::sum).register(registry);
+        FunctionCounter.builder("fusionize.execution.cache.flushes", flushes, LongAdder::sum).register(registry);
+        FunctionCounter.builder("fusionize.execution.cache.flush.failures", flushFailures, LongAdder::sum)
+                .register(registry);
+        FunctionCounter.builder("fusionize.execution.cache.evictions", evictions, LongAdder::sum).register(registry);
+        Gauge.builder("fusionize.execution.cache.size", this, WorkflowExecutionCache::size).register(registry);
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getFlushes() {
+        return flushes.sum();
+    }
+
+    public long getFlushFailures() {
+        return flushFailures.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    private void flushDueQuietly() {
+        try {
+            flushDue();
+        } catch (Exception e) {
+            log.error("Workflow execution cache flush failed", e);
+        }
+    }
+
+    private void touch(Entry entry) {
+        long now = now();
+        if (!entry.isDirty()) {
+            entry.dirtySince = now;
+        }
+        entry.version++;
+        entry.lastAccess = now;
+        updateCompletion(entry);
+    }
+
+    private void updateCompletion(Entry entry) {
+        if (entry.completedAt == 0 && isCompleted(entry.execution.getStatus())) {
+            entry.completedAt = now();
+        }
+    }
+
+    private List<Entry> evictOverflow() {
+        List<Entry> evicted = new ArrayList<>();
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (entries.size() - evicted.size() > properties.getMaxSize() && eldest.hasNext()) {
+            evicted.add(eldest.next());
+        }
+        evicted.forEach(e -> entries.remove(e.execution.getWorkflowExecutionId()));
+        return evicted;
+    }
+
+    private void flushAndForget(Entry entry) {
+        evictions.increment();
+        if (entry.isDirty()) {
+            flushQuietly(entry);
+        }
+    }
+
+    private void flush(Entry entry) {
+        Writer target = writer;
+        if (target == null) {
+            return;
+        }
+        long version;
+        synchronized (entries) {
+            version = entry.version;
+        }
+        try {
+            target.write(entry.execution);
+            flushes.increment();
+            synchronized (entries) {
+                entry.flushedVersion = Math.max(entry.flushedVersion, version);
+                if (entry.isDirty()) {
+                    entry.dirtySince = now();
+                }
+            }
+        } catch (OptimisticLockingFailureException e) {
+            flushFailures.increment();
+            String workflowExecutionId = entry.execution.getWorkflowExecutionId();
+            synchronized (entries) {
+                entries.remove(workflowExecutionId, entry);
+            }
+            log.warn("Dropped cached workflow execution {}, it was written elsewhere", workflowExecutionId);
+            throw e;
+        } catch (Exception e) {
+            flushFailures.increment();
+            log.error("Failed to flush workflow execution {}", entry.execution.getWorkflowExecutionId(), e);
+        }
+    }
+
+    private void flushQuietly(Entry entry) {
+        try {
+            flush(entry);
+        } catch (OptimisticLockingFailureException e) {
+            // dropped, the stored execution is loaded again on the next read
+        }
+    }
+
+    private static boolean isCompleted(WorkflowExecutionStatus status) {
+        return status == WorkflowExecutionStatus.SUCCESS
+                || status == WorkflowExecutionStatus.ERROR
+                || status == WorkflowExecutionStatus.TERMINATED;
+    }
+
+    private long now() {
+        return clock.millis();
+    }
+}
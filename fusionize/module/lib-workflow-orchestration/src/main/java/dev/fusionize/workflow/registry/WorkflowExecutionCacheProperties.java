@@ -0,0 +1,71 @@
+package dev.fusionize.workflow.registry;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Settings for the in-memory {@link WorkflowExecutionCache}.
+ * <p>
+ * The cache is per node, so it should only be enabled when all events of an
+ * execution are handled by the same orchestrator node.
+ */
+@Component
+@ConfigurationProperties(prefix = "fusionize.worker.execution-cache")
+public class WorkflowExecutionCacheProperties {
+    private boolean enabled = false;
+    private int maxSize = 10_000;
+    private Duration writeBehindWindow = Duration.ofMillis(250);
+    private Duration flushInterval = Duration.ofMillis(100);
+    private Duration completedTtl = Duration.ofSeconds(30);
+    private Duration idleTtl = Duration.ofMinutes(10);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public Duration getWriteBehindWindow() {
+        return writeBehindWindow;
+    }
+
+    public void setWriteBehindWindow(Duration writeBehindWindow) {
+        this.writeBehindWindow = writeBehindWindow;
+    }
+
+    public Duration getFlushInterval() {
+        return flushInterval;
+    }
+
+    public void setFlushInterval(Duration flushInterval) {
+        this.flushInterval = flushInterval;
+    }
+
+    public Duration getCompletedTtl() {
+        return completedTtl;
+    }
+
+    public void setCompletedTtl(Duration completedTtl) {
+        this.completedTtl = completedTtl;
+    }
+
+    public Duration getIdleTtl() {
+        return idleTtl;
+    }
+
+    public void setIdleTtl(Duration idleTtl) {
+        this.idleTtl = idleTtl;
+    }
+}
@@ -1,10 +1,14 @@
 package dev.fusionize.workflow.registry;
 
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.result.UpdateResult;
 import dev.fusionize.workflow.WorkflowExecution;
 import dev.fusionize.workflow.WorkflowExecutionStatus;
 import dev.fusionize.workflow.WorkflowNodeExecution;
 import dev.fusionize.workflow.repo.WorkflowExecutionRepository;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.BulkOperations;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
@@ -12,72 +16,284 @@ import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Component;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
 @Component
 public class WorkflowExecutionRepoRegistry implements WorkflowExecutionRegistry {
     private final WorkflowExecutionRepository repository;
     private final MongoTemplate mongoTemplate;
+    private final WorkflowExecutionCache cache;
 
     public WorkflowExecutionRepoRegistry(WorkflowExecutionRepository repository,
-                                         @Qualifier("workerMongoTemplate") MongoTemplate mongoTemplate) {
+                                         @Qualifier("workerMongoTemplate") MongoTemplate mongoTemplate,
+                                         WorkflowExecutionCache cache) {
         this.repository = repository;
         this.mongoTemplate = mongoTemplate;
+        this.cache = cache;
+        this.cache.start(this::persist);
     }
 
     @Override
     public List<WorkflowExecution> getWorkflowExecutions(String workflowId) {
         List<WorkflowExecution> executions = repository.findByWorkflowIdIn(List.of(workflowId));
-        executions.forEach(WorkflowExecution::inflate);
-        return executions;
+        if (!cache.isEnabled()) {
+            executions.forEach(WorkflowExecution::inflate);
+            return executions;
+        }
+        // cached executions are authoritative, the stored copy may lag behind
+        return executions.stream().map(execution -> {
+            WorkflowExecution cached = cache.get(execution.getWorkflowExecutionId());
+            if (cached != null) {
+                return cached;
+            }
+            execution.inflate();
+            return execution;
+        }).toList();
     }
 
     public WorkflowExecution getWorkflowExecution(String workflowExecutionId) {
+        if (cache.isEnabled()) {
+            WorkflowExecution cached = cache.get(workflowExecutionId);
+            if (cached != null) {
+                return cached;
+            }
+        }
         WorkflowExecution execution = repository.findByWorkflowExecutionId(workflowExecutionId).orElse(null);
         if (execution != null) {
             execution.inflate();
+            if (cache.isEnabled()) {
+                cache.put(execution);
+            }
         }
         return execution;
     }
 
     public WorkflowExecution register(WorkflowExecution workflowExecution) {
+        if (cache.isEnabled()) {
+            synchronized (workflowExecution) {
+                workflowExecution.setUpdatedDate(Instant.now());
+                if (workflowExecution.getCreatedDate() == null) {
+                    workflowExecution.setCreatedDate(Instant.now());
+                }
+            }
+            cache.write(workflowExecution);
+            return workflowExecution;
+        }
+        return persist(workflowExecution);
+    }
+
+    /**
+     * Registers new executions, storing them with a single insert of all
+     * documents unless they are written behind by the cache.
+     */
+    public List<WorkflowExecution> registerAll(List<WorkflowExecution> workflowExecutions) {
+        if (cache.isEnabled()) {
+            workflowExecutions.forEach(this::register);
+            return workflowExecutions;
+        }
+        Instant now = Instant.now();
+        for (WorkflowExecution workflowExecution : workflowExecutions) {
+            workflowExecution.flatten();
+            workflowExecution.setRevision(nextRevision(workflowExecution.getRevision()));
+            workflowExecution.setUpdatedDate(now);
+            if (workflowExecution.getCreatedDate() == null) {
+                workflowExecution.setCreatedDate(now);
+            }
+        }
+        mongoTemplate.insert(workflowExecutions, WorkflowExecution.class);
+        return workflowExecutions;
+    }
+
+    /**
+     * Saves the execution as a whole. Executions that were stored before are
+     * only replaced while the stored document is still at the revision they
+     * were loaded at.
+     *
+     * @throws OptimisticLockingFailureException if the document was written
+     * since the execution was loaded
+     */
+    private WorkflowExecution persist(WorkflowExecution workflowExecution) {
         synchronized (workflowExecution) {
             workflowExecution.flatten();
+            Long revision = workflowExecution.getRevision();
+            workflowExecution.setRevision(nextRevision(revision));
             workflowExecution.setUpdatedDate(Instant.now());
             if (workflowExecution.getCreatedDate() == null) {
                 workflowExecution.setCreatedDate(Instant.now());
             }
-            return repository.save(workflowExecution);
+            if (workflowExecution.getId() == null) {
+                return repository.save(workflowExecution);
+            }
+            UpdateResult result = mongoTemplate.replace(atRevision(workflowExecution.getWorkflowExecutionId(),
+                    revision), workflowExecution);
+            if (result.getMatchedCount() == 0) {
+                workflowExecution.setRevision(revision);
+                throw writtenSince(workflowExecution.getWorkflowExecutionId(), revision);
+            }
+            return workflowExecution;
+        }
+    }
+
+    /**
+     * Writes the changes collected in a unit of work with a single bulk write of
+     * targeted {@code $set}/{@code $unset} operations on the execution document.
+     * Executions that were never stored are saved as a whole.
+     *
+     * @throws OptimisticLockingFailureException if the document was written
+     * since the execution was loaded; reload it and apply the changes again
+     */
+    public void commit(WorkflowExecutionUnitOfWork unitOfWork) {
+        WorkflowExecution workflowExecution = unitOfWork.getWorkflowExecution();
+        String workflowExecutionId = workflowExecution.getWorkflowExecutionId();
+        if (cache.isEnabled()) {
+            WorkflowExecution cached = cache.get(workflowExecutionId);
+            if (cached == workflowExecution) {
+                cache.markDirty(workflowExecutionId);
+                return;
+            }
+            if (cached != null) {
+                // a foreign copy was changed, persist the cached state before applying it
+                cache.invalidate(workflowExecutionId);
+            }
+        }
+        if (workflowExecution.getId() == null) {
+            register(workflowExecution);
+            return;
+        }
+
+        synchronized (workflowExecution) {
+            Update update = new Update();
+            Set<String> storedNodeIds = new HashSet<>(workflowExecution.getNodeExecutionMap().keySet());
+            List<String> storedRootIds = new ArrayList<>(workflowExecution.getRootNodeExecutionIds());
+            workflowExecution.flatten();
+            Instant now = Instant.now();
+            workflowExecution.setUpdatedDate(now);
+
+            Map<String, WorkflowNodeExecution> nodeExecutionMap = workflowExecution.getNodeExecutionMap();
+            for (String nodeExecutionId : unitOfWork.getTouchedNodeExecutionIds()) {
+                WorkflowNodeExecution nodeExecution = nodeExecutionMap.get(nodeExecutionId);
+                if (nodeExecution == null) {
+                    continue;
+                }
+                nodeExecution.setUpdatedDate(now);
+                if (nodeExecution.getCreatedDate() == null) {
+                    nodeExecution.setCreatedDate(now);
+                }
+                update.set("nodeExecutionMap." + nodeExecutionId, nodeExecution);
+            }
+            storedNodeIds.removeAll(nodeExecutionMap.keySet());
+            storedNodeIds.forEach(nodeExecutionId -> update.unset("nodeExecutionMap." + nodeExecutionId));
+            if (!storedRootIds.equals(workflowExecution.getRootNodeExecutionIds())) {
+                update.set("rootNodeExecutionIds", workflowExecution.getRootNodeExecutionIds());
+            }
+            update.set("status", workflowExecution.getStatus())
+                    .set("updatedDate", now)
+                    .inc("revision", 1);
+
+            Long revision = workflowExecution.getRevision();
+            BulkWriteResult result = mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, WorkflowExecution.class)
+                    .updateOne(atRevision(workflowExecutionId, revision), update)
+                    .execute();
+            if (result.getMatchedCount() == 0) {
+                throw writtenSince(workflowExecutionId, revision);
+            }
+            workflowExecution.setRevision(nextRevision(revision));
         }
     }
 
     @Override
-    public void updateNodeExecution(String workflowExecutionId, WorkflowNodeExecution nodeExecution) {
+    public void updateNodeExecution(WorkflowExecution workflowExecution, WorkflowNodeExecution nodeExecution) {
+        String workflowExecutionId = workflowExecution.getWorkflowExecutionId();
         // Ensure updated date is set
         nodeExecution.setUpdatedDate(Instant.now());
         if (nodeExecution.getCreatedDate() == null) {
             nodeExecution.setCreatedDate(Instant.now());
         }
 
+        if (cache.isEnabled()) {
+            WorkflowExecution cached = cache.get(workflowExecutionId);
+            if (cached != null) {
+                WorkflowNodeExecution cachedNode = cached.findNodeByWorkflowNodeExecutionId(
+                        nodeExecution.getWorkflowNodeExecutionId());
+                if (cachedNode == nodeExecution) {
+                    cache.markDirty(workflowExecutionId);
+                    return;
+                }
+                // a foreign copy was changed, persist the cached state before applying it
+                cache.invalidate(workflowExecutionId);
+            }
+        }
+
         // Prepare the update for the specific key in the map
         String mapKey = "nodeExecutionMap." + nodeExecution.getWorkflowNodeExecutionId();
-        
-        Query query = new Query(Criteria.where("workflowExecutionId").is(workflowExecutionId));
-        Update update = new Update().set(mapKey, nodeExecution);
-        
-        mongoTemplate.updateFirst(query, update, WorkflowExecution.class);
+        Update update = new Update().set(mapKey, nodeExecution).inc("revision", 1);
+        updateAtRevision(workflowExecution, update);
     }
 
     @Override
-    public void updateStatus(String workflowExecutionId, WorkflowExecutionStatus status) {
-        Query query = new Query(Criteria.where("workflowExecutionId").is(workflowExecutionId));
+    public void updateStatus(WorkflowExecution workflowExecution, WorkflowExecutionStatus status) {
+        String workflowExecutionId = workflowExecution.getWorkflowExecutionId();
+        if (cache.isEnabled()) {
+            WorkflowExecution cached = cache.get(workflowExecutionId);
+            if (cached == workflowExecution) {
+                cached.setStatus(status);
+                cache.markDirty(workflowExecutionId);
+                return;
+            }
+            if (cached != null) {
+                // a foreign copy was changed, persist the cached state before applying it
+                cache.invalidate(workflowExecutionId);
+            }
+        }
         Update update = new Update()
                 .set("status", status)
-                .set("updatedDate", Instant.now());
-        mongoTemplate.updateFirst(query, update, WorkflowExecution.class);
+                .set("updatedDate", Instant.now())
+                .inc("revision", 1);
+        updateAtRevision(workflowExecution, update);
+        workflowExecution.setStatus(status);
+    }
+
+    private void updateAtRevision(WorkflowExecution workflowExecution, Update update) {
+        synchronized (workflowExecution) {
+            String workflowExecutionId = workflowExecution.getWorkflowExecutionId();
+            Long revision = workflowExecution.getRevision();
+            UpdateResult result = mongoTemplate.updateFirst(atRevision(workflowExecutionId, revision), update,
+                    WorkflowExecution.class);
+            if (result.getMatchedCount() == 0) {
+                throw writtenSince(workflowExecutionId, revision);
+            }
+            workflowExecution.setRevision(nextRevision(revision));
+        }
     }
 
     public void deleteIdlesFor(String workflowId) {
+        if (cache.isEnabled()) {
+            cache.discardIf(execution -> Objects.equals(workflowId, execution.getWorkflowId())
+                    && WorkflowExecutionStatus.IDLE.equals(execution.getStatus()));
+        }
         repository.deleteByWorkflowIdAndStatus(workflowId, WorkflowExecutionStatus.IDLE.getName());
     }
+
+    /**
+     * Matches the execution while it is still at the given revision; a
+     * {@code null} revision matches documents stored before it was kept.
+     */
+    private static Query atRevision(String workflowExecutionId, Long revision) {
+        return new Query(Criteria.where("workflowExecutionId").is(workflowExecutionId)
+                .and("revision").is(revision));
+    }
+
+    private static OptimisticLockingFailureException writtenSince(String workflowExecutionId, Long revision) {
+        return new OptimisticLockingFailureException("Workflow execution " + workflowExecutionId
+                + " was written since revision " + revision);
+    }
+
+    private static Long nextRevision(Long revision) {
+        return revision == null ? 1L : revision + 1;
+    }
 }
@@ -0,0 +1,52 @@
+package dev.fusionize.workflow.registry;
+
+import dev.fusionize.workflow.WorkflowExecution;
+import dev.fusionize.workflow.WorkflowNodeExecution;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Collects the changes made to one workflow execution while a single event is
+ * handled, so they can be written with one targeted update through
+ * {@link WorkflowExecutionRepoRegistry#commit(WorkflowExecutionUnitOfWork)}.
+ * <p>
+ * Only touched node executions are written. Node executions that are no longer
+ * reachable from the execution graph, the root list and the status are
+ * derived from the execution itself when the unit is committed.
+ */
+public class WorkflowExecutionUnitOfWork {
+    private final WorkflowExecution workflowExecution;
+    private final Set<String> touchedNodeExecutionIds = new LinkedHashSet<>();
+
+    private WorkflowExecutionUnitOfWork(WorkflowExecution workflowExecution) {
+        this.workflowExecution = workflowExecution;
+    }
+
+    public static WorkflowExecutionUnitOfWork of(WorkflowExecution workflowExecution) {
+        return new WorkflowExecutionUnitOfWork(workflowExecution);
+    }
+
+    /**
+     * Marks a node execution and its direct children as changed. Children are
+     * included because new node executions are attached to their parent.
+     */
+    public WorkflowExecutionUnitOfWork node(WorkflowNodeExecution nodeExecution) {
+        if (nodeExecution == null) {
+            return this;
+        }
+        touchedNodeExecutionIds.add(nodeExecution.getWorkflowNodeExecutionId());
+        nodeExecution.getChildren().forEach(child ->
+                touchedNodeExecutionIds.add(child.getWorkflowNodeExecutionId()));
+        return this;
+    }
+
+    public WorkflowExecution getWorkflowExecution() {
+        return workflowExecution;
+    }
+
+    public Set<String> getTouchedNodeExecutionIds() {
+        return Collections.unmodifiableSet(touchedNodeExecutionIds);
+    }
+}
@@ -1,5 +1,6 @@
 package dev.fusionize.workflow.registry;
 
+import dev.fusionize.workflow.CompiledWorkflow;
 import dev.fusionize.workflow.Workflow;
 import dev.fusionize.workflow.repo.WorkflowRepository;
 import org.slf4j.Logger;
@@ -26,7 +27,7 @@ public class WorkflowRepoRegistry implements WorkflowRegistry {
             return null;
         Workflow workflow = repository.findByWorkflowId(workflowExecutionId).orElse(null);
         if (workflow != null) {
-            workflow.inflate();
+            load(workflow);
         }
         return workflow;
     }
@@ -37,7 +38,7 @@ public class WorkflowRepoRegistry implements WorkflowRegistry {
             return null;
         Workflow workflow = repository.findByDomain(workflowDomain.toLowerCase()).orElse(null);
         if (workflow != null) {
-            workflow.inflate();
+            load(workflow);
         }
         return workflow;
     }
@@ -45,7 +46,7 @@ public class WorkflowRepoRegistry implements WorkflowRegistry {
     @Override
     public List<Workflow> getAll() {
         List<Workflow> workflows = repository.findAll();
-        workflows.forEach(Workflow::inflate);
+        workflows.forEach(this::load);
         return workflows;
     }
 
@@ -58,7 +59,7 @@ public class WorkflowRepoRegistry implements WorkflowRegistry {
 
         try {
             Workflow saved = repository.save(workflow);
-            saved.inflate();
+            load(saved);
             return saved;
         } catch (DuplicateKeyException ex) {
             log.warn("Duplicate key detected for workflowId='{}' or domain='{}'. Attempting upsert.",
@@ -78,7 +79,7 @@ public class WorkflowRepoRegistry implements WorkflowRegistry {
                 
                 try {
                     Workflow saved = repository.save(existing);
-                    saved.inflate();
+                    load(saved);
                     return saved;
                 } catch (Exception saveEx) {
                     log.error("Upsert failed after duplicate key detection for workflow '{}'.",
@@ -97,4 +98,9 @@ public class WorkflowRepoRegistry implements WorkflowRegistry {
             throw e;
         }
     }
+
+    private void load(Workflow workflow) {
+        workflow.inflate();
+        workflow.setCompiledWorkflow(CompiledWorkflow.compile(workflow));
+    }
 }
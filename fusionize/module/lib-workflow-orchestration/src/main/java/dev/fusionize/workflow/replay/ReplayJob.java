@@ -0,0 +1,233 @@
+package dev.fusionize.workflow.replay;
+
+import dev.fusionize.workflow.WorkflowExecutionStatus;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+/**
+ * Replays the failed node executions of the executions of one workflow that
+ * match a selection, in the order of their workflowExecutionId.
+ * <p>
+ * The selection is made by execution status, creation time range and,
+ * optionally, the workflow node that failed. The job stores the id of the
+ * last execution it replayed, so it resumes after it once paused or taken
+ * over by another node.
+ * <p>
+ * Replays are throttled by the job's rate and by its concurrency: a node is
+ * only replayed while fewer than {@code concurrency} of the nodes the job
+ * replayed are still short of DONE or FAILED.
+ */
+@Document(collection = "workflow-replay-job")
+public class ReplayJob {
+    @Id
+    private String id;
+    private String workflowId;
+    private WorkflowExecutionStatus status;
+    private Date from;
+    private Date to;
+    private String workflowNodeId;
+    private double rate;
+    private int concurrency;
+    @Indexed
+    private ReplayJobState state;
+    private String cursor;
+    private long total;
+    private long executions;
+    private long replayed;
+    private long failed;
+    private String lastError;
+    private String runner;
+    private Date leaseExpiresAt;
+    private Date createdDate;
+    private Date updatedDate;
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getWorkflowId() {
+        return workflowId;
+    }
+
+    public void setWorkflowId(String workflowId) {
+        this.workflowId = workflowId;
+    }
+
+    /**
+     * Status of the executions to replay, or {@code null} for any status.
+     */
+    public WorkflowExecutionStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(WorkflowExecutionStatus status) {
+        this.status = status;
+    }
+
+    /**
+     * Earliest creation time of the executions to replay, inclusive.
+     */
+    public Date getFrom() {
+        return from;
+    }
+
+    public void setFrom(Date from) {
+        this.from = from;
+    }
+
+    /**
+     * Latest creation time of the executions to replay, exclusive.
+     */
+    public Date getTo() {
+        return to;
+    }
+
+    public void setTo(Date to) {
+        this.to = to;
+    }
+
+    /**
+     * Workflow node whose failed executions are replayed, or {@code null} for
+     * every failed node.
+     */
+    public String getWorkflowNodeId() {
+        return workflowNodeId;
+    }
+
+    public void setWorkflowNodeId(String workflowNodeId) {
+        this.workflowNodeId = workflowNodeId;
+    }
+
+    /**
+     * Replays per second.
+     */
+    public double getRate() {
+        return rate;
+    }
+
+    public void setRate(double rate) {
+        this.rate = rate;
+    }
+
+    /**
+     * Replayed nodes that may be working at once.
+     */
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    public void setConcurrency(int concurrency) {
+        this.concurrency = concurrency;
+    }
+
+    public ReplayJobState getState() {
+        return state;
+    }
+
+    public void setState(ReplayJobState state) {
+        this.state = state;
+    }
+
+    /**
+     * workflowExecutionId of the last execution replayed.
+     */
+    public String getCursor() {
+        return cursor;
+    }
+
+    public void setCursor(String cursor) {
+        this.cursor = cursor;
+    }
+
+    /**
+     * Executions of the selected status and time range that had a failed
+     * node to replay when the job was submitted.
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+
+    /**
+     * Executions processed so far.
+     */
+    public long getExecutions() {
+        return executions;
+    }
+
+    public void setExecutions(long executions) {
+        this.executions = executions;
+    }
+
+    /**
+     * Node executions replayed so far.
+     */
+    public long getReplayed() {
+        return replayed;
+    }
+
+    public void setReplayed(long replayed) {
+        this.replayed = replayed;
+    }
+
+    /**
+     * Node executions whose replay failed.
+     */
+    public long getFailed() {
+        return failed;
+    }
+
+    public void setFailed(long failed) {
+        this.failed = failed;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+
+    public String getRunner() {
+        return runner;
+    }
+
+    public void setRunner(String runner) {
+        this.runner = runner;
+    }
+
+    public Date getLeaseExpiresAt() {
+        return leaseExpiresAt;
+    }
+
+    public void setLeaseExpiresAt(Date leaseExpiresAt) {
+        this.leaseExpiresAt = leaseExpiresAt;
+    }
+
+    public Date getCreatedDate() {
+        return createdDate;
+    }
+
+    public void setCreatedDate(Date createdDate) {
+        this.createdDate = createdDate;
+    }
+
+    public Date getUpdatedDate() {
+        return updatedDate;
+    }
+
+    public void setUpdatedDate(Date updatedDate) {
+        this.updatedDate = updatedDate;
+    }
+}
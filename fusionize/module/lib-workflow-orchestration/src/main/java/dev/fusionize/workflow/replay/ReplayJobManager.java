@@ -0,0 +1,510 @@
+package dev.fusionize.workflow.replay;
+
+import dev.fusionize.common.utility.KeyUtil;
+import dev.fusionize.workflow.WorkflowExecution;
+import dev.fusionize.workflow.WorkflowNodeExecution;
+import dev.fusionize.workflow.WorkflowNodeExecutionState;
+import dev.fusionize.workflow.orchestrator.Orchestrator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+/**
+ * Runs {@link ReplayJob}s.
+ * <p>
+ * Running jobs are picked up by whichever node polls them first and kept by
+ * it through a lease renewed with every progress update. A job replays its
+ * executions in batches: the failed node executions of a batch are replayed
+ * at the job's rate while fewer than its concurrency of the nodes it replayed
+ * are still working, then the cursor and counters are stored and the job's
+ * state is checked, so pausing or cancelling takes effect at the next batch
+ * boundary. A job interrupted within a batch, e.g. by a shutdown, replays
+ * that batch again when it is resumed.
+ * <p>
+ * Whether a replayed node is still working is read from its stored state,
+ * so nodes replayed here and handled on other nodes count as well.
+ */
+@Component
+public class ReplayJobManager implements DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger(ReplayJobManager.class);
+    private static final Set<WorkflowNodeExecutionState> SETTLED =
+            EnumSet.of(WorkflowNodeExecutionState.DONE, WorkflowNodeExecutionState.FAILED);
+    private static final long WORKING_CHECK_MILLIS = 500;
+
+    private final ReplayJobProperties properties;
+    private final MongoTemplate mongoTemplate;
+    private final Orchestrator orchestrator;
+    private final Clock clock;
+    private final String runner = "replay-" + KeyUtil.getFlatUUID();
+    private final Set<String> active = ConcurrentHashMap.newKeySet();
+    private ScheduledExecutorService scheduler;
+    private ExecutorService jobs;
+
+    @Autowired
+    public ReplayJobManager(ReplayJobProperties properties,
+                            @Qualifier("workerMongoTemplate") MongoTemplate mongoTemplate,
+                            Orchestrator orchestrator) {
+        this(properties, mongoTemplate, orchestrator, Clock.systemUTC());
+        if (properties.isEnabled()) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(daemon("workflow-replay-job"));
+            jobs = Executors.newCachedThreadPool(daemon("workflow-replay-job-run"));
+            long interval = properties.getPollInterval().toMillis();
+            scheduler.scheduleWithFixedDelay(this::pollQuietly, interval, interval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    ReplayJobManager(ReplayJobProperties properties, MongoTemplate mongoTemplate,
+                     Orchestrator orchestrator, Clock clock) {
+        this.properties = properties;
+        this.mongoTemplate = mongoTemplate;
+        this.orchestrator = orchestrator;
+        this.clock = clock;
+    }
+
+    /**
+     * Stores a new running job with the selection, rate and concurrency of
+     * the given one; the rate and concurrency are bounded by the configured
+     * maximums.
+     *
+     * @throws IllegalArgumentException if the selection is invalid
+     */
+    public ReplayJob submit(ReplayJob request) {
+        if (request.getWorkflowId() == null || request.getWorkflowId().isBlank()) {
+            throw new IllegalArgumentException("A workflowId is required");
+        }
+        if (request.getFrom() != null && request.getTo() != null && !request.getFrom().before(request.getTo())) {
+            throw new IllegalArgumentException("The time range must start before it ends");
+        }
+        ReplayJob job = new ReplayJob();
+        job.setWorkflowId(request.getWorkflowId());
+        job.setStatus(request.getStatus());
+        job.setFrom(request.getFrom());
+        job.setTo(request.getTo());
+        job.setWorkflowNodeId(request.getWorkflowNodeId());
+        job.setRate(request.getRate() > 0
+                ? Math.min(request.getRate(), properties.getMaxRate())
+                : properties.getDefaultRate());
+        job.setConcurrency(request.getConcurrency() > 0
+                ? Math.min(request.getConcurrency(), properties.getMaxConcurrency())
+                : properties.getDefaultConcurrency());
+        job.setState(ReplayJobState.RUNNING);
+        job.setTotal(countReplayable(job));
+        Date now = Date.from(clock.instant());
+        job.setCreatedDate(now);
+        job.setUpdatedDate(now);
+        ReplayJob saved = mongoTemplate.insert(job);
+        log.info("Submitted replay job {} of workflow {} for {} executions",
+                saved.getId(), saved.getWorkflowId(), saved.getTotal());
+        return saved;
+    }
+
+    public Optional<ReplayJob> get(String id) {
+        return Optional.ofNullable(mongoTemplate.findById(id, ReplayJob.class));
+    }
+
+    /**
+     * Returns the jobs of a workflow, or of all workflows, newest first.
+     */
+    public List<ReplayJob> list(String workflowId) {
+        Query query = workflowId == null
+                ? new Query()
+                : Query.query(Criteria.where("workflowId").is(workflowId));
+        return mongoTemplate.find(query.with(Sort.by(Sort.Direction.DESC, "createdDate")), ReplayJob.class);
+    }
+
+    /**
+     * @throws IllegalStateException if the job is not running
+     */
+    public Optional<ReplayJob> pause(String id) {
+        return transition(id, ReplayJobState.PAUSED, ReplayJobState.RUNNING);
+    }
+
+    /**
+     * @throws IllegalStateException if the job is not paused
+     */
+    public Optional<ReplayJob> resume(String id) {
+        return transition(id, ReplayJobState.RUNNING, ReplayJobState.PAUSED);
+    }
+
+    /**
+     * @throws IllegalStateException if the job already ended
+     */
+    public Optional<ReplayJob> cancel(String id) {
+        return transition(id, ReplayJobState.CANCELLED, ReplayJobState.RUNNING, ReplayJobState.PAUSED);
+    }
+
+    private Optional<ReplayJob> transition(String id, ReplayJobState to, ReplayJobState... from) {
+        Query query = Query.query(Criteria.where("_id").is(id).and("state").in((Object[]) from));
+        Update update = new Update()
+                .set("state", to)
+                .set("updatedDate", Date.from(clock.instant()));
+        ReplayJob updated = mongoTemplate.findAndModify(query, update,
+                FindAndModifyOptions.options().returnNew(true), ReplayJob.class);
+        if (updated != null) {
+            log.info("Replay job {} is {}", id, to);
+            return Optional.of(updated);
+        }
+        Optional<ReplayJob> current = get(id);
+        if (current.isPresent()) {
+            throw new IllegalStateException("Replay job " + id + " is " + current.get().getState());
+        }
+        return current;
+    }
+
+    /**
+     * Starts the running jobs that are not leased to another node.
+     */
+    void poll() {
+        Query runnable = Query.query(Criteria.where("state").is(ReplayJobState.RUNNING).orOperator(
+                Criteria.where("runner").is(runner),
+                Criteria.where("runner").is(null),
+                Criteria.where("leaseExpiresAt").lt(Date.from(clock.instant()))));
+        runnable.fields().include("_id");
+        for (ReplayJob job : mongoTemplate.find(runnable, ReplayJob.class)) {
+            String id = job.getId();
+            if (!active.add(id)) {
+                continue;
+            }
+            Runnable task = () -> {
+                try {
+                    run(id);
+                } catch (Exception e) {
+                    log.error("Replay job {} failed", id, e);
+                } finally {
+                    active.remove(id);
+                }
+            };
+            if (jobs == null) {
+                task.run();
+            } else {
+                jobs.execute(task);
+            }
+        }
+    }
+
+    private void pollQuietly() {
+        try {
+            poll();
+        } catch (Exception e) {
+            log.error("Replay job poll failed", e);
+        }
+    }
+
+    /**
+     * Runs a job until it completes, is paused or cancelled, or its lease is
+     * lost.
+     */
+    void run(String id) throws InterruptedException {
+        ReplayJob job = claim(id);
+        if (job == null) {
+            return;
+        }
+        log.info("Running replay job {} of workflow {} after {}", id, job.getWorkflowId(), job.getCursor());
+        String workflowId = job.getWorkflowId();
+        long interval = (long) (TimeUnit.SECONDS.toNanos(1) / job.getRate());
+        int concurrency = job.getConcurrency() > 0 ? job.getConcurrency() : properties.getDefaultConcurrency();
+        // replayed node executions not known to have settled, with their execution
+        Map<String, String> working = new ConcurrentHashMap<>();
+        // replayed node executions whose reset may not be stored yet
+        Set<String> dispatching = ConcurrentHashMap.newKeySet();
+        long next = System.nanoTime();
+        while (job != null && job.getState() == ReplayJobState.RUNNING) {
+            List<WorkflowExecution> batch = mongoTemplate.find(batchQuery(job), WorkflowExecution.class);
+            if (batch.isEmpty()) {
+                complete(job);
+                return;
+            }
+            AtomicLong replayed = new AtomicLong();
+            AtomicLong failed = new AtomicLong();
+            AtomicReference<String> lastError = new AtomicReference<>();
+            List<CompletableFuture<Void>> replays = new ArrayList<>();
+            for (WorkflowExecution execution : batch) {
+                for (WorkflowNodeExecution nodeExecution : failedNodes(job, execution)) {
+                    next = pace(next, interval);
+                    job = awaitCapacity(job, working, dispatching, concurrency);
+                    if (job == null) {
+                        log.warn("Lost lease of replay job {}", id);
+                        return;
+                    }
+                    String workflowExecutionId = execution.getWorkflowExecutionId();
+                    String workflowNodeExecutionId = nodeExecution.getWorkflowNodeExecutionId();
+                    working.put(workflowNodeExecutionId, workflowExecutionId);
+                    dispatching.add(workflowNodeExecutionId);
+                    CompletableFuture<Void> replay;
+                    try {
+                        replay = orchestrator.replayExecution(workflowId, workflowExecutionId,
+                                workflowNodeExecutionId);
+                    } catch (Exception e) {
+                        replay = CompletableFuture.failedFuture(e);
+                    }
+                    replays.add(replay.whenComplete((done, failure) -> {
+                        dispatching.remove(workflowNodeExecutionId);
+                        if (failure == null) {
+                            replayed.incrementAndGet();
+                            return;
+                        }
+                        working.remove(workflowNodeExecutionId);
+                        Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+                                ? failure.getCause() : failure;
+                        log.warn("Failed to replay node execution {} of execution {}",
+                                workflowNodeExecutionId, workflowExecutionId, cause);
+                        failed.incrementAndGet();
+                        lastError.set(cause.getClass().getName() + ": " + cause.getMessage());
+                    }));
+                }
+            }
+            awaitReplays(id, replays);
+            job = saveProgress(job, batch.get(batch.size() - 1).getWorkflowExecutionId(), batch.size(),
+                    replayed.get(), failed.get(), lastError.get());
+        }
+        if (job == null) {
+            log.warn("Lost lease of replay job {}", id);
+        } else {
+            log.info("Replay job {} stopped as {}", id, job.getState());
+            release(job);
+        }
+    }
+
+    /**
+     * Waits until fewer than {@code concurrency} of the replayed node
+     * executions are still working, renewing the job's lease meanwhile. A
+     * node whose replay is still being dispatched counts as working whatever
+     * its stored state.
+     *
+     * @return the job, or {@code null} if its lease was lost
+     */
+    private ReplayJob awaitCapacity(ReplayJob job, Map<String, String> working, Set<String> dispatching,
+                                    int concurrency) throws InterruptedException {
+        while (working.size() >= concurrency) {
+            Set<String> settled = settled(working);
+            settled.removeAll(dispatching);
+            working.keySet().removeAll(settled);
+            if (working.size() < concurrency) {
+                break;
+            }
+            TimeUnit.MILLISECONDS.sleep(WORKING_CHECK_MILLIS);
+            job = mongoTemplate.findAndModify(ownedBy(job), new Update().set("leaseExpiresAt", leaseExpiry(job)),
+                    FindAndModifyOptions.options().returnNew(true), ReplayJob.class);
+            if (job == null) {
+                return null;
+            }
+        }
+        return job;
+    }
+
+    /**
+     * The replayed node executions that are DONE or FAILED as stored, or no
+     * longer stored at all.
+     */
+    private Set<String> settled(Map<String, String> working) {
+        Map<String, String> snapshot = Map.copyOf(working);
+        Query query = Query.query(Criteria.where("workflowExecutionId").in(Set.copyOf(snapshot.values())));
+        query.fields().include("workflowExecutionId");
+        snapshot.keySet().forEach(nodeExecutionId -> query.fields().include("nodeExecutionMap." + nodeExecutionId + ".state"));
+        Map<String, WorkflowExecution> executions = new HashMap<>();
+        mongoTemplate.find(query, WorkflowExecution.class)
+                .forEach(execution -> executions.put(execution.getWorkflowExecutionId(), execution));
+        Set<String> settled = new HashSet<>();
+        snapshot.forEach((nodeExecutionId, workflowExecutionId) -> {
+            WorkflowExecution execution = executions.get(workflowExecutionId);
+            WorkflowNodeExecution nodeExecution = execution == null
+                    ? null : execution.getNodeExecutionMap().get(nodeExecutionId);
+            if (nodeExecution == null || SETTLED.contains(nodeExecution.getState())) {
+                settled.add(nodeExecutionId);
+            }
+        });
+        return settled;
+    }
+
+    /**
+     * Waits for the replays of a batch to be dispatched, so they are counted
+     * in its progress. Replays still pending after a lease are left out.
+     */
+    private void awaitReplays(String id, List<CompletableFuture<Void>> replays) throws InterruptedException {
+        try {
+            CompletableFuture.allOf(replays.toArray(new CompletableFuture[0]))
+                    .handle((done, failure) -> null)
+                    .get(properties.getLease().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e);
+        } catch (TimeoutException e) {
+            log.warn("Replays of replay job {} still pending after {}, not counted",
+                    id, properties.getLease());
+        }
+    }
+
+    private ReplayJob claim(String id) {
+        ReplayJob job = mongoTemplate.findById(id, ReplayJob.class);
+        if (job == null) {
+            return null;
+        }
+        Date now = Date.from(clock.instant());
+        Query query = Query.query(Criteria.where("_id").is(id).and("state").is(ReplayJobState.RUNNING).orOperator(
+                Criteria.where("runner").is(runner),
+                Criteria.where("runner").is(null),
+                Criteria.where("leaseExpiresAt").lt(now)));
+        Update update = new Update()
+                .set("runner", runner)
+                .set("leaseExpiresAt", leaseExpiry(job));
+        return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true),
+                ReplayJob.class);
+    }
+
+    private ReplayJob saveProgress(ReplayJob job, String cursor, int executions,
+                                   long replayed, long failed, String lastError) {
+        Update update = new Update()
+                .set("cursor", cursor)
+                .inc("executions", executions)
+                .inc("replayed", replayed)
+                .inc("failed", failed)
+                .set("leaseExpiresAt", leaseExpiry(job))
+                .set("updatedDate", Date.from(clock.instant()));
+        if (lastError != null) {
+            update.set("lastError", lastError);
+        }
+        return mongoTemplate.findAndModify(ownedBy(job), update, FindAndModifyOptions.options().returnNew(true),
+                ReplayJob.class);
+    }
+
+    private void complete(ReplayJob job) {
+        Query query = ownedBy(job).addCriteria(Criteria.where("state").is(ReplayJobState.RUNNING));
+        Update update = new Update()
+                .set("state", ReplayJobState.COMPLETED)
+                .set("updatedDate", Date.from(clock.instant()))
+                .unset("runner")
+                .unset("leaseExpiresAt");
+        mongoTemplate.updateFirst(query, update, ReplayJob.class);
+        log.info("Completed replay job {}", job.getId());
+    }
+
+    private void release(ReplayJob job) {
+        mongoTemplate.updateFirst(ownedBy(job), new Update().unset("runner").unset("leaseExpiresAt"),
+                ReplayJob.class);
+    }
+
+    private Query ownedBy(ReplayJob job) {
+        return Query.query(Criteria.where("_id").is(job.getId()).and("runner").is(runner));
+    }
+
+    /**
+     * The lease outlasts at least two batches at the job's rate.
+     */
+    private Date leaseExpiry(ReplayJob job) {
+        Duration batches = Duration.ofMillis((long) (2_000 * properties.getBatchSize() / job.getRate()));
+        Duration lease = batches.compareTo(properties.getLease()) > 0 ? batches : properties.getLease();
+        return Date.from(clock.instant().plus(lease));
+    }
+
+    private Criteria selection(ReplayJob job) {
+        Criteria criteria = Criteria.where("workflowId").is(job.getWorkflowId());
+        if (job.getStatus() != null) {
+            criteria.and("status").is(job.getStatus());
+        }
+        if (job.getFrom() != null || job.getTo() != null) {
+            Criteria created = criteria.and("createdDate");
+            if (job.getFrom() != null) {
+                created.gte(job.getFrom());
+            }
+            if (job.getTo() != null) {
+                created.lt(job.getTo());
+            }
+        }
+        return criteria;
+    }
+
+    /**
+     * Counts the selected executions with a failed node to replay. Which
+     * nodes failed is only known per execution, so the selection is read
+     * without the rest of the execution.
+     */
+    private long countReplayable(ReplayJob job) {
+        Query query = Query.query(selection(job));
+        query.fields().include("nodeExecutionMap");
+        try (Stream<WorkflowExecution> executions = mongoTemplate.stream(query, WorkflowExecution.class)) {
+            return executions.filter(execution -> !failedNodes(job, execution).isEmpty()).count();
+        }
+    }
+
+    private Query batchQuery(ReplayJob job) {
+        Criteria criteria = selection(job);
+        if (job.getCursor() != null) {
+            criteria.and("workflowExecutionId").gt(job.getCursor());
+        }
+        Query query = Query.query(criteria)
+                .with(Sort.by(Sort.Direction.ASC, "workflowExecutionId"))
+                .limit(properties.getBatchSize());
+        query.fields().include("workflowExecutionId").include("nodeExecutionMap");
+        return query;
+    }
+
+    private static List<WorkflowNodeExecution> failedNodes(ReplayJob job, WorkflowExecution execution) {
+        return execution.getNodeExecutionMap().values().stream()
+                .filter(ne -> WorkflowNodeExecutionState.FAILED.equals(ne.getState()))
+                .filter(ne -> job.getWorkflowNodeId() == null || job.getWorkflowNodeId().equals(ne.getWorkflowNodeId()))
+                .toList();
+    }
+
+    /**
+     * Waits for the next replay slot and returns the one after it. A replay
+     * running late does not let the following ones catch up in a burst.
+     */
+    private static long pace(long next, long interval) throws InterruptedException {
+        long now = System.nanoTime();
+        if (next > now) {
+            TimeUnit.NANOSECONDS.sleep(next - now);
+        }
+        return Math.max(next, now) + interval;
+    }
+
+    private static ThreadFactory daemon(String name) {
+        return r -> {
+            Thread thread = new Thread(r, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    @Override
+    public void destroy() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        if (jobs != null) {
+            jobs.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package dev.fusionize.workflow.replay;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Settings for {@link ReplayJobManager}. Jobs replay at their own rate and
+ * concurrency, bounded by {@code maxRate} and {@code maxConcurrency}.
+ */
+@Component
+@ConfigurationProperties(prefix = "fusionize.worker.replay-job")
+public class ReplayJobProperties {
+    private boolean enabled = true;
+    private Duration pollInterval = Duration.ofSeconds(10);
+    private Duration lease = Duration.ofMinutes(1);
+    private int batchSize = 20;
+    private double defaultRate = 10;
+    private double maxRate = 1_000;
+    private int defaultConcurrency = 4;
+    private int maxConcurrency = 32;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * How often this node looks for jobs to run.
+     */
+    public Duration getPollInterval() {
+        return pollInterval;
+    }
+
+    public void setPollInterval(Duration pollInterval) {
+        this.pollInterval = pollInterval;
+    }
+
+    /**
+     * How long a node keeps a job after storing its progress; another node
+     * resumes the job once the lease expired.
+     */
+    public Duration getLease() {
+        return lease;
+    }
+
+    public void setLease(Duration lease) {
+        this.lease = lease;
+    }
+
+    /**
+     * Executions replayed between two progress updates.
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Replays per second of jobs that do not set a rate.
+     */
+    public double getDefaultRate() {
+        return defaultRate;
+    }
+
+    public void setDefaultRate(double defaultRate) {
+        this.defaultRate = defaultRate;
+    }
+
+    public double getMaxRate() {
+        return maxRate;
+    }
+
+    public void setMaxRate(double maxRate) {
+        this.maxRate = maxRate;
+    }
+
+    /**
+     * Replayed nodes working at once for jobs that do not set a concurrency.
+     */
+    public int getDefaultConcurrency() {
+        return defaultConcurrency;
+    }
+
+    public void setDefaultConcurrency(int defaultConcurrency) {
+        this.defaultConcurrency = defaultConcurrency;
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    public void setMaxConcurrency(int maxConcurrency) {
+        this.maxConcurrency = maxConcurrency;
+    }
+}
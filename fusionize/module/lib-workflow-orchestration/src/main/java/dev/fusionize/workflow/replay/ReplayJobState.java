@@ -0,0 +1,8 @@
+package dev.fusionize.workflow.replay;
+
+public enum ReplayJobState {
+    RUNNING,
+    PAUSED,
+    CANCELLED,
+    COMPLETED
+}
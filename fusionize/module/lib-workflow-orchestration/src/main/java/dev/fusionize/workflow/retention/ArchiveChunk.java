@@ -0,0 +1,102 @@
+package dev.fusionize.workflow.retention;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+/**
+ * Manifest entry for one archived chunk: a gzip compressed NDJSON file holding
+ * the expired documents of one collection for one workflow execution.
+ */
+@Document(collection = "workflow-archive")
+@CompoundIndex(name = "collection_group", def = "{'collectionName': 1, 'groupKey': 1}")
+public class ArchiveChunk {
+    @Id
+    private String id;
+    private String collectionName;
+    private String groupKey;
+    private String storage;
+    private String path;
+    private int count;
+    private Date from;
+    private Date to;
+    private Date archivedDate;
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getCollectionName() {
+        return collectionName;
+    }
+
+    public void setCollectionName(String collectionName) {
+        this.collectionName = collectionName;
+    }
+
+    /**
+     * The workflow execution id (or, for events without one, the correlation
+     * id) shared by the documents in the chunk.
+     */
+    public String getGroupKey() {
+        return groupKey;
+    }
+
+    public void setGroupKey(String groupKey) {
+        this.groupKey = groupKey;
+    }
+
+    public String getStorage() {
+        return storage;
+    }
+
+    public void setStorage(String storage) {
+        this.storage = storage;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public void setPath(String path) {
+        this.path = path;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public void setCount(int count) {
+        this.count = count;
+    }
+
+    public Date getFrom() {
+        return from;
+    }
+
+    public void setFrom(Date from) {
+        this.from = from;
+    }
+
+    public Date getTo() {
+        return to;
+    }
+
+    public void setTo(Date to) {
+        this.to = to;
+    }
+
+    public Date getArchivedDate() {
+        return archivedDate;
+    }
+
+    public void setArchivedDate(Date archivedDate) {
+        this.archivedDate = archivedDate;
+    }
+}
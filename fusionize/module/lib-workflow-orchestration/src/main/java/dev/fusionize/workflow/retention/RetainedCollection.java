@@ -0,0 +1,33 @@
+package dev.fusionize.workflow.retention;
+
+/**
+ * Collections covered by retention, with the field their age is measured on
+ * and the fields archived documents are grouped by, in order of preference.
+ */
+public enum RetainedCollection {
+    EVENT("workflow-event", "generatedDate", "workflowExecutionId", "correlationId"),
+    LOG("workflow-log", "timestamp", "workflowExecutionId"),
+    INTERACTION("workflow-interaction", "timestamp", "workflowExecutionId");
+
+    private final String collectionName;
+    private final String timestampField;
+    private final String[] groupFields;
+
+    RetainedCollection(String collectionName, String timestampField, String... groupFields) {
+        this.collectionName = collectionName;
+        this.timestampField = timestampField;
+        this.groupFields = groupFields;
+    }
+
+    public String getCollectionName() {
+        return collectionName;
+    }
+
+    public String getTimestampField() {
+        return timestampField;
+    }
+
+    public String[] getGroupFields() {
+        return groupFields.clone();
+    }
+}
@@ -0,0 +1,142 @@
+package dev.fusionize.workflow.retention;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies the {@link RetentionProperties} policies: keeps the TTL indexes in
+ * line with the configured policies and periodically archives expired
+ * documents for policies with archival.
+ */
+@Component
+public class RetentionManager implements DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger(RetentionManager.class);
+    static final String TTL_INDEX = "retention_ttl";
+    static final String TIMESTAMP_INDEX = "retention_timestamp";
+
+    private final RetentionProperties properties;
+    private final MongoTemplate mongoTemplate;
+    private final WorkflowArchive archive;
+    private final Clock clock;
+    private ScheduledExecutorService scheduler;
+    private volatile boolean indexesEnsured;
+
+    @Autowired
+    public RetentionManager(RetentionProperties properties,
+                            @Qualifier("workerMongoTemplate") MongoTemplate mongoTemplate,
+                            WorkflowArchive archive) {
+        this(properties, mongoTemplate, archive, Clock.systemUTC());
+        if (properties.isEnabled()) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "workflow-retention");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long interval = properties.getInterval().toMillis();
+            scheduler.scheduleWithFixedDelay(this::runQuietly, 0, interval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    RetentionManager(RetentionProperties properties, MongoTemplate mongoTemplate,
+                     WorkflowArchive archive, Clock clock) {
+        this.properties = properties;
+        this.mongoTemplate = mongoTemplate;
+        this.archive = archive;
+        this.clock = clock;
+    }
+
+    void run() throws IOException {
+        if (!indexesEnsured) {
+            ensureIndexes();
+            indexesEnsured = true;
+        }
+        for (RetainedCollection collection : RetainedCollection.values()) {
+            RetentionProperties.Policy policy = properties.policyFor(collection);
+            if (policy.getTtl() == null || !policy.isArchive()) {
+                continue;
+            }
+            Instant cutoff = clock.instant().minus(policy.getTtl());
+            int archived;
+            do {
+                archived = archive.archiveExpired(collection, cutoff);
+                if (archived > 0) {
+                    log.info("Archived {} documents from {}", archived, collection.getCollectionName());
+                }
+            } while (archived >= properties.getBatchSize());
+        }
+    }
+
+    private void runQuietly() {
+        try {
+            run();
+        } catch (Exception e) {
+            log.error("Retention run failed", e);
+        }
+    }
+
+    /**
+     * Creates, replaces or drops the TTL index of each collection to match its
+     * policy. Archived collections get a plain index on the timestamp instead,
+     * since a TTL index would delete documents before they are archived. Only
+     * one of the two can exist on the timestamp, so the plain index is dropped
+     * once a collection stops archiving.
+     */
+    void ensureIndexes() {
+        for (RetainedCollection collection : RetainedCollection.values()) {
+            RetentionProperties.Policy policy = properties.policyFor(collection);
+            IndexOperations indexOps = mongoTemplate.indexOps(collection.getCollectionName());
+            boolean ttl = policy.getTtl() != null && !policy.isArchive();
+            List<IndexInfo> indexes = indexOps.getIndexInfo();
+            if (!policy.isArchive() && indexes.stream().anyMatch(info -> TIMESTAMP_INDEX.equals(info.getName()))) {
+                indexOps.dropIndex(TIMESTAMP_INDEX);
+                log.info("Dropped timestamp index on {}", collection.getCollectionName());
+            }
+            Optional<IndexInfo> existing = indexes.stream()
+                    .filter(info -> TTL_INDEX.equals(info.getName()))
+                    .findFirst();
+            if (existing.isPresent()
+                    && (!ttl || !existing.get().getExpireAfter().equals(Optional.of(policy.getTtl())))) {
+                indexOps.dropIndex(TTL_INDEX);
+                existing = Optional.empty();
+                log.info("Dropped TTL index on {}", collection.getCollectionName());
+            }
+            if (ttl && existing.isEmpty()) {
+                indexOps.ensureIndex(new Index()
+                        .on(collection.getTimestampField(), Sort.Direction.ASC)
+                        .named(TTL_INDEX)
+                        .expire(policy.getTtl()));
+                log.info("Created TTL index on {} expiring after {}", collection.getCollectionName(), policy.getTtl());
+            }
+            if (policy.isArchive()) {
+                indexOps.ensureIndex(new Index()
+                        .on(collection.getTimestampField(), Sort.Direction.ASC)
+                        .named(TIMESTAMP_INDEX));
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package dev.fusionize.workflow.retention;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Retention policies for the event, log and interaction collections.
+ * <p>
+ * A policy without archival is enforced by a Mongo TTL index. A policy with
+ * archival moves expired documents to the {@code archiveStorage} file storage
+ * domain instead, so no TTL index is kept for it.
+ */
+@Component
+@ConfigurationProperties(prefix = "fusionize.worker.retention")
+public class RetentionProperties {
+    private boolean enabled = false;
+    private String archiveStorage;
+    private String archivePrefix = "archive";
+    private Duration interval = Duration.ofMinutes(10);
+    private int batchSize = 5_000;
+    private Policy event = new Policy();
+    private Policy log = new Policy();
+    private Policy interaction = new Policy();
+
+    public static class Policy {
+        private Duration ttl;
+        private boolean archive = false;
+
+        /**
+         * Age after which documents expire, or {@code null} to keep them.
+         */
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+
+        public boolean isArchive() {
+            return archive;
+        }
+
+        public void setArchive(boolean archive) {
+            this.archive = archive;
+        }
+    }
+
+    public Policy policyFor(RetainedCollection collection) {
+        return switch (collection) {
+            case EVENT -> event;
+            case LOG -> log;
+            case INTERACTION -> interaction;
+        };
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getArchiveStorage() {
+        return archiveStorage;
+    }
+
+    public void setArchiveStorage(String archiveStorage) {
+        this.archiveStorage = archiveStorage;
+    }
+
+    public String getArchivePrefix() {
+        return archivePrefix;
+    }
+
+    public void setArchivePrefix(String archivePrefix) {
+        this.archivePrefix = archivePrefix;
+    }
+
+    public Duration getInterval() {
+        return interval;
+    }
+
+    public void setInterval(Duration interval) {
+        this.interval = interval;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public Policy getEvent() {
+        return event;
+    }
+
+    public void setEvent(Policy event) {
+        this.event = event;
+    }
+
+    public Policy getLog() {
+        return log;
+    }
+
+    public void setLog(Policy log) {
+        this.log = log;
+    }
+
+    public Policy getInteraction() {
+        return interaction;
+    }
+
+    public void setInteraction(Policy interaction) {
+        this.interaction = interaction;
+    }
+}
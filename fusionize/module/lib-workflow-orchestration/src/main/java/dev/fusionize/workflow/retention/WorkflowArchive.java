@@ -0,0 +1,206 @@
+package dev.fusionize.workflow.retention;
+
+import dev.fusionize.common.utility.KeyUtil;
+import dev.fusionize.storage.StorageConfigManager;
+import dev.fusionize.storage.file.FileStorageService;
+import org.bson.Document;
+import org.bson.json.JsonMode;
+import org.bson.json.JsonWriterSettings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Moves expired documents to file storage and reads them back.
+ * <p>
+ * Expired documents are grouped by workflow execution and written as one gzip
+ * compressed NDJSON chunk per group, in MongoDB extended JSON so they parse
+ * back to the same BSON types. Each chunk is recorded in the
+ * {@code workflow-archive} manifest, which is what archived reads query; the
+ * source documents are only removed once their chunk is stored.
+ */
+@Service
+public class WorkflowArchive {
+    private static final Logger log = LoggerFactory.getLogger(WorkflowArchive.class);
+    private static final JsonWriterSettings JSON = JsonWriterSettings.builder()
+            .outputMode(JsonMode.EXTENDED)
+            .build();
+    static final String UNGROUPED = "ungrouped";
+
+    private final RetentionProperties properties;
+    private final MongoTemplate mongoTemplate;
+    private final ObjectProvider<StorageConfigManager> storageConfigManager;
+
+    public WorkflowArchive(RetentionProperties properties,
+                           @Qualifier("workerMongoTemplate") MongoTemplate mongoTemplate,
+                           ObjectProvider<StorageConfigManager> storageConfigManager) {
+        this.properties = properties;
+        this.mongoTemplate = mongoTemplate;
+        this.storageConfigManager = storageConfigManager;
+    }
+
+    /**
+     * Archives one batch of documents older than the cutoff.
+     *
+     * @return the number of documents archived and removed
+     */
+    public int archiveExpired(RetainedCollection collection, Instant cutoff) throws IOException {
+        String domain = properties.getArchiveStorage();
+        FileStorageService storage = storage(domain).orElse(null);
+        if (storage == null) {
+            log.warn("Archive storage {} not found, skipping archival of {}", domain, collection.getCollectionName());
+            return 0;
+        }
+        Query query = Query.query(Criteria.where(collection.getTimestampField()).lt(Date.from(cutoff)))
+                .with(Sort.by(collection.getTimestampField()))
+                .limit(properties.getBatchSize());
+        List<Document> expired = mongoTemplate.find(query, Document.class, collection.getCollectionName());
+
+        Map<String, List<Document>> groups = new LinkedHashMap<>();
+        for (Document document : expired) {
+            groups.computeIfAbsent(groupKey(collection, document), k -> new ArrayList<>()).add(document);
+        }
+        int archived = 0;
+        for (Map.Entry<String, List<Document>> group : groups.entrySet()) {
+            List<Document> documents = group.getValue();
+            Date from = documents.get(0).getDate(collection.getTimestampField());
+            Date to = documents.get(documents.size() - 1).getDate(collection.getTimestampField());
+            String path = String.join("/", properties.getArchivePrefix(), collection.getCollectionName(),
+                    pathSegment(group.getKey()), from.getTime() + "-" + KeyUtil.getFlatUUID() + ".ndjson.gz");
+
+            writeChunk(storage, path, documents);
+            if (!Boolean.TRUE.equals(storage.save(List.of(path)).get(path))) {
+                log.warn("Failed to store archive chunk {}", path);
+                continue;
+            }
+            ArchiveChunk chunk = new ArchiveChunk();
+            chunk.setCollectionName(collection.getCollectionName());
+            chunk.setGroupKey(group.getKey());
+            chunk.setStorage(domain);
+            chunk.setPath(path);
+            chunk.setCount(documents.size());
+            chunk.setFrom(from);
+            chunk.setTo(to);
+            chunk.setArchivedDate(new Date());
+            mongoTemplate.save(chunk);
+
+            List<Object> ids = documents.stream().map(d -> d.get("_id")).toList();
+            mongoTemplate.remove(Query.query(Criteria.where("_id").in(ids)), collection.getCollectionName());
+            archived += documents.size();
+        }
+        return archived;
+    }
+
+    /**
+     * Reads the archived documents of one workflow execution, oldest chunk
+     * first.
+     */
+    public List<Document> read(RetainedCollection collection, String workflowExecutionId) {
+        if (!properties.isEnabled() || workflowExecutionId == null) {
+            return List.of();
+        }
+        Query query = Query.query(Criteria.where("collectionName").is(collection.getCollectionName())
+                        .and("groupKey").is(workflowExecutionId))
+                .with(Sort.by("from"));
+        List<ArchiveChunk> chunks = mongoTemplate.find(query, ArchiveChunk.class);
+        // a chunk may have been written twice if removing its source failed
+        Map<Object, Document> documents = new LinkedHashMap<>();
+        for (ArchiveChunk chunk : chunks) {
+            Optional<FileStorageService> storage = storage(chunk.getStorage());
+            if (storage.isEmpty()) {
+                log.warn("Archive storage {} not found for chunk {}", chunk.getStorage(), chunk.getPath());
+                continue;
+            }
+            try {
+                readChunk(storage.get(), chunk.getPath()).forEach(d -> documents.putIfAbsent(d.get("_id"), d));
+            } catch (IOException e) {
+                log.error("Failed to read archive chunk {}", chunk.getPath(), e);
+            }
+        }
+        return new ArrayList<>(documents.values());
+    }
+
+    /**
+     * Reads archived documents of one workflow execution mapped to their entity
+     * type.
+     */
+    public <T> List<T> read(RetainedCollection collection, String workflowExecutionId, Class<T> type) {
+        return read(collection, workflowExecutionId).stream()
+                .map(document -> mongoTemplate.getConverter().read(type, document))
+                .toList();
+    }
+
+    private void writeChunk(FileStorageService storage, String path, List<Document> documents) throws IOException {
+        OutputStream out = storage.write(List.of(path)).get(path);
+        try (Writer writer = new OutputStreamWriter(new GZIPOutputStream(out), StandardCharsets.UTF_8)) {
+            for (Document document : documents) {
+                writer.write(document.toJson(JSON));
+                writer.write('\n');
+            }
+        }
+    }
+
+    private List<Document> readChunk(FileStorageService storage, String path) throws IOException {
+        InputStream in = storage.read(List.of(path)).get(path);
+        if (in == null) {
+            throw new IOException("Archive chunk not found: " + path);
+        }
+        List<Document> documents = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new GZIPInputStream(in), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isBlank()) {
+                    documents.add(Document.parse(line));
+                }
+            }
+        }
+        return documents;
+    }
+
+    private Optional<FileStorageService> storage(String domain) {
+        StorageConfigManager manager = storageConfigManager.getIfAvailable();
+        if (domain == null || manager == null) {
+            return Optional.empty();
+        }
+        return manager.getConfig(domain).map(manager::getFileStorageService);
+    }
+
+    static String groupKey(RetainedCollection collection, Document document) {
+        for (String field : collection.getGroupFields()) {
+            Object value = document.get(field);
+            if (value != null) {
+                return value.toString();
+            }
+        }
+        return UNGROUPED;
+    }
+
+    private static String pathSegment(String key) {
+        return key.replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+}
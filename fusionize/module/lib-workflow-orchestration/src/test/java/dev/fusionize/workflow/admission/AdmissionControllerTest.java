@@ -0,0 +1,489 @@
+package dev.fusionize.workflow.admission;
+
+import dev.fusionize.common.test.TestMongoConfig;
+import dev.fusionize.common.test.TestMongoConversionConfig;
+import dev.fusionize.workflow.Workflow;
+import dev.fusionize.workflow.WorkflowExecution;
+import dev.fusionize.workflow.WorkflowExecutionStatus;
+import dev.fusionize.workflow.WorkflowNode;
+import dev.fusionize.workflow.WorkflowNodeExecution;
+import dev.fusionize.workflow.WorkflowNodeType;
+import dev.fusionize.workflow.events.Event;
+import dev.fusionize.workflow.events.OrchestrationEvent;
+import dev.fusionize.workflow.events.PartitionedEventDispatcher;
+import dev.fusionize.workflow.events.orchestration.InvocationResponseEvent;
+import dev.fusionize.workflow.lease.ExecutionLeaseManager;
+import dev.fusionize.workflow.orchestrator.Orchestrator;
+import dev.fusionize.workflow.registry.WorkflowExecutionRepoRegistry;
+import dev.fusionize.workflow.registry.WorkflowRepoRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@DataMongoTest()
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = { TestMongoConfig.class, TestMongoConversionConfig.class})
+@ActiveProfiles("ut")
+class AdmissionControllerTest {
+    static final Instant NOW = Instant.parse("2026-01-01T00:00:00Z");
+
+    @Autowired
+    MongoTemplate mongoTemplate;
+
+    Orchestrator orchestrator;
+    WorkflowRepoRegistry workflowRegistry;
+    WorkflowExecutionRepoRegistry workflowExecutionRegistry;
+    ExecutionLeaseManager leases;
+    PartitionedEventDispatcher lanes;
+    AdmissionProperties properties;
+    AdmissionController admission;
+    WorkflowNode startNode;
+    int executions;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate.remove(new Query(), WorkflowExecution.class);
+        mongoTemplate.remove(new Query(), AdmissionTicket.class);
+        orchestrator = mock(Orchestrator.class);
+        workflowRegistry = mock(WorkflowRepoRegistry.class);
+        workflowExecutionRegistry = mock(WorkflowExecutionRepoRegistry.class);
+        leases = mock(ExecutionLeaseManager.class);
+        when(leases.acquire(anyString())).thenReturn(true);
+        when(leases.getOwner()).thenReturn("node-1");
+        startNode = WorkflowNode.builder().workflowNodeId("start").type(WorkflowNodeType.START).build();
+        properties = new AdmissionProperties();
+        properties.setEnabled(true);
+        lanes = mock(PartitionedEventDispatcher.class);
+        doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(1).run();
+            return null;
+        }).when(lanes).dispatch(anyString(), any());
+        admission = new AdmissionController(properties, mongoTemplate, orchestrator, workflowRegistry,
+                workflowExecutionRegistry, leases, lanes, Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    @Test
+    void shouldDeferTriggers_overGlobalCap() {
+        // setup
+        properties.setMaxInFlight(2);
+        storeInFlight("wf-x", 1);
+        admission.refresh();
+        InvocationResponseEvent second = trigger("wf-a");
+
+        // expectation
+        boolean firstDeferred = admission.defer(trigger("wf-a"));
+        boolean secondDeferred = admission.defer(second);
+
+        // validation
+        assertThat(firstDeferred).isFalse();
+        assertThat(secondDeferred).isTrue();
+        assertThat(second.getOrchestrationEventContext()).isNull();
+        List<AdmissionTicket> tickets = mongoTemplate.findAll(AdmissionTicket.class);
+        assertThat(tickets).hasSize(1);
+        assertThat(tickets.get(0).getEvent().getEventId()).isEqualTo(second.getEventId());
+        assertThat(tickets.get(0).getWorkflowId()).isEqualTo("wf-a");
+    }
+
+    @Test
+    void shouldApplyPerWorkflowCaps() {
+        // setup
+        properties.setMaxInFlightPerWorkflow(1);
+        properties.setWorkflowLimits(Map.of("wf-b", 2));
+
+        // expectation
+        List<Boolean> deferred = List.of(
+                admission.defer(trigger("wf-a")),
+                admission.defer(trigger("wf-a")),
+                admission.defer(trigger("wf-b")),
+                admission.defer(trigger("wf-b")),
+                admission.defer(trigger("wf-b")));
+
+        // validation
+        assertThat(deferred).containsExactly(false, true, false, false, true);
+    }
+
+    @Test
+    void shouldNotGateEventsThatStartNoExecution() {
+        // setup
+        properties.setMaxInFlight(1);
+        storeInFlight("wf-x", 1);
+        admission.refresh();
+        WorkflowNode taskNode = WorkflowNode.builder().workflowNodeId("task").type(WorkflowNodeType.TASK).build();
+        InvocationResponseEvent task = event("wf-a", taskNode).build();
+        InvocationResponseEvent failedStart = event("wf-a", startNode)
+                .exception(new IllegalStateException("listener failed"))
+                .build();
+
+        // expectation
+        boolean taskDeferred = admission.defer(task);
+        boolean failedStartDeferred = admission.defer(failedStart);
+
+        // validation
+        assertThat(taskDeferred).isFalse();
+        assertThat(failedStartDeferred).isFalse();
+        assertThat(mongoTemplate.findAll(AdmissionTicket.class)).isEmpty();
+    }
+
+    @Test
+    void shouldNotCountStaleExecutions() {
+        // setup
+        properties.setMaxInFlight(1);
+        WorkflowExecution stuck = execution("wf-x");
+        stuck.setUpdatedDate(NOW.minus(Duration.ofHours(2)));
+        mongoTemplate.insert(stuck);
+        admission.refresh();
+
+        // expectation
+        boolean deferred = admission.defer(trigger("wf-a"));
+
+        // validation
+        assertThat(deferred).isFalse();
+    }
+
+    @Test
+    void shouldAdmitWaitingTriggersInOrder_whenCapacityFrees() throws Exception {
+        // setup
+        properties.setMaxInFlight(2);
+        storeInFlight("wf-x", 2);
+        admission.refresh();
+        List<InvocationResponseEvent> triggers = List.of(trigger("wf-a"), trigger("wf-b"), trigger("wf-a"));
+        triggers.forEach(admission::defer);
+        completeAll();
+
+        // expectation
+        admission.run();
+
+        // validation
+        ArgumentCaptor<InvocationResponseEvent> captor = ArgumentCaptor.forClass(InvocationResponseEvent.class);
+        verify(orchestrator, times(2)).onInvoked(captor.capture());
+        assertThat(captor.getAllValues()).extracting(Event::getEventId)
+                .containsExactly(triggers.get(0).getEventId(), triggers.get(1).getEventId());
+        assertThat(captor.getValue().getOrchestrationEventContext().nodeExecution().getWorkflowNode())
+                .isSameAs(startNode);
+        assertThat(mongoTemplate.findAll(AdmissionTicket.class)).extracting(t -> t.getEvent().getEventId())
+                .containsExactly(triggers.get(2).getEventId());
+    }
+
+    @Test
+    void shouldKeepTriggersBehindWaitingOnes() {
+        // setup
+        properties.setMaxInFlight(1);
+        storeInFlight("wf-x", 1);
+        admission.refresh();
+        admission.defer(trigger("wf-a"));
+        completeAll();
+        admission.refresh();
+
+        // expectation
+        boolean otherWorkflowDeferred = admission.defer(trigger("wf-b"));
+        boolean sameWorkflowDeferred = admission.defer(trigger("wf-a"));
+
+        // validation
+        assertThat(otherWorkflowDeferred).isFalse();
+        assertThat(sameWorkflowDeferred).isTrue();
+    }
+
+    @Test
+    void shouldShareCapacityByWeight_whenWeightedFair() throws Exception {
+        // setup
+        properties.setMaxInFlight(4);
+        properties.setOrder(AdmissionProperties.Order.WEIGHTED_FAIR);
+        properties.setWeights(Map.of("wf-a", 3));
+        storeInFlight("wf-x", 4);
+        admission.refresh();
+        for (int i = 0; i < 4; i++) {
+            admission.defer(trigger("wf-b"));
+            admission.defer(trigger("wf-a"));
+        }
+        completeAll();
+
+        // expectation
+        admission.run();
+
+        // validation
+        ArgumentCaptor<InvocationResponseEvent> captor = ArgumentCaptor.forClass(InvocationResponseEvent.class);
+        verify(orchestrator, times(4)).onInvoked(captor.capture());
+        assertThat(captor.getAllValues()).extracting(OrchestrationEvent::getWorkflowId)
+                .containsExactly("wf-a", "wf-a", "wf-b", "wf-a");
+    }
+
+    @Test
+    void shouldKeepTicket_whenExecutionIsLeasedElsewhere() {
+        // setup
+        properties.setMaxInFlight(1);
+        storeInFlight("wf-x", 1);
+        admission.refresh();
+        admission.defer(trigger("wf-a"));
+        completeAll();
+        when(leases.acquire("template-wf-a")).thenReturn(false);
+
+        // expectation
+        admission.run();
+
+        // validation
+        verifyNoInteractions(orchestrator);
+        assertThat(mongoTemplate.findAll(AdmissionTicket.class)).hasSize(1);
+    }
+
+    @Test
+    void shouldStartAdmittedTriggersOnTheLaneOfTheListeningExecution() throws Exception {
+        // setup
+        properties.setMaxInFlight(1);
+        storeInFlight("wf-x", 1);
+        admission.refresh();
+        InvocationResponseEvent trigger = trigger("wf-a");
+        admission.defer(trigger);
+        completeAll();
+
+        // expectation
+        admission.run();
+
+        // validation
+        verify(lanes).dispatch(eq("template-wf-a"), any());
+        verify(orchestrator).onInvoked(any());
+        verify(leases).releaseIfCompleted(any());
+        assertThat(mongoTemplate.findAll(AdmissionTicket.class)).isEmpty();
+    }
+
+    @Test
+    void shouldAdmitOtherWorkflows_whenExecutionIsLeasedElsewhere() throws Exception {
+        // setup
+        properties.setMaxInFlight(1);
+        storeInFlight("wf-x", 1);
+        admission.refresh();
+        admission.defer(trigger("wf-a"));
+        InvocationResponseEvent other = trigger("wf-b");
+        admission.defer(other);
+        completeAll();
+        when(leases.acquire("template-wf-a")).thenReturn(false);
+
+        // expectation
+        admission.run();
+
+        // validation
+        ArgumentCaptor<InvocationResponseEvent> captor = ArgumentCaptor.forClass(InvocationResponseEvent.class);
+        verify(orchestrator, times(1)).onInvoked(captor.capture());
+        assertThat(captor.getValue().getEventId()).isEqualTo(other.getEventId());
+        assertThat(mongoTemplate.findAll(AdmissionTicket.class)).extracting(AdmissionTicket::getWorkflowId)
+                .containsExactly("wf-a");
+    }
+
+    @Test
+    void shouldAdmitNextTicket_whenStartFails() throws Exception {
+        // setup
+        properties.setMaxInFlight(1);
+        storeInFlight("wf-x", 1);
+        admission.refresh();
+        InvocationResponseEvent failing = trigger("wf-a");
+        InvocationResponseEvent next = trigger("wf-a");
+        admission.defer(failing);
+        admission.defer(next);
+        completeAll();
+        doThrow(new IllegalStateException("store down")).when(orchestrator)
+                .onInvoked(argThat(e -> e.getEventId().equals(failing.getEventId())));
+
+        // expectation
+        admission.run();
+
+        // validation
+        verify(orchestrator, times(2)).onInvoked(any());
+        assertThat(mongoTemplate.findAll(AdmissionTicket.class)).extracting(t -> t.getEvent().getEventId())
+                .containsExactly(failing.getEventId());
+    }
+
+    @Test
+    void shouldPutTicketBack_whenStartFails() throws Exception {
+        // setup
+        properties.setMaxInFlight(1);
+        storeInFlight("wf-x", 1);
+        admission.refresh();
+        InvocationResponseEvent trigger = trigger("wf-a");
+        admission.defer(trigger);
+        completeAll();
+        doThrow(new IllegalStateException("store down")).when(orchestrator).onInvoked(any());
+
+        // expectation
+        admission.run();
+
+        // validation
+        verify(orchestrator, times(1)).onInvoked(any());
+        List<AdmissionTicket> tickets = mongoTemplate.findAll(AdmissionTicket.class);
+        assertThat(tickets).hasSize(1);
+        assertThat(tickets.get(0).getEvent().getEventId()).isEqualTo(trigger.getEventId());
+        assertThat(tickets.get(0).getClaimedBy()).isNull();
+        assertThat(tickets.get(0).getClaimedUntil()).isNull();
+    }
+
+    @Test
+    void shouldNotAdmitTicketsClaimedElsewhere_untilTheClaimRunsOut() throws Exception {
+        // setup
+        properties.setMaxInFlight(1);
+        storeInFlight("wf-x", 1);
+        admission.refresh();
+        admission.defer(trigger("wf-a"));
+        completeAll();
+        mongoTemplate.updateMulti(new Query(), new Update()
+                .set("claimedBy", "node-2")
+                .set("claimedUntil", Date.from(NOW.plusSeconds(1))), AdmissionTicket.class);
+
+        // expectation
+        admission.run();
+        AdmissionController later = new AdmissionController(properties, mongoTemplate, orchestrator,
+                workflowRegistry, workflowExecutionRegistry, leases, lanes,
+                Clock.fixed(NOW.plusSeconds(2), ZoneOffset.UTC));
+        later.run();
+
+        // validation
+        verify(orchestrator, times(1)).onInvoked(any());
+        assertThat(mongoTemplate.findAll(AdmissionTicket.class)).isEmpty();
+    }
+
+    @Test
+    void shouldCountDirectStartsInFlight_asFarAsCapsAllow() {
+        // setup
+        properties.setMaxInFlight(3);
+        storeInFlight("wf-x", 1);
+        admission.refresh();
+
+        // expectation
+        int admitted = admission.admit("wf-a", 5);
+        boolean deferred = admission.defer(trigger("wf-b"));
+        admission.cancel("wf-a", 1);
+        boolean deferredAfterCancel = admission.defer(trigger("wf-c"));
+
+        // validation
+        assertThat(admitted).isEqualTo(2);
+        assertThat(deferred).isTrue();
+        assertThat(deferredAfterCancel).isFalse();
+    }
+
+    @Test
+    void shouldNotAdmitDirectStarts_whileTriggersAreWaiting() {
+        // setup
+        properties.setMaxInFlightPerWorkflow(1);
+        admission.defer(trigger("wf-a"));
+        admission.defer(trigger("wf-a"));
+
+        // expectation
+        int admitted = admission.admit("wf-a", 1);
+
+        // validation
+        assertThat(admitted).isZero();
+    }
+
+    @Test
+    void shouldSaturate_whenQueueIsFull() {
+        // setup
+        properties.setMaxInFlight(1);
+        properties.setMaxQueued(2);
+        storeInFlight("wf-x", 1);
+        admission.refresh();
+
+        // expectation
+        admission.defer(trigger("wf-a"));
+        boolean saturatedBefore = admission.isSaturated();
+        admission.defer(trigger("wf-a"));
+
+        // validation
+        assertThat(saturatedBefore).isFalse();
+        assertThat(admission.isSaturated()).isTrue();
+    }
+
+    @Test
+    void shouldAdmitEverything_whenDisabled() {
+        // setup
+        properties.setEnabled(false);
+        properties.setMaxInFlight(1);
+        storeInFlight("wf-x", 1);
+        admission.refresh();
+
+        // expectation
+        boolean deferred = admission.defer(trigger("wf-a"));
+
+        // validation
+        assertThat(deferred).isFalse();
+        assertThat(admission.isSaturated()).isFalse();
+    }
+
+    private InvocationResponseEvent trigger(String workflowId) {
+        return event(workflowId, startNode).build();
+    }
+
+    /**
+     * The invocation response of a node of the listening execution of a
+     * workflow, resolvable through the mocked registries.
+     */
+    private InvocationResponseEvent.Builder event(String workflowId, WorkflowNode node) {
+        String workflowExecutionId = "template-" + workflowId;
+        WorkflowNodeExecution nodeExecution = new WorkflowNodeExecution();
+        nodeExecution.setWorkflowNodeId(node.getWorkflowNodeId());
+        nodeExecution.setWorkflowNodeExecutionId(workflowExecutionId + "-" + node.getWorkflowNodeId());
+        nodeExecution.setWorkflowNode(node);
+        WorkflowExecution template = mock(WorkflowExecution.class);
+        when(template.findNodeByWorkflowNodeExecutionId(nodeExecution.getWorkflowNodeExecutionId()))
+                .thenReturn(nodeExecution);
+        when(workflowExecutionRegistry.getWorkflowExecution(workflowExecutionId)).thenReturn(template);
+        Workflow workflow = mock(Workflow.class);
+        when(workflow.findNode(node.getWorkflowNodeId())).thenReturn(node);
+        when(workflowRegistry.getWorkflow(workflowId)).thenReturn(workflow);
+        return InvocationResponseEvent.builder(this)
+                .origin(OrchestrationEvent.Origin.RUNTIME_ENGINE)
+                .workflowId(workflowId)
+                .workflowExecutionId(workflowExecutionId)
+                .workflowNodeId(node.getWorkflowNodeId())
+                .workflowNodeExecutionId(nodeExecution.getWorkflowNodeExecutionId())
+                .orchestrationEventContext(template, nodeExecution);
+    }
+
+    private WorkflowExecution execution(String workflowId) {
+        WorkflowExecution execution = new WorkflowExecution();
+        execution.setWorkflowExecutionId(workflowId + "-exec-" + (++executions));
+        execution.setWorkflowId(workflowId);
+        execution.setStatus(WorkflowExecutionStatus.IN_PROGRESS);
+        execution.setCreatedDate(NOW);
+        execution.setUpdatedDate(NOW);
+        return execution;
+    }
+
+    private void storeInFlight(String workflowId, int count) {
+        for (int i = 0; i < count; i++) {
+            mongoTemplate.insert(execution(workflowId));
+        }
+    }
+
+    private void completeAll() {
+        mongoTemplate.updateMulti(Query.query(Criteria.where("status").is(WorkflowExecutionStatus.IN_PROGRESS)),
+                new Update().set("status", WorkflowExecutionStatus.SUCCESS), WorkflowExecution.class);
+    }
+}
@@ -0,0 +1,249 @@
+package dev.fusionize.workflow.claimcheck;
+
+import com.mongodb.client.result.UpdateResult;
+import dev.fusionize.storage.StorageConfig;
+import dev.fusionize.storage.StorageConfigManager;
+import dev.fusionize.storage.file.FileStorageServiceLocal;
+import dev.fusionize.workflow.WorkflowExecution;
+import dev.fusionize.workflow.context.Context;
+import dev.fusionize.workflow.context.ContextDelta;
+import dev.fusionize.workflow.context.ContextResourceReference;
+import dev.fusionize.workflow.events.orchestration.InvocationResponseEvent;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ContextClaimCheckTest {
+
+    @TempDir
+    Path directory;
+
+    private MongoTemplate mongoTemplate;
+    private ClaimCheckProperties properties;
+    private ObjectProvider<StorageConfigManager> provider;
+    private final List<ClaimCheck> manifest = new ArrayList<>();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() throws Exception {
+        mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.save(any(ClaimCheck.class))).thenAnswer(invocation -> {
+            ClaimCheck claimCheck = invocation.getArgument(0);
+            claimCheck.setId("claim-" + manifest.size());
+            manifest.add(claimCheck);
+            return claimCheck;
+        });
+        when(mongoTemplate.find(any(Query.class), eq(ClaimCheck.class))).thenAnswer(invocation -> manifest);
+
+        StorageConfig config = new StorageConfig();
+        StorageConfigManager manager = mock(StorageConfigManager.class);
+        when(manager.getConfig("claim-store")).thenReturn(Optional.of(config));
+        when(manager.getFileStorageService(config))
+                .thenReturn(new FileStorageServiceLocal(directory.toString()));
+        provider = mock(ObjectProvider.class);
+        when(provider.getIfAvailable()).thenReturn(manager);
+
+        properties = new ClaimCheckProperties();
+        properties.setEnabled(true);
+        properties.setStorage("claim-store");
+        properties.setThreshold(64);
+    }
+
+    private ContextClaimCheck claimCheck(Instant now) {
+        return new ContextClaimCheck(properties, mongoTemplate, provider, Clock.fixed(now, ZoneOffset.UTC));
+    }
+
+    @Test
+    void shouldOffloadValuesAboveThreshold() throws Exception {
+        // setup
+        ContextClaimCheck claimCheck = claimCheck(Instant.ofEpochMilli(1_000));
+        List<String> rows = List.of("a".repeat(40), "b".repeat(40));
+        Context context = Context.builder()
+                .add("rows", rows)
+                .add("small", "value")
+                .build();
+
+        // expectation
+        claimCheck.offload("exec-1", context);
+
+        // validation
+        assertThat(context.getData()).containsOnlyKeys("small");
+        ContextResourceReference reference = context.getOffloaded().get("rows");
+        assertThat(reference.getStorage()).isEqualTo("claim-store");
+        assertThat(reference.getReferenceKey()).startsWith("claim-check/exec-1/rows-").endsWith(".json.gz");
+        assertThat(manifest).extracting(ClaimCheck::getKey).containsExactly("rows");
+        assertThat(manifest.get(0).getWorkflowExecutionId()).isEqualTo("exec-1");
+        try (Stream<Path> files = Files.walk(directory)) {
+            assertThat(files.filter(Files::isRegularFile).count()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void shouldLoadOffloadedValuesBack() throws Exception {
+        // setup
+        ContextClaimCheck claimCheck = claimCheck(Instant.ofEpochMilli(1_000));
+        Map<String, Object> document = Map.of("body", "x".repeat(100), "count", 3);
+        Context context = Context.builder().add("document", document).build();
+        claimCheck.offload("exec-1", context);
+
+        // expectation
+        Context stored = new Context();
+        stored.setOffloaded(context.getOffloaded());
+        stored.setValueStore(claimCheck);
+
+        // validation
+        assertThat(claimCheck.load(stored.getOffloaded().get("document"), Object.class)).isEqualTo(document);
+        assertThat(stored.var("document", Map.class)).contains(document);
+    }
+
+    @Test
+    void shouldLoadOffloadedValuesBackAsRequestedType() {
+        // setup
+        ContextClaimCheck claimCheck = claimCheck(Instant.ofEpochMilli(1_000));
+        Payload payload = new Payload("x".repeat(100), 3);
+        Context context = Context.builder().add("payload", payload).build();
+        claimCheck.offload("exec-1", context);
+
+        // expectation
+        Context stored = new Context();
+        stored.setOffloaded(context.getOffloaded());
+        stored.setValueStore(claimCheck);
+
+        // validation
+        assertThat(stored.var("payload", Payload.class)).contains(payload);
+    }
+
+    @Test
+    void shouldOffloadResponseOnce() {
+        // setup
+        ContextClaimCheck claimCheck = claimCheck(Instant.ofEpochMilli(1_000));
+        ContextDelta delta = ContextDelta.baseline(new Context())
+                .diff(Context.builder().add("big", "x".repeat(100)).add("small", "value").build(), "v1");
+        InvocationResponseEvent event = InvocationResponseEvent.builder(this)
+                .workflowExecutionId("exec-1")
+                .build();
+        event.setContextDelta(delta);
+
+        // expectation
+        claimCheck.offload(event);
+        claimCheck.offload(event);
+
+        // validation
+        assertThat(delta.getSet()).containsOnlyKeys("small");
+        assertThat(delta.getOffloaded()).containsOnlyKeys("big");
+        assertThat(manifest).hasSize(1);
+    }
+
+    @Test
+    void shouldNotOffloadWhenDisabled() {
+        // setup
+        properties.setEnabled(false);
+        ContextClaimCheck claimCheck = claimCheck(Instant.ofEpochMilli(1_000));
+        Context context = Context.builder().add("big", "x".repeat(100)).build();
+
+        // expectation
+        claimCheck.offload("exec-1", context);
+
+        // validation
+        assertThat(context.getData()).containsKey("big");
+        assertThat(context.getOffloaded()).isEmpty();
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    @Test
+    void shouldRemoveValuesOfCompletedExecutions() throws Exception {
+        // setup
+        properties.setRetainAfterCompletion(Duration.ofHours(1));
+        ContextClaimCheck claimCheck = claimCheck(Instant.ofEpochMilli(0));
+        claimCheck.offload("exec-1", Context.builder().add("big", "x".repeat(100)).build());
+
+        // expectation
+        claimCheck.release("exec-1");
+        int removed = claimCheck(Instant.ofEpochMilli(0).plus(Duration.ofHours(2))).sweep();
+
+        // validation
+        ArgumentCaptor<Query> released = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).updateMulti(released.capture(), any(Update.class), eq(ClaimCheck.class));
+        assertThat(released.getValue().getQueryObject().get("workflowExecutionId")).isEqualTo("exec-1");
+        ArgumentCaptor<Query> swept = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(swept.capture(), eq(ClaimCheck.class));
+        assertThat(swept.getValue().getQueryObject()).containsKey("releasedDate");
+        assertThat(removed).isEqualTo(1);
+        try (Stream<Path> files = Files.walk(directory)) {
+            assertThat(files.filter(Files::isRegularFile).count()).isZero();
+        }
+        verify(mongoTemplate).remove(any(Query.class), eq(ClaimCheck.class));
+    }
+
+    @Test
+    void shouldReleaseOrphanedValuesUnlessExecutionIsRunning() {
+        // setup
+        properties.setOrphanAfter(Duration.ofDays(1));
+        when(mongoTemplate.findDistinct(any(Query.class), eq("workflowExecutionId"), eq(ClaimCheck.class),
+                eq(String.class))).thenReturn(List.of("exec-running", "exec-done"));
+        WorkflowExecution running = new WorkflowExecution();
+        running.setWorkflowExecutionId("exec-running");
+        when(mongoTemplate.find(any(Query.class), eq(WorkflowExecution.class))).thenReturn(List.of(running));
+        when(mongoTemplate.updateMulti(any(Query.class), any(Update.class), eq(ClaimCheck.class)))
+                .thenReturn(UpdateResult.acknowledged(2, 2L, null));
+
+        // expectation
+        long released = claimCheck(Instant.ofEpochMilli(0).plus(Duration.ofDays(2))).releaseOrphans();
+
+        // validation
+        assertThat(released).isEqualTo(2);
+        ArgumentCaptor<Query> executions = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(executions.capture(), eq(WorkflowExecution.class));
+        assertThat(executions.getValue().getQueryObject()).containsKeys("_id", "status");
+        ArgumentCaptor<Query> orphaned = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).updateMulti(orphaned.capture(), any(Update.class), eq(ClaimCheck.class));
+        Document query = orphaned.getValue().getQueryObject();
+        assertThat(query.get("releasedDate")).isNull();
+        assertThat(query).containsKey("createdDate");
+        assertThat((Document) query.get("workflowExecutionId"))
+                .containsEntry("$nin", Set.of("exec-running"));
+    }
+
+    @Test
+    void shouldStopEstimatingPastLimit() {
+        // setup
+        ContextClaimCheck claimCheck = claimCheck(Instant.ofEpochMilli(1_000));
+        List<String> values = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            values.add("value-" + i);
+        }
+
+        // expectation
+        long size = claimCheck.estimateSize(values, 100);
+
+        // validation
+        assertThat(size).isGreaterThan(100).isLessThan(200);
+    }
+
+    record Payload(String body, int count) {
+    }
+}
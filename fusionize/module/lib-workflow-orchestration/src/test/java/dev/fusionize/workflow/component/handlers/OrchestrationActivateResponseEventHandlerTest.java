@@ -3,6 +3,7 @@ package dev.fusionize.workflow.component.handlers;
 import dev.fusionize.workflow.events.Event;
 import dev.fusionize.workflow.events.OrchestrationEvent;
 import dev.fusionize.workflow.events.orchestration.ActivationResponseEvent;
+import dev.fusionize.workflow.lease.ExecutionLeaseManager;
 import dev.fusionize.workflow.orchestrator.Orchestrator;
 import dev.fusionize.workflow.registry.WorkflowExecutionRepoRegistry;
 import dev.fusionize.workflow.registry.WorkflowRepoRegistry;
@@ -29,6 +30,9 @@ class OrchestrationActivateResponseEventHandlerTest {
     @Mock
     private WorkflowExecutionRepoRegistry workflowExecutionRegistry;
 
+    @Mock
+    private ExecutionLeaseManager leases;
+
     @InjectMocks
     private OrchestrationActivateResponseEventHandler handler;
 
@@ -108,6 +112,7 @@ class OrchestrationActivateResponseEventHandlerTest {
         var event = spy(ActivationResponseEvent.builder(this)
                 .origin(OrchestrationEvent.Origin.RUNTIME_ENGINE)
                 .build());
+        when(leases.claim(event)).thenReturn(true);
         doNothing().when(event).ensureOrchestrationEventContext(workflowExecutionRegistry, workflowRegistry);
 
         // expectation
@@ -116,6 +121,25 @@ class OrchestrationActivateResponseEventHandlerTest {
         // validation
         verify(event).ensureOrchestrationEventContext(workflowExecutionRegistry, workflowRegistry);
         verify(orchestrator).onActivated(event);
+        verify(leases).releaseIfCompleted(event);
+    }
+
+    @Test
+    void shouldSkipEvent_whenExecutionIsLeasedElsewhere() throws Exception {
+        // setup
+        var event = spy(ActivationResponseEvent.builder(this)
+                .origin(OrchestrationEvent.Origin.RUNTIME_ENGINE)
+                .workflowExecutionId("exec-1")
+                .build());
+        when(leases.claim(event)).thenReturn(false);
+
+        // expectation
+        Event result = handler.handle(event);
+
+        // validation
+        assertThat(result).isNull();
+        verify(event, never()).ensureOrchestrationEventContext(workflowExecutionRegistry, workflowRegistry);
+        verifyNoInteractions(orchestrator);
     }
 
     @Test
@@ -124,6 +148,7 @@ class OrchestrationActivateResponseEventHandlerTest {
         var event = spy(ActivationResponseEvent.builder(this)
                 .origin(OrchestrationEvent.Origin.RUNTIME_ENGINE)
                 .build());
+        when(leases.claim(event)).thenReturn(true);
         doNothing().when(event).ensureOrchestrationEventContext(workflowExecutionRegistry, workflowRegistry);
 
         // expectation
@@ -1,8 +1,10 @@
 package dev.fusionize.workflow.component.handlers;
 
+import dev.fusionize.workflow.admission.AdmissionController;
 import dev.fusionize.workflow.events.Event;
 import dev.fusionize.workflow.events.OrchestrationEvent;
 import dev.fusionize.workflow.events.orchestration.InvocationResponseEvent;
+import dev.fusionize.workflow.lease.ExecutionLeaseManager;
 import dev.fusionize.workflow.orchestrator.Orchestrator;
 import dev.fusionize.workflow.registry.WorkflowExecutionRepoRegistry;
 import dev.fusionize.workflow.registry.WorkflowRepoRegistry;
@@ -29,6 +31,12 @@ class OrchestrationInvocationResponseEventHandlerTest {
     @Mock
     private WorkflowExecutionRepoRegistry workflowExecutionRegistry;
 
+    @Mock
+    private ExecutionLeaseManager leases;
+
+    @Mock
+    private AdmissionController admission;
+
     @InjectMocks
     private OrchestrationInvocationResponseEventHandler handler;
 
@@ -108,6 +116,7 @@ class OrchestrationInvocationResponseEventHandlerTest {
         var event = spy(InvocationResponseEvent.builder(this)
                 .origin(OrchestrationEvent.Origin.RUNTIME_ENGINE)
                 .build());
+        when(leases.claim(event)).thenReturn(true);
         doNothing().when(event).ensureOrchestrationEventContext(workflowExecutionRegistry, workflowRegistry);
 
         // expectation
@@ -116,6 +125,45 @@ class OrchestrationInvocationResponseEventHandlerTest {
         // validation
         verify(event).ensureOrchestrationEventContext(workflowExecutionRegistry, workflowRegistry);
         verify(orchestrator).onInvoked(event);
+        verify(leases).releaseIfCompleted(event);
+    }
+
+    @Test
+    void shouldSkipEvent_whenExecutionIsLeasedElsewhere() throws Exception {
+        // setup
+        var event = spy(InvocationResponseEvent.builder(this)
+                .origin(OrchestrationEvent.Origin.RUNTIME_ENGINE)
+                .workflowExecutionId("exec-1")
+                .build());
+        when(leases.claim(event)).thenReturn(false);
+
+        // expectation
+        Event result = handler.handle(event);
+
+        // validation
+        assertThat(result).isNull();
+        verify(event, never()).ensureOrchestrationEventContext(workflowExecutionRegistry, workflowRegistry);
+        verifyNoInteractions(orchestrator);
+    }
+
+    @Test
+    void shouldNotInvoke_whenTriggerIsDeferred() throws Exception {
+        // setup
+        var event = spy(InvocationResponseEvent.builder(this)
+                .origin(OrchestrationEvent.Origin.RUNTIME_ENGINE)
+                .workflowExecutionId("exec-1")
+                .build());
+        when(leases.claim(event)).thenReturn(true);
+        doNothing().when(event).ensureOrchestrationEventContext(workflowExecutionRegistry, workflowRegistry);
+        when(admission.defer(event)).thenReturn(true);
+
+        // expectation
+        Event result = handler.handle(event);
+
+        // validation
+        assertThat(result).isNull();
+        verifyNoInteractions(orchestrator);
+        verify(leases, never()).releaseIfCompleted(event);
     }
 
     @Test
@@ -124,6 +172,7 @@ class OrchestrationInvocationResponseEventHandlerTest {
         var event = spy(InvocationResponseEvent.builder(this)
                 .origin(OrchestrationEvent.Origin.RUNTIME_ENGINE)
                 .build());
+        when(leases.claim(event)).thenReturn(true);
         doNothing().when(event).ensureOrchestrationEventContext(workflowExecutionRegistry, workflowRegistry);
 
         // expectation
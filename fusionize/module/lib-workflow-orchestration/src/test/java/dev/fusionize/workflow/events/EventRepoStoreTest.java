@@ -1,16 +1,20 @@
 package dev.fusionize.workflow.events;
 
 import dev.fusionize.workflow.events.repo.EventRepository;
+import dev.fusionize.workflow.retention.RetainedCollection;
+import dev.fusionize.workflow.retention.WorkflowArchive;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -20,6 +24,9 @@ class EventRepoStoreTest {
     @Mock
     private EventRepository eventRepository;
 
+    @Mock
+    private WorkflowArchive archive;
+
     @InjectMocks
     private EventRepoStore eventRepoStore;
 
@@ -37,6 +44,30 @@ class EventRepoStoreTest {
         verify(eventRepository).save(event);
     }
 
+    @Test
+    void shouldSaveEventsInOneCall() {
+        // setup
+        List<Event> events = List.of(new TestEvent(), new TestEvent());
+
+        // expectation
+        eventRepoStore.saveAll(events);
+
+        // validation
+        verify(eventRepository).saveAll(events);
+    }
+
+    @Test
+    void shouldThrow_whenSaveAllThrowsException() {
+        // setup
+        List<Event> events = List.of(new TestEvent());
+
+        // expectation
+        when(eventRepository.saveAll(events)).thenThrow(new RuntimeException("save failed"));
+
+        // validation
+        assertThatThrownBy(() -> eventRepoStore.saveAll(events)).hasMessage("save failed");
+    }
+
     @Test
     void shouldNotThrow_whenSaveThrowsException() {
         // setup
@@ -129,4 +160,35 @@ class EventRepoStoreTest {
         var result = eventRepoStore.findByCorrelationId(correlationId);
         assertThat(result).isEmpty();
     }
+
+    @Test
+    void shouldMergeArchivedEventsOfExecution() {
+        // setup
+        var archived = new TestEvent();
+        archived.setGeneratedDate(new Date(1_000));
+        var live = new TestEvent();
+        live.setGeneratedDate(new Date(2_000));
+        when(eventRepository.findByWorkflowExecutionId("exec-1")).thenReturn(List.of(live));
+        when(archive.read(RetainedCollection.EVENT, "exec-1", Event.class)).thenReturn(List.of(archived));
+
+        // expectation
+        List<Event> events = eventRepoStore.findByWorkflowExecutionId("exec-1");
+
+        // validation
+        assertThat(events).containsExactly(archived, live);
+    }
+
+    @Test
+    void shouldReturnLiveEventsOfExecution_whenNothingIsArchived() {
+        // setup
+        var live = new TestEvent();
+        when(eventRepository.findByWorkflowExecutionId("exec-1")).thenReturn(List.of(live));
+        when(archive.read(RetainedCollection.EVENT, "exec-1", Event.class)).thenReturn(List.of());
+
+        // expectation
+        List<Event> events = eventRepoStore.findByWorkflowExecutionId("exec-1");
+
+        // validation
+        assertThat(events).containsExactly(live);
+    }
 }
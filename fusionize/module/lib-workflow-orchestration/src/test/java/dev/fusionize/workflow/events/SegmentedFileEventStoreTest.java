@@ -0,0 +1,255 @@
+package dev.fusionize.workflow.events;
+
+import dev.fusionize.workflow.events.orchestration.ActivationRequestEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SegmentedFileEventStoreTest {
+
+    @TempDir
+    Path directory;
+
+    private EventStoreProperties properties;
+    private MutableClock clock;
+    private SegmentedFileEventStore store;
+
+    @BeforeEach
+    void setUp() {
+        properties = new EventStoreProperties();
+        properties.setMode("segment");
+        properties.getSegment().setDirectory(directory.toString());
+        // maintenance is triggered explicitly
+        properties.getSegment().setMaintenanceInterval(Duration.ofHours(1));
+        clock = new MutableClock();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (store != null) {
+            store.destroy();
+        }
+    }
+
+    @Test
+    void shouldFindEventsByIdCorrelationAndCausation() throws Exception {
+        // setup
+        store = new SegmentedFileEventStore(properties, clock);
+        ActivationRequestEvent first = event("corr-1", null);
+        ActivationRequestEvent second = event("corr-1", first.getEventId());
+
+        // expectation
+        store.save(first);
+        store.save(second);
+
+        // validation
+        Event found = store.findByEventId(first.getEventId()).orElseThrow();
+        assertThat(found).isInstanceOf(ActivationRequestEvent.class);
+        assertThat(((ActivationRequestEvent) found).getWorkflowExecutionId()).isEqualTo("exec-1");
+        assertThat(store.findByCorrelationId("corr-1")).extracting(Event::getEventId)
+                .containsExactly(first.getEventId(), second.getEventId());
+        assertThat(store.findByCausationId(first.getEventId())).extracting(Event::getEventId)
+                .containsExactly(second.getEventId());
+        assertThat(store.findByEventId("missing")).isEmpty();
+    }
+
+    @Test
+    void shouldReturnLatestVersionOfResavedEvent() throws Exception {
+        // setup
+        store = new SegmentedFileEventStore(properties, clock);
+        ActivationRequestEvent event = event("corr-1", null);
+        store.save(event);
+
+        // expectation
+        event.setProcessedDate(new Date());
+        store.save(event);
+
+        // validation
+        assertThat(store.findByEventId(event.getEventId()).orElseThrow().getProcessedDate()).isNotNull();
+        assertThat(store.findByCorrelationId("corr-1")).hasSize(1);
+    }
+
+    @Test
+    void shouldReadActiveSegmentBetweenAppends() throws Exception {
+        // setup
+        store = new SegmentedFileEventStore(properties, clock);
+        ActivationRequestEvent first = event("corr-1", null);
+        store.save(first);
+        assertThat(store.findByEventId(first.getEventId())).isPresent();
+
+        // expectation
+        for (int i = 0; i < 50; i++) {
+            ActivationRequestEvent next = event("corr-1", null);
+            store.save(next);
+            assertThat(store.findByEventId(next.getEventId())).isPresent();
+        }
+
+        // validation
+        assertThat(store.getSegmentCount()).isEqualTo(1);
+        assertThat(store.findByEventId(first.getEventId())).isPresent();
+        assertThat(store.findByCorrelationId("corr-1")).hasSize(51);
+        assertThat(Files.size(segmentFiles().get(0))).isEqualTo(store.getSizeBytes());
+    }
+
+    @Test
+    void shouldRecoverIndexAndTruncateTornTail() throws Exception {
+        // setup
+        store = new SegmentedFileEventStore(properties, clock);
+        ActivationRequestEvent event = event("corr-1", null);
+        store.save(event);
+        store.destroy();
+        Path segment = segmentFiles().get(0);
+        long intactSize = Files.size(segment);
+        Files.write(segment, new byte[]{0, 0, 1, 0, 42}, StandardOpenOption.APPEND);
+
+        // expectation
+        store = new SegmentedFileEventStore(properties, clock);
+
+        // validation
+        assertThat(store.findByEventId(event.getEventId())).isPresent();
+        assertThat(store.findByCorrelationId("corr-1")).hasSize(1);
+        assertThat(Files.size(segment)).isEqualTo(intactSize);
+    }
+
+    @Test
+    void shouldRollSegmentsBySize() throws Exception {
+        // setup
+        properties.getSegment().setSegmentSize(DataSize.ofBytes(1));
+        store = new SegmentedFileEventStore(properties, clock);
+
+        // expectation
+        for (int i = 0; i < 5; i++) {
+            store.save(event("corr-1", null));
+        }
+
+        // validation
+        assertThat(store.getSegmentCount()).isGreaterThan(1);
+        assertThat(segmentFiles()).hasSize(store.getSegmentCount());
+        assertThat(store.findByCorrelationId("corr-1")).hasSize(5);
+    }
+
+    @Test
+    void shouldRetireSegmentsPastRetention() throws Exception {
+        // setup
+        properties.getSegment().setSegmentSize(DataSize.ofBytes(1));
+        properties.getSegment().setRetention(Duration.ofHours(1));
+        store = new SegmentedFileEventStore(properties, clock);
+        ActivationRequestEvent old = event("corr-old", null);
+        store.save(old);
+        clock.advance(Duration.ofHours(2));
+        ActivationRequestEvent recent = event("corr-new", null);
+        store.save(recent);
+
+        // expectation
+        store.maintain();
+
+        // validation
+        assertThat(store.getRetired()).isEqualTo(1);
+        assertThat(store.findByEventId(old.getEventId())).isEmpty();
+        assertThat(store.findByCorrelationId("corr-old")).isEmpty();
+        assertThat(store.findByEventId(recent.getEventId())).isPresent();
+    }
+
+    @Test
+    void shouldCompactSupersededRecords() throws Exception {
+        // setup
+        store = new SegmentedFileEventStore(properties, clock);
+        ActivationRequestEvent kept = event("corr-1", null);
+        ActivationRequestEvent resaved = event("corr-1", null);
+        store.save(kept);
+        for (int i = 0; i < 4; i++) {
+            store.save(resaved);
+        }
+        // seal the first segment, then supersede all copies of the resaved event
+        store.destroy();
+        store = new SegmentedFileEventStore(properties, clock);
+        resaved.setProcessedDate(new Date());
+        store.save(resaved);
+        long sizeBefore = Files.size(segmentFiles().get(0));
+
+        // expectation
+        store.maintain();
+
+        // validation
+        assertThat(store.getCompacted()).isEqualTo(1);
+        assertThat(Files.size(segmentFiles().get(0))).isLessThan(sizeBefore);
+        assertThat(store.findByEventId(kept.getEventId())).isPresent();
+        assertThat(store.findByEventId(resaved.getEventId()).orElseThrow().getProcessedDate()).isNotNull();
+        assertThat(store.findByCorrelationId("corr-1")).hasSize(2);
+    }
+
+    @Test
+    void shouldSealRecoveredSegments() throws Exception {
+        // setup
+        store = new SegmentedFileEventStore(properties, clock);
+        store.save(event("corr-1", null));
+        store.destroy();
+
+        // expectation
+        store = new SegmentedFileEventStore(properties, clock);
+        store.save(event("corr-1", null));
+
+        // validation
+        assertThat(segmentFiles()).hasSize(2);
+        assertThat(store.findByCorrelationId("corr-1")).hasSize(2);
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(p -> p.toString().endsWith(".log")).sorted().toList();
+        }
+    }
+
+    private ActivationRequestEvent event(String correlationId, String causationId) {
+        return ActivationRequestEvent.builder(this)
+                .origin(OrchestrationEvent.Origin.ORCHESTRATOR)
+                .correlationId(correlationId)
+                .causationId(causationId)
+                .workflowExecutionId("exec-1")
+                .workflowId("wf-1")
+                .workflowNodeId("node-1")
+                .workflowNodeExecutionId("node-exec-1")
+                .component("noop")
+                .build();
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant instant = Instant.parse("2025-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
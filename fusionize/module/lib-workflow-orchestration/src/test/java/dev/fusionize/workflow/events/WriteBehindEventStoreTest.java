@@ -0,0 +1,230 @@
+package dev.fusionize.workflow.events;
+
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.*;
+
+class WriteBehindEventStoreTest {
+
+    private EventRepoStore delegate;
+    private MongoTemplate mongoTemplate;
+    private BulkOperations bulkOperations;
+    private EventStoreProperties properties;
+    private WriteBehindEventStore store;
+
+    static class TestEvent extends Event {
+        TestEvent(String eventId) {
+            setEventId(eventId);
+            setEventClass(TestEvent.class.getCanonicalName());
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        delegate = mock(EventRepoStore.class);
+        mongoTemplate = mock(MongoTemplate.class);
+        bulkOperations = mock(BulkOperations.class);
+        when(mongoTemplate.getConverter()).thenReturn(mock(MongoConverter.class));
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Event.class)).thenReturn(bulkOperations);
+        properties = new EventStoreProperties();
+        properties.setMode("write-behind");
+        // keep the background writer idle so tests flush explicitly
+        properties.setFlushInterval(Duration.ofHours(1));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (store != null) {
+            store.destroy();
+        }
+    }
+
+    @Test
+    void shouldBufferAndWriteInOneBulk() {
+        // setup
+        store = new WriteBehindEventStore(properties, delegate, mongoTemplate);
+
+        // expectation
+        store.save(new TestEvent("e1"));
+        store.save(new TestEvent("e2"));
+        assertThat(store.getBufferSize()).isEqualTo(2);
+        store.flush();
+
+        // validation
+        verify(bulkOperations, times(2)).replaceOne(any(Query.class), any(Object.class), any(FindAndReplaceOptions.class));
+        verify(bulkOperations).execute();
+        verify(delegate, never()).save(any());
+        assertThat(store.getWritten()).isEqualTo(2);
+        assertThat(store.getBufferSize()).isZero();
+    }
+
+    @Test
+    void shouldCoalesceRepeatedSavesOfBufferedEvent() {
+        // setup
+        store = new WriteBehindEventStore(properties, delegate, mongoTemplate);
+        TestEvent published = new TestEvent("e1");
+        TestEvent processed = new TestEvent("e1");
+
+        // expectation
+        store.save(published);
+        store.save(processed);
+
+        // validation
+        assertThat(store.getBufferSize()).isEqualTo(1);
+        assertThat(store.getCoalesced()).isEqualTo(1);
+        assertThat(store.findByEventId("e1")).containsSame(processed);
+        store.flush();
+        assertThat(store.getWritten()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldDropOldest_whenFull() {
+        // setup
+        properties.setCapacity(2);
+        properties.setOverflowPolicy(EventStoreProperties.OverflowPolicy.DROP_OLDEST);
+        store = new WriteBehindEventStore(properties, delegate, mongoTemplate);
+        when(delegate.findByEventId("e1")).thenReturn(Optional.empty());
+
+        // expectation
+        store.save(new TestEvent("e1"));
+        store.save(new TestEvent("e2"));
+        store.save(new TestEvent("e3"));
+
+        // validation
+        assertThat(store.getDropped()).isEqualTo(1);
+        assertThat(store.getBufferSize()).isEqualTo(2);
+        assertThat(store.findByEventId("e1")).isEmpty();
+        assertThat(store.findByEventId("e3")).isPresent();
+    }
+
+    @Test
+    void shouldSampleConfiguredEventClasses() {
+        // setup
+        properties.setSampling(Map.of(TestEvent.class.getCanonicalName(), 0.0));
+        store = new WriteBehindEventStore(properties, delegate, mongoTemplate);
+
+        // expectation
+        store.save(new TestEvent("e1"));
+
+        // validation
+        assertThat(store.getSampledOut()).isEqualTo(1);
+        assertThat(store.getBufferSize()).isZero();
+    }
+
+    @Test
+    void shouldMergeBufferedEventsIntoLookups() {
+        // setup
+        store = new WriteBehindEventStore(properties, delegate, mongoTemplate);
+        TestEvent stored = new TestEvent("e1");
+        stored.setCorrelationId("c1");
+        TestEvent buffered = new TestEvent("e2");
+        buffered.setCorrelationId("c1");
+        when(delegate.findByCorrelationId("c1")).thenReturn(List.of(stored));
+
+        // expectation
+        store.save(buffered);
+
+        // validation
+        assertThat(store.findByCorrelationId("c1")).containsExactly(stored, buffered);
+    }
+
+    @Test
+    void shouldCountFailedWrites() {
+        // setup
+        store = new WriteBehindEventStore(properties, delegate, mongoTemplate);
+        when(bulkOperations.execute()).thenThrow(new RuntimeException("mongo down"));
+
+        // expectation
+        store.save(new TestEvent("e1"));
+        store.flush();
+
+        // validation
+        assertThat(store.getFailed()).isEqualTo(1);
+        assertThat(store.getWritten()).isZero();
+    }
+
+    @Test
+    void shouldRetryFailedBatchAfterBackoff() throws Exception {
+        // setup
+        properties.setRetryBackoff(Duration.ofMillis(20));
+        store = new WriteBehindEventStore(properties, delegate, mongoTemplate);
+        when(bulkOperations.execute()).thenThrow(new RuntimeException("mongo down")).thenReturn(null);
+        TestEvent saved = new TestEvent("e1");
+        TestEvent savedAgain = new TestEvent("e1");
+
+        // expectation
+        store.save(saved);
+        store.flush();
+        store.save(savedAgain);
+        int beforeBackoff = store.flush();
+        Thread.sleep(50);
+        int afterBackoff = store.flush();
+
+        // validation
+        assertThat(beforeBackoff).isZero();
+        assertThat(afterBackoff).isEqualTo(1);
+        assertThat(store.getFailed()).isEqualTo(1);
+        assertThat(store.getWritten()).isEqualTo(1);
+        // the failed write is retried with the state saved since
+        assertThat(store.findByEventId("e1")).isEmpty();
+        verify(mongoTemplate.getConverter(), times(1)).write(same(savedAgain), any(Document.class));
+    }
+
+    @Test
+    void shouldWriteSaveAllBeforeReturning() {
+        // setup
+        store = new WriteBehindEventStore(properties, delegate, mongoTemplate);
+        TestEvent buffered = new TestEvent("e1");
+        TestEvent published = new TestEvent("e1");
+        when(delegate.findByEventId("e1")).thenReturn(Optional.of(published));
+
+        // expectation
+        store.save(buffered);
+        store.saveAll(List.of(published, new TestEvent("e2")));
+
+        // validation
+        verify(bulkOperations, times(2)).replaceOne(any(Query.class), any(Object.class), any(FindAndReplaceOptions.class));
+        verify(bulkOperations).execute();
+        assertThat(store.getWritten()).isEqualTo(2);
+        // the superseded buffered write is not written after it
+        assertThat(store.findByEventId("e1")).containsSame(published);
+        assertThat(store.flush()).isEqualTo(1);
+        verify(bulkOperations).execute();
+    }
+
+    @Test
+    void shouldFailSaveAll_whenWriteFails() {
+        // setup
+        store = new WriteBehindEventStore(properties, delegate, mongoTemplate);
+        when(bulkOperations.execute()).thenThrow(new RuntimeException("mongo down"));
+
+        // expectation & validation
+        assertThatThrownBy(() -> store.saveAll(List.of(new TestEvent("e1"))))
+                .hasMessage("mongo down");
+        assertThat(store.getFailed()).isEqualTo(1);
+    }
+
+    @Test
+    void keep_ShouldBeStablePerEventId() {
+        assertThat(WriteBehindEventStore.keep("e1", 1.0)).isTrue();
+        assertThat(WriteBehindEventStore.keep("e1", 0.0)).isFalse();
+        assertThat(WriteBehindEventStore.keep("e1", 0.5)).isEqualTo(WriteBehindEventStore.keep("e1", 0.5));
+    }
+}
@@ -0,0 +1,365 @@
+package dev.fusionize.workflow.lease;
+
+import dev.fusionize.common.test.TestMongoConfig;
+import dev.fusionize.common.test.TestMongoConversionConfig;
+import dev.fusionize.workflow.WorkflowExecution;
+import dev.fusionize.workflow.WorkflowExecutionStatus;
+import dev.fusionize.workflow.events.Event;
+import dev.fusionize.workflow.events.EventPublisher;
+import dev.fusionize.workflow.events.OrchestrationEvent;
+import dev.fusionize.workflow.events.orchestration.InvocationResponseEvent;
+import dev.fusionize.workflow.registry.WorkflowExecutionCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@DataMongoTest()
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = { TestMongoConfig.class, TestMongoConversionConfig.class})
+@ActiveProfiles("ut")
+class ExecutionLeaseManagerTest {
+
+    @Autowired
+    MongoTemplate mongoTemplate;
+
+    MutableClock clock;
+    Deque<OrchestrationEvent> queue;
+    Map<String, WorkflowExecutionCache> caches;
+    ExecutionLeaseManager nodeA;
+    ExecutionLeaseManager nodeB;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate.remove(new Query(), ExecutionLease.class);
+        mongoTemplate.remove(new Query(), ParkedEvent.class);
+        clock = new MutableClock(Instant.parse("2026-01-01T00:00:00Z"));
+        queue = new ArrayDeque<>();
+        caches = new LinkedHashMap<>();
+        nodeA = node("node-a");
+        nodeB = node("node-b");
+    }
+
+    @Test
+    void shouldRefuseLeaseHeldByAnotherNode() {
+        // expectation
+        boolean acquiredByA = nodeA.acquire("exec-1");
+        boolean acquiredByB = nodeB.acquire("exec-1");
+        boolean otherByB = nodeB.acquire("exec-2");
+
+        // validation
+        assertThat(acquiredByA).isTrue();
+        assertThat(acquiredByB).isFalse();
+        assertThat(otherByB).isTrue();
+        assertThat(mongoTemplate.findById("exec-1", ExecutionLease.class).getOwner()).isEqualTo("node-a");
+    }
+
+    @Test
+    void shouldTakeOverExpiredLease() {
+        // setup
+        nodeA.acquire("exec-1");
+        clock.advance(Duration.ofSeconds(31));
+
+        // expectation
+        boolean takenOver = nodeB.acquire("exec-1");
+        nodeA.heartbeat();
+
+        // validation
+        assertThat(takenOver).isTrue();
+        assertThat(nodeA.owns("exec-1")).isFalse();
+        assertThat(nodeA.acquire("exec-1")).isFalse();
+        assertThat(mongoTemplate.findById("exec-1", ExecutionLease.class).getOwner()).isEqualTo("node-b");
+    }
+
+    @Test
+    void shouldKeepLeaseRenewedByHeartbeat_whileExecutionIsActive() {
+        // setup
+        nodeA.acquire("exec-1");
+
+        // expectation
+        for (int i = 0; i < 6; i++) {
+            clock.advance(Duration.ofSeconds(10));
+            nodeA.heartbeat();
+            if (i % 2 == 0) {
+                nodeA.acquire("exec-1");
+            }
+        }
+
+        // validation
+        assertThat(nodeB.acquire("exec-1")).isFalse();
+        assertThat(nodeA.owns("exec-1")).isTrue();
+    }
+
+    @Test
+    void shouldLetLeaseOfIdleExecutionExpire() {
+        // setup
+        nodeA.acquire("exec-1");
+
+        // expectation
+        for (int i = 0; i < 7; i++) {
+            clock.advance(Duration.ofSeconds(10));
+            nodeA.heartbeat();
+        }
+
+        // validation
+        assertThat(nodeA.owns("exec-1")).isFalse();
+        assertThat(nodeB.acquire("exec-1")).isTrue();
+        assertThat(mongoTemplate.findById("exec-1", ExecutionLease.class).getOwner()).isEqualTo("node-b");
+    }
+
+    @Test
+    void shouldRequeueEventOfExecutionLeasedElsewhere() {
+        // setup
+        nodeA.acquire("exec-1");
+        InvocationResponseEvent event = response("exec-1", "node-exec-1");
+
+        // expectation
+        boolean claimed = nodeB.claim(event);
+
+        // validation
+        assertThat(claimed).isFalse();
+        assertThat(queue).hasSize(1);
+        OrchestrationEvent requeued = queue.poll();
+        assertThat(requeued).isInstanceOf(InvocationResponseEvent.class);
+        assertThat(requeued.getEventId()).isNotEqualTo(event.getEventId());
+        assertThat(requeued.getWorkflowExecutionId()).isEqualTo("exec-1");
+        assertThat(requeued.getWorkflowNodeExecutionId()).isEqualTo("node-exec-1");
+        assertThat(requeued.getOrigin()).isEqualTo(OrchestrationEvent.Origin.RUNTIME_ENGINE);
+        assertThat(requeued.getProcessedDate()).isNull();
+    }
+
+    @Test
+    void shouldParkEvent_whenRequeuedTooOften() {
+        // setup
+        nodeA.acquire("exec-1");
+        InvocationResponseEvent event = response("exec-1", "node-exec-1");
+        event.setRequeues(new ExecutionLeaseProperties().getMaxRequeues() - 1);
+
+        // expectation
+        boolean claimed = nodeB.claim(event);
+        OrchestrationEvent requeued = queue.poll();
+        boolean claimedAgain = nodeB.claim(requeued);
+
+        // validation
+        assertThat(claimed).isFalse();
+        assertThat(requeued.getRequeues()).isEqualTo(event.getRequeues() + 1);
+        assertThat(claimedAgain).isFalse();
+        assertThat(queue).isEmpty();
+        List<ParkedEvent> parked = nodeB.parked("exec-1");
+        assertThat(parked).hasSize(1);
+        assertThat(parked.get(0).getEventId()).isEqualTo(requeued.getEventId());
+        assertThat(parked.get(0).getLeasedTo()).isEqualTo("node-a");
+        assertThat(parked.get(0).getEvent().getWorkflowNodeExecutionId()).isEqualTo("node-exec-1");
+    }
+
+    @Test
+    void shouldReplayParkedEvent() {
+        // setup
+        nodeA.acquire("exec-1");
+        InvocationResponseEvent event = response("exec-1", "node-exec-1");
+        event.setRequeues(new ExecutionLeaseProperties().getMaxRequeues());
+        nodeB.claim(event);
+
+        // expectation
+        boolean replayed = nodeA.replayParked(event.getEventId());
+
+        // validation
+        assertThat(replayed).isTrue();
+        assertThat(nodeA.replayParked(event.getEventId())).isFalse();
+        assertThat(nodeA.parked(null)).isEmpty();
+        OrchestrationEvent republished = queue.poll();
+        assertThat(republished).isInstanceOf(InvocationResponseEvent.class);
+        assertThat(republished.getEventId()).isNotEqualTo(event.getEventId());
+        assertThat(republished.getRequeues()).isZero();
+        assertThat(nodeA.claim(republished)).isTrue();
+    }
+
+    @Test
+    void shouldDropCachedExecution_whenLeaseIsLostOrLeftToExpire() {
+        // setup
+        nodeA.acquire("exec-1");
+        nodeA.acquire("exec-2");
+        WorkflowExecutionCache cache = caches.get("node-a");
+        clearInvocations(cache);
+
+        // expectation
+        mongoTemplate.remove(Query.query(Criteria.where("_id").is("exec-1")), ExecutionLease.class);
+        nodeB.acquire("exec-1");
+        nodeA.heartbeat();
+        verify(cache, never()).invalidate("exec-2");
+        for (int i = 0; i < 7; i++) {
+            clock.advance(Duration.ofSeconds(10));
+            nodeA.heartbeat();
+        }
+
+        // validation
+        verify(cache).invalidate("exec-1");
+        verify(cache).invalidate("exec-2");
+        assertThat(nodeA.owns("exec-2")).isFalse();
+    }
+
+    @Test
+    void shouldReleaseLease_whenExecutionCompleted() {
+        // setup
+        InvocationResponseEvent event = response("exec-1", "node-exec-1");
+        nodeA.claim(event);
+        WorkflowExecution execution = new WorkflowExecution();
+        execution.setWorkflowExecutionId("exec-1");
+        execution.setStatus(WorkflowExecutionStatus.SUCCESS);
+        event.setOrchestrationEventContext(new OrchestrationEvent.EventContext(execution, null));
+
+        // expectation
+        nodeA.releaseIfCompleted(event);
+
+        // validation
+        assertThat(nodeA.owns("exec-1")).isFalse();
+        assertThat(mongoTemplate.findById("exec-1", ExecutionLease.class)).isNull();
+        assertThat(nodeB.acquire("exec-1")).isTrue();
+    }
+
+    @Test
+    void shouldAllowEverything_whenDisabled() {
+        // setup
+        ExecutionLeaseProperties properties = new ExecutionLeaseProperties();
+        ExecutionLeaseManager disabled = new ExecutionLeaseManager(properties, mongoTemplate, publisher(),
+                mock(WorkflowExecutionCache.class), clock);
+        nodeA.acquire("exec-1");
+
+        // expectation
+        boolean claimed = disabled.claim(response("exec-1", "node-exec-1"));
+
+        // validation
+        assertThat(claimed).isTrue();
+        assertThat(queue).isEmpty();
+    }
+
+    @Test
+    void shouldFailOverWithoutLostOrDuplicatedTransitions() {
+        // setup
+        int executions = 4;
+        int transitions = 15;
+        for (int t = 0; t < transitions; t++) {
+            for (int e = 0; e < executions; e++) {
+                queue.add(response("exec-" + e, "node-exec-" + t));
+            }
+        }
+        Map<String, List<String>> appliedBy = new LinkedHashMap<>();
+        List<String> ownerViolations = new ArrayList<>();
+        // node-a stalls without releasing its leases and comes back once node-b took over
+        int stallFrom = 10;
+        int stallUntil = 40;
+
+        // expectation
+        int step = 0;
+        while (!queue.isEmpty() && step < 2000) {
+            boolean aRunning = step < stallFrom || step >= stallUntil;
+            List<ExecutionLeaseManager> running = aRunning ? List.of(nodeA, nodeB) : List.of(nodeB);
+            if (step % 5 == 0) {
+                running.forEach(ExecutionLeaseManager::heartbeat);
+            }
+            ExecutionLeaseManager node = running.get(step % running.size());
+            OrchestrationEvent event = queue.poll();
+            if (node.claim(event)) {
+                ExecutionLease lease = mongoTemplate.findById(event.getWorkflowExecutionId(), ExecutionLease.class);
+                if (lease == null || !node.getOwner().equals(lease.getOwner())) {
+                    ownerViolations.add(event.getWorkflowNodeExecutionId() + "@" + node.getOwner());
+                }
+                appliedBy.computeIfAbsent(event.getWorkflowExecutionId() + "/" + event.getWorkflowNodeExecutionId(),
+                        k -> new ArrayList<>()).add(node.getOwner());
+            }
+            clock.advance(Duration.ofSeconds(2));
+            step++;
+        }
+
+        // validation
+        assertThat(queue).isEmpty();
+        assertThat(ownerViolations).isEmpty();
+        assertThat(appliedBy).hasSize(executions * transitions);
+        assertThat(appliedBy.values()).allSatisfy(nodes -> assertThat(nodes).hasSize(1));
+        // executions started on node-a were continued by node-b
+        assertThat(appliedBy.get("exec-0/node-exec-0")).containsExactly("node-a");
+        assertThat(appliedBy.get("exec-0/node-exec-" + (transitions - 1))).containsExactly("node-b");
+        assertThat(nodeA.owns("exec-0")).isFalse();
+    }
+
+    private ExecutionLeaseManager node(String owner) {
+        ExecutionLeaseProperties properties = new ExecutionLeaseProperties();
+        properties.setEnabled(true);
+        properties.setOwner(owner);
+        properties.setDuration(Duration.ofSeconds(30));
+        properties.setHeartbeat(Duration.ofSeconds(10));
+        WorkflowExecutionCache cache = mock(WorkflowExecutionCache.class);
+        caches.put(owner, cache);
+        return new ExecutionLeaseManager(properties, mongoTemplate, publisher(), cache, clock);
+    }
+
+    private EventPublisher<Event> publisher() {
+        return new EventPublisher<>(null) {
+            @Override
+            public void publish(Event event) {
+                queue.add((OrchestrationEvent) event);
+            }
+        };
+    }
+
+    private InvocationResponseEvent response(String workflowExecutionId, String workflowNodeExecutionId) {
+        return InvocationResponseEvent.builder(this)
+                .origin(OrchestrationEvent.Origin.RUNTIME_ENGINE)
+                .workflowId("wf-1")
+                .workflowExecutionId(workflowExecutionId)
+                .workflowNodeExecutionId(workflowNodeExecutionId)
+                .build();
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant instant;
+
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
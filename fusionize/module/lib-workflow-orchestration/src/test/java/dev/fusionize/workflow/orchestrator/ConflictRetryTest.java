@@ -0,0 +1,259 @@
+package dev.fusionize.workflow.orchestrator;
+
+import dev.fusionize.common.test.TestMongoConfig;
+import dev.fusionize.common.test.TestMongoConversionConfig;
+import dev.fusionize.workflow.Workflow;
+import dev.fusionize.workflow.WorkflowExecution;
+import dev.fusionize.workflow.WorkflowExecutionStatus;
+import dev.fusionize.workflow.WorkflowNode;
+import dev.fusionize.workflow.WorkflowNodeExecution;
+import dev.fusionize.workflow.WorkflowNodeExecutionState;
+import dev.fusionize.workflow.WorkflowNodeType;
+import dev.fusionize.workflow.claimcheck.ContextClaimCheck;
+import dev.fusionize.workflow.context.ContextFactory;
+import dev.fusionize.workflow.events.EventDispatchProperties;
+import dev.fusionize.workflow.events.PartitionedEventDispatcher;
+import dev.fusionize.workflow.events.orchestration.InvocationResponseEvent;
+import dev.fusionize.workflow.lease.ExecutionLeaseManager;
+import dev.fusionize.workflow.registry.WorkflowExecutionCache;
+import dev.fusionize.workflow.registry.WorkflowExecutionRepoRegistry;
+import dev.fusionize.workflow.registry.WorkflowRegistry;
+import dev.fusionize.workflow.repo.WorkflowExecutionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@DataMongoTest()
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = { TestMongoConfig.class, TestMongoConversionConfig.class})
+@ActiveProfiles("ut")
+class ConflictRetryTest {
+
+    @Autowired
+    MongoTemplate mongoTemplate;
+
+    @Autowired
+    WorkflowExecutionRepository repository;
+
+    final List<ConflictRetry> retries = new ArrayList<>();
+    final List<PartitionedEventDispatcher> dispatchers = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        retries.forEach(ConflictRetry::destroy);
+        dispatchers.forEach(PartitionedEventDispatcher::destroy);
+    }
+
+    @Test
+    void shouldRetryConflictingWritesAfterReload() {
+        // setup
+        ConflictRetry retry = retry(3);
+        AtomicInteger attempts = new AtomicInteger();
+        AtomicInteger reloads = new AtomicInteger();
+
+        // expectation
+        retry.run("exec-1", () -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new OptimisticLockingFailureException("conflict");
+            }
+        }, reloads::incrementAndGet).join();
+
+        // validation
+        assertThat(attempts).hasValue(3);
+        assertThat(reloads).hasValue(2);
+    }
+
+    @Test
+    void shouldRetryOffTheCallingThread() {
+        // setup
+        ConflictRetry retry = retry(2);
+        Thread caller = Thread.currentThread();
+        AtomicReference<Thread> retriedOn = new AtomicReference<>();
+        AtomicInteger attempts = new AtomicInteger();
+
+        // expectation
+        CompletableFuture<Void> written = retry.run("exec-1", () -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new OptimisticLockingFailureException("conflict");
+            }
+            retriedOn.set(Thread.currentThread());
+        }, () -> {});
+
+        // validation
+        written.join();
+        assertThat(attempts).hasValue(2);
+        assertThat(retriedOn.get()).isNotNull().isNotSameAs(caller);
+    }
+
+    @Test
+    void shouldRetryOnTheLaneOfTheExecution() {
+        // setup
+        EventDispatchProperties laneProperties = new EventDispatchProperties();
+        laneProperties.setEnabled(true);
+        laneProperties.setLanes(2);
+        PartitionedEventDispatcher lanes = new PartitionedEventDispatcher(laneProperties);
+        dispatchers.add(lanes);
+        ConflictRetry retry = retry(2, lanes);
+        AtomicReference<Thread> retriedOn = new AtomicReference<>();
+        AtomicInteger attempts = new AtomicInteger();
+
+        // expectation
+        retry.run("exec-1", () -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new OptimisticLockingFailureException("conflict");
+            }
+            retriedOn.set(Thread.currentThread());
+        }, () -> {}).join();
+
+        // validation
+        assertThat(retriedOn.get().getName()).startsWith("fusionize-event-lane-");
+    }
+
+    @Test
+    void shouldGiveUpAfterLastAttempt() {
+        // setup
+        ConflictRetry retry = retry(2);
+        AtomicInteger attempts = new AtomicInteger();
+
+        // expectation & validation
+        assertThatThrownBy(() -> retry.run("exec-1", () -> {
+            attempts.incrementAndGet();
+            throw new OptimisticLockingFailureException("conflict");
+        }, () -> {}).join())
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(OptimisticLockingFailureException.class);
+        assertThat(attempts).hasValue(2);
+    }
+
+    @Test
+    void shouldNotLoseChildrenOfForkCompletingConcurrently() throws Exception {
+        // setup
+        mongoTemplate.remove(new Query(), WorkflowExecution.class);
+        int branches = 16;
+        WorkflowNode.Builder forkBuilder = WorkflowNode.builder()
+                .workflowNodeId("fork")
+                .type(WorkflowNodeType.TASK)
+                .component("test.fork");
+        for (int branch = 0; branch < branches; branch++) {
+            forkBuilder.addChild(WorkflowNode.builder()
+                    .workflowNodeId("branch-" + branch)
+                    .type(WorkflowNodeType.TASK)
+                    .component("test.branch")
+                    .addChild(WorkflowNode.builder()
+                            .workflowNodeId("after-" + branch)
+                            .type(WorkflowNodeType.TASK)
+                            .component("test.after")
+                            .build())
+                    .build());
+        }
+        WorkflowNode fork = forkBuilder.build();
+        Workflow workflow = Workflow.builder("test")
+                .withWorkflowId("wf-fork")
+                .addNode(fork)
+                .build();
+        workflow.getCompiledWorkflow();
+
+        WorkflowExecutionCache cache = mock(WorkflowExecutionCache.class);
+        WorkflowExecutionRepoRegistry registry = new WorkflowExecutionRepoRegistry(repository, mongoTemplate, cache);
+        WorkflowRegistry workflowRegistry = mock(WorkflowRegistry.class);
+        when(workflowRegistry.getWorkflow("wf-fork")).thenReturn(workflow);
+        OrchestratorComponentDispatcher dispatcher = mock(OrchestratorComponentDispatcher.class);
+        Orchestrator orchestrator = new Orchestrator(workflowRegistry, registry, dispatcher,
+                new OrchestratorWorkflowNavigator(new OrchestratorDecisionEngine()),
+                mock(ContextClaimCheck.class), retry(100), mock(ExecutionLeaseManager.class));
+
+        WorkflowExecution execution = WorkflowExecution.of(workflow);
+        execution.setStatus(WorkflowExecutionStatus.IN_PROGRESS);
+        WorkflowNodeExecution forkExecution = WorkflowNodeExecution.of(fork, ContextFactory.empty());
+        forkExecution.setState(WorkflowNodeExecutionState.DONE);
+        execution.addNode(forkExecution);
+        List<WorkflowNodeExecution> branchExecutions = fork.getChildren().stream().map(node -> {
+            WorkflowNodeExecution branchExecution = WorkflowNodeExecution.of(node, ContextFactory.empty());
+            branchExecution.setState(WorkflowNodeExecutionState.WORKING);
+            return branchExecution;
+        }).toList();
+        execution.addChildren(forkExecution, branchExecutions);
+        registry.register(execution);
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(branches);
+
+        // expectation
+        List<Future<?>> completions = new ArrayList<>();
+        for (WorkflowNodeExecution branchExecution : branchExecutions) {
+            InvocationResponseEvent event = InvocationResponseEvent.builder(this)
+                    .workflowId("wf-fork")
+                    .workflowExecutionId(execution.getWorkflowExecutionId())
+                    .workflowNodeId(branchExecution.getWorkflowNodeId())
+                    .workflowNodeExecutionId(branchExecution.getWorkflowNodeExecutionId())
+                    .context(ContextFactory.empty())
+                    .build();
+            completions.add(executor.submit(() -> {
+                start.await();
+                event.ensureOrchestrationEventContext(registry, workflowRegistry);
+                orchestrator.onInvoked(event);
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> completion : completions) {
+            completion.get();
+        }
+        executor.shutdown();
+
+        // validation
+        // every branch dispatches its next node once its write went through
+        verify(dispatcher, timeout(10_000).times(branches)).dispatchActivation(any(), any());
+        WorkflowExecution stored = repository.findByWorkflowExecutionId(execution.getWorkflowExecutionId())
+                .orElseThrow();
+        stored.inflate();
+        assertThat(stored.getNodeExecutionMap()).hasSize(1 + 2 * branches);
+        assertThat(stored.findNodeByWorkflowNodeExecutionId(forkExecution.getWorkflowNodeExecutionId())
+                .getChildrenIds()).hasSize(branches);
+        for (WorkflowNodeExecution branchExecution : branchExecutions) {
+            WorkflowNodeExecution storedBranch = stored.findNodeByWorkflowNodeExecutionId(
+                    branchExecution.getWorkflowNodeExecutionId());
+            assertThat(storedBranch.getState()).isEqualTo(WorkflowNodeExecutionState.DONE);
+            assertThat(storedBranch.getChildrenIds()).hasSize(1);
+        }
+    }
+
+    private ConflictRetry retry(int attempts) {
+        return retry(attempts, new PartitionedEventDispatcher(new EventDispatchProperties()));
+    }
+
+    private ConflictRetry retry(int attempts, PartitionedEventDispatcher lanes) {
+        ConflictRetryProperties properties = new ConflictRetryProperties();
+        properties.setAttempts(attempts);
+        properties.setBackoff(Duration.ofMillis(1));
+        properties.setMaxBackoff(Duration.ofMillis(5));
+        ConflictRetry retry = new ConflictRetry(properties, lanes);
+        retries.add(retry);
+        return retry;
+    }
+}
@@ -0,0 +1,235 @@
+package dev.fusionize.workflow.orchestrator;
+
+import dev.fusionize.workflow.Workflow;
+import dev.fusionize.workflow.WorkflowExecution;
+import dev.fusionize.workflow.WorkflowNode;
+import dev.fusionize.workflow.WorkflowNodeExecution;
+import dev.fusionize.workflow.component.handlers.OrchestrationActivateResponseEventHandler;
+import dev.fusionize.workflow.component.handlers.OrchestrationInvocationResponseEventHandler;
+import dev.fusionize.workflow.component.runtime.ComponentRuntimeEngine;
+import dev.fusionize.workflow.context.Context;
+import dev.fusionize.workflow.events.Event;
+import dev.fusionize.workflow.events.EventStore;
+import dev.fusionize.workflow.events.OrchestrationEvent;
+import dev.fusionize.workflow.events.PartitionedEventDispatcher;
+import dev.fusionize.workflow.events.orchestration.ActivationRequestEvent;
+import dev.fusionize.workflow.events.orchestration.ActivationResponseEvent;
+import dev.fusionize.workflow.events.orchestration.InvocationRequestEvent;
+import dev.fusionize.workflow.events.orchestration.InvocationResponseEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class LocalComponentFastPathTest {
+
+    private LocalFastPathProperties properties;
+    private ComponentRuntimeEngine engine;
+    private OrchestrationActivateResponseEventHandler activationHandler;
+    private OrchestrationInvocationResponseEventHandler invocationHandler;
+    private ObjectProvider<OrchestrationActivateResponseEventHandler> activationHandlers;
+    private ObjectProvider<OrchestrationInvocationResponseEventHandler> invocationHandlers;
+    private PartitionedEventDispatcher laneDispatcher;
+    private EventStore<Event> eventStore;
+    private ExecutorService executor;
+    private LocalComponentFastPath fastPath;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        properties = new LocalFastPathProperties();
+        properties.setEnabled(true);
+        engine = mock(ComponentRuntimeEngine.class);
+        activationHandler = mock(OrchestrationActivateResponseEventHandler.class);
+        invocationHandler = mock(OrchestrationInvocationResponseEventHandler.class);
+        laneDispatcher = mock(PartitionedEventDispatcher.class);
+        when(laneDispatcher.isEnabled()).thenReturn(true);
+        eventStore = mock(EventStore.class);
+        executor = mock(ExecutorService.class);
+        doAnswer(invocation -> {
+            ((Runnable) invocation.getArgument(0)).run();
+            return null;
+        }).when(executor).execute(any(Runnable.class));
+        activationHandlers = mock(ObjectProvider.class);
+        when(activationHandlers.getObject()).thenReturn(activationHandler);
+        invocationHandlers = mock(ObjectProvider.class);
+        when(invocationHandlers.getObject()).thenReturn(invocationHandler);
+        fastPath = new LocalComponentFastPath(properties, engine, activationHandlers, invocationHandlers,
+                laneDispatcher, eventStore, executor);
+    }
+
+    @Test
+    void shouldRefuseToStartWithoutExecutionLanes() {
+        when(laneDispatcher.isEnabled()).thenReturn(false);
+
+        assertThrows(IllegalStateException.class, () -> new LocalComponentFastPath(properties, engine,
+                activationHandlers, invocationHandlers, laneDispatcher, eventStore, executor));
+    }
+
+    @Test
+    void activate_ShouldDeclineWhenDisabled() {
+        properties.setEnabled(false);
+
+        assertFalse(fastPath.activate(activationRequest()));
+
+        verifyNoInteractions(engine, activationHandler, eventStore);
+    }
+
+    @Test
+    void activate_ShouldDeclineRemoteComponents() {
+        ActivationRequestEvent request = activationRequest();
+        when(engine.isLocal(request)).thenReturn(false);
+
+        assertFalse(fastPath.activate(request));
+
+        verify(engine, never()).activateComponent(any(), any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void activate_ShouldFeedResponseToResponseHandler() throws Exception {
+        // setup
+        doAnswer(invocation -> {
+            ((Runnable) invocation.getArgument(1)).run();
+            return null;
+        }).when(laneDispatcher).dispatch(any(), any(Runnable.class));
+        ActivationRequestEvent request = activationRequest();
+        when(engine.isLocal(request)).thenReturn(true);
+        doAnswer(invocation -> {
+            ActivationResponseEvent response = ActivationResponseEvent.from(
+                    this, OrchestrationEvent.Origin.RUNTIME_ENGINE, request);
+            ((Consumer<ActivationResponseEvent>) invocation.getArgument(1)).accept(response);
+            return null;
+        }).when(engine).activateComponent(eq(request), any());
+
+        // expectation
+        assertTrue(fastPath.activate(request));
+
+        // validation
+        ArgumentCaptor<ActivationResponseEvent> captor = ArgumentCaptor.forClass(ActivationResponseEvent.class);
+        verify(activationHandler).handle(captor.capture());
+        assertEquals(request.getEventId(), captor.getValue().getCausationId());
+        assertSame(request.getOrchestrationEventContext(), captor.getValue().getOrchestrationEventContext());
+        verify(eventStore).save(request);
+        verify(eventStore).save(captor.getValue());
+        assertNotNull(captor.getValue().getProcessedDate());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void invoke_ShouldHandOffToExecutionLane() throws Exception {
+        // setup
+        properties.setPersistEvents(false);
+        InvocationRequestEvent request = invocationRequest();
+        when(engine.isLocal(request)).thenReturn(true);
+        when(laneDispatcher.isEnabled()).thenReturn(true);
+        doAnswer(invocation -> {
+            InvocationResponseEvent response = InvocationResponseEvent.from(
+                    this, OrchestrationEvent.Origin.RUNTIME_ENGINE, request);
+            ((Consumer<InvocationResponseEvent>) invocation.getArgument(1)).accept(response);
+            return null;
+        }).when(engine).invokeComponent(eq(request), any());
+
+        // expectation
+        assertTrue(fastPath.invoke(request));
+
+        // validation
+        ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+        verify(laneDispatcher).dispatch(eq("exec-1"), task.capture());
+        verify(invocationHandler, never()).handle(any());
+        task.getValue().run();
+        verify(invocationHandler).handle(any(InvocationResponseEvent.class));
+        verifyNoInteractions(eventStore);
+    }
+
+    @Test
+    void invoke_ShouldRunComponentWhenPersistenceIsBackedUp() {
+        // setup
+        doThrow(new RejectedExecutionException("full")).when(executor).execute(any(Runnable.class));
+        InvocationRequestEvent request = invocationRequest();
+        when(engine.isLocal(request)).thenReturn(true);
+
+        // expectation
+        assertTrue(fastPath.invoke(request));
+
+        // validation
+        verify(engine).invokeComponent(eq(request), any());
+        verifyNoInteractions(eventStore);
+    }
+
+    @Test
+    void shouldPersistOnItsOwnThreads() throws Exception {
+        // setup
+        properties.setPersistThreads(1);
+        LocalComponentFastPath owned = new LocalComponentFastPath(properties, engine, activationHandlers,
+                invocationHandlers, laneDispatcher, eventStore);
+        CountDownLatch saved = new CountDownLatch(1);
+        AtomicReference<String> thread = new AtomicReference<>();
+        doAnswer(invocation -> {
+            thread.set(Thread.currentThread().getName());
+            saved.countDown();
+            return null;
+        }).when(eventStore).save(any());
+        InvocationRequestEvent request = invocationRequest();
+        when(engine.isLocal(request)).thenReturn(true);
+
+        // expectation
+        owned.invoke(request);
+
+        // validation
+        assertTrue(saved.await(5, TimeUnit.SECONDS));
+        assertTrue(thread.get().startsWith("fusionize-fast-path-persist-"));
+        owned.destroy();
+    }
+
+    private ActivationRequestEvent activationRequest() {
+        WorkflowExecution we = execution();
+        WorkflowNodeExecution ne = we.getNodes().get(0);
+        return ActivationRequestEvent.builder(this)
+                .origin(OrchestrationEvent.Origin.ORCHESTRATOR)
+                .workflowExecutionId(we.getWorkflowExecutionId())
+                .workflowId(we.getWorkflowId())
+                .workflowNodeId(ne.getWorkflowNodeId())
+                .workflowNodeExecutionId(ne.getWorkflowNodeExecutionId())
+                .orchestrationEventContext(we, ne)
+                .component("noop")
+                .context(ne.getStageContext()).build();
+    }
+
+    private InvocationRequestEvent invocationRequest() {
+        WorkflowExecution we = execution();
+        WorkflowNodeExecution ne = we.getNodes().get(0);
+        return InvocationRequestEvent.builder(this)
+                .origin(OrchestrationEvent.Origin.ORCHESTRATOR)
+                .workflowExecutionId(we.getWorkflowExecutionId())
+                .workflowId(we.getWorkflowId())
+                .workflowNodeId(ne.getWorkflowNodeId())
+                .workflowNodeExecutionId(ne.getWorkflowNodeExecutionId())
+                .orchestrationEventContext(we, ne)
+                .component("noop")
+                .context(ne.getStageContext()).build();
+    }
+
+    private WorkflowExecution execution() {
+        WorkflowExecution we = new WorkflowExecution();
+        we.setWorkflowExecutionId("exec-1");
+        we.setWorkflowId("wf-1");
+        we.setWorkflow(new Workflow());
+        WorkflowNode node = WorkflowNode.builder().workflowNodeId("node-1").component("noop").build();
+        we.addNode(WorkflowNodeExecution.of(node, Context.builder().build()));
+        return we;
+    }
+}
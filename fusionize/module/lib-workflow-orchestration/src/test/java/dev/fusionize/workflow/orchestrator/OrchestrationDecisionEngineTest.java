@@ -1,5 +1,7 @@
 package dev.fusionize.workflow.orchestrator;
 
+import dev.fusionize.workflow.CompiledWorkflow;
+import dev.fusionize.workflow.Workflow;
 import dev.fusionize.workflow.WorkflowNode;
 import dev.fusionize.workflow.WorkflowNodeExecution;
 import dev.fusionize.workflow.WorkflowNodeType;
@@ -71,4 +73,42 @@ public class OrchestrationDecisionEngineTest {
         assertEquals(1, nextNodes.size());
         assertEquals("A", nextNodes.get(0).getWorkflowNodeId());
     }
+
+    @Test
+    public void testDetermineNextNodes_CompiledDecision() {
+        WorkflowNode decisionNode = WorkflowNode.builder()
+                .workflowNodeId("D")
+                .type(WorkflowNodeType.DECISION)
+                .workflowNodeKey("decision1")
+                .build();
+        WorkflowNode optionA = WorkflowNode.builder().workflowNodeId("A").workflowNodeKey("optionA").build();
+        WorkflowNode optionB = WorkflowNode.builder().workflowNodeId("B").workflowNodeKey("optionB").build();
+        decisionNode.setChildren(new ArrayList<>(List.of(optionA, optionB)));
+        CompiledWorkflow compiled = CompiledWorkflow.compile(Workflow.builder("test").addNode(decisionNode).build());
+
+        WorkflowDecision decision = new WorkflowDecision();
+        decision.setDecisionNode("decision1");
+        decision.setOptionNodes(new HashMap<>(Map.of("optionA", false, "optionB", true)));
+        Context context = Context.builder().build();
+        context.getDecisions().add(decision);
+        WorkflowNodeExecution execution = WorkflowNodeExecution.of(decisionNode, context);
+
+        List<WorkflowNode> nextNodes = decisionEngine.determineNextNodes(compiled, execution);
+
+        assertEquals(List.of(optionB), nextNodes);
+    }
+
+    @Test
+    public void testDetermineNextNodes_FallsBackWhenNodeNotCompiled() {
+        WorkflowNode node = WorkflowNode.builder().type(WorkflowNodeType.TASK).build();
+        WorkflowNode child1 = WorkflowNode.builder().workflowNodeId("child1").build();
+        node.setChildren(new ArrayList<>(List.of(child1)));
+        CompiledWorkflow compiled = CompiledWorkflow.compile(Workflow.builder("test").build());
+
+        WorkflowNodeExecution execution = WorkflowNodeExecution.of(node, Context.builder().build());
+
+        List<WorkflowNode> nextNodes = decisionEngine.determineNextNodes(compiled, execution);
+
+        assertEquals(List.of(child1), nextNodes);
+    }
 }
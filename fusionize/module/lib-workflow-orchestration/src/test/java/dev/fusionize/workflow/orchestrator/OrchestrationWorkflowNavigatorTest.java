@@ -42,7 +42,7 @@ public class OrchestrationWorkflowNavigatorTest {
         WorkflowNodeExecution ne = WorkflowNodeExecution.of(node, Context.builder().build());
         we.getNodes().add(ne);
 
-        when(decisionEngine.determineNextNodes(any())).thenReturn(List.of(child));
+        when(decisionEngine.determineNextNodes(any(), any())).thenReturn(List.of(child));
 
         navigator.navigate(we, ne,
                 (
@@ -65,7 +65,7 @@ public class OrchestrationWorkflowNavigatorTest {
         WorkflowNodeExecution ne = WorkflowNodeExecution.of(node, Context.builder().build());
         we.getNodes().add(ne);
 
-        when(decisionEngine.determineNextNodes(any())).thenReturn(new ArrayList<>());
+        when(decisionEngine.determineNextNodes(any(), any())).thenReturn(new ArrayList<>());
 
         navigator.navigate(we, ne,
                 (
@@ -76,4 +76,27 @@ public class OrchestrationWorkflowNavigatorTest {
                 });
 
     }
+
+    @Test
+    public void testStart_MarksStartDoneAndAttachesNextNodes() {
+        WorkflowNode node = WorkflowNode.builder().workflowNodeId("start").type(WorkflowNodeType.START).build();
+        WorkflowNode child = WorkflowNode.builder().workflowNodeId("node2").type(WorkflowNodeType.TASK).build();
+        node.setChildren(new ArrayList<>(List.of(child)));
+
+        Workflow workflow = Workflow.builder("domain").addNode(node).build();
+        WorkflowExecution we = WorkflowExecution.of(workflow);
+        WorkflowNodeExecution ne = WorkflowNodeExecution.of(node, Context.builder().build());
+        we.addNode(ne);
+
+        when(decisionEngine.determineNextNodes(any(), any())).thenReturn(List.of(child));
+
+        List<WorkflowNodeExecution> next = navigator.start(we, ne);
+
+        assertEquals(WorkflowExecutionStatus.IN_PROGRESS, we.getStatus());
+        assertEquals(WorkflowNodeExecutionState.DONE, ne.getState());
+        assertEquals(1, next.size());
+        assertEquals("node2", next.getFirst().getWorkflowNodeId());
+        assertEquals(next, ne.getChildren());
+        assertEquals(1, we.getNodes().size());
+    }
 }
@@ -4,29 +4,50 @@ import dev.fusionize.workflow.Workflow;
 import dev.fusionize.workflow.WorkflowExecution;
 import dev.fusionize.workflow.WorkflowNode;
 import dev.fusionize.workflow.WorkflowNodeExecution;
+import dev.fusionize.workflow.component.ComponentExecutorProperties;
+import dev.fusionize.workflow.component.exceptions.ComponentBusyException;
 import dev.fusionize.workflow.context.Context;
+import dev.fusionize.workflow.context.ContextDelta;
 import dev.fusionize.workflow.events.Event;
 import dev.fusionize.workflow.events.EventPublisher;
+import dev.fusionize.workflow.events.OrchestrationEvent;
 import dev.fusionize.workflow.events.orchestration.ActivationRequestEvent;
 import dev.fusionize.workflow.events.orchestration.InvocationRequestEvent;
+import dev.fusionize.workflow.events.orchestration.InvocationResponseEvent;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 public class OrchestratorComponentDispatcherTest {
 
     private EventPublisher<Event> eventPublisher;
+    private LocalComponentFastPath localFastPath;
 
     private OrchestratorComponentDispatcher dispatcher;
 
     @BeforeEach
     public void setUp() {
         eventPublisher = Mockito.mock(EventPublisher.class);
-        dispatcher = new OrchestratorComponentDispatcher(eventPublisher);
+        localFastPath = Mockito.mock(LocalComponentFastPath.class);
+        dispatcher = new OrchestratorComponentDispatcher(eventPublisher, localFastPath,
+                new ComponentExecutorProperties());
     }
 
     @Test
@@ -68,4 +89,169 @@ public class OrchestratorComponentDispatcherTest {
         assertEquals("exec-1", event.getWorkflowExecutionId());
         assertEquals("node-1", event.getWorkflowNodeId());
     }
+
+    @Test
+    public void testDispatchActivation_Local() {
+        WorkflowExecution we = new WorkflowExecution();
+        we.setWorkflowExecutionId("exec-1");
+        we.setWorkflowId("wf-1");
+        we.setWorkflow(new Workflow());
+
+        WorkflowNode node = WorkflowNode.builder().workflowNodeId("node-1").component("noop").build();
+        WorkflowNodeExecution ne = WorkflowNodeExecution.of(node, Context.builder().build());
+        when(localFastPath.activate(any())).thenReturn(true);
+
+        dispatcher.dispatchActivation(we, ne);
+
+        ArgumentCaptor<ActivationRequestEvent> captor = ArgumentCaptor.forClass(ActivationRequestEvent.class);
+        verify(localFastPath).activate(captor.capture());
+        verify(eventPublisher, never()).publish(any());
+        assertEquals("node-1", captor.getValue().getWorkflowNodeId());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testDispatchActivations_PublishesRemoteActivationsAsOneBatch() {
+        WorkflowExecution we = new WorkflowExecution();
+        we.setWorkflowExecutionId("exec-1");
+        we.setWorkflowId("wf-1");
+        we.setWorkflow(new Workflow());
+
+        WorkflowNode remote = WorkflowNode.builder().workflowNodeId("node-1").component("remote-component").build();
+        WorkflowNode local = WorkflowNode.builder().workflowNodeId("node-2").component("noop").build();
+        WorkflowNodeExecution first = WorkflowNodeExecution.of(remote, Context.builder().build());
+        WorkflowNodeExecution second = WorkflowNodeExecution.of(local, Context.builder().build());
+        WorkflowNodeExecution third = WorkflowNodeExecution.of(remote, Context.builder().build());
+        when(localFastPath.activate(any())).thenAnswer(invocation ->
+                "node-2".equals(((ActivationRequestEvent) invocation.getArgument(0)).getWorkflowNodeId()));
+
+        dispatcher.dispatchActivations(List.of(
+                new OrchestrationEvent.EventContext(we, first),
+                new OrchestrationEvent.EventContext(we, second),
+                new OrchestrationEvent.EventContext(we, third)));
+
+        ArgumentCaptor<List<Event>> captor = ArgumentCaptor.forClass(List.class);
+        verify(eventPublisher).publishAll(captor.capture());
+        verify(eventPublisher, never()).publish(any());
+        List<Event> batch = captor.getValue();
+        assertEquals(2, batch.size());
+        assertEquals(first.getWorkflowNodeExecutionId(),
+                ((ActivationRequestEvent) batch.get(0)).getWorkflowNodeExecutionId());
+        assertEquals(third.getWorkflowNodeExecutionId(),
+                ((ActivationRequestEvent) batch.get(1)).getWorkflowNodeExecutionId());
+    }
+
+    @Test
+    public void testDispatchInvocation_KeepsDispatchedContextUntilForgotten() {
+        WorkflowExecution we = new WorkflowExecution();
+        we.setWorkflowExecutionId("exec-1");
+        we.setWorkflowId("wf-1");
+        we.setWorkflow(new Workflow());
+
+        WorkflowNode node = WorkflowNode.builder().workflowNodeId("node-1").component("remote-component").build();
+        WorkflowNodeExecution ne = WorkflowNodeExecution.of(node, Context.builder().add("key", "value").build());
+
+        dispatcher.dispatchInvocation(we, ne);
+        ne.getStageContext().set("key", "changed");
+
+        ArgumentCaptor<Event> captor = ArgumentCaptor.forClass(Event.class);
+        verify(eventPublisher).publish(captor.capture());
+        String version = ((InvocationRequestEvent) captor.getValue()).getContextVersion();
+        Context dispatched = dispatcher.dispatchedContext(ne.getWorkflowNodeExecutionId());
+        assertNotNull(version);
+        assertEquals("value", dispatched.var("key", String.class).orElse(null));
+        assertEquals(version, ContextDelta.version(dispatched));
+
+        dispatcher.forgetDispatchedContext(ne.getWorkflowNodeExecutionId());
+        assertNull(dispatcher.dispatchedContext(ne.getWorkflowNodeExecutionId()));
+    }
+
+    @Test
+    public void testDispatchInvocation_Local() {
+        WorkflowExecution we = new WorkflowExecution();
+        we.setWorkflowExecutionId("exec-1");
+        we.setWorkflowId("wf-1");
+        we.setWorkflow(new Workflow());
+
+        WorkflowNode node = WorkflowNode.builder().workflowNodeId("node-1").component("noop").build();
+        WorkflowNodeExecution ne = WorkflowNodeExecution.of(node, Context.builder().build());
+        when(localFastPath.invoke(any())).thenReturn(true);
+
+        dispatcher.dispatchInvocation(we, ne);
+
+        verify(localFastPath).invoke(any(InvocationRequestEvent.class));
+        verify(eventPublisher, never()).publish(any());
+    }
+
+    @Test
+    public void testRetryIfBusy_RedispatchesUntilAttemptsExhausted() {
+        ScheduledExecutorService scheduler = Mockito.mock(ScheduledExecutorService.class);
+        ComponentExecutorProperties properties = new ComponentExecutorProperties();
+        properties.setBusyRetryAttempts(2);
+        properties.setBusyRetryDelay(Duration.ofMillis(500));
+        dispatcher = new OrchestratorComponentDispatcher(eventPublisher, localFastPath, properties, scheduler);
+
+        WorkflowExecution we = new WorkflowExecution();
+        we.setWorkflowExecutionId("exec-1");
+        we.setWorkflowId("wf-1");
+        we.setWorkflow(new Workflow());
+        WorkflowNode node = WorkflowNode.builder().workflowNodeId("node-1").component("remote-component").build();
+        WorkflowNodeExecution ne = WorkflowNodeExecution.of(node, Context.builder().build());
+        InvocationResponseEvent busy = new InvocationResponseEvent();
+        busy.setWorkflowNodeExecutionId(ne.getWorkflowNodeExecutionId());
+        busy.setOrchestrationEventContext(new OrchestrationEvent.EventContext(we, ne));
+        busy.setException(new ComponentBusyException("busy"));
+        busy.setBusy(true);
+
+        assertTrue(dispatcher.retryIfBusy(busy));
+        assertTrue(dispatcher.retryIfBusy(busy));
+        assertFalse(dispatcher.retryIfBusy(busy));
+
+        ArgumentCaptor<Runnable> retry = ArgumentCaptor.forClass(Runnable.class);
+        verify(scheduler, Mockito.times(2)).schedule(retry.capture(), eq(500L), eq(TimeUnit.MILLISECONDS));
+        retry.getValue().run();
+        verify(eventPublisher).publish(any(InvocationRequestEvent.class));
+    }
+
+    @Test
+    public void testRetryIfBusy_ForgetsAttemptsAfterRetryWindow() {
+        ScheduledExecutorService scheduler = Mockito.mock(ScheduledExecutorService.class);
+        ComponentExecutorProperties properties = new ComponentExecutorProperties();
+        properties.setBusyRetryAttempts(1);
+        properties.setBusyRetryDelay(Duration.ofMillis(500));
+        properties.setBusyRetryWindow(Duration.ofMinutes(1));
+        dispatcher = new OrchestratorComponentDispatcher(eventPublisher, localFastPath, properties, scheduler);
+
+        WorkflowExecution we = new WorkflowExecution();
+        we.setWorkflowExecutionId("exec-1");
+        we.setWorkflowId("wf-1");
+        we.setWorkflow(new Workflow());
+        WorkflowNode node = WorkflowNode.builder().workflowNodeId("node-1").component("remote-component").build();
+        WorkflowNodeExecution ne = WorkflowNodeExecution.of(node, Context.builder().build());
+        InvocationResponseEvent busy = new InvocationResponseEvent();
+        busy.setWorkflowNodeExecutionId(ne.getWorkflowNodeExecutionId());
+        busy.setOrchestrationEventContext(new OrchestrationEvent.EventContext(we, ne));
+        busy.setBusy(true);
+
+        assertTrue(dispatcher.retryIfBusy(busy));
+
+        // the retry was never answered
+        ArgumentCaptor<Runnable> expiry = ArgumentCaptor.forClass(Runnable.class);
+        verify(scheduler).schedule(expiry.capture(), eq(60_000L), eq(TimeUnit.MILLISECONDS));
+        expiry.getValue().run();
+
+        assertTrue(dispatcher.retryIfBusy(busy));
+    }
+
+    @Test
+    public void testRetryIfBusy_IgnoresOtherFailures() {
+        ScheduledExecutorService scheduler = Mockito.mock(ScheduledExecutorService.class);
+        dispatcher = new OrchestratorComponentDispatcher(eventPublisher, localFastPath,
+                new ComponentExecutorProperties(), scheduler);
+        InvocationResponseEvent failed = new InvocationResponseEvent();
+        failed.setException(new IllegalStateException("boom"));
+
+        assertFalse(dispatcher.retryIfBusy(failed));
+        verify(scheduler, never()).schedule(any(Runnable.class), Mockito.anyLong(), any(TimeUnit.class));
+    }
 }
@@ -1,20 +1,31 @@
 package dev.fusionize.workflow.orchestrator;
 
 import dev.fusionize.workflow.*;
+import dev.fusionize.workflow.claimcheck.ContextClaimCheck;
 import dev.fusionize.workflow.context.Context;
+import dev.fusionize.workflow.context.ContextDelta;
 import dev.fusionize.workflow.context.ContextFactory;
+import dev.fusionize.workflow.events.EventDispatchProperties;
 import dev.fusionize.workflow.events.OrchestrationEvent;
+import dev.fusionize.workflow.events.PartitionedEventDispatcher;
 import dev.fusionize.workflow.events.orchestration.ActivationResponseEvent;
 import dev.fusionize.workflow.events.orchestration.InvocationResponseEvent;
+import dev.fusionize.workflow.lease.ExecutionLeaseManager;
 import dev.fusionize.workflow.registry.WorkflowExecutionRepoRegistry;
+import dev.fusionize.workflow.registry.WorkflowExecutionUnitOfWork;
 import dev.fusionize.workflow.registry.WorkflowRegistry;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
+import org.springframework.dao.OptimisticLockingFailureException;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiConsumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -26,6 +37,9 @@ class OrchestratorTest {
     private WorkflowExecutionRepoRegistry workflowExecutionRegistry;
     private OrchestratorComponentDispatcher componentDispatcher;
     private OrchestratorWorkflowNavigator workflowNavigator;
+    private ContextClaimCheck claimCheck;
+    private ConflictRetry conflictRetry;
+    private ExecutionLeaseManager leases;
     private Orchestrator orchestrator;
 
     @BeforeEach
@@ -34,8 +48,21 @@ class OrchestratorTest {
         workflowExecutionRegistry = mock(WorkflowExecutionRepoRegistry.class);
         componentDispatcher = mock(OrchestratorComponentDispatcher.class);
         workflowNavigator = mock(OrchestratorWorkflowNavigator.class);
+        ConflictRetryProperties retryProperties = new ConflictRetryProperties();
+        retryProperties.setBackoff(Duration.ofMillis(1));
+        retryProperties.setMaxBackoff(Duration.ofMillis(5));
+        conflictRetry = new ConflictRetry(retryProperties,
+                new PartitionedEventDispatcher(new EventDispatchProperties()));
+        claimCheck = mock(ContextClaimCheck.class);
+        leases = mock(ExecutionLeaseManager.class);
+        when(leases.acquire(any())).thenReturn(true);
         orchestrator = new Orchestrator(workflowRegistry, workflowExecutionRegistry,
-                componentDispatcher, workflowNavigator);
+                componentDispatcher, workflowNavigator, claimCheck, conflictRetry, leases);
+    }
+
+    @AfterEach
+    void tearDown() {
+        conflictRetry.destroy();
     }
 
     @Test
@@ -71,6 +98,74 @@ class OrchestratorTest {
                 .dispatchActivation(any(WorkflowExecution.class), any(WorkflowNodeExecution.class));
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    void orchestrateAllStartsExecutionsAndDispatchesNextActivationsAsBatch() {
+        Orchestrator starting = new Orchestrator(workflowRegistry, workflowExecutionRegistry, componentDispatcher,
+                new OrchestratorWorkflowNavigator(new OrchestratorDecisionEngine()), claimCheck, conflictRetry,
+                leases);
+        Workflow workflow = buildWorkflowWithTask();
+        when(workflowRegistry.getWorkflow("wf-1")).thenReturn(workflow);
+        Context first = Context.builder().add("row", 1).build();
+        Context second = Context.builder().add("row", 2).build();
+
+        List<String> ids = starting.orchestrateAll("wf-1", List.of(first, second));
+
+        ArgumentCaptor<List<WorkflowExecution>> execCaptor = ArgumentCaptor.forClass(List.class);
+        verify(workflowExecutionRegistry).registerAll(execCaptor.capture());
+        List<WorkflowExecution> executions = execCaptor.getValue();
+        assertEquals(2, executions.size());
+        assertEquals(List.of(executions.get(0).getWorkflowExecutionId(), executions.get(1).getWorkflowExecutionId()),
+                ids);
+        ids.forEach(id -> verify(leases).acquire(id));
+        for (int i = 0; i < executions.size(); i++) {
+            WorkflowExecution execution = executions.get(i);
+            assertEquals(WorkflowExecutionStatus.IN_PROGRESS, execution.getStatus());
+            WorkflowNodeExecution start = execution.getNodes().get(0);
+            assertEquals(WorkflowNodeExecutionState.DONE, start.getState());
+            assertSame(i == 0 ? first : second, start.getStageContext());
+            assertEquals(1, start.getChildren().size());
+            WorkflowNodeExecution task = start.getChildren().get(0);
+            assertEquals("task", task.getWorkflowNodeId());
+            assertEquals(WorkflowNodeExecutionState.IDLE, task.getState());
+            assertEquals(i + 1, task.getStageContext().getData().get("row"));
+        }
+
+        ArgumentCaptor<List<OrchestrationEvent.EventContext>> activationCaptor = ArgumentCaptor.forClass(List.class);
+        verify(componentDispatcher).dispatchActivations(activationCaptor.capture());
+        assertEquals(2, activationCaptor.getValue().size());
+        assertSame(executions.get(1), activationCaptor.getValue().get(1).workflowExecution());
+        assertSame(executions.get(1).getNodes().get(0).getChildren().get(0),
+                activationCaptor.getValue().get(1).nodeExecution());
+        verify(workflowExecutionRegistry, never()).deleteIdlesFor(any());
+        verify(workflowExecutionRegistry, never()).register(any());
+        verify(componentDispatcher, never()).dispatchActivation(any(), any());
+    }
+
+    @Test
+    void orchestrateAllRejectsWorkflowWithoutStartNode() {
+        WorkflowNode task = WorkflowNode.builder()
+                .workflowNodeId("task")
+                .type(WorkflowNodeType.TASK)
+                .component("test.task")
+                .build();
+        Workflow workflow = Workflow.builder("test").withWorkflowId("wf-1").addNode(task).build();
+        when(workflowRegistry.getWorkflow("wf-1")).thenReturn(workflow);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> orchestrator.orchestrateAll("wf-1", List.of(Context.builder().build())));
+        verifyNoInteractions(workflowExecutionRegistry, componentDispatcher);
+    }
+
+    @Test
+    void orchestrateAllRejectsUnknownWorkflow() {
+        when(workflowRegistry.getWorkflow("missing")).thenReturn(null);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> orchestrator.orchestrateAll("missing", List.of(Context.builder().build())));
+        verifyNoInteractions(workflowExecutionRegistry, componentDispatcher);
+    }
+
     @Test
     void onActivatedWithExceptionSetsFailedState() {
         WorkflowNode node = WorkflowNode.builder()
@@ -91,6 +186,8 @@ class OrchestratorTest {
         orchestrator.onActivated(event);
 
         assertEquals(WorkflowNodeExecutionState.FAILED, ne.getState());
+        verifyCommitted(we, ne);
+        verify(claimCheck, never()).release(any());
     }
 
     @Test
@@ -114,6 +211,7 @@ class OrchestratorTest {
 
         assertEquals(WorkflowNodeExecutionState.FAILED, ne.getState());
         assertEquals(WorkflowExecutionStatus.ERROR, we.getStatus());
+        verify(claimCheck).release("exec-1");
     }
 
     @Test
@@ -137,8 +235,50 @@ class OrchestratorTest {
 
         verify(componentDispatcher).dispatchInvocation(we, ne);
         assertEquals(WorkflowNodeExecutionState.WORKING, ne.getState());
-        verify(workflowExecutionRegistry).updateStatus(eq("exec-1"), any());
-        verify(workflowExecutionRegistry).updateNodeExecution(eq("exec-1"), eq(ne));
+        verifyCommitted(we, ne);
+        verify(workflowExecutionRegistry, never()).updateStatus(any(), any());
+        verify(workflowExecutionRegistry, never()).updateNodeExecution(any(), any());
+    }
+
+    @Test
+    void onActivatedRetriesConflictingCommitOnReloadedExecution() {
+        WorkflowNode node = WorkflowNode.builder()
+                .workflowNodeId("task-1")
+                .type(WorkflowNodeType.TASK)
+                .component("comp")
+                .build();
+        Workflow workflow = Workflow.builder("test")
+                .withWorkflowId("wf-1")
+                .addNode(node)
+                .build();
+        WorkflowExecution stale = WorkflowExecution.of(workflow);
+        WorkflowNodeExecution staleNode = WorkflowNodeExecution.of(node, Context.builder().build());
+        stale.getNodes().add(staleNode);
+        WorkflowExecution reloaded = new WorkflowExecution();
+        reloaded.setWorkflowExecutionId(stale.getWorkflowExecutionId());
+        reloaded.setWorkflow(workflow);
+        WorkflowNodeExecution reloadedNode = WorkflowNodeExecution.of(node, Context.builder().build());
+        reloadedNode.setWorkflowNodeExecutionId(staleNode.getWorkflowNodeExecutionId());
+        reloaded.getNodes().add(reloadedNode);
+        when(workflowExecutionRegistry.getWorkflowExecution(stale.getWorkflowExecutionId())).thenReturn(reloaded);
+        doThrow(new OptimisticLockingFailureException("conflict")).doNothing()
+                .when(workflowExecutionRegistry).commit(any());
+
+        ActivationResponseEvent event = ActivationResponseEvent.builder(this)
+                .workflowExecutionId(stale.getWorkflowExecutionId())
+                .workflowId("wf-1")
+                .workflowNodeId("task-1")
+                .workflowNodeExecutionId(staleNode.getWorkflowNodeExecutionId())
+                .orchestrationEventContext(stale, staleNode)
+                .build();
+
+        orchestrator.onActivated(event);
+
+        // the retry is scheduled off the calling thread
+        verify(componentDispatcher, timeout(1000)).dispatchInvocation(reloaded, reloadedNode);
+        verify(workflowExecutionRegistry, times(2)).commit(any());
+        assertEquals(WorkflowNodeExecutionState.WORKING, reloadedNode.getState());
+        verify(componentDispatcher, never()).dispatchInvocation(stale, staleNode);
     }
 
     @Test
@@ -184,8 +324,8 @@ class OrchestratorTest {
         orchestrator.onInvoked(event);
 
         assertEquals(WorkflowNodeExecutionState.FAILED, ne.getState());
-        verify(workflowExecutionRegistry).updateNodeExecution(eq("exec-1"), eq(ne));
-        verify(workflowExecutionRegistry).register(we);
+        verifyCommitted(we, ne);
+        verify(workflowExecutionRegistry, never()).register(any());
     }
 
     @Test
@@ -210,7 +350,8 @@ class OrchestratorTest {
 
         assertEquals(WorkflowNodeExecutionState.FAILED, ne.getState());
         assertEquals(WorkflowExecutionStatus.ERROR, we.getStatus());
-        verify(workflowExecutionRegistry).updateStatus(eq("exec-1"), eq(WorkflowExecutionStatus.ERROR));
+        verifyCommitted(we, ne);
+        verify(claimCheck).release("exec-1");
     }
 
     @Test
@@ -238,6 +379,102 @@ class OrchestratorTest {
         verify(workflowNavigator).navigate(eq(we), eq(ne), any());
     }
 
+    @Test
+    void onInvokedWithDeltaAppliesItToStageContext() {
+        WorkflowNode node = WorkflowNode.builder()
+                .workflowNodeId("task-1")
+                .type(WorkflowNodeType.TASK)
+                .component("comp")
+                .build();
+        WorkflowExecution we = new WorkflowExecution();
+        we.setWorkflowExecutionId("exec-1");
+        we.setWorkflowId("wf-1");
+        we.setWorkflow(new Workflow());
+        Context stageContext = Context.builder().add("kept", "value").add("dropped", "value").build();
+        WorkflowNodeExecution ne = WorkflowNodeExecution.of(node, stageContext);
+
+        Context updated = stageContext.renew();
+        updated.set("added", 1);
+        updated.getData().remove("dropped");
+        InvocationResponseEvent event = InvocationResponseEvent.builder(this)
+                .orchestrationEventContext(we, ne)
+                .build();
+        event.setContextDelta(ContextDelta.baseline(stageContext)
+                .diff(updated, ContextDelta.version(stageContext)));
+
+        orchestrator.onInvoked(event);
+
+        assertEquals(updated.getData(), ne.getStageContext().getData());
+        assertTrue(stageContext.contains("dropped"));
+        verify(workflowNavigator).navigate(eq(we), eq(ne), any());
+    }
+
+    @Test
+    void onInvokedWithStaleDeltaAppliesItToTheDispatchedContext() {
+        WorkflowNode node = WorkflowNode.builder()
+                .workflowNodeId("task-1")
+                .type(WorkflowNodeType.TASK)
+                .component("comp")
+                .build();
+        WorkflowExecution we = new WorkflowExecution();
+        we.setWorkflowExecutionId("exec-1");
+        we.setWorkflowId("wf-1");
+        we.setWorkflow(new Workflow());
+        Context dispatched = Context.builder().add("key", "value").build();
+        Context stageContext = Context.builder().add("key", "changed").build();
+        WorkflowNodeExecution ne = WorkflowNodeExecution.of(node, stageContext);
+        ne.setState(WorkflowNodeExecutionState.WORKING);
+        when(componentDispatcher.dispatchedContext(ne.getWorkflowNodeExecutionId())).thenReturn(dispatched);
+
+        Context updated = dispatched.renew();
+        updated.set("added", 1);
+        InvocationResponseEvent event = InvocationResponseEvent.builder(this)
+                .orchestrationEventContext(we, ne)
+                .build();
+        event.setContextDelta(ContextDelta.baseline(dispatched)
+                .diff(updated, ContextDelta.version(dispatched)));
+
+        orchestrator.onInvoked(event);
+
+        assertEquals(updated.getData(), ne.getStageContext().getData());
+        verify(workflowNavigator).navigate(eq(we), eq(ne), any());
+        verify(componentDispatcher, never()).dispatchInvocation(any(), any());
+        verify(componentDispatcher).forgetDispatchedContext(ne.getWorkflowNodeExecutionId());
+    }
+
+    @Test
+    void onInvokedWithStaleDeltaFailsNodeWhenDispatchedContextIsUnknown() {
+        WorkflowNode node = WorkflowNode.builder()
+                .workflowNodeId("task-1")
+                .type(WorkflowNodeType.TASK)
+                .component("comp")
+                .build();
+        WorkflowExecution we = new WorkflowExecution();
+        we.setWorkflowExecutionId("exec-1");
+        we.setWorkflowId("wf-1");
+        we.setWorkflow(new Workflow());
+        Context dispatched = Context.builder().add("key", "value").build();
+        Context stageContext = Context.builder().add("key", "changed").build();
+        WorkflowNodeExecution ne = WorkflowNodeExecution.of(node, stageContext);
+        ne.setState(WorkflowNodeExecutionState.WORKING);
+
+        Context updated = dispatched.renew();
+        updated.set("added", 1);
+        InvocationResponseEvent event = InvocationResponseEvent.builder(this)
+                .orchestrationEventContext(we, ne)
+                .build();
+        event.setContextDelta(ContextDelta.baseline(dispatched)
+                .diff(updated, ContextDelta.version(dispatched)));
+
+        orchestrator.onInvoked(event);
+
+        assertSame(stageContext, ne.getStageContext());
+        assertEquals(WorkflowNodeExecutionState.FAILED, ne.getState());
+        verify(componentDispatcher, never()).dispatchInvocation(any(), any());
+        verify(workflowNavigator, never()).navigate(any(), any(), any());
+        verify(workflowExecutionRegistry).commit(any());
+    }
+
     @Test
     void onInvokedSkipsWhenNodeAlreadyDone() {
         WorkflowNode node = WorkflowNode.builder()
@@ -304,11 +541,121 @@ class OrchestratorTest {
         when(workflowRegistry.getWorkflow("wf-1")).thenReturn(workflow);
         when(workflowExecutionRegistry.getWorkflowExecution(we.getWorkflowExecutionId())).thenReturn(we);
 
-        orchestrator.replayExecution("wf-1", we.getWorkflowExecutionId(), ne.getWorkflowNodeExecutionId());
+        ne.setState(WorkflowNodeExecutionState.FAILED);
 
-        verify(workflowExecutionRegistry).register(we);
+        CompletableFuture<Void> replay = orchestrator.replayExecution(
+                "wf-1", we.getWorkflowExecutionId(), ne.getWorkflowNodeExecutionId());
+
+        verifyCommitted(we, ne);
         verify(componentDispatcher).dispatchActivation(eq(we), eq(ne));
         assertTrue(ne.getChildren().isEmpty());
+        assertEquals(WorkflowNodeExecutionState.IDLE, ne.getState());
+        assertTrue(replay.isDone());
+    }
+
+    @Test
+    void replayExecutionFailsWhenExecutionIsLeasedElsewhere() {
+        when(leases.acquire("exec-1")).thenReturn(false);
+
+        CompletableFuture<Void> replay = orchestrator.replayExecution("wf-1", "exec-1", "node-exec-1");
+
+        assertTrue(replay.isCompletedExceptionally());
+        verify(workflowExecutionRegistry, never()).getWorkflowExecution(any());
+        verify(componentDispatcher, never()).dispatchActivation(any(), any());
+    }
+
+    @Test
+    void onInvokedSuccessCommitsNavigatedNodeWithChildren() {
+        WorkflowNode next = WorkflowNode.builder()
+                .workflowNodeId("task-2")
+                .type(WorkflowNodeType.TASK)
+                .component("comp")
+                .build();
+        WorkflowNode node = WorkflowNode.builder()
+                .workflowNodeId("task-1")
+                .type(WorkflowNodeType.TASK)
+                .component("comp")
+                .build();
+        WorkflowExecution we = new WorkflowExecution();
+        we.setWorkflowExecutionId("exec-1");
+        we.setWorkflow(new Workflow());
+        WorkflowNodeExecution ne = WorkflowNodeExecution.of(node, Context.builder().build());
+        WorkflowNodeExecution child = WorkflowNodeExecution.of(next, Context.builder().build());
+        doAnswer(invocation -> {
+            ne.getChildren().add(child);
+            invocation.<BiConsumer<WorkflowExecution, WorkflowNodeExecution>>getArgument(2)
+                    .accept(we, ne);
+            return null;
+        }).when(workflowNavigator).navigate(eq(we), eq(ne), any());
+
+        InvocationResponseEvent event = InvocationResponseEvent.builder(this)
+                .orchestrationEventContext(we, ne)
+                .context(Context.builder().build())
+                .build();
+
+        orchestrator.onInvoked(event);
+
+        ArgumentCaptor<WorkflowExecutionUnitOfWork> captor = ArgumentCaptor.forClass(WorkflowExecutionUnitOfWork.class);
+        verify(workflowExecutionRegistry).commit(captor.capture());
+        assertSame(we, captor.getValue().getWorkflowExecution());
+        assertEquals(List.of(ne.getWorkflowNodeExecutionId(), child.getWorkflowNodeExecutionId()),
+                new ArrayList<>(captor.getValue().getTouchedNodeExecutionIds()));
+        verify(componentDispatcher).dispatchActivation(we, child);
+        verify(claimCheck).offload(event);
+        verify(claimCheck, never()).release(any());
+    }
+
+    @Test
+    void onInvokedReleasesOffloadedValuesOfCompletedExecution() {
+        WorkflowNode node = WorkflowNode.builder()
+                .workflowNodeId("end")
+                .type(WorkflowNodeType.END)
+                .component("comp")
+                .build();
+        WorkflowExecution we = new WorkflowExecution();
+        we.setWorkflowExecutionId("exec-1");
+        we.setWorkflow(new Workflow());
+        WorkflowNodeExecution ne = WorkflowNodeExecution.of(node, Context.builder().build());
+        doAnswer(invocation -> {
+            we.setStatus(WorkflowExecutionStatus.SUCCESS);
+            invocation.<BiConsumer<WorkflowExecution, WorkflowNodeExecution>>getArgument(2)
+                    .accept(we, ne);
+            return null;
+        }).when(workflowNavigator).navigate(eq(we), eq(ne), any());
+
+        InvocationResponseEvent event = InvocationResponseEvent.builder(this)
+                .orchestrationEventContext(we, ne)
+                .context(Context.builder().build())
+                .build();
+
+        orchestrator.onInvoked(event);
+
+        verifyCommitted(we, ne);
+        verify(claimCheck).release("exec-1");
+    }
+
+    private void verifyCommitted(WorkflowExecution we, WorkflowNodeExecution ne) {
+        ArgumentCaptor<WorkflowExecutionUnitOfWork> captor = ArgumentCaptor.forClass(WorkflowExecutionUnitOfWork.class);
+        verify(workflowExecutionRegistry).commit(captor.capture());
+        assertSame(we, captor.getValue().getWorkflowExecution());
+        assertTrue(captor.getValue().getTouchedNodeExecutionIds().contains(ne.getWorkflowNodeExecutionId()));
+    }
+
+    private Workflow buildWorkflowWithTask() {
+        WorkflowNode start = WorkflowNode.builder()
+                .workflowNodeId("start")
+                .type(WorkflowNodeType.START)
+                .component("test.start")
+                .addChild(WorkflowNode.builder()
+                        .workflowNodeId("task")
+                        .type(WorkflowNodeType.TASK)
+                        .component("test.task")
+                        .build())
+                .build();
+        return Workflow.builder("test")
+                .withWorkflowId("wf-1")
+                .addNode(start)
+                .build();
     }
 
     private Workflow buildSimpleWorkflow() {
@@ -0,0 +1,262 @@
+package dev.fusionize.workflow.registry;
+
+import dev.fusionize.workflow.WorkflowExecution;
+import dev.fusionize.workflow.WorkflowExecutionStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class WorkflowExecutionCacheTest {
+
+    private MutableClock clock;
+    private WorkflowExecutionCacheProperties properties;
+    private WorkflowExecutionCache cache;
+    private List<WorkflowExecution> written;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock();
+        properties = new WorkflowExecutionCacheProperties();
+        properties.setEnabled(true);
+        properties.setMaxSize(2);
+        properties.setWriteBehindWindow(Duration.ofMillis(100));
+        properties.setFlushInterval(Duration.ofHours(1));
+        properties.setCompletedTtl(Duration.ofSeconds(1));
+        properties.setIdleTtl(Duration.ofMinutes(1));
+        written = new CopyOnWriteArrayList<>();
+        cache = new WorkflowExecutionCache(properties, clock);
+        cache.start(written::add);
+    }
+
+    @AfterEach
+    void tearDown() {
+        cache.destroy();
+    }
+
+    @Test
+    void shouldCountHitsAndMisses() {
+        // setup
+        WorkflowExecution execution = execution("exec-1", WorkflowExecutionStatus.IN_PROGRESS);
+        cache.put(execution);
+
+        // expectation
+        WorkflowExecution hit = cache.get("exec-1");
+        WorkflowExecution miss = cache.get("exec-2");
+
+        // validation
+        assertThat(hit).isSameAs(execution);
+        assertThat(miss).isNull();
+        assertThat(cache.getHits()).isEqualTo(1);
+        assertThat(cache.getMisses()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldCoalesceWritesInsideWindow() {
+        // setup
+        WorkflowExecution execution = execution("exec-1", WorkflowExecutionStatus.IN_PROGRESS);
+
+        // expectation
+        cache.write(execution);
+        cache.markDirty("exec-1");
+        cache.markDirty("exec-1");
+        cache.flushDue();
+        assertThat(written).isEmpty();
+        clock.advance(Duration.ofMillis(150));
+        cache.flushDue();
+        cache.flushDue();
+
+        // validation
+        assertThat(written).containsExactly(execution);
+        assertThat(cache.getFlushes()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldWriteThrough_whenWindowIsZero() {
+        // setup
+        properties.setWriteBehindWindow(Duration.ZERO);
+        WorkflowExecution execution = execution("exec-1", WorkflowExecutionStatus.IN_PROGRESS);
+
+        // expectation
+        cache.write(execution);
+
+        // validation
+        assertThat(written).containsExactly(execution);
+    }
+
+    @Test
+    void shouldFlushAndEvictLeastRecentlyUsed_whenFull() {
+        // setup
+        WorkflowExecution first = execution("exec-1", WorkflowExecutionStatus.IN_PROGRESS);
+        WorkflowExecution second = execution("exec-2", WorkflowExecutionStatus.IN_PROGRESS);
+        WorkflowExecution third = execution("exec-3", WorkflowExecutionStatus.IN_PROGRESS);
+        cache.write(first);
+        cache.put(second);
+        cache.get("exec-1");
+
+        // expectation
+        cache.put(third);
+
+        // validation
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.get("exec-2")).isNull();
+        assertThat(cache.get("exec-1")).isSameAs(first);
+        assertThat(cache.getEvictions()).isEqualTo(1);
+        assertThat(written).isEmpty();
+    }
+
+    @Test
+    void shouldFlushDirtyEntryBeforeEviction() {
+        // setup
+        WorkflowExecution first = execution("exec-1", WorkflowExecutionStatus.IN_PROGRESS);
+        cache.write(first);
+        cache.put(execution("exec-2", WorkflowExecutionStatus.IN_PROGRESS));
+
+        // expectation
+        cache.put(execution("exec-3", WorkflowExecutionStatus.IN_PROGRESS));
+
+        // validation
+        assertThat(written).containsExactly(first);
+    }
+
+    @Test
+    void shouldEvictCompletedExecutionsAfterTtl() {
+        // setup
+        WorkflowExecution done = execution("exec-1", WorkflowExecutionStatus.SUCCESS);
+        WorkflowExecution active = execution("exec-2", WorkflowExecutionStatus.IN_PROGRESS);
+        cache.write(done);
+        cache.put(active);
+
+        // expectation
+        clock.advance(Duration.ofSeconds(2));
+        cache.flushDue();
+
+        // validation
+        assertThat(written).containsExactly(done);
+        assertThat(cache.size()).isEqualTo(1);
+        assertThat(cache.get("exec-2")).isSameAs(active);
+    }
+
+    @Test
+    void shouldDiscardWithoutFlushing() {
+        // setup
+        cache.write(execution("exec-1", WorkflowExecutionStatus.IDLE));
+
+        // expectation
+        cache.discardIf(e -> e.getStatus() == WorkflowExecutionStatus.IDLE);
+        cache.flushAll();
+
+        // validation
+        assertThat(cache.size()).isZero();
+        assertThat(written).isEmpty();
+    }
+
+    @Test
+    void shouldKeepEntryDirty_whenFlushFails() {
+        // setup
+        WorkflowExecutionCache failing = new WorkflowExecutionCache(properties, clock);
+        failing.start(e -> {
+            throw new IllegalStateException("mongo down");
+        });
+        failing.write(execution("exec-1", WorkflowExecutionStatus.IN_PROGRESS));
+
+        // expectation
+        failing.flushAll();
+        failing.flushAll();
+
+        // validation
+        assertThat(failing.getFlushFailures()).isEqualTo(2);
+        assertThat(failing.getFlushes()).isZero();
+    }
+
+    @Test
+    void shouldDropCachedCopy_whenFlushConflicts() {
+        // setup
+        WorkflowExecutionCache conflicting = new WorkflowExecutionCache(properties, clock);
+        conflicting.start(e -> {
+            throw new OptimisticLockingFailureException("written elsewhere");
+        });
+        conflicting.write(execution("exec-1", WorkflowExecutionStatus.IN_PROGRESS));
+
+        // expectation
+        conflicting.flushAll();
+
+        // validation
+        assertThat(conflicting.getFlushFailures()).isEqualTo(1);
+        assertThat(conflicting.get("exec-1")).isNull();
+    }
+
+    @Test
+    void shouldReportConflict_whenWritingThrough() {
+        // setup
+        properties.setWriteBehindWindow(Duration.ZERO);
+        WorkflowExecutionCache conflicting = new WorkflowExecutionCache(properties, clock);
+        conflicting.start(e -> {
+            throw new OptimisticLockingFailureException("written elsewhere");
+        });
+        conflicting.put(execution("exec-1", WorkflowExecutionStatus.IN_PROGRESS));
+
+        // expectation & validation
+        assertThatThrownBy(() -> conflicting.markDirty("exec-1"))
+                .isInstanceOf(OptimisticLockingFailureException.class);
+        assertThat(conflicting.get("exec-1")).isNull();
+    }
+
+    @Test
+    void shouldIgnoreStart_whenDisabled() {
+        // setup
+        properties.setEnabled(false);
+        WorkflowExecutionCache disabled = new WorkflowExecutionCache(properties, clock);
+
+        // expectation
+        disabled.start(written::add);
+        disabled.write(execution("exec-1", WorkflowExecutionStatus.IN_PROGRESS));
+        disabled.flushAll();
+
+        // validation
+        assertThat(disabled.isEnabled()).isFalse();
+        assertThat(written).isEmpty();
+    }
+
+    private WorkflowExecution execution(String id, WorkflowExecutionStatus status) {
+        WorkflowExecution execution = new WorkflowExecution();
+        execution.setWorkflowExecutionId(id);
+        execution.setWorkflowId("wf-1");
+        execution.setStatus(status);
+        return execution;
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant instant = Instant.parse("2025-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
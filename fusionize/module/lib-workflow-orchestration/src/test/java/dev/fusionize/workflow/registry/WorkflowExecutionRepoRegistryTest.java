@@ -1,15 +1,20 @@
 package dev.fusionize.workflow.registry;
 
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.result.UpdateResult;
 import dev.fusionize.workflow.WorkflowExecution;
 import dev.fusionize.workflow.WorkflowExecutionStatus;
 import dev.fusionize.workflow.WorkflowNodeExecution;
 import dev.fusionize.workflow.repo.WorkflowExecutionRepository;
+import org.bson.Document;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.BulkOperations;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.data.mongodb.core.query.Update;
@@ -19,6 +24,7 @@ import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
@@ -32,6 +38,9 @@ class WorkflowExecutionRepoRegistryTest {
     @Mock
     private MongoTemplate mongoTemplate;
 
+    @Mock
+    private WorkflowExecutionCache cache;
+
     @InjectMocks
     private WorkflowExecutionRepoRegistry registry;
 
@@ -111,19 +120,64 @@ class WorkflowExecutionRepoRegistryTest {
         assertThat(execution.getUpdatedDate()).isNotNull();
     }
 
+    @Test
+    void shouldInsertAllExecutionsAtOnce_onRegisterAll() {
+        // setup
+        var first = spy(new WorkflowExecution());
+        var second = spy(new WorkflowExecution());
+        List<WorkflowExecution> executions = List.of(first, second);
+
+        // expectation
+        List<WorkflowExecution> result = registry.registerAll(executions);
+
+        // validation
+        assertThat(result).containsExactly(first, second);
+        assertThat(executions).allSatisfy(execution -> {
+            assertThat(execution.getRevision()).isEqualTo(1L);
+            assertThat(execution.getCreatedDate()).isNotNull();
+            assertThat(execution.getUpdatedDate()).isNotNull();
+        });
+        verify(first).flatten();
+        verify(second).flatten();
+        verify(mongoTemplate).insert(executions, WorkflowExecution.class);
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    void shouldWriteBehind_whenRegisteringAllWithCacheEnabled() {
+        // setup
+        var first = new WorkflowExecution();
+        var second = new WorkflowExecution();
+        when(cache.isEnabled()).thenReturn(true);
+
+        // expectation
+        registry.registerAll(List.of(first, second));
+
+        // validation
+        verify(cache).write(first);
+        verify(cache).write(second);
+        verifyNoInteractions(mongoTemplate);
+    }
+
     @Test
     void shouldUpdateNodeExecution() {
         // setup
+        var execution = execution(2L);
         var nodeExecution = new WorkflowNodeExecution();
         nodeExecution.setWorkflowNodeExecutionId("node-exec-1");
         nodeExecution.setCreatedDate(Instant.now());
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(WorkflowExecution.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
 
         // expectation
-        registry.updateNodeExecution("exec-1", nodeExecution);
+        registry.updateNodeExecution(execution, nodeExecution);
 
         // validation
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).updateFirst(query.capture(), any(Update.class), eq(WorkflowExecution.class));
+        assertThat(query.getValue().getQueryObject()).containsEntry("revision", 2L);
         assertThat(nodeExecution.getUpdatedDate()).isNotNull();
-        verify(mongoTemplate).updateFirst(any(Query.class), any(Update.class), eq(WorkflowExecution.class));
+        assertThat(execution.getRevision()).isEqualTo(3L);
     }
 
     @Test
@@ -132,9 +186,11 @@ class WorkflowExecutionRepoRegistryTest {
         var nodeExecution = new WorkflowNodeExecution();
         nodeExecution.setWorkflowNodeExecutionId("node-exec-1");
         nodeExecution.setCreatedDate(null);
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(WorkflowExecution.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
 
         // expectation
-        registry.updateNodeExecution("exec-1", nodeExecution);
+        registry.updateNodeExecution(execution(2L), nodeExecution);
 
         // validation
         assertThat(nodeExecution.getCreatedDate()).isNotNull();
@@ -142,16 +198,80 @@ class WorkflowExecutionRepoRegistryTest {
         verify(mongoTemplate).updateFirst(any(Query.class), any(Update.class), eq(WorkflowExecution.class));
     }
 
+    @Test
+    void shouldRejectNodeExecutionUpdate_whenWrittenSinceLoaded() {
+        // setup
+        var execution = execution(2L);
+        var nodeExecution = new WorkflowNodeExecution();
+        nodeExecution.setWorkflowNodeExecutionId("node-exec-1");
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(WorkflowExecution.class)))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, null));
+
+        // expectation & validation
+        assertThatThrownBy(() -> registry.updateNodeExecution(execution, nodeExecution))
+                .isInstanceOf(OptimisticLockingFailureException.class);
+        assertThat(execution.getRevision()).isEqualTo(2L);
+    }
+
     @Test
     void shouldUpdateStatus() {
         // setup
+        var execution = execution(2L);
         var status = WorkflowExecutionStatus.IN_PROGRESS;
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(WorkflowExecution.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
 
         // expectation
-        registry.updateStatus("exec-1", status);
+        registry.updateStatus(execution, status);
 
         // validation
-        verify(mongoTemplate).updateFirst(any(Query.class), any(Update.class), eq(WorkflowExecution.class));
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).updateFirst(query.capture(), any(Update.class), eq(WorkflowExecution.class));
+        assertThat(query.getValue().getQueryObject()).containsEntry("revision", 2L);
+        assertThat(execution.getStatus()).isEqualTo(status);
+        assertThat(execution.getRevision()).isEqualTo(3L);
+    }
+
+    @Test
+    void shouldRejectStatusUpdate_whenWrittenSinceLoaded() {
+        // setup
+        var execution = execution(2L);
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(WorkflowExecution.class)))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, null));
+
+        // expectation & validation
+        assertThatThrownBy(() -> registry.updateStatus(execution, WorkflowExecutionStatus.SUCCESS))
+                .isInstanceOf(OptimisticLockingFailureException.class);
+        assertThat(execution.getRevision()).isEqualTo(2L);
+    }
+
+    @Test
+    void shouldReplaceStoredExecutionOnlyAtLoadedRevision() {
+        // setup
+        var execution = execution(4L);
+        when(mongoTemplate.replace(any(Query.class), eq(execution))).thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        // expectation
+        registry.register(execution);
+
+        // validation
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).replace(query.capture(), eq(execution));
+        assertThat(query.getValue().getQueryObject()).containsEntry("revision", 4L);
+        assertThat(execution.getRevision()).isEqualTo(5L);
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    void shouldRejectWholeSave_whenWrittenSinceLoaded() {
+        // setup
+        var execution = execution(4L);
+        when(mongoTemplate.replace(any(Query.class), eq(execution))).thenReturn(UpdateResult.acknowledged(0, 0L, null));
+
+        // expectation & validation
+        assertThatThrownBy(() -> registry.register(execution))
+                .isInstanceOf(OptimisticLockingFailureException.class);
+        assertThat(execution.getRevision()).isEqualTo(4L);
     }
 
     @Test
@@ -165,4 +285,254 @@ class WorkflowExecutionRepoRegistryTest {
         // validation
         verify(repository).deleteByWorkflowIdAndStatus(workflowId, WorkflowExecutionStatus.IDLE.getName());
     }
+
+    @Test
+    void shouldServeWorkflowExecutionFromCache_whenCached() {
+        // setup
+        var execution = new WorkflowExecution();
+        execution.setWorkflowExecutionId("exec-1");
+        when(cache.isEnabled()).thenReturn(true);
+        when(cache.get("exec-1")).thenReturn(execution);
+
+        // expectation
+        WorkflowExecution result = registry.getWorkflowExecution("exec-1");
+
+        // validation
+        assertThat(result).isSameAs(execution);
+        verify(repository, never()).findByWorkflowExecutionId(any());
+    }
+
+    @Test
+    void shouldCacheLoadedWorkflowExecution_whenCacheMisses() {
+        // setup
+        var execution = spy(new WorkflowExecution());
+        execution.setWorkflowExecutionId("exec-1");
+        when(cache.isEnabled()).thenReturn(true);
+        when(repository.findByWorkflowExecutionId("exec-1")).thenReturn(Optional.of(execution));
+
+        // expectation
+        WorkflowExecution result = registry.getWorkflowExecution("exec-1");
+
+        // validation
+        assertThat(result).isSameAs(execution);
+        verify(execution).inflate();
+        verify(cache).put(execution);
+    }
+
+    @Test
+    void shouldWriteBehind_whenRegisteringWithCacheEnabled() {
+        // setup
+        var execution = new WorkflowExecution();
+        execution.setWorkflowExecutionId("exec-1");
+        when(cache.isEnabled()).thenReturn(true);
+
+        // expectation
+        WorkflowExecution result = registry.register(execution);
+
+        // validation
+        assertThat(result).isSameAs(execution);
+        assertThat(execution.getCreatedDate()).isNotNull();
+        verify(cache).write(execution);
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    void shouldMarkCachedExecutionDirty_whenUpdatingCachedNode() {
+        // setup
+        var nodeExecution = new WorkflowNodeExecution();
+        nodeExecution.setWorkflowNodeExecutionId("node-exec-1");
+        var execution = new WorkflowExecution();
+        execution.setWorkflowExecutionId("exec-1");
+        execution.getNodeExecutionMap().put("node-exec-1", nodeExecution);
+        when(cache.isEnabled()).thenReturn(true);
+        when(cache.get("exec-1")).thenReturn(execution);
+
+        // expectation
+        registry.updateNodeExecution(execution, nodeExecution);
+
+        // validation
+        verify(cache).markDirty("exec-1");
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    @Test
+    void shouldUpdateCachedStatus_whenCached() {
+        // setup
+        var execution = new WorkflowExecution();
+        execution.setWorkflowExecutionId("exec-1");
+        when(cache.isEnabled()).thenReturn(true);
+        when(cache.get("exec-1")).thenReturn(execution);
+
+        // expectation
+        registry.updateStatus(execution, WorkflowExecutionStatus.SUCCESS);
+
+        // validation
+        assertThat(execution.getStatus()).isEqualTo(WorkflowExecutionStatus.SUCCESS);
+        verify(cache).markDirty("exec-1");
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    @Test
+    void shouldCommitTouchedNodesWithSingleBulkWrite() {
+        // setup
+        var parent = new WorkflowNodeExecution();
+        parent.setWorkflowNodeExecutionId("node-exec-1");
+        var untouched = new WorkflowNodeExecution();
+        untouched.setWorkflowNodeExecutionId("node-exec-2");
+        var execution = new WorkflowExecution();
+        execution.setId("id-1");
+        execution.setWorkflowExecutionId("exec-1");
+        execution.setStatus(WorkflowExecutionStatus.IN_PROGRESS);
+        execution.getNodes().add(parent);
+        execution.getNodes().add(untouched);
+        execution.flatten();
+        var child = new WorkflowNodeExecution();
+        child.setWorkflowNodeExecutionId("node-exec-3");
+        parent.getChildren().add(child);
+        BulkOperations bulkOperations = mock(BulkOperations.class);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, WorkflowExecution.class))
+                .thenReturn(bulkOperations);
+        when(bulkOperations.updateOne(any(Query.class), any(Update.class))).thenReturn(bulkOperations);
+        when(bulkOperations.execute()).thenReturn(matched(1));
+
+        // expectation
+        registry.commit(WorkflowExecutionUnitOfWork.of(execution).node(parent));
+
+        // validation
+        ArgumentCaptor<Update> captor = ArgumentCaptor.forClass(Update.class);
+        verify(bulkOperations).updateOne(any(Query.class), captor.capture());
+        verify(bulkOperations).execute();
+        var set = captor.getValue().getUpdateObject().get("$set", Document.class);
+        assertThat(set).containsKeys("nodeExecutionMap.node-exec-1", "nodeExecutionMap.node-exec-3",
+                "status", "updatedDate");
+        assertThat(set).doesNotContainKeys("nodeExecutionMap.node-exec-2", "rootNodeExecutionIds");
+        assertThat(parent.getChildrenIds()).containsExactly("node-exec-3");
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    void shouldUnsetUnreachableNodes_onCommit() {
+        // setup
+        var parent = new WorkflowNodeExecution();
+        parent.setWorkflowNodeExecutionId("node-exec-1");
+        var child = new WorkflowNodeExecution();
+        child.setWorkflowNodeExecutionId("node-exec-2");
+        parent.getChildren().add(child);
+        var execution = new WorkflowExecution();
+        execution.setId("id-1");
+        execution.setWorkflowExecutionId("exec-1");
+        execution.getNodes().add(parent);
+        execution.flatten();
+        parent.getChildren().clear();
+        BulkOperations bulkOperations = mock(BulkOperations.class);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, WorkflowExecution.class))
+                .thenReturn(bulkOperations);
+        when(bulkOperations.updateOne(any(Query.class), any(Update.class))).thenReturn(bulkOperations);
+        when(bulkOperations.execute()).thenReturn(matched(1));
+
+        // expectation
+        registry.commit(WorkflowExecutionUnitOfWork.of(execution).node(parent));
+
+        // validation
+        ArgumentCaptor<Update> captor = ArgumentCaptor.forClass(Update.class);
+        verify(bulkOperations).updateOne(any(Query.class), captor.capture());
+        var unset = captor.getValue().getUpdateObject().get("$unset", Document.class);
+        assertThat(unset).containsOnlyKeys("nodeExecutionMap.node-exec-2");
+    }
+
+    @Test
+    void shouldCommitOnlyAtLoadedRevision() {
+        // setup
+        var node = new WorkflowNodeExecution();
+        node.setWorkflowNodeExecutionId("node-exec-1");
+        var execution = new WorkflowExecution();
+        execution.setId("id-1");
+        execution.setWorkflowExecutionId("exec-1");
+        execution.setRevision(4L);
+        execution.getNodes().add(node);
+        BulkOperations bulkOperations = mock(BulkOperations.class);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, WorkflowExecution.class))
+                .thenReturn(bulkOperations);
+        when(bulkOperations.updateOne(any(Query.class), any(Update.class))).thenReturn(bulkOperations);
+        when(bulkOperations.execute()).thenReturn(matched(1));
+
+        // expectation
+        registry.commit(WorkflowExecutionUnitOfWork.of(execution).node(node));
+
+        // validation
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(bulkOperations).updateOne(query.capture(), update.capture());
+        assertThat(query.getValue().getQueryObject()).containsEntry("revision", 4L);
+        assertThat(update.getValue().getUpdateObject().get("$inc", Document.class)).containsEntry("revision", 1);
+        assertThat(execution.getRevision()).isEqualTo(5L);
+    }
+
+    @Test
+    void shouldRejectCommit_whenWrittenSinceLoaded() {
+        // setup
+        var node = new WorkflowNodeExecution();
+        node.setWorkflowNodeExecutionId("node-exec-1");
+        var execution = new WorkflowExecution();
+        execution.setId("id-1");
+        execution.setWorkflowExecutionId("exec-1");
+        execution.setRevision(4L);
+        execution.getNodes().add(node);
+        BulkOperations bulkOperations = mock(BulkOperations.class);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, WorkflowExecution.class))
+                .thenReturn(bulkOperations);
+        when(bulkOperations.updateOne(any(Query.class), any(Update.class))).thenReturn(bulkOperations);
+        when(bulkOperations.execute()).thenReturn(matched(0));
+
+        // expectation & validation
+        assertThatThrownBy(() -> registry.commit(WorkflowExecutionUnitOfWork.of(execution).node(node)))
+                .isInstanceOf(OptimisticLockingFailureException.class);
+        assertThat(execution.getRevision()).isEqualTo(4L);
+    }
+
+    @Test
+    void shouldSaveWholeExecution_whenCommittingUnsavedExecution() {
+        // setup
+        var execution = new WorkflowExecution();
+        execution.setWorkflowExecutionId("exec-1");
+        when(repository.save(execution)).thenReturn(execution);
+
+        // expectation
+        registry.commit(WorkflowExecutionUnitOfWork.of(execution));
+
+        // validation
+        verify(repository).save(execution);
+        verify(mongoTemplate, never()).bulkOps(any(BulkOperations.BulkMode.class), any(Class.class));
+    }
+
+    @Test
+    void shouldMarkCachedExecutionDirty_whenCommittingCachedExecution() {
+        // setup
+        var execution = new WorkflowExecution();
+        execution.setId("id-1");
+        execution.setWorkflowExecutionId("exec-1");
+        when(cache.isEnabled()).thenReturn(true);
+        when(cache.get("exec-1")).thenReturn(execution);
+
+        // expectation
+        registry.commit(WorkflowExecutionUnitOfWork.of(execution));
+
+        // validation
+        verify(cache).markDirty("exec-1");
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    private static WorkflowExecution execution(Long revision) {
+        var execution = new WorkflowExecution();
+        execution.setId("id-1");
+        execution.setWorkflowExecutionId("exec-1");
+        execution.setRevision(revision);
+        return execution;
+    }
+
+    private static BulkWriteResult matched(int count) {
+        BulkWriteResult result = mock(BulkWriteResult.class);
+        when(result.getMatchedCount()).thenReturn(count);
+        return result;
+    }
 }
@@ -0,0 +1,333 @@
+package dev.fusionize.workflow.replay;
+
+import dev.fusionize.common.test.TestMongoConfig;
+import dev.fusionize.common.test.TestMongoConversionConfig;
+import dev.fusionize.workflow.WorkflowExecution;
+import dev.fusionize.workflow.WorkflowExecutionStatus;
+import dev.fusionize.workflow.WorkflowNodeExecution;
+import dev.fusionize.workflow.WorkflowNodeExecutionState;
+import dev.fusionize.workflow.orchestrator.Orchestrator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DataMongoTest()
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = { TestMongoConfig.class, TestMongoConversionConfig.class})
+@ActiveProfiles("ut")
+class ReplayJobManagerTest {
+    static final Instant NOW = Instant.parse("2026-01-01T00:00:00Z");
+
+    @Autowired
+    MongoTemplate mongoTemplate;
+
+    Orchestrator orchestrator;
+    ReplayJobManager manager;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate.remove(new Query(), WorkflowExecution.class);
+        mongoTemplate.remove(new Query(), ReplayJob.class);
+        orchestrator = mock(Orchestrator.class);
+        when(orchestrator.replayExecution(anyString(), anyString(), anyString()))
+                .thenReturn(CompletableFuture.completedFuture(null));
+        ReplayJobProperties properties = new ReplayJobProperties();
+        properties.setBatchSize(2);
+        manager = new ReplayJobManager(properties, mongoTemplate, orchestrator, Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    @Test
+    void shouldReplayFailedNodesOfSelectedExecutions() throws Exception {
+        // setup
+        store("exec-1", "wf-1", WorkflowExecutionStatus.ERROR, NOW, "start");
+        store("exec-2", "wf-1", WorkflowExecutionStatus.IN_PROGRESS, NOW, "task");
+        store("exec-3", "wf-1", WorkflowExecutionStatus.SUCCESS, NOW);
+        store("exec-4", "wf-2", WorkflowExecutionStatus.ERROR, NOW, "start");
+        ReplayJob job = manager.submit(request("wf-1"));
+
+        // expectation
+        manager.run(job.getId());
+
+        // validation
+        verify(orchestrator).replayExecution("wf-1", "exec-1", "exec-1-start");
+        verify(orchestrator).replayExecution("wf-1", "exec-2", "exec-2-task");
+        verify(orchestrator, times(2)).replayExecution(anyString(), anyString(), anyString());
+        ReplayJob stored = manager.get(job.getId()).orElseThrow();
+        assertThat(stored.getState()).isEqualTo(ReplayJobState.COMPLETED);
+        assertThat(stored.getTotal()).isEqualTo(2);
+        assertThat(stored.getExecutions()).isEqualTo(3);
+        assertThat(stored.getReplayed()).isEqualTo(2);
+        assertThat(stored.getCursor()).isEqualTo("exec-3");
+        assertThat(stored.getRunner()).isNull();
+    }
+
+    @Test
+    void shouldSelectByStatusTimeRangeAndFailingNode() throws Exception {
+        // setup
+        store("exec-1", "wf-1", WorkflowExecutionStatus.IN_PROGRESS, NOW.minus(Duration.ofDays(2)), "task");
+        store("exec-2", "wf-1", WorkflowExecutionStatus.IN_PROGRESS, NOW.minus(Duration.ofHours(1)), "task");
+        store("exec-3", "wf-1", WorkflowExecutionStatus.IN_PROGRESS, NOW.minus(Duration.ofHours(1)), "other");
+        store("exec-4", "wf-1", WorkflowExecutionStatus.ERROR, NOW.minus(Duration.ofHours(1)), "task");
+        store("exec-5", "wf-1", WorkflowExecutionStatus.IN_PROGRESS, NOW, "task");
+        ReplayJob request = request("wf-1");
+        request.setStatus(WorkflowExecutionStatus.IN_PROGRESS);
+        request.setFrom(Date.from(NOW.minus(Duration.ofDays(1))));
+        request.setTo(Date.from(NOW));
+        request.setWorkflowNodeId("task");
+        ReplayJob job = manager.submit(request);
+
+        // expectation
+        manager.run(job.getId());
+
+        // validation
+        verify(orchestrator).replayExecution("wf-1", "exec-2", "exec-2-task");
+        verify(orchestrator, times(1)).replayExecution(anyString(), anyString(), anyString());
+        assertThat(manager.get(job.getId()).orElseThrow().getTotal()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldResumeAfterStoredCursor() throws Exception {
+        // setup
+        store("exec-1", "wf-1", WorkflowExecutionStatus.ERROR, NOW, "start");
+        store("exec-2", "wf-1", WorkflowExecutionStatus.ERROR, NOW, "start");
+        store("exec-3", "wf-1", WorkflowExecutionStatus.ERROR, NOW, "start");
+        ReplayJob job = manager.submit(request("wf-1"));
+        // a previous runner stored its progress and went away
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(job.getId())),
+                new Update().set("cursor", "exec-2").set("runner", "replay-gone")
+                        .set("leaseExpiresAt", Date.from(NOW.minusSeconds(1))),
+                ReplayJob.class);
+
+        // expectation
+        manager.poll();
+
+        // validation
+        verify(orchestrator).replayExecution("wf-1", "exec-3", "exec-3-start");
+        verify(orchestrator, times(1)).replayExecution(anyString(), anyString(), anyString());
+        assertThat(manager.get(job.getId()).orElseThrow().getState()).isEqualTo(ReplayJobState.COMPLETED);
+    }
+
+    @Test
+    void shouldNotRunJobLeasedToAnotherRunner() throws Exception {
+        // setup
+        store("exec-1", "wf-1", WorkflowExecutionStatus.ERROR, NOW, "start");
+        ReplayJob job = manager.submit(request("wf-1"));
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(job.getId())),
+                new Update().set("runner", "replay-other")
+                        .set("leaseExpiresAt", Date.from(NOW.plusSeconds(30))),
+                ReplayJob.class);
+
+        // expectation
+        manager.poll();
+        manager.run(job.getId());
+
+        // validation
+        verify(orchestrator, never()).replayExecution(anyString(), anyString(), anyString());
+        assertThat(manager.get(job.getId()).orElseThrow().getState()).isEqualTo(ReplayJobState.RUNNING);
+    }
+
+    @Test
+    void shouldStopAtBatchBoundary_whenPaused() throws Exception {
+        // setup
+        for (int i = 1; i <= 4; i++) {
+            store("exec-" + i, "wf-1", WorkflowExecutionStatus.ERROR, NOW, "start");
+        }
+        ReplayJob job = manager.submit(request("wf-1"));
+        doAnswer(invocation -> {
+            manager.pause(job.getId());
+            return CompletableFuture.completedFuture(null);
+        }).when(orchestrator).replayExecution("wf-1", "exec-1", "exec-1-start");
+
+        // expectation
+        manager.run(job.getId());
+        ReplayJob paused = manager.get(job.getId()).orElseThrow();
+        manager.resume(job.getId());
+        manager.run(job.getId());
+
+        // validation
+        assertThat(paused.getState()).isEqualTo(ReplayJobState.PAUSED);
+        assertThat(paused.getReplayed()).isEqualTo(2);
+        assertThat(paused.getCursor()).isEqualTo("exec-2");
+        assertThat(paused.getRunner()).isNull();
+        verify(orchestrator, times(4)).replayExecution(anyString(), anyString(), anyString());
+        ReplayJob completed = manager.get(job.getId()).orElseThrow();
+        assertThat(completed.getState()).isEqualTo(ReplayJobState.COMPLETED);
+        assertThat(completed.getReplayed()).isEqualTo(4);
+    }
+
+    @Test
+    void shouldCountFailedReplays() throws Exception {
+        // setup
+        store("exec-1", "wf-1", WorkflowExecutionStatus.ERROR, NOW, "start");
+        store("exec-2", "wf-1", WorkflowExecutionStatus.ERROR, NOW, "start");
+        doThrow(new IllegalStateException("node is gone"))
+                .when(orchestrator).replayExecution("wf-1", "exec-1", "exec-1-start");
+        ReplayJob job = manager.submit(request("wf-1"));
+
+        // expectation
+        manager.run(job.getId());
+
+        // validation
+        ReplayJob stored = manager.get(job.getId()).orElseThrow();
+        assertThat(stored.getState()).isEqualTo(ReplayJobState.COMPLETED);
+        assertThat(stored.getReplayed()).isEqualTo(1);
+        assertThat(stored.getFailed()).isEqualTo(1);
+        assertThat(stored.getLastError()).contains("node is gone");
+    }
+
+    @Test
+    void shouldCountAsyncReplayFailures() throws Exception {
+        // setup
+        store("exec-1", "wf-1", WorkflowExecutionStatus.ERROR, NOW, "start");
+        when(orchestrator.replayExecution("wf-1", "exec-1", "exec-1-start"))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("conflict")));
+        ReplayJob job = manager.submit(request("wf-1"));
+
+        // expectation
+        manager.run(job.getId());
+
+        // validation
+        ReplayJob stored = manager.get(job.getId()).orElseThrow();
+        assertThat(stored.getReplayed()).isZero();
+        assertThat(stored.getFailed()).isEqualTo(1);
+        assertThat(stored.getLastError()).contains("conflict");
+    }
+
+    @Test
+    void shouldWaitForReplayedNodesStillWorking() throws Exception {
+        // setup
+        store("exec-1", "wf-1", WorkflowExecutionStatus.ERROR, NOW, "start");
+        store("exec-2", "wf-1", WorkflowExecutionStatus.ERROR, NOW, "start");
+        ReplayJob request = request("wf-1");
+        request.setConcurrency(1);
+        ReplayJob job = manager.submit(request);
+        AtomicReference<WorkflowNodeExecutionState> firstWhenSecondReplayed = new AtomicReference<>();
+        when(orchestrator.replayExecution("wf-1", "exec-1", "exec-1-start")).thenAnswer(invocation -> {
+            setState("exec-1", "exec-1-start", WorkflowNodeExecutionState.WORKING);
+            CompletableFuture.runAsync(() -> setState("exec-1", "exec-1-start", WorkflowNodeExecutionState.DONE),
+                    CompletableFuture.delayedExecutor(700, TimeUnit.MILLISECONDS));
+            return CompletableFuture.completedFuture(null);
+        });
+        when(orchestrator.replayExecution("wf-1", "exec-2", "exec-2-start")).thenAnswer(invocation -> {
+            firstWhenSecondReplayed.set(stateOf("exec-1", "exec-1-start"));
+            return CompletableFuture.completedFuture(null);
+        });
+
+        // expectation
+        manager.run(job.getId());
+
+        // validation
+        assertThat(firstWhenSecondReplayed.get()).isEqualTo(WorkflowNodeExecutionState.DONE);
+        assertThat(manager.get(job.getId()).orElseThrow().getReplayed()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldBoundRateAndConcurrency() {
+        // setup
+        ReplayJob request = request("wf-1");
+        request.setRate(1_000_000);
+        request.setConcurrency(0);
+
+        // expectation
+        ReplayJob job = manager.submit(request);
+
+        // validation
+        assertThat(job.getRate()).isEqualTo(1_000);
+        assertThat(job.getConcurrency()).isEqualTo(4);
+        request.setConcurrency(1_000);
+        assertThat(manager.submit(request).getConcurrency()).isEqualTo(32);
+        assertThatThrownBy(() -> manager.submit(new ReplayJob()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void shouldRejectInvalidTransitions() {
+        // setup
+        ReplayJob job = manager.submit(request("wf-1"));
+
+        // expectation
+        manager.cancel(job.getId());
+
+        // validation
+        assertThatThrownBy(() -> manager.resume(job.getId()))
+                .isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> manager.pause(job.getId()))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(manager.pause("missing")).isEmpty();
+        assertThat(manager.get(job.getId()).orElseThrow().getState()).isEqualTo(ReplayJobState.CANCELLED);
+    }
+
+    private ReplayJob request(String workflowId) {
+        ReplayJob request = new ReplayJob();
+        request.setWorkflowId(workflowId);
+        request.setRate(1_000);
+        return request;
+    }
+
+    private void store(String workflowExecutionId, String workflowId, WorkflowExecutionStatus status,
+                       Instant createdDate, String... failedNodeIds) {
+        WorkflowExecution execution = new WorkflowExecution();
+        execution.setWorkflowExecutionId(workflowExecutionId);
+        execution.setWorkflowId(workflowId);
+        execution.setStatus(status);
+        execution.setCreatedDate(createdDate);
+        WorkflowNodeExecution done = node(workflowExecutionId, "done", WorkflowNodeExecutionState.DONE);
+        execution.getNodeExecutionMap().put(done.getWorkflowNodeExecutionId(), done);
+        for (String failedNodeId : failedNodeIds) {
+            WorkflowNodeExecution failed = node(workflowExecutionId, failedNodeId, WorkflowNodeExecutionState.FAILED);
+            execution.getNodeExecutionMap().put(failed.getWorkflowNodeExecutionId(), failed);
+        }
+        mongoTemplate.insert(execution);
+    }
+
+    private void setState(String workflowExecutionId, String workflowNodeExecutionId,
+                          WorkflowNodeExecutionState state) {
+        mongoTemplate.updateFirst(Query.query(Criteria.where("workflowExecutionId").is(workflowExecutionId)),
+                new Update().set("nodeExecutionMap." + workflowNodeExecutionId + ".state", state),
+                WorkflowExecution.class);
+    }
+
+    private WorkflowNodeExecutionState stateOf(String workflowExecutionId, String workflowNodeExecutionId) {
+        WorkflowExecution execution = mongoTemplate.findOne(
+                Query.query(Criteria.where("workflowExecutionId").is(workflowExecutionId)), WorkflowExecution.class);
+        return execution.getNodeExecutionMap().get(workflowNodeExecutionId).getState();
+    }
+
+    private WorkflowNodeExecution node(String workflowExecutionId, String workflowNodeId,
+                                       WorkflowNodeExecutionState state) {
+        WorkflowNodeExecution node = new WorkflowNodeExecution();
+        node.setWorkflowNodeId(workflowNodeId);
+        node.setWorkflowNodeExecutionId(workflowExecutionId + "-" + workflowNodeId);
+        node.setState(state);
+        return node;
+    }
+}
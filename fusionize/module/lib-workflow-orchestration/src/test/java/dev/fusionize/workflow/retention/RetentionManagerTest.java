@@ -0,0 +1,158 @@
+package dev.fusionize.workflow.retention;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class RetentionManagerTest {
+
+    private MongoTemplate mongoTemplate;
+    private WorkflowArchive archive;
+    private IndexOperations eventIndexes;
+    private IndexOperations logIndexes;
+    private IndexOperations interactionIndexes;
+    private RetentionProperties properties;
+    private RetentionManager manager;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        archive = mock(WorkflowArchive.class);
+        eventIndexes = mock(IndexOperations.class);
+        logIndexes = mock(IndexOperations.class);
+        interactionIndexes = mock(IndexOperations.class);
+        when(mongoTemplate.indexOps("workflow-event")).thenReturn(eventIndexes);
+        when(mongoTemplate.indexOps("workflow-log")).thenReturn(logIndexes);
+        when(mongoTemplate.indexOps("workflow-interaction")).thenReturn(interactionIndexes);
+        properties = new RetentionProperties();
+        properties.setBatchSize(2);
+        manager = new RetentionManager(properties, mongoTemplate, archive,
+                Clock.fixed(Instant.parse("2026-01-10T00:00:00Z"), ZoneOffset.UTC));
+    }
+
+    @Test
+    void shouldCreateTtlIndex_whenPolicyHasTtlWithoutArchive() {
+        // setup
+        properties.getLog().setTtl(Duration.ofDays(7));
+
+        // expectation
+        manager.ensureIndexes();
+
+        // validation
+        ArgumentCaptor<Index> index = ArgumentCaptor.forClass(Index.class);
+        verify(logIndexes).ensureIndex(index.capture());
+        assertThat(index.getValue().getIndexOptions().getString("name")).isEqualTo(RetentionManager.TTL_INDEX);
+        assertThat(index.getValue().getIndexOptions().getLong("expireAfterSeconds"))
+                .isEqualTo(Duration.ofDays(7).toSeconds());
+        verify(eventIndexes, never()).ensureIndex(any());
+    }
+
+    @Test
+    void shouldReplaceTtlIndex_whenTtlChanged() {
+        // setup
+        properties.getEvent().setTtl(Duration.ofDays(7));
+        IndexInfo existing = ttlIndex(Duration.ofDays(30));
+        when(eventIndexes.getIndexInfo()).thenReturn(List.of(existing));
+
+        // expectation
+        manager.ensureIndexes();
+
+        // validation
+        verify(eventIndexes).dropIndex(RetentionManager.TTL_INDEX);
+        verify(eventIndexes).ensureIndex(any(Index.class));
+    }
+
+    @Test
+    void shouldKeepTtlIndex_whenUnchanged() {
+        // setup
+        properties.getEvent().setTtl(Duration.ofDays(7));
+        IndexInfo existing = ttlIndex(Duration.ofDays(7));
+        when(eventIndexes.getIndexInfo()).thenReturn(List.of(existing));
+
+        // expectation
+        manager.ensureIndexes();
+
+        // validation
+        verify(eventIndexes, never()).dropIndex(any(String.class));
+        verify(eventIndexes, never()).ensureIndex(any(Index.class));
+    }
+
+    @Test
+    void shouldDropTtlIndex_whenPolicyArchives() {
+        // setup
+        properties.getInteraction().setTtl(Duration.ofDays(7));
+        properties.getInteraction().setArchive(true);
+        IndexInfo existing = ttlIndex(Duration.ofDays(7));
+        when(interactionIndexes.getIndexInfo()).thenReturn(List.of(existing));
+
+        // expectation
+        manager.ensureIndexes();
+
+        // validation
+        verify(interactionIndexes).dropIndex(RetentionManager.TTL_INDEX);
+        ArgumentCaptor<Index> index = ArgumentCaptor.forClass(Index.class);
+        verify(interactionIndexes).ensureIndex(index.capture());
+        assertThat(index.getValue().getIndexOptions().getString("name"))
+                .isEqualTo(RetentionManager.TIMESTAMP_INDEX);
+    }
+
+    @Test
+    void shouldDropTimestampIndexBeforeCreatingTtlIndex_whenPolicyStopsArchiving() {
+        // setup
+        properties.getEvent().setTtl(Duration.ofDays(7));
+        IndexInfo existing = mock(IndexInfo.class);
+        when(existing.getName()).thenReturn(RetentionManager.TIMESTAMP_INDEX);
+        when(eventIndexes.getIndexInfo()).thenReturn(List.of(existing));
+
+        // expectation
+        manager.ensureIndexes();
+
+        // validation
+        InOrder inOrder = inOrder(eventIndexes);
+        inOrder.verify(eventIndexes).dropIndex(RetentionManager.TIMESTAMP_INDEX);
+        ArgumentCaptor<Index> index = ArgumentCaptor.forClass(Index.class);
+        inOrder.verify(eventIndexes).ensureIndex(index.capture());
+        assertThat(index.getValue().getIndexOptions().getString("name")).isEqualTo(RetentionManager.TTL_INDEX);
+        verify(eventIndexes, never()).dropIndex(RetentionManager.TTL_INDEX);
+    }
+
+    @Test
+    void shouldArchiveInBatches_untilBacklogIsDrained() throws Exception {
+        // setup
+        properties.getEvent().setTtl(Duration.ofDays(7));
+        properties.getEvent().setArchive(true);
+        Instant cutoff = Instant.parse("2026-01-03T00:00:00Z");
+        when(archive.archiveExpired(RetainedCollection.EVENT, cutoff)).thenReturn(2, 2, 1);
+
+        // expectation
+        manager.run();
+
+        // validation
+        verify(archive, times(3)).archiveExpired(RetainedCollection.EVENT, cutoff);
+        verify(archive, never()).archiveExpired(eq(RetainedCollection.LOG), any());
+    }
+
+    private static IndexInfo ttlIndex(Duration expireAfter) {
+        IndexInfo info = mock(IndexInfo.class);
+        when(info.getName()).thenReturn(RetentionManager.TTL_INDEX);
+        when(info.getExpireAfter()).thenReturn(Optional.of(expireAfter));
+        return info;
+    }
+}
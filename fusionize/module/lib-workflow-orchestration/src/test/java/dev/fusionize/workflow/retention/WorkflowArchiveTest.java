@@ -0,0 +1,153 @@
+package dev.fusionize.workflow.retention;
+
+import dev.fusionize.storage.StorageConfig;
+import dev.fusionize.storage.StorageConfigManager;
+import dev.fusionize.storage.file.FileStorageServiceLocal;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class WorkflowArchiveTest {
+
+    @TempDir
+    Path directory;
+
+    private MongoTemplate mongoTemplate;
+    private RetentionProperties properties;
+    private WorkflowArchive archive;
+    private final List<ArchiveChunk> manifest = new ArrayList<>();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() throws Exception {
+        mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.save(any(ArchiveChunk.class))).thenAnswer(invocation -> {
+            manifest.add(invocation.getArgument(0));
+            return invocation.getArgument(0);
+        });
+        when(mongoTemplate.find(any(Query.class), eq(ArchiveChunk.class))).thenAnswer(invocation -> manifest);
+
+        StorageConfig config = new StorageConfig();
+        StorageConfigManager manager = mock(StorageConfigManager.class);
+        when(manager.getConfig("archive-store")).thenReturn(Optional.of(config));
+        when(manager.getFileStorageService(config))
+                .thenReturn(new FileStorageServiceLocal(directory.toString()));
+        ObjectProvider<StorageConfigManager> provider = mock(ObjectProvider.class);
+        when(provider.getIfAvailable()).thenReturn(manager);
+
+        properties = new RetentionProperties();
+        properties.setEnabled(true);
+        properties.setArchiveStorage("archive-store");
+        archive = new WorkflowArchive(properties, mongoTemplate, provider);
+    }
+
+    @Test
+    void shouldArchiveChunksGroupedByExecution() throws Exception {
+        // setup
+        List<Document> expired = List.of(
+                log("log-1", "exec-1", 1_000),
+                log("log-2", "exec-2", 2_000),
+                log("log-3", "exec-1", 3_000));
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("workflow-log"))).thenReturn(expired);
+
+        // expectation
+        int archived = archive.archiveExpired(RetainedCollection.LOG, Instant.ofEpochMilli(10_000));
+
+        // validation
+        assertThat(archived).isEqualTo(3);
+        assertThat(manifest).extracting(ArchiveChunk::getGroupKey).containsExactly("exec-1", "exec-2");
+        ArchiveChunk first = manifest.get(0);
+        assertThat(first.getCount()).isEqualTo(2);
+        assertThat(first.getFrom()).isEqualTo(new Date(1_000));
+        assertThat(first.getTo()).isEqualTo(new Date(3_000));
+        assertThat(first.getPath()).startsWith("archive/workflow-log/exec-1/1000-").endsWith(".ndjson.gz");
+        try (Stream<Path> files = Files.walk(directory)) {
+            assertThat(files.filter(Files::isRegularFile).count()).isEqualTo(2);
+        }
+        verify(mongoTemplate, times(2)).remove(any(Query.class), eq("workflow-log"));
+    }
+
+    @Test
+    void shouldReadArchivedDocumentsBack() throws Exception {
+        // setup
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("workflow-log")))
+                .thenReturn(List.of(log("log-1", "exec-1", 1_000), log("log-2", "exec-1", 2_000)));
+        archive.archiveExpired(RetainedCollection.LOG, Instant.ofEpochMilli(10_000));
+
+        // expectation
+        List<Document> documents = archive.read(RetainedCollection.LOG, "exec-1");
+
+        // validation
+        assertThat(documents).extracting(d -> d.get("_id")).containsExactly("log-1", "log-2");
+        assertThat(documents.get(0).getDate("timestamp")).isEqualTo(new Date(1_000));
+        assertThat(documents.get(0).getString("message")).isEqualTo("message log-1");
+    }
+
+    @Test
+    void shouldSkipDuplicates_whenChunkWasWrittenTwice() throws Exception {
+        // setup
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("workflow-log")))
+                .thenReturn(List.of(log("log-1", "exec-1", 1_000)));
+        archive.archiveExpired(RetainedCollection.LOG, Instant.ofEpochMilli(10_000));
+        archive.archiveExpired(RetainedCollection.LOG, Instant.ofEpochMilli(10_000));
+
+        // expectation
+        List<Document> documents = archive.read(RetainedCollection.LOG, "exec-1");
+
+        // validation
+        assertThat(manifest).hasSize(2);
+        assertThat(documents).hasSize(1);
+    }
+
+    @Test
+    void shouldNotRemoveDocuments_whenStorageIsMissing() throws Exception {
+        // setup
+        properties.setArchiveStorage("missing");
+
+        // expectation
+        int archived = archive.archiveExpired(RetainedCollection.LOG, Instant.ofEpochMilli(10_000));
+
+        // validation
+        assertThat(archived).isZero();
+        verify(mongoTemplate, never()).remove(any(Query.class), any(String.class));
+    }
+
+    @Test
+    void shouldGroupByFirstPresentField() {
+        // setup
+        Document correlated = new Document("correlationId", "corr-1");
+
+        // expectation
+        String key = WorkflowArchive.groupKey(RetainedCollection.EVENT, correlated);
+
+        // validation
+        assertThat(key).isEqualTo("corr-1");
+        assertThat(WorkflowArchive.groupKey(RetainedCollection.LOG, new Document()))
+                .isEqualTo(WorkflowArchive.UNGROUPED);
+    }
+
+    private static Document log(String id, String workflowExecutionId, long timestamp) {
+        return new Document("_id", id)
+                .append("workflowExecutionId", workflowExecutionId)
+                .append("timestamp", new Date(timestamp))
+                .append("message", "message " + id);
+    }
+}
@@ -0,0 +1,151 @@
+package dev.fusionize.workflow;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable, index-based form of a {@link Workflow} graph used on the
+ * orchestration hot path.
+ * <p>
+ * Every node gets a dense int index. Children are kept per index, node types
+ * in bitsets, and the option set of every decision node is prepared once, so
+ * a navigation step only touches the nodes adjacent to the current one.
+ */
+public final class CompiledWorkflow {
+    private final WorkflowNode[] nodes;
+    private final Map<String, Integer> indexById;
+    private final List<WorkflowNode>[] childNodes;
+    private final BitSet roots;
+    private final List<WorkflowNode> rootNodes;
+    private final Map<WorkflowNodeType, BitSet> nodesByType;
+    private final Map<String, Boolean>[] decisionOptions;
+
+    @SuppressWarnings("unchecked")
+    private CompiledWorkflow(List<WorkflowNode> ordered, List<WorkflowNode> rootNodes) {
+        int size = ordered.size();
+        this.nodes = ordered.toArray(new WorkflowNode[0]);
+        this.indexById = new HashMap<>(size * 2);
+        for (int i = 0; i < size; i++) {
+            indexById.put(nodes[i].getWorkflowNodeId(), i);
+        }
+        this.childNodes = new List[size];
+        this.decisionOptions = new Map[size];
+        this.roots = new BitSet(size);
+        this.rootNodes = List.copyOf(rootNodes);
+        this.nodesByType = new EnumMap<>(WorkflowNodeType.class);
+        for (WorkflowNodeType type : WorkflowNodeType.values()) {
+            nodesByType.put(type, new BitSet(size));
+        }
+
+        for (WorkflowNode root : rootNodes) {
+            roots.set(indexById.get(root.getWorkflowNodeId()));
+        }
+        for (int i = 0; i < size; i++) {
+            WorkflowNode node = nodes[i];
+            List<WorkflowNode> nodeChildren = node.getChildren() != null ? node.getChildren() : List.of();
+            childNodes[i] = Collections.unmodifiableList(new ArrayList<>(nodeChildren));
+            if (node.getType() != null) {
+                nodesByType.get(node.getType()).set(i);
+            }
+            if (WorkflowNodeType.DECISION.equals(node.getType())) {
+                Map<String, Boolean> options = new LinkedHashMap<>();
+                nodeChildren.forEach(cn -> options.put(cn.getWorkflowNodeKey(), false));
+                decisionOptions[i] = Collections.unmodifiableMap(options);
+            }
+        }
+    }
+
+    /**
+     * Compiles the node graph reachable from the workflow's root nodes,
+     * including compensation nodes.
+     */
+    public static CompiledWorkflow compile(Workflow workflow) {
+        List<WorkflowNode> rootNodes = workflow.getNodes() != null ? workflow.getNodes() : List.of();
+        List<WorkflowNode> ordered = new ArrayList<>();
+        Set<String> visited = new HashSet<>();
+        Deque<WorkflowNode> pending = new ArrayDeque<>(rootNodes);
+        while (!pending.isEmpty()) {
+            WorkflowNode node = pending.poll();
+            if (!visited.add(node.getWorkflowNodeId())) {
+                continue;
+            }
+            ordered.add(node);
+            if (node.getChildren() != null) {
+                pending.addAll(node.getChildren());
+            }
+            if (node.getCompensateNodes() != null) {
+                pending.addAll(node.getCompensateNodes());
+            }
+        }
+        return new CompiledWorkflow(ordered, rootNodes);
+    }
+
+    public int size() {
+        return nodes.length;
+    }
+
+    /**
+     * Returns the index of a workflow node, or {@code -1} if it is not part of
+     * this workflow.
+     */
+    public int indexOf(String workflowNodeId) {
+        Integer index = workflowNodeId == null ? null : indexById.get(workflowNodeId);
+        return index == null ? -1 : index;
+    }
+
+    public WorkflowNode node(int index) {
+        return nodes[index];
+    }
+
+    public List<WorkflowNode> children(int index) {
+        return childNodes[index];
+    }
+
+    public boolean isRoot(int index) {
+        return index >= 0 && roots.get(index);
+    }
+
+    /**
+     * The nodes an execution of the workflow starts with.
+     */
+    public List<WorkflowNode> rootNodes() {
+        return rootNodes;
+    }
+
+    public boolean isType(int index, WorkflowNodeType type) {
+        return index >= 0 && type != null && nodesByType.get(type).get(index);
+    }
+
+    /**
+     * Returns a fresh, mutable option map (all options unselected) for a
+     * decision node, or {@code null} if the node is not a decision.
+     */
+    public Map<String, Boolean> decisionOptions(int index) {
+        Map<String, Boolean> options = decisionOptions[index];
+        return options == null ? null : new HashMap<>(options);
+    }
+
+    /**
+     * Returns the children of a decision node whose option is selected.
+     */
+    public List<WorkflowNode> selectedOptions(int index, Map<String, Boolean> selection) {
+        List<WorkflowNode> selected = new ArrayList<>();
+        for (WorkflowNode child : childNodes[index]) {
+            if (child.getWorkflowNodeKey() != null
+                    && Boolean.TRUE.equals(selection.get(child.getWorkflowNodeKey()))) {
+                selected.add(child);
+            }
+        }
+        return selected;
+    }
+}
@@ -17,7 +17,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 
-@JsonIgnoreProperties({"nodes"})
+@JsonIgnoreProperties({"nodes", "compiledWorkflow"})
 @Document(collection = "workflow")
 public class Workflow extends DomainEntity {
     private static final NodeAdapter<WorkflowNode, String> workflowAdapter =
@@ -33,10 +33,13 @@ public class Workflow extends DomainEntity {
     private List<String> rootNodeIds = new ArrayList<>();
     @Transient
     private List<WorkflowNode> nodes = new ArrayList<>();
+    @Transient
+    private CompiledWorkflow compiledWorkflow;
 
 
 
     public void flatten() {
+        this.compiledWorkflow = null;
         this.nodeMap.clear();
         this.rootNodeIds.clear();
         FlattenResult<WorkflowNode, String> result =
@@ -47,6 +50,7 @@ public class Workflow extends DomainEntity {
     }
 
     public void inflate() {
+        this.compiledWorkflow = null;
         this.nodes.clear();
         Collection<WorkflowNode> roots =
                 GraphUtil.inflate(
@@ -249,6 +253,24 @@ public class Workflow extends DomainEntity {
 
     public void setNodes(List<WorkflowNode> nodes) {
         this.nodes = nodes;
+        this.compiledWorkflow = null;
+    }
+
+    /**
+     * Returns the compiled graph, compiling it on first use when the workflow
+     * did not come from the registry.
+     */
+    public CompiledWorkflow getCompiledWorkflow() {
+        CompiledWorkflow compiled = compiledWorkflow;
+        if (compiled == null) {
+            compiled = CompiledWorkflow.compile(this);
+            compiledWorkflow = compiled;
+        }
+        return compiled;
+    }
+
+    public void setCompiledWorkflow(CompiledWorkflow compiledWorkflow) {
+        this.compiledWorkflow = compiledWorkflow;
     }
 
     public Map<String, WorkflowNode> getNodeMap() {
@@ -15,9 +15,6 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 @JsonIgnoreProperties({"workflow"})
 @Document(collection = "workflow-execution")
@@ -33,11 +30,15 @@ public class WorkflowExecution {
     private WorkflowExecutionStatus status;
     private Instant createdDate;
     private Instant updatedDate;
+    // incremented by every write, null for executions stored before it was kept
+    private Long revision;
 
     @Transient
     private Workflow workflow;
     @Transient
     private List<WorkflowNodeExecution> nodes = new ArrayList<>();
+    @Transient
+    private WorkflowNodeExecutionIndex index;
 
     public void flatten() {
         this.nodeExecutionMap.clear();
@@ -50,6 +51,7 @@ public class WorkflowExecution {
     }
 
     public void inflate() {
+        this.index = null;
         this.nodes.clear();
         Collection<WorkflowNodeExecution> roots =
                 GraphUtil.inflate(
@@ -73,35 +75,75 @@ public class WorkflowExecution {
     }
 
     public WorkflowNodeExecution findNodeByWorkflowNodeExecutionId(String workflowNodeExecutionId) {
-        if (nodeExecutionMap.containsKey(workflowNodeExecutionId)) {
-            return nodeExecutionMap.get(workflowNodeExecutionId);
-        }
-        return nodes.stream()
-                .filter(n -> n.getWorkflowNodeExecutionId().equals(workflowNodeExecutionId))
-                .findFirst()
-                .orElseGet(() -> nodes.stream()
-                        .map(n -> n.findNodeByWorkflowNodeExecutionId(workflowNodeExecutionId))
-                        .filter(Objects::nonNull)
-                        .findFirst()
-                        .orElse(null));
+        return index().get(workflowNodeExecutionId);
     }
 
     public List<WorkflowNodeExecution> findNodesByWorkflowNodeId(String workflowNodeId) {
-        // Search in map first if populated
-        if (!nodeExecutionMap.isEmpty()) {
-            return nodeExecutionMap.values().stream()
-                    .filter(n -> n.getWorkflowNodeId().equals(workflowNodeId))
-                    .collect(Collectors.toList());
+        return new ArrayList<>(index().getByWorkflowNodeId(workflowNodeId));
+    }
+
+    public WorkflowNodeExecution findParentNode(String workflowNodeExecutionId) {
+        return index().getParent(workflowNodeExecutionId);
+    }
+
+    /**
+     * Adds a root node execution, keeping the lookup indexes in sync.
+     */
+    public void addNode(WorkflowNodeExecution nodeExecution) {
+        nodes.add(nodeExecution);
+        if (index != null) {
+            index.addTree(null, nodeExecution);
+        }
+    }
+
+    /**
+     * Re-adds a node execution as the last root, replacing the root with the
+     * same execution id if there is one. The replaced root's subtree leaves
+     * the lookup indexes with it.
+     */
+    public void replaceNode(WorkflowNodeExecution nodeExecution) {
+        String id = nodeExecution.getWorkflowNodeExecutionId();
+        nodes.removeIf(existing -> {
+            if (!existing.getWorkflowNodeExecutionId().equals(id)) {
+                return false;
+            }
+            if (index != null) {
+                index.removeTree(existing);
+            }
+            return true;
+        });
+        addNode(nodeExecution);
+    }
+
+    /**
+     * Attaches child node executions to a parent, keeping the lookup indexes
+     * in sync.
+     */
+    public void addChildren(WorkflowNodeExecution parent, List<WorkflowNodeExecution> children) {
+        parent.getChildren().addAll(children);
+        if (index != null) {
+            children.forEach(child -> index.addTree(parent, child));
         }
-        
-        // Fallback to searching in tree
-        List<WorkflowNodeExecution> nodesByWorkflowNodeId =  nodes.stream()
-                .filter(n -> n.getWorkflowNodeId().equals(workflowNodeId)).toList();
-        List<WorkflowNodeExecution> childrenNodesByWorkflowNodeId = nodes.stream()
-                .map(n -> n.findNodesByWorkflowNodeId(workflowNodeId))
-                .flatMap(Collection::stream).toList();
-        return Stream.concat(nodesByWorkflowNodeId.stream(), childrenNodesByWorkflowNodeId.stream())
-                .collect(Collectors.toList());
+    }
+
+    /**
+     * Detaches all children of a node execution, keeping the lookup indexes
+     * in sync.
+     */
+    public void clearChildren(WorkflowNodeExecution parent) {
+        if (index != null) {
+            index.removeDescendants(parent);
+        }
+        parent.setChildren(new ArrayList<>());
+    }
+
+    private WorkflowNodeExecutionIndex index() {
+        WorkflowNodeExecutionIndex current = index;
+        if (current == null) {
+            current = WorkflowNodeExecutionIndex.build(nodes, nodeExecutionMap);
+            index = current;
+        }
+        return current;
     }
 
     public WorkflowExecution renew() {
@@ -165,6 +207,7 @@ public class WorkflowExecution {
 
     public void setNodes(List<WorkflowNodeExecution> nodes) {
         this.nodes = nodes;
+        this.index = null;
     }
 
     public WorkflowExecutionStatus getStatus() {
@@ -189,6 +232,9 @@ public class WorkflowExecution {
 
     public void setNodeExecutionMap(Map<String, WorkflowNodeExecution> nodeExecutionMap) {
         this.nodeExecutionMap = nodeExecutionMap;
+        if (nodes.isEmpty()) {
+            this.index = null;
+        }
     }
 
     public List<String> getRootNodeExecutionIds() {
@@ -214,4 +260,16 @@ public class WorkflowExecution {
     public void setUpdatedDate(Instant updatedDate) {
         this.updatedDate = updatedDate;
     }
+
+    /**
+     * The stored revision this copy was loaded at. Targeted writes only apply
+     * to the document while it is still at this revision.
+     */
+    public Long getRevision() {
+        return revision;
+    }
+
+    public void setRevision(Long revision) {
+        this.revision = revision;
+    }
 }
@@ -0,0 +1,121 @@
+package dev.fusionize.workflow;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Secondary indexes over the node executions of one {@link WorkflowExecution}:
+ * by execution id, by workflow node id and by parent.
+ */
+class WorkflowNodeExecutionIndex {
+    private final Map<String, WorkflowNodeExecution> byExecutionId = new HashMap<>();
+    private final Map<String, List<WorkflowNodeExecution>> byWorkflowNodeId = new LinkedHashMap<>();
+    private final Map<String, WorkflowNodeExecution> parentByExecutionId = new HashMap<>();
+
+    static WorkflowNodeExecutionIndex build(Collection<WorkflowNodeExecution> roots,
+                                            Map<String, WorkflowNodeExecution> nodeExecutionMap) {
+        WorkflowNodeExecutionIndex index = new WorkflowNodeExecutionIndex();
+        roots.forEach(root -> index.addTree(null, root));
+        // node executions that are only known from the flattened map
+        for (WorkflowNodeExecution node : nodeExecutionMap.values()) {
+            index.add(null, node);
+        }
+        for (WorkflowNodeExecution node : nodeExecutionMap.values()) {
+            if (node.getChildrenIds() == null) {
+                continue;
+            }
+            for (String childId : node.getChildrenIds()) {
+                if (index.byExecutionId.containsKey(childId)) {
+                    index.parentByExecutionId.putIfAbsent(childId, node);
+                }
+            }
+        }
+        return index;
+    }
+
+    WorkflowNodeExecution get(String workflowNodeExecutionId) {
+        return byExecutionId.get(workflowNodeExecutionId);
+    }
+
+    List<WorkflowNodeExecution> getByWorkflowNodeId(String workflowNodeId) {
+        return byWorkflowNodeId.getOrDefault(workflowNodeId, List.of());
+    }
+
+    WorkflowNodeExecution getParent(String workflowNodeExecutionId) {
+        return parentByExecutionId.get(workflowNodeExecutionId);
+    }
+
+    /**
+     * Indexes a node execution and everything below it.
+     */
+    void addTree(WorkflowNodeExecution parent, WorkflowNodeExecution node) {
+        Deque<WorkflowNodeExecution[]> pending = new ArrayDeque<>();
+        pending.push(new WorkflowNodeExecution[]{parent, node});
+        while (!pending.isEmpty()) {
+            WorkflowNodeExecution[] edge = pending.pop();
+            if (!add(edge[0], edge[1])) {
+                continue;
+            }
+            for (WorkflowNodeExecution child : edge[1].getChildren()) {
+                pending.push(new WorkflowNodeExecution[]{edge[1], child});
+            }
+        }
+    }
+
+    /**
+     * Removes everything below a node execution from the index. The node
+     * itself stays indexed.
+     */
+    void removeDescendants(WorkflowNodeExecution node) {
+        Deque<WorkflowNodeExecution> pending = new ArrayDeque<>(node.getChildren());
+        while (!pending.isEmpty()) {
+            WorkflowNodeExecution child = pending.pop();
+            if (remove(child)) {
+                pending.addAll(child.getChildren());
+            }
+        }
+    }
+
+    /**
+     * Removes a node execution and everything below it from the index.
+     */
+    void removeTree(WorkflowNodeExecution node) {
+        if (remove(node)) {
+            removeDescendants(node);
+        }
+    }
+
+    private boolean add(WorkflowNodeExecution parent, WorkflowNodeExecution node) {
+        String id = node.getWorkflowNodeExecutionId();
+        if (parent != null) {
+            parentByExecutionId.putIfAbsent(id, parent);
+        }
+        if (byExecutionId.putIfAbsent(id, node) != null) {
+            return false;
+        }
+        byWorkflowNodeId.computeIfAbsent(node.getWorkflowNodeId(), k -> new ArrayList<>()).add(node);
+        return true;
+    }
+
+    private boolean remove(WorkflowNodeExecution node) {
+        String id = node.getWorkflowNodeExecutionId();
+        if (byExecutionId.remove(id) == null) {
+            return false;
+        }
+        parentByExecutionId.remove(id);
+        List<WorkflowNodeExecution> siblings = byWorkflowNodeId.get(node.getWorkflowNodeId());
+        if (siblings != null) {
+            siblings.remove(node);
+            if (siblings.isEmpty()) {
+                byWorkflowNodeId.remove(node.getWorkflowNodeId());
+            }
+        }
+        return true;
+    }
+}
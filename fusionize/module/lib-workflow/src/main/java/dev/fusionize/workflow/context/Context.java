@@ -1,49 +1,200 @@
 package dev.fusionize.workflow.context;
 
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import org.springframework.data.annotation.Transient;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.Optional;
 
+/**
+ * Workflow data carried from node to node. A renewed context shares its
+ * structures with the context it was renewed from; either side copies a
+ * structure before it first writes to it, so a renewal costs nothing until
+ * one of them changes. The getters hand out mutable structures and therefore
+ * copy a shared structure first, while {@link #var}, {@link #contains},
+ * {@link #resource} and serialization read it in place.
+ * <p>
+ * Large values may be offloaded to storage, leaving a reference in their
+ * place. {@link #var} and {@link #vars} load them back on first access,
+ * while {@link #getData} only holds the values kept inline.
+ */
+@JsonAutoDetect(fieldVisibility = JsonAutoDetect.Visibility.ANY,
+        getterVisibility = JsonAutoDetect.Visibility.NONE,
+        isGetterVisibility = JsonAutoDetect.Visibility.NONE)
 public class Context {
-    private ConcurrentHashMap<String, Object> data;
-    private ConcurrentHashMap<String, ContextResourceReference> resources;
-    private List<WorkflowDecision> decisions;
-    private List<WorkflowGraphNode> graphNodes;
+    private volatile ConcurrentHashMap<String, Object> data;
+    private volatile ConcurrentHashMap<String, ContextResourceReference> resources;
+    private volatile List<WorkflowDecision> decisions;
+    private volatile List<WorkflowGraphNode> graphNodes;
+    private volatile ConcurrentHashMap<String, ContextResourceReference> offloaded;
 
     @Transient
     private ContextRuntimeData runtimeData;
 
+    @Transient
+    @JsonIgnore
+    private volatile ContextValueStore valueStore;
+
+    // offloaded values by reference key, shared by all renewals
+    @Transient
+    @JsonIgnore
+    private final Map<String, Object> loaded;
+
+    @Transient
+    @JsonIgnore
+    private volatile boolean dataShared;
+    @Transient
+    @JsonIgnore
+    private volatile boolean resourcesShared;
+    @Transient
+    @JsonIgnore
+    private volatile boolean decisionsShared;
+    @Transient
+    @JsonIgnore
+    private volatile boolean graphNodesShared;
+    @Transient
+    @JsonIgnore
+    private volatile boolean offloadedShared;
+
     public Context() {
         this.data = new ConcurrentHashMap<>();
         this.resources = new ConcurrentHashMap<>();
         this.decisions = new ArrayList<>();
         this.graphNodes = new ArrayList<>();
+        this.offloaded = new ConcurrentHashMap<>();
+        this.loaded = new ConcurrentHashMap<>();
     }
 
-    public Context renew() {
-        Context copy = new Context();
-        copy.data = new ConcurrentHashMap<>(this.data);
-        copy.resources = new ConcurrentHashMap<>(this.resources);
-        if (this.decisions != null) {
-            List<WorkflowDecision> copiedDecisions = new ArrayList<>();
-            for (WorkflowDecision decision : this.decisions) {
-                copiedDecisions.add(decision != null ? decision.renew() : null);
+    private Context(Context source) {
+        this.data = source.data;
+        this.resources = source.resources;
+        this.decisions = source.decisions != null ? source.decisions : new ArrayList<>();
+        this.graphNodes = source.graphNodes != null ? source.graphNodes : new ArrayList<>();
+        this.offloaded = source.offloaded != null ? source.offloaded : new ConcurrentHashMap<>();
+        this.loaded = source.loaded;
+        this.valueStore = source.valueStore;
+        this.dataShared = source.dataShared = true;
+        this.resourcesShared = source.resourcesShared = true;
+        this.decisionsShared = source.decisionsShared = source.decisions != null;
+        this.graphNodesShared = source.graphNodesShared = source.graphNodes != null;
+        this.offloadedShared = source.offloadedShared = source.offloaded != null;
+    }
+
+    /**
+     * Sets the store offloaded values are loaded from; renewals taken
+     * afterwards use it too.
+     */
+    public void setValueStore(ContextValueStore valueStore) {
+        this.valueStore = valueStore;
+    }
+
+    public synchronized Context renew() {
+        return new Context(this);
+    }
+
+    private ConcurrentHashMap<String, Object> ownData() {
+        if (dataShared) {
+            synchronized (this) {
+                if (dataShared) {
+                    data = new ConcurrentHashMap<>(data);
+                    dataShared = false;
+                }
             }
-            copy.decisions = copiedDecisions;
         }
-        if (this.graphNodes != null) {
-            List<WorkflowGraphNode> copiedCurrentNodes = new ArrayList<>();
-            for (WorkflowGraphNode node : this.graphNodes) {
-                copiedCurrentNodes.add(node != null ? node.renew() : null);
+        return data;
+    }
+
+    private ConcurrentHashMap<String, ContextResourceReference> ownResources() {
+        if (resourcesShared) {
+            synchronized (this) {
+                if (resourcesShared) {
+                    resources = new ConcurrentHashMap<>(resources);
+                    resourcesShared = false;
+                }
             }
-            copy.graphNodes = copiedCurrentNodes;
         }
-        return copy;
+        return resources;
+    }
+
+    private ConcurrentHashMap<String, ContextResourceReference> ownOffloaded() {
+        if (offloaded == null) {
+            setOffloaded(new ConcurrentHashMap<>());
+        }
+        if (offloadedShared) {
+            synchronized (this) {
+                if (offloadedShared) {
+                    offloaded = new ConcurrentHashMap<>(offloaded);
+                    offloadedShared = false;
+                }
+            }
+        }
+        return offloaded;
+    }
+
+    private List<WorkflowDecision> ownDecisions() {
+        if (decisionsShared) {
+            synchronized (this) {
+                if (decisionsShared) {
+                    List<WorkflowDecision> copiedDecisions = new ArrayList<>(decisions.size());
+                    for (WorkflowDecision decision : decisions) {
+                        copiedDecisions.add(decision != null ? decision.renew() : null);
+                    }
+                    decisions = copiedDecisions;
+                    decisionsShared = false;
+                }
+            }
+        }
+        return decisions;
+    }
+
+    private List<WorkflowGraphNode> ownGraphNodes() {
+        if (graphNodesShared) {
+            synchronized (this) {
+                if (graphNodesShared) {
+                    List<WorkflowGraphNode> copiedGraphNodes = new ArrayList<>(graphNodes.size());
+                    for (WorkflowGraphNode node : graphNodes) {
+                        copiedGraphNodes.add(node != null ? node.renew() : null);
+                    }
+                    graphNodes = copiedGraphNodes;
+                    graphNodesShared = false;
+                }
+            }
+        }
+        return graphNodes;
+    }
+
+    /*
+     * The structures without taking a private copy, for readers that would
+     * otherwise copy a shared structure through its getter; callers must not
+     * modify them or their elements. The offloaded view may be null.
+     */
+
+    public Map<String, Object> dataView() {
+        return data;
+    }
+
+    public Map<String, ContextResourceReference> resourcesView() {
+        return resources;
+    }
+
+    public List<WorkflowDecision> decisionsView() {
+        return decisions;
+    }
+
+    public List<WorkflowGraphNode> graphNodesView() {
+        return graphNodes;
+    }
+
+    public Map<String, ContextResourceReference> offloadedView() {
+        return offloaded;
     }
 
     public List<WorkflowGraphNodeRecursive> currentNodes() {
@@ -60,22 +211,79 @@ public class Context {
 
     public <T> Optional<T> var(String key, Class<T> type) {
         Object value = data.get(key);
+        if (value == null) {
+            value = offloadedValue(key, type);
+        }
         if (type.isInstance(value)) {
             return Optional.of(type.cast(value));
         }
         return Optional.empty();
     }
 
+    /**
+     * All values, with offloaded values loaded back; changes to the returned
+     * map do not reach the context.
+     */
+    public Map<String, Object> vars() {
+        Map<String, Object> vars = new HashMap<>(data);
+        if (offloaded != null) {
+            for (String key : offloaded.keySet()) {
+                if (!vars.containsKey(key)) {
+                    Object value = offloadedValue(key, Object.class);
+                    if (value != null) {
+                        vars.put(key, value);
+                    }
+                }
+            }
+        }
+        return vars;
+    }
+
     public boolean contains(String key) {
-        return data.containsKey(key);
+        return data.containsKey(key) || (offloaded != null && offloaded.containsKey(key));
     }
 
     public void set(String key, Object value) {
-        data.put(key, value);
+        ownData().put(key, value);
+        if (offloaded != null && offloaded.containsKey(key)) {
+            ownOffloaded().remove(key);
+        }
+    }
+
+    /**
+     * Replaces the value of the key by the reference it was stored under.
+     * The value stays available through {@link #var} and is loaded from the
+     * {@link #setValueStore value store} where it is not at hand.
+     */
+    public void offload(String key, ContextResourceReference reference) {
+        Object value = data.get(key);
+        if (value != null) {
+            loaded.put(reference.getReferenceKey(), value);
+        }
+        ownOffloaded().put(key, reference);
+        ownData().remove(key);
+    }
+
+    private Object offloadedValue(String key, Class<?> type) {
+        ContextResourceReference reference = offloaded != null ? offloaded.get(key) : null;
+        if (reference == null) {
+            return null;
+        }
+        return loaded.computeIfAbsent(reference.getReferenceKey(), referenceKey -> {
+            ContextValueStore store = valueStore;
+            if (store == null) {
+                throw new IllegalStateException("No value store to load offloaded context value " + key);
+            }
+            try {
+                return store.load(reference, type);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to load offloaded context value " + key, e);
+            }
+        });
     }
 
     public void set(String key, ContextResourceReference reference) {
-        resources.put(key, reference);
+        ownResources().put(key, reference);
     }
 
     public Optional<ContextResourceReference> resource(String key) {
@@ -156,36 +364,58 @@ public class Context {
         return new Builder();
     }
 
+    /**
+     * The values kept inline; offloaded values are only reachable through
+     * {@link #var} and {@link #vars}.
+     */
     public ConcurrentHashMap<String, Object> getData() {
-        return data;
+        return ownData();
     }
 
-    public void setData(ConcurrentHashMap<String, Object> data) {
+    /**
+     * Replaces the values kept inline and leaves the offloaded references as
+     * they are, so a caller writing back {@link #vars} also replaces those
+     * through {@link #setOffloaded}.
+     */
+    public synchronized void setData(ConcurrentHashMap<String, Object> data) {
         this.data = data;
+        this.dataShared = false;
     }
 
     public ConcurrentHashMap<String, ContextResourceReference> getResources() {
-        return resources;
+        return ownResources();
     }
 
-    public void setResources(ConcurrentHashMap<String, ContextResourceReference> resources) {
+    public synchronized void setResources(ConcurrentHashMap<String, ContextResourceReference> resources) {
         this.resources = resources;
+        this.resourcesShared = false;
     }
 
     public List<WorkflowDecision> getDecisions() {
-        return decisions;
+        return ownDecisions();
     }
 
-    public void setDecisions(List<WorkflowDecision> decisions) {
+    public synchronized void setDecisions(List<WorkflowDecision> decisions) {
         this.decisions = decisions;
+        this.decisionsShared = false;
     }
 
     public List<WorkflowGraphNode> getGraphNodes() {
-        return graphNodes;
+        return ownGraphNodes();
     }
 
-    public void setGraphNodes(List<WorkflowGraphNode> graphNodes) {
+    public synchronized void setGraphNodes(List<WorkflowGraphNode> graphNodes) {
         this.graphNodes = graphNodes;
+        this.graphNodesShared = false;
+    }
+
+    public ConcurrentHashMap<String, ContextResourceReference> getOffloaded() {
+        return ownOffloaded();
+    }
+
+    public synchronized void setOffloaded(ConcurrentHashMap<String, ContextResourceReference> offloaded) {
+        this.offloaded = offloaded;
+        this.offloadedShared = false;
     }
 
     public ContextRuntimeData getRuntimeData() {
@@ -200,6 +430,7 @@ public class Context {
     public String toString() {
         return "Context{" +
                 "data=" + data +
+                ", offloaded=" + (offloaded != null ? offloaded.keySet() : null) +
                 ", decisions=" + decisions +
                 ", graphNodes=" + graphNodes +
                 '}';
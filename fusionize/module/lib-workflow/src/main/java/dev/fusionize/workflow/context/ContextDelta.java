@@ -0,0 +1,248 @@
+package dev.fusionize.workflow.context;
+
+import java.time.temporal.TemporalAccessor;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The changes a component made to the context of a request, sent back in
+ * place of the whole context. Data entries are set or removed one by one,
+ * resource references are always sent whole, and the decisions and graph
+ * nodes are sent whole only when they changed. Set values may be offloaded
+ * to storage before the delta is applied, see {@link #offload}.
+ */
+public class ContextDelta {
+    private String baseVersion;
+    private Map<String, Object> set = new HashMap<>();
+    private List<String> removed = new ArrayList<>();
+    private Map<String, ContextResourceReference> resources = new HashMap<>();
+    private Map<String, ContextResourceReference> offloaded = new HashMap<>();
+    private List<WorkflowDecision> decisions;
+    private List<WorkflowGraphNode> graphNodes;
+
+    /**
+     * A hash of the content of the context. Values that are not plain data
+     * (strings, numbers, dates, and maps and collections of those) only
+     * contribute their type.
+     */
+    public static String version(Context context) {
+        long hash = 0;
+        for (Map.Entry<String, Object> entry : context.dataView().entrySet()) {
+            Integer valueHash = contentHash(entry.getValue());
+            hash += entry.getKey().hashCode() ^ (valueHash != null
+                    ? valueHash : entry.getValue().getClass().getName().hashCode());
+        }
+        Map<String, ContextResourceReference> resources = context.resourcesView();
+        hash = 31 * hash + (resources == null ? 0 : resources.keySet().hashCode());
+        Map<String, ContextResourceReference> offloaded = context.offloadedView();
+        if (offloaded != null) {
+            for (Map.Entry<String, ContextResourceReference> entry : offloaded.entrySet()) {
+                hash += entry.getKey().hashCode() ^ Objects.hashCode(entry.getValue().getReferenceKey());
+            }
+        }
+        hash = 31 * hash + Objects.hashCode(context.decisionsView());
+        hash = 31 * hash + Objects.hashCode(context.graphNodesView());
+        return Long.toHexString(hash);
+    }
+
+    /**
+     * Captures the context a component is about to change, so that the
+     * changes can be told apart afterwards.
+     */
+    public static Baseline baseline(Context context) {
+        return new Baseline(context);
+    }
+
+    /**
+     * Whether the delta was taken against the given context.
+     */
+    public boolean appliesTo(Context base) {
+        return base != null && Objects.equals(baseVersion, version(base));
+    }
+
+    /**
+     * A renewal of the base context with the changes applied.
+     */
+    public Context applyTo(Context base) {
+        Context context = base != null ? base.renew() : new Context();
+        // setting a value also drops an offloaded one under the same key
+        set.forEach(context::set);
+        offloaded.forEach((key, reference) -> {
+            // the value it replaced must not be taken for the stored one
+            context.getData().remove(key);
+            context.offload(key, reference);
+        });
+        if (!removed.isEmpty()) {
+            ConcurrentHashMap<String, Object> data = context.getData();
+            removed.forEach(data::remove);
+        }
+        context.setResources(new ConcurrentHashMap<>(resources));
+        if (decisions != null) {
+            context.setDecisions(new ArrayList<>(decisions));
+        }
+        if (graphNodes != null) {
+            context.setGraphNodes(new ArrayList<>(graphNodes));
+        }
+        return context;
+    }
+
+    /**
+     * Replaces a set value by the reference it was stored under.
+     */
+    public void offload(String key, ContextResourceReference reference) {
+        set.remove(key);
+        offloaded.put(key, reference);
+    }
+
+    /**
+     * A hash over the content of plain data, or {@code null} for anything
+     * else, whose changes cannot be detected.
+     */
+    static Integer contentHash(Object value) {
+        if (value == null) {
+            return 0;
+        }
+        if (value instanceof CharSequence || value instanceof Number || value instanceof Boolean
+                || value instanceof Character || value instanceof Enum<?>
+                || value instanceof Date || value instanceof TemporalAccessor) {
+            return value.hashCode();
+        }
+        if (value instanceof Map<?, ?> map) {
+            int hash = 0;
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                Integer keyHash = contentHash(entry.getKey());
+                Integer valueHash = contentHash(entry.getValue());
+                if (keyHash == null || valueHash == null) {
+                    return null;
+                }
+                hash += keyHash ^ valueHash;
+            }
+            return hash;
+        }
+        if (value instanceof Collection<?> collection) {
+            boolean ordered = !(collection instanceof Set<?>);
+            int hash = ordered ? 1 : 0;
+            for (Object element : collection) {
+                Integer elementHash = contentHash(element);
+                if (elementHash == null) {
+                    return null;
+                }
+                hash = ordered ? 31 * hash + elementHash : hash + elementHash;
+            }
+            return hash;
+        }
+        return null;
+    }
+
+    public static final class Baseline {
+        private final Context base;
+        private final Map<String, Integer> hashes = new HashMap<>();
+
+        private Baseline(Context base) {
+            this.base = base;
+            // values are shared with the renewed context and may be changed in place
+            base.dataView().forEach((key, value) -> {
+                Integer hash = contentHash(value);
+                if (hash != null) {
+                    hashes.put(key, hash);
+                }
+            });
+        }
+
+        public ContextDelta diff(Context updated, String baseVersion) {
+            ContextDelta delta = new ContextDelta();
+            delta.baseVersion = baseVersion;
+            Map<String, Object> before = base.dataView();
+            Map<String, Object> after = updated.dataView();
+            after.forEach((key, value) -> {
+                if (changed(key, before.get(key), value)) {
+                    delta.set.put(key, value);
+                }
+            });
+            before.keySet().stream()
+                    .filter(key -> !after.containsKey(key))
+                    .forEach(delta.removed::add);
+            if (updated.resourcesView() != null) {
+                delta.resources.putAll(updated.resourcesView());
+            }
+            if (!Objects.equals(base.decisionsView(), updated.decisionsView())) {
+                delta.decisions = new ArrayList<>(updated.decisionsView());
+            }
+            if (!Objects.equals(base.graphNodesView(), updated.graphNodesView())) {
+                delta.graphNodes = new ArrayList<>(updated.graphNodesView());
+            }
+            return delta;
+        }
+
+        private boolean changed(String key, Object before, Object after) {
+            if (before != after) {
+                return before == null || !before.equals(after);
+            }
+            Integer hash = hashes.get(key);
+            return hash == null || !hash.equals(contentHash(after));
+        }
+    }
+
+    public String getBaseVersion() {
+        return baseVersion;
+    }
+
+    public void setBaseVersion(String baseVersion) {
+        this.baseVersion = baseVersion;
+    }
+
+    public Map<String, Object> getSet() {
+        return set;
+    }
+
+    public void setSet(Map<String, Object> set) {
+        this.set = set;
+    }
+
+    public List<String> getRemoved() {
+        return removed;
+    }
+
+    public void setRemoved(List<String> removed) {
+        this.removed = removed;
+    }
+
+    public Map<String, ContextResourceReference> getResources() {
+        return resources;
+    }
+
+    public void setResources(Map<String, ContextResourceReference> resources) {
+        this.resources = resources;
+    }
+
+    public Map<String, ContextResourceReference> getOffloaded() {
+        return offloaded;
+    }
+
+    public void setOffloaded(Map<String, ContextResourceReference> offloaded) {
+        this.offloaded = offloaded;
+    }
+
+    public List<WorkflowDecision> getDecisions() {
+        return decisions;
+    }
+
+    public void setDecisions(List<WorkflowDecision> decisions) {
+        this.decisions = decisions;
+    }
+
+    public List<WorkflowGraphNode> getGraphNodes() {
+        return graphNodes;
+    }
+
+    public void setGraphNodes(List<WorkflowGraphNode> graphNodes) {
+        this.graphNodes = graphNodes;
+    }
+}
@@ -1,5 +1,6 @@
 package dev.fusionize.workflow.context;
 
+import dev.fusionize.workflow.CompiledWorkflow;
 import dev.fusionize.workflow.WorkflowNode;
 import dev.fusionize.workflow.WorkflowNodeExecution;
 import dev.fusionize.workflow.WorkflowNodeExecutionState;
@@ -14,6 +15,11 @@ public class ContextFactory {
     }
 
     public static Context from(WorkflowNodeExecution lastExecution, WorkflowNode nextNode) {
+        return from(lastExecution, nextNode, null);
+    }
+
+    public static Context from(WorkflowNodeExecution lastExecution, WorkflowNode nextNode,
+                               CompiledWorkflow compiledWorkflow) {
         Context context = new Context();
         // Carry existing context forward (deep copy)
         if (lastExecution.getStageContext() != null) {
@@ -27,7 +33,7 @@ public class ContextFactory {
 
         // 2. If next node is a decision, add decision metadata
         if (nextNode != null && WorkflowNodeType.DECISION.equals(nextNode.getType())) {
-            addDecision(context, nextNode);
+            addDecision(context, nextNode, compiledWorkflow);
         }
         return context;
     }
@@ -63,11 +69,17 @@ public class ContextFactory {
         }
     }
 
-    private static void addDecision(Context context, WorkflowNode nextNode) {
+    private static void addDecision(Context context, WorkflowNode nextNode, CompiledWorkflow compiledWorkflow) {
         WorkflowDecision workflowDecision = new WorkflowDecision();
         workflowDecision.setDecisionNode(nextNode.getWorkflowNodeKey());
-        Map<String, Boolean> options = new HashMap<>();
-        nextNode.getChildren().forEach(cn -> options.put(cn.getWorkflowNodeKey(), false));
+        int index = compiledWorkflow == null ? -1 : compiledWorkflow.indexOf(nextNode.getWorkflowNodeId());
+        Map<String, Boolean> options = index < 0 ? null : compiledWorkflow.decisionOptions(index);
+        if (options == null) {
+            options = new HashMap<>();
+            for (WorkflowNode cn : nextNode.getChildren()) {
+                options.put(cn.getWorkflowNodeKey(), false);
+            }
+        }
         workflowDecision.setOptionNodes(options);
         context.getDecisions().add(workflowDecision);
     }
@@ -12,20 +12,20 @@ public class ContextUtility {
      * @return List of leaf nodeId to reconstructed WorkflowGraphNode
      */
     static List<WorkflowGraphNodeRecursive> extractCurrentNodes(Context context) {
-        if (context == null || context.getGraphNodes() == null) {
+        if (context == null || context.graphNodesView() == null) {
             return Collections.emptyList();
         }
 
         // Step 1: Create all nodes in the recursive model
         Map<String, WorkflowGraphNodeRecursive> nodeMap = new HashMap<>();
-        for (WorkflowGraphNode node : context.getGraphNodes()) {
+        for (WorkflowGraphNode node : context.graphNodesView()) {
             nodeMap.put(node.getNode(), new WorkflowGraphNodeRecursive(
                     node.getNode(),
                     node.getState()));
         }
 
         // Step 2: Resolve parent references and populate children
-        for (WorkflowGraphNode node : context.getGraphNodes()) {
+        for (WorkflowGraphNode node : context.graphNodesView()) {
             WorkflowGraphNodeRecursive recursiveNode = nodeMap.get(node.getNode());
             for (String parentId : node.getParents()) {
                 WorkflowGraphNodeRecursive parentNode = nodeMap.get(parentId);
@@ -56,11 +56,11 @@ public class ContextUtility {
      * @return Latest WorkflowDecision for the node, or null if not found
      */
     static WorkflowDecision getLatestDecisionForNode(Context context, String nodeKey) {
-        if (context == null || context.getDecisions() == null) {
+        if (context == null || context.decisionsView() == null) {
             return null;
         }
 
-        List<WorkflowDecision> decisions = context.getDecisions();
+        List<WorkflowDecision> decisions = context.decisionsView();
         for (int i = decisions.size() - 1; i >= 0; i--) {
             WorkflowDecision decision = decisions.get(i);
             if (decision != null && nodeKey.equals(decision.getDecisionNode())) {
@@ -0,0 +1,15 @@
+package dev.fusionize.workflow.context;
+
+import java.io.IOException;
+
+/**
+ * Loads context values that were offloaded to storage, see
+ * {@link Context#offload(String, ContextResourceReference)}.
+ */
+public interface ContextValueStore {
+    /**
+     * @param type the type the value is read as, {@code Object} for plain
+     *             maps, lists and scalars
+     */
+    Object load(ContextResourceReference reference, Class<?> type) throws IOException;
+}
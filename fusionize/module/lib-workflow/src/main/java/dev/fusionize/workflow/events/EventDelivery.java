@@ -0,0 +1,26 @@
+package dev.fusionize.workflow.events;
+
+/**
+ * The broker delivery an event arrived with. It is acknowledged once the event
+ * was handled, or handed back to the broker if handling it failed, so an event
+ * is only removed from its queue after it took effect.
+ */
+public interface EventDelivery {
+    /**
+     * A delivery with nothing to settle, for events that did not come from a
+     * broker.
+     */
+    EventDelivery NONE = new EventDelivery() {
+        @Override
+        public void acknowledge() {
+        }
+
+        @Override
+        public void requeue() {
+        }
+    };
+
+    void acknowledge();
+
+    void requeue();
+}
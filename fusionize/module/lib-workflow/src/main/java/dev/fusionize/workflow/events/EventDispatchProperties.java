@@ -0,0 +1,41 @@
+package dev.fusionize.workflow.events;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings for the {@link PartitionedEventDispatcher}.
+ * <p>
+ * When disabled, events are handled on the thread that received them.
+ */
+@Component
+@ConfigurationProperties(prefix = "fusionize.worker.event-dispatch")
+public class EventDispatchProperties {
+    private boolean enabled = false;
+    private int lanes = Runtime.getRuntime().availableProcessors();
+    private int laneCapacity = 256;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getLanes() {
+        return lanes;
+    }
+
+    public void setLanes(int lanes) {
+        this.lanes = lanes;
+    }
+
+    public int getLaneCapacity() {
+        return laneCapacity;
+    }
+
+    public void setLaneCapacity(int laneCapacity) {
+        this.laneCapacity = laneCapacity;
+    }
+}
@@ -5,6 +5,20 @@ public interface EventListener<E extends Event>  {
     @FunctionalInterface
     interface EventCallback<E extends Event> {
         void onEvent(E event);
+
+        /**
+         * Handles the event and settles its delivery. Callbacks that hand the
+         * event on to another thread settle it there once it was handled.
+         */
+        default void onEvent(E event, EventDelivery delivery) {
+            try {
+                onEvent(event);
+            } catch (RuntimeException e) {
+                delivery.requeue();
+                throw e;
+            }
+            delivery.acknowledge();
+        }
     }
     void addListener(EventCallback<E> callback);
 }
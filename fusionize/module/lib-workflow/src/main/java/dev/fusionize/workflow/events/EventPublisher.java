@@ -1,6 +1,8 @@
 package dev.fusionize.workflow.events;
 
 
+import java.util.List;
+
 public abstract class EventPublisher<E extends Event> {
     private final EventStore<E> eventStore;
 
@@ -12,4 +14,12 @@ public abstract class EventPublisher<E extends Event> {
         eventStore.save(event);
     }
 
+    /**
+     * Publishes a batch of events, one by one unless the publisher sends
+     * batches itself.
+     */
+    public void publishAll(List<? extends E> events) {
+        events.forEach(this::publish);
+    }
+
 }
@@ -17,18 +17,75 @@ public class EventRouter {
     private final Map<Class<? extends Event>, List<EventHandler<? extends Event>>> handlersByType = new HashMap<>();
     private final EventPublisher<Event> eventPublisher;
     private final EventStore<Event> eventStore;
+    private final PartitionedEventDispatcher dispatcher;
 
     @Autowired
     public EventRouter(List<EventHandler<?>> handlers,
                        EventPublisher<Event> eventPublisher,
-                       EventStore<Event> eventStore, EventListener<Event> eventListener) {
+                       EventStore<Event> eventStore, EventListener<Event> eventListener,
+                       PartitionedEventDispatcher dispatcher) {
         this.eventPublisher = eventPublisher;
         this.eventStore = eventStore;
+        this.dispatcher = dispatcher;
         handlersByType.putAll(
                 handlers.stream()
                         .collect(Collectors.groupingBy(EventHandler::getEventType))
         );
-        eventListener.addListener(this::handleEvent);
+        eventListener.addListener(new EventListener.EventCallback<>() {
+            @Override
+            public void onEvent(Event event) {
+                routeEvent(event);
+            }
+
+            @Override
+            public void onEvent(Event event, EventDelivery delivery) {
+                routeEvent(event, delivery);
+            }
+        });
+    }
+
+    public <E extends Event> void routeEvent(E event) {
+        routeEvent(event, EventDelivery.NONE);
+    }
+
+    /**
+     * Hands the event to the lane of its workflow execution when partitioned
+     * dispatch is enabled, or handles it on the calling thread otherwise. The
+     * delivery is settled on that thread once the event was handled.
+     */
+    public <E extends Event> void routeEvent(E event, EventDelivery delivery) {
+        if (!dispatcher.isEnabled()) {
+            handleEvent(event, delivery);
+            return;
+        }
+        try {
+            dispatcher.dispatch(partitionKey(event), () -> handleEvent(event, delivery));
+        } catch (RuntimeException e) {
+            delivery.requeue();
+            throw e;
+        }
+    }
+
+    private <E extends Event> void handleEvent(E event, EventDelivery delivery) {
+        try {
+            handleEvent(event);
+        } catch (RuntimeException e) {
+            delivery.requeue();
+            throw e;
+        }
+        delivery.acknowledge();
+    }
+
+    /**
+     * The key events are ordered by: the workflow execution when known,
+     * otherwise the correlation.
+     */
+    public static String partitionKey(Event event) {
+        if (event instanceof OrchestrationEvent orchestrationEvent
+                && orchestrationEvent.getWorkflowExecutionId() != null) {
+            return orchestrationEvent.getWorkflowExecutionId();
+        }
+        return event.getCorrelationId() != null ? event.getCorrelationId() : event.getEventId();
     }
 
     @SuppressWarnings("unchecked")
@@ -36,6 +93,7 @@ public class EventRouter {
         List<EventHandler<? extends Event>> handlers = handlersByType.get(event.getClass());
         if (handlers == null || handlers.isEmpty()) {
             logger.error("Event Handler Not Found Exception", new EventHandlerNotFoundException());
+            return;
         }
 
         for (EventHandler<? extends Event> handler : handlers) {
@@ -5,6 +5,13 @@ import java.util.Optional;
 
 public interface EventStore<T extends Event> {
     void save(T event);
+
+    /**
+     * Saves a batch of events, in one round trip where the store supports it.
+     */
+    default void saveAll(List<T> events) {
+        events.forEach(this::save);
+    }
     Optional<T> findByEventId(String eventId);
     List<T> findByCausationId(String causationId);
     List<T> findByCorrelationId(String correlationId);
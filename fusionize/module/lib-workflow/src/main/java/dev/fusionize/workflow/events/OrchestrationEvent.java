@@ -10,6 +10,7 @@ import org.springframework.data.annotation.Transient;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Objects;
 
 @JsonIgnoreProperties({"orchestrationEventContext"})
 public abstract class OrchestrationEvent extends RuntimeEvent {
@@ -20,6 +21,10 @@ public abstract class OrchestrationEvent extends RuntimeEvent {
     private String workflowNodeId;
     private String workflowNodeExecutionId;
     private Origin origin;
+    // times the event was published again because another node held its execution
+    private int requeues;
+    // the component was too busy to take the request, which may be sent again
+    private boolean busy;
 
     @Transient
     private EventContext orchestrationEventContext;
@@ -49,6 +54,17 @@ public abstract class OrchestrationEvent extends RuntimeEvent {
         }
     }
 
+    @Override
+    public OrchestrationEvent renew() {
+        OrchestrationEvent renewed = (OrchestrationEvent) super.renew();
+        renewed.setOrigin(this.origin);
+        renewed.setWorkflowId(this.workflowId);
+        renewed.setWorkflowExecutionId(this.workflowExecutionId);
+        renewed.setWorkflowNodeId(this.workflowNodeId);
+        renewed.setWorkflowNodeExecutionId(this.workflowNodeExecutionId);
+        return renewed;
+    }
+
     public abstract static class Builder<T extends Builder<T>> extends RuntimeEvent.Builder<T>{
         private String workflowId;
         private String workflowExecutionId;
@@ -114,12 +130,16 @@ public abstract class OrchestrationEvent extends RuntimeEvent {
             WorkflowRegistry workflowRegistry
     ) throws Exception {
         if (orchestrationEventContext == null) {
-            Workflow workflow = workflowRegistry.getWorkflow(workflowId);
             WorkflowExecution workflowExecution = workflowExecutionRegistry.getWorkflowExecution(workflowExecutionId);
             if(workflowExecution == null) {
                 throw new Exception("Workflow execution not found: " + workflowId);
             }
-            workflowExecution.setWorkflow(workflow);
+            // cached executions already carry their workflow
+            Workflow workflow = workflowExecution.getWorkflow();
+            if (workflow == null || !Objects.equals(workflow.getWorkflowId(), workflowId)) {
+                workflow = workflowRegistry.getWorkflow(workflowId);
+                workflowExecution.setWorkflow(workflow);
+            }
             WorkflowNodeExecution workflowNodeExecution = workflowExecution.findNodeByWorkflowNodeExecutionId(workflowNodeExecutionId);
             workflowNodeExecution.setWorkflowNode(workflow.findNode(workflowNodeId));
             this.orchestrationEventContext = new EventContext(workflowExecution, workflowNodeExecution);
@@ -166,6 +186,22 @@ public abstract class OrchestrationEvent extends RuntimeEvent {
         this.origin = origin;
     }
 
+    public int getRequeues() {
+        return requeues;
+    }
+
+    public void setRequeues(int requeues) {
+        this.requeues = requeues;
+    }
+
+    public boolean isBusy() {
+        return busy;
+    }
+
+    public void setBusy(boolean busy) {
+        this.busy = busy;
+    }
+
     public EventContext getOrchestrationEventContext() {
         return orchestrationEventContext;
     }
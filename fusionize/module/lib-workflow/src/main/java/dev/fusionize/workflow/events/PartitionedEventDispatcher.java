@@ -0,0 +1,177 @@
+package dev.fusionize.workflow.events;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+
+import java.util.Objects;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs event handling on a fixed number of single-threaded lanes. Each event
+ * is assigned to a lane by hashing its partition key, so events of one
+ * workflow execution are handled strictly in order while unrelated executions
+ * are handled in parallel.
+ * <p>
+ * Lanes are bounded: a caller submitting to a full lane blocks until the lane
+ * has room, which pushes back on the message listener delivering the events.
+ * Submissions made from a lane thread itself never block, since a lane waiting
+ * on another lane could deadlock.
+ */
+@Component
+public class PartitionedEventDispatcher implements MeterBinder, DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger(PartitionedEventDispatcher.class);
+    private static final String LANE_THREAD_PREFIX = "fusionize-event-lane-";
+
+    private final EventDispatchProperties properties;
+    private final Lane[] lanes;
+
+    public PartitionedEventDispatcher(EventDispatchProperties properties) {
+        this.properties = properties;
+        this.lanes = new Lane[properties.isEnabled() ? Math.max(1, properties.getLanes()) : 0];
+        for (int i = 0; i < lanes.length; i++) {
+            lanes[i] = new Lane(i, Math.max(1, properties.getLaneCapacity()));
+        }
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * Queues a task on the lane owning the given partition key.
+     */
+    public void dispatch(String partitionKey, Runnable task) {
+        if (lanes.length == 0) {
+            task.run();
+            return;
+        }
+        lanes[laneOf(partitionKey)].submit(task);
+    }
+
+    int laneOf(String partitionKey) {
+        return Math.floorMod(Objects.hashCode(partitionKey), lanes.length);
+    }
+
+    public int getLaneCount() {
+        return lanes.length;
+    }
+
+    public int getQueueDepth(int lane) {
+        return lanes[lane].queue.size();
+    }
+
+    public long getProcessed(int lane) {
+        return lanes[lane].processed.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (Lane lane : lanes) {
+            String id = String.valueOf(lane.index);
+            Gauge.builder("fusionize.event.lane.depth", lane.queue, LinkedBlockingQueue::size)
+                    .tag("lane", id).register(registry);
+            FunctionCounter.builder("fusionize.event.lane.processed", lane.processed, LongAdder::sum)
+                    .tag("lane", id).register(registry);
+            FunctionTimer.builder("fusionize.event.lane.latency", lane,
+                            l -> l.processed.sum(), l -> l.latencyNanos.sum(), TimeUnit.NANOSECONDS)
+                    .tag("lane", id).register(registry);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        for (Lane lane : lanes) {
+            lane.stop();
+        }
+    }
+
+    private record Task(Runnable runnable, long enqueuedAt, boolean permitted) {
+    }
+
+    private static final class Lane implements Runnable {
+        private static final Task POISON = new Task(() -> { }, 0, false);
+
+        private final int index;
+        private final LinkedBlockingQueue<Task> queue = new LinkedBlockingQueue<>();
+        private final Semaphore capacity;
+        private final LongAdder processed = new LongAdder();
+        private final LongAdder latencyNanos = new LongAdder();
+        private final Thread thread;
+
+        private Lane(int index, int capacity) {
+            this.index = index;
+            this.capacity = new Semaphore(capacity);
+            this.thread = new LaneThread(this, LANE_THREAD_PREFIX + index);
+            this.thread.setDaemon(true);
+            this.thread.start();
+        }
+
+        private void submit(Runnable runnable) {
+            boolean permitted = !isLaneThread();
+            if (permitted) {
+                try {
+                    capacity.acquire();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for event lane " + index, e);
+                }
+            }
+            queue.add(new Task(runnable, System.nanoTime(), permitted));
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                Task task;
+                try {
+                    task = queue.take();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                if (task == POISON) {
+                    return;
+                }
+                if (task.permitted()) {
+                    capacity.release();
+                }
+                try {
+                    task.runnable().run();
+                } catch (Exception e) {
+                    log.error("Event lane {} task failed", index, e);
+                } finally {
+                    processed.increment();
+                    latencyNanos.add(System.nanoTime() - task.enqueuedAt());
+                }
+            }
+        }
+
+        private void stop() {
+            queue.add(POISON);
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private static boolean isLaneThread() {
+            return Thread.currentThread() instanceof LaneThread;
+        }
+    }
+
+    private static final class LaneThread extends Thread {
+        private LaneThread(Runnable target, String name) {
+            super(target, name);
+        }
+    }
+}
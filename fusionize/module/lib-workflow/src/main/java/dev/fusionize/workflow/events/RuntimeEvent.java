@@ -1,8 +1,11 @@
 package dev.fusionize.workflow.events;
 import dev.fusionize.workflow.context.Context;
+import dev.fusionize.workflow.context.ContextDelta;
 
 public abstract class RuntimeEvent extends Event {
     private Context context;
+    private String contextVersion;
+    private ContextDelta contextDelta;
     private String component;
     private SerializableError exception;
 
@@ -39,12 +42,15 @@ public abstract class RuntimeEvent extends Event {
         RuntimeEvent renewed = (RuntimeEvent) super.renew();
         renewed.setComponent(this.component);
         renewed.setContext(this.context);
+        renewed.setContextVersion(this.contextVersion);
+        renewed.setContextDelta(this.contextDelta);
         renewed.exception = this.exception;
         return renewed;
     }
 
     public abstract static class Builder<T extends Builder<T>> extends Event.Builder<T> {
         private Context context;
+        private String contextVersion;
         private String component;
         private Throwable exception;
 
@@ -57,6 +63,11 @@ public abstract class RuntimeEvent extends Event {
             return self();
         }
 
+        public T contextVersion(String contextVersion) {
+            this.contextVersion = contextVersion;
+            return self();
+        }
+
         public T component(String component) {
             this.component = component;
             return self();
@@ -70,6 +81,7 @@ public abstract class RuntimeEvent extends Event {
         public void load(RuntimeEvent event) {
             super.load(event);
             event.setContext(context);
+            event.setContextVersion(contextVersion);
             event.setComponent(component);
             event.setException(exception);
         }
@@ -83,6 +95,31 @@ public abstract class RuntimeEvent extends Event {
         this.context = context;
     }
 
+    /**
+     * The context this event stands for: its own, or for a response that
+     * only carries a {@link ContextDelta}, the delta applied to the given
+     * base context.
+     */
+    public Context resolveContext(Context base) {
+        return contextDelta != null ? contextDelta.applyTo(base) : context;
+    }
+
+    public String getContextVersion() {
+        return contextVersion;
+    }
+
+    public void setContextVersion(String contextVersion) {
+        this.contextVersion = contextVersion;
+    }
+
+    public ContextDelta getContextDelta() {
+        return contextDelta;
+    }
+
+    public void setContextDelta(ContextDelta contextDelta) {
+        this.contextDelta = contextDelta;
+    }
+
     public String getComponent() {
         return component;
     }
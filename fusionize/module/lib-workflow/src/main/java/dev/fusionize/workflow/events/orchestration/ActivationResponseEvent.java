@@ -20,7 +20,8 @@ public class ActivationResponseEvent extends OrchestrationEvent {
                 .workflowNodeId(requestEvent.getWorkflowNodeId())
                 .workflowNodeExecutionId(requestEvent.getWorkflowNodeExecutionId())
                 .orchestrationEventContext(requestEvent.getOrchestrationEventContext())
-                .context(requestEvent.getContext())
+                // a versioned context is answered with a delta, see RuntimeEvent#resolveContext
+                .context(requestEvent.getContextVersion() == null ? requestEvent.getContext() : null)
                 .component(requestEvent.getComponent())
                 .origin(origin)
                 .build();
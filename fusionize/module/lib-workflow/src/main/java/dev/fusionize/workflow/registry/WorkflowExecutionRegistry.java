@@ -10,6 +10,21 @@ public interface WorkflowExecutionRegistry {
     List<WorkflowExecution> getWorkflowExecutions(String workflowId);
     WorkflowExecution getWorkflowExecution(String workflowExecutionId);
     WorkflowExecution register(WorkflowExecution workflowExecution);
-    void updateNodeExecution(String workflowExecutionId, WorkflowNodeExecution nodeExecution);
-    void updateStatus(String workflowExecutionId, WorkflowExecutionStatus status);
+    /**
+     * Stores a node execution of the execution, if the stored execution is
+     * still at the revision the given copy was loaded at.
+     *
+     * @throws org.springframework.dao.OptimisticLockingFailureException if it
+     * was written since
+     */
+    void updateNodeExecution(WorkflowExecution workflowExecution, WorkflowNodeExecution nodeExecution);
+
+    /**
+     * Stores the status of the execution, if the stored execution is still at
+     * the revision the given copy was loaded at.
+     *
+     * @throws org.springframework.dao.OptimisticLockingFailureException if it
+     * was written since
+     */
+    void updateStatus(WorkflowExecution workflowExecution, WorkflowExecutionStatus status);
 }
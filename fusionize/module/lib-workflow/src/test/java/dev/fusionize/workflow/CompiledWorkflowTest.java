@@ -0,0 +1,105 @@
+package dev.fusionize.workflow;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompiledWorkflowTest {
+
+    private WorkflowNode start;
+    private WorkflowNode decision;
+    private WorkflowNode optionA;
+    private WorkflowNode optionB;
+    private WorkflowNode join;
+    private Workflow workflow;
+
+    @BeforeEach
+    void setUp() {
+        start = node("start", WorkflowNodeType.START);
+        decision = node("decision", WorkflowNodeType.DECISION);
+        optionA = node("optionA", WorkflowNodeType.TASK);
+        optionB = node("optionB", WorkflowNodeType.TASK);
+        join = node("join", WorkflowNodeType.WAIT);
+        start.setChildren(new ArrayList<>(List.of(decision)));
+        decision.setChildren(new ArrayList<>(List.of(optionA, optionB)));
+        optionA.setChildren(new ArrayList<>(List.of(join)));
+        optionB.setChildren(new ArrayList<>(List.of(join)));
+        workflow = Workflow.builder("test").addNode(start).build();
+    }
+
+    @Test
+    void compile_ShouldIndexEveryReachableNodeOnce() {
+        CompiledWorkflow compiled = CompiledWorkflow.compile(workflow);
+
+        assertEquals(5, compiled.size());
+        assertEquals(-1, compiled.indexOf("missing"));
+        assertSame(join, compiled.node(compiled.indexOf("join")));
+    }
+
+    @Test
+    void compile_ShouldBuildAdjacency() {
+        CompiledWorkflow compiled = CompiledWorkflow.compile(workflow);
+        int decisionIndex = compiled.indexOf("decision");
+
+        assertEquals(List.of(optionA, optionB), compiled.children(decisionIndex));
+        assertEquals(List.of(join), compiled.children(compiled.indexOf("optionA")));
+        assertEquals(List.of(), compiled.children(compiled.indexOf("join")));
+    }
+
+    @Test
+    void compile_ShouldTrackRootsAndTypes() {
+        CompiledWorkflow compiled = CompiledWorkflow.compile(workflow);
+
+        assertTrue(compiled.isRoot(compiled.indexOf("start")));
+        assertFalse(compiled.isRoot(compiled.indexOf("decision")));
+        assertFalse(compiled.isRoot(-1));
+        assertTrue(compiled.isType(compiled.indexOf("decision"), WorkflowNodeType.DECISION));
+        assertFalse(compiled.isType(compiled.indexOf("optionA"), WorkflowNodeType.DECISION));
+    }
+
+    @Test
+    void decisionOptions_ShouldReturnFreshUnselectedOptions() {
+        CompiledWorkflow compiled = CompiledWorkflow.compile(workflow);
+        int decisionIndex = compiled.indexOf("decision");
+
+        Map<String, Boolean> first = compiled.decisionOptions(decisionIndex);
+        first.put("optionA", true);
+
+        assertEquals(Map.of("optionA", false, "optionB", false), compiled.decisionOptions(decisionIndex));
+        assertNull(compiled.decisionOptions(compiled.indexOf("optionA")));
+    }
+
+    @Test
+    void selectedOptions_ShouldReturnSelectedChildren() {
+        CompiledWorkflow compiled = CompiledWorkflow.compile(workflow);
+
+        List<WorkflowNode> selected = compiled.selectedOptions(compiled.indexOf("decision"),
+                Map.of("optionA", false, "optionB", true));
+
+        assertEquals(List.of(optionB), selected);
+    }
+
+    @Test
+    void workflow_ShouldRecompileAfterNodesChange() {
+        CompiledWorkflow compiled = workflow.getCompiledWorkflow();
+        assertSame(compiled, workflow.getCompiledWorkflow());
+
+        workflow.setNodes(new ArrayList<>(List.of(optionA)));
+
+        assertNotSame(compiled, workflow.getCompiledWorkflow());
+        assertEquals(2, workflow.getCompiledWorkflow().size());
+    }
+
+    private static WorkflowNode node(String key, WorkflowNodeType type) {
+        return WorkflowNode.builder()
+                .workflowNodeId(key)
+                .workflowNodeKey(key)
+                .type(type)
+                .build();
+    }
+}
@@ -197,4 +197,120 @@ class WorkflowExecutionTest {
         assertThat(execution.getNodes().getFirst().getWorkflowNodeExecutionId())
                 .isEqualTo(parentExecution.getWorkflowNodeExecutionId());
     }
+
+    @Test
+    void shouldKeepIndexesInSync_whenAddingChildren() {
+        // setup
+        var execution = WorkflowExecution.of(new Workflow());
+        var parent = WorkflowNodeExecution.of(WorkflowNode.builder().workflowNodeId("parent").build(),
+                Context.builder().build());
+        execution.addNode(parent);
+        assertThat(execution.findNodesByWorkflowNodeId("loop")).isEmpty();
+        var first = WorkflowNodeExecution.of(WorkflowNode.builder().workflowNodeId("loop").build(),
+                Context.builder().build());
+        var second = WorkflowNodeExecution.of(WorkflowNode.builder().workflowNodeId("loop").build(),
+                Context.builder().build());
+
+        // expectation
+        execution.addChildren(parent, List.of(first));
+        execution.addChildren(first, List.of(second));
+
+        // validation
+        assertThat(execution.findNodesByWorkflowNodeId("loop")).containsExactly(first, second);
+        assertThat(execution.findNodeByWorkflowNodeExecutionId(second.getWorkflowNodeExecutionId()))
+                .isSameAs(second);
+        assertThat(execution.findParentNode(second.getWorkflowNodeExecutionId())).isSameAs(first);
+        assertThat(execution.findParentNode(parent.getWorkflowNodeExecutionId())).isNull();
+    }
+
+    @Test
+    void shouldDropDescendantsFromIndexes_whenClearingChildren() {
+        // setup
+        var execution = WorkflowExecution.of(new Workflow());
+        var parent = WorkflowNodeExecution.of(WorkflowNode.builder().workflowNodeId("parent").build(),
+                Context.builder().build());
+        var child = WorkflowNodeExecution.of(WorkflowNode.builder().workflowNodeId("child").build(),
+                Context.builder().build());
+        var grandChild = WorkflowNodeExecution.of(WorkflowNode.builder().workflowNodeId("grand-child").build(),
+                Context.builder().build());
+        child.getChildren().add(grandChild);
+        parent.getChildren().add(child);
+        execution.addNode(parent);
+        assertThat(execution.findNodesByWorkflowNodeId("grand-child")).hasSize(1);
+
+        // expectation
+        execution.clearChildren(parent);
+
+        // validation
+        assertThat(parent.getChildren()).isEmpty();
+        assertThat(execution.findNodesByWorkflowNodeId("child")).isEmpty();
+        assertThat(execution.findNodeByWorkflowNodeExecutionId(grandChild.getWorkflowNodeExecutionId())).isNull();
+        assertThat(execution.findNodeByWorkflowNodeExecutionId(parent.getWorkflowNodeExecutionId())).isSameAs(parent);
+    }
+
+    @Test
+    void shouldReplaceRootWithSameExecutionId() {
+        // setup
+        var execution = WorkflowExecution.of(new Workflow());
+        var first = WorkflowNodeExecution.of(WorkflowNode.builder().workflowNodeId("start").build(),
+                Context.builder().build());
+        var other = WorkflowNodeExecution.of(WorkflowNode.builder().workflowNodeId("other").build(),
+                Context.builder().build());
+        execution.addNode(first);
+        execution.addNode(other);
+
+        // expectation
+        execution.replaceNode(first);
+
+        // validation
+        assertThat(execution.getNodes()).containsExactly(other, first);
+    }
+
+    @Test
+    void shouldDropSubtreeOfReplacedRootFromIndexes() {
+        // setup
+        var execution = WorkflowExecution.of(new Workflow());
+        var first = WorkflowNodeExecution.of(WorkflowNode.builder().workflowNodeId("start").build(),
+                Context.builder().build());
+        var child = WorkflowNodeExecution.of(WorkflowNode.builder().workflowNodeId("child").build(),
+                Context.builder().build());
+        first.getChildren().add(child);
+        execution.addNode(first);
+        assertThat(execution.findNodesByWorkflowNodeId("child")).containsExactly(child);
+        var replacement = WorkflowNodeExecution.of(first.getWorkflowNode(), Context.builder().build());
+        replacement.setWorkflowNodeExecutionId(first.getWorkflowNodeExecutionId());
+
+        // expectation
+        execution.replaceNode(replacement);
+
+        // validation
+        assertThat(execution.getNodes()).containsExactly(replacement);
+        assertThat(execution.findNodeByWorkflowNodeExecutionId(first.getWorkflowNodeExecutionId()))
+                .isSameAs(replacement);
+        assertThat(execution.findNodesByWorkflowNodeId("start")).containsExactly(replacement);
+        assertThat(execution.findNodesByWorkflowNodeId("child")).isEmpty();
+        assertThat(execution.findNodeByWorkflowNodeExecutionId(child.getWorkflowNodeExecutionId())).isNull();
+    }
+
+    @Test
+    void shouldRebuildIndexes_afterInflate() {
+        // setup
+        var execution = WorkflowExecution.of(new Workflow());
+        var parent = WorkflowNodeExecution.of(WorkflowNode.builder().workflowNodeId("parent").build(),
+                Context.builder().build());
+        var child = WorkflowNodeExecution.of(WorkflowNode.builder().workflowNodeId("child").build(),
+                Context.builder().build());
+        parent.getChildren().add(child);
+        execution.addNode(parent);
+        execution.flatten();
+        assertThat(execution.findNodesByWorkflowNodeId("child")).containsExactly(child);
+
+        // expectation
+        execution.getNodeExecutionMap().remove(child.getWorkflowNodeExecutionId());
+        execution.inflate();
+
+        // validation
+        assertThat(execution.findNodesByWorkflowNodeId("child")).isEmpty();
+        assertThat(execution.findNodesByWorkflowNodeId("parent")).containsExactly(parent);
+    }
 }
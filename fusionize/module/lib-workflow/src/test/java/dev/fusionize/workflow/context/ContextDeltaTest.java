@@ -0,0 +1,163 @@
+package dev.fusionize.workflow.context;
+
+import dev.fusionize.workflow.WorkflowNodeExecutionState;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContextDeltaTest {
+
+    @Test
+    void version_ShouldFollowContent() {
+        Context context = Context.builder()
+                .add("key", "value")
+                .add("list", List.of(1, 2))
+                .build();
+
+        assertEquals(ContextDelta.version(context), ContextDelta.version(context.renew()));
+        assertEquals(ContextDelta.version(context), ContextDelta.version(Context.builder()
+                .add("list", new ArrayList<>(List.of(1, 2)))
+                .add("key", "value")
+                .build()));
+
+        Context changed = context.renew();
+        changed.set("key", "other");
+        assertNotEquals(ContextDelta.version(context), ContextDelta.version(changed));
+    }
+
+    @Test
+    void diff_ShouldOnlyCarryChanges() {
+        Context base = Context.builder()
+                .add("kept", "value")
+                .add("replaced", "before")
+                .add("dropped", "value")
+                .build();
+        ContextDelta.Baseline baseline = ContextDelta.baseline(base);
+
+        Context updated = base.renew();
+        updated.set("replaced", "after");
+        updated.set("added", 1);
+        updated.getData().remove("dropped");
+
+        ContextDelta delta = baseline.diff(updated, "v1");
+
+        assertEquals("v1", delta.getBaseVersion());
+        assertEquals(Map.of("replaced", "after", "added", 1), delta.getSet());
+        assertEquals(List.of("dropped"), delta.getRemoved());
+        assertNull(delta.getDecisions());
+        assertNull(delta.getGraphNodes());
+    }
+
+    @Test
+    void applyTo_ShouldReplaceOffloadedValuesByTheirReference() {
+        Context base = Context.builder()
+                .add("big", "before")
+                .build();
+        ContextDelta delta = ContextDelta.baseline(base).diff(Context.builder()
+                .add("big", "after")
+                .add("small", "value")
+                .build(), "v1");
+        ContextResourceReference reference = ContextResourceReference.builder().withReferenceKey("ref-1").build();
+        delta.offload("big", reference);
+        List<ContextResourceReference> loads = new ArrayList<>();
+        base.setValueStore((ref, type) -> {
+            loads.add(ref);
+            return "after";
+        });
+
+        Context applied = delta.applyTo(base);
+
+        assertEquals(Map.of("small", "value"), delta.getSet());
+        assertFalse(applied.getData().containsKey("big"));
+        assertSame(reference, applied.getOffloaded().get("big"));
+        assertEquals("after", applied.varString("big").orElseThrow());
+        assertEquals(List.of(reference), loads);
+        assertEquals("before", base.varString("big").orElseThrow());
+    }
+
+    @Test
+    void diff_ShouldDetectValuesChangedInPlace() {
+        Map<String, Object> nested = new HashMap<>();
+        nested.put("a", 1);
+        Object opaque = new Object();
+        Context base = Context.builder()
+                .add("nested", nested)
+                .add("opaque", opaque)
+                .build();
+        ContextDelta.Baseline baseline = ContextDelta.baseline(base);
+
+        Context updated = base.renew();
+        nested.put("b", 2);
+
+        ContextDelta delta = baseline.diff(updated, "v1");
+
+        // opaque values cannot be compared by content and are always sent
+        assertEquals(Map.of("nested", nested, "opaque", opaque), delta.getSet());
+    }
+
+    @Test
+    void diff_ShouldCarryChangedDecisionsAndGraphNodes() {
+        WorkflowGraphNode node = new WorkflowGraphNode();
+        node.setNode("n1");
+        WorkflowDecision decision = new WorkflowDecision();
+        decision.setDecisionNode("d1");
+        Context base = Context.builder()
+                .decisions(decision)
+                .graphNodes(node)
+                .build();
+        ContextDelta.Baseline baseline = ContextDelta.baseline(base);
+
+        Context updated = base.renew();
+        updated.getGraphNodes().get(0).setState(WorkflowNodeExecutionState.DONE);
+
+        ContextDelta delta = baseline.diff(updated, "v1");
+
+        assertNull(delta.getDecisions());
+        assertEquals(1, delta.getGraphNodes().size());
+        assertEquals(WorkflowNodeExecutionState.DONE, delta.getGraphNodes().get(0).getState());
+    }
+
+    @Test
+    void applyTo_ShouldRebuildUpdatedContext() {
+        WorkflowGraphNode node = new WorkflowGraphNode();
+        node.setNode("n1");
+        Context base = Context.builder()
+                .add("kept", "value")
+                .add("dropped", "value")
+                .graphNodes(node)
+                .build();
+        ContextDelta.Baseline baseline = ContextDelta.baseline(base);
+        Context updated = base.renew();
+        updated.set("added", 1);
+        updated.getData().remove("dropped");
+        updated.set("file", new ContextResourceReference());
+        updated.getGraphNodes().get(0).setState(WorkflowNodeExecutionState.DONE);
+        ContextDelta delta = baseline.diff(updated, ContextDelta.version(base));
+
+        assertTrue(delta.appliesTo(base));
+        Context applied = delta.applyTo(base);
+
+        assertEquals(updated.getData(), applied.getData());
+        assertEquals(updated.getGraphNodes(), applied.getGraphNodes());
+        assertTrue(applied.resource("file").isPresent());
+        assertTrue(base.contains("dropped"));
+        assertFalse(base.contains("added"));
+        assertEquals(WorkflowNodeExecutionState.IDLE, base.getGraphNodes().get(0).getState());
+    }
+
+    @Test
+    void appliesTo_ShouldRejectOtherBase() {
+        Context base = Context.builder().add("key", "value").build();
+        ContextDelta delta = ContextDelta.baseline(base).diff(base, ContextDelta.version(base));
+
+        Context other = Context.builder().add("key", "other").build();
+
+        assertFalse(delta.appliesTo(other));
+        assertFalse(delta.appliesTo(null));
+    }
+}
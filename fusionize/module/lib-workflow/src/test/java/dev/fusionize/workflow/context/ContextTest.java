@@ -3,6 +3,7 @@ package dev.fusionize.workflow.context;
 import dev.fusionize.workflow.WorkflowNodeExecutionState;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -80,6 +81,104 @@ class ContextTest {
         assertEquals("n1", copy.getGraphNodes().get(0).getNode());
     }
 
+    @Test
+    void renew_ShouldShareStructuresUntilWritten() {
+        WorkflowGraphNode node = new WorkflowGraphNode();
+        node.setNode("n1");
+
+        Context original = Context.builder()
+                .add("key", "value")
+                .graphNodes(node)
+                .build();
+
+        Context copy = original.renew();
+
+        assertSame(original.graphNodesView(), copy.graphNodesView());
+        assertEquals(1, copy.currentNodes().size());
+        assertSame(original.graphNodesView(), copy.graphNodesView());
+
+        copy.getGraphNodes().get(0).setState(WorkflowNodeExecutionState.DONE);
+
+        assertNotSame(original.graphNodesView(), copy.graphNodesView());
+        assertEquals(WorkflowNodeExecutionState.IDLE, original.getGraphNodes().get(0).getState());
+        assertEquals(WorkflowNodeExecutionState.DONE, copy.getGraphNodes().get(0).getState());
+    }
+
+    @Test
+    void renew_ShouldIsolateWritesOnEitherSide() {
+        Context original = Context.builder()
+                .add("key", "value")
+                .build();
+
+        Context copy = original.renew();
+        Context grandCopy = copy.renew();
+
+        copy.set("key", "copy");
+        original.set("other", "original");
+        grandCopy.set("resource", new ContextResourceReference());
+
+        assertEquals("value", original.varString("key").orElseThrow());
+        assertEquals("copy", copy.varString("key").orElseThrow());
+        assertEquals("value", grandCopy.varString("key").orElseThrow());
+        assertFalse(copy.contains("other"));
+        assertFalse(grandCopy.contains("other"));
+        assertTrue(original.resource("resource").isEmpty());
+        assertTrue(copy.resource("resource").isEmpty());
+        assertTrue(grandCopy.resource("resource").isPresent());
+    }
+
+    @Test
+    void offload_ShouldKeepValueReadableThroughVar() {
+        Context context = Context.builder()
+                .add("big", "large value")
+                .add("small", "value")
+                .build();
+
+        context.offload("big", ContextResourceReference.builder().withReferenceKey("ref-1").build());
+
+        assertFalse(context.getData().containsKey("big"));
+        assertTrue(context.getOffloaded().containsKey("big"));
+        assertTrue(context.contains("big"));
+        assertEquals("large value", context.varString("big").orElseThrow());
+        assertEquals(Map.of("big", "large value", "small", "value"), context.vars());
+    }
+
+    @Test
+    void offload_ShouldLoadValueFromStoreOnFirstAccess() {
+        ContextResourceReference reference = ContextResourceReference.builder().withReferenceKey("ref-1").build();
+        Context stored = new Context();
+        stored.getOffloaded().put("big", reference);
+        List<String> loads = new ArrayList<>();
+        stored.setValueStore((ref, type) -> {
+            loads.add(ref.getReferenceKey());
+            return "loaded value";
+        });
+        Context renewed = stored.renew();
+
+        assertEquals("loaded value", renewed.varString("big").orElseThrow());
+        assertEquals("loaded value", stored.varString("big").orElseThrow());
+        assertEquals(List.of("ref-1"), loads);
+    }
+
+    @Test
+    void offload_ShouldFailWithoutValueStore() {
+        Context stored = new Context();
+        stored.getOffloaded().put("big", ContextResourceReference.builder().withReferenceKey("ref-1").build());
+
+        assertThrows(IllegalStateException.class, () -> stored.varString("big"));
+    }
+
+    @Test
+    void set_ShouldReplaceOffloadedValue() {
+        Context context = Context.builder().add("big", "large value").build();
+        context.offload("big", ContextResourceReference.builder().withReferenceKey("ref-1").build());
+
+        context.set("big", "inline");
+
+        assertTrue(context.getOffloaded().isEmpty());
+        assertEquals("inline", context.varString("big").orElseThrow());
+    }
+
     @Test
     void var_ShouldReturnTypedOptional() {
         Context context = Context.builder()
@@ -32,6 +32,9 @@ class EventRouterTest {
     @Mock
     private EventListener<Event> eventListener;
 
+    @Mock
+    private PartitionedEventDispatcher dispatcher;
+
     private EventRouter eventRouter;
 
     @BeforeEach
@@ -40,7 +43,7 @@ class EventRouterTest {
         lenient().when(handler.getEventType()).thenReturn(TestEvent.class);
 
         // expectation
-        eventRouter = new EventRouter(List.of(handler), eventPublisher, eventStore, eventListener);
+        eventRouter = new EventRouter(List.of(handler), eventPublisher, eventStore, eventListener, dispatcher);
     }
 
     @Test
@@ -54,7 +57,7 @@ class EventRouterTest {
         when(handler2.getEventType()).thenReturn(TestEvent.class);
 
         // expectation
-        var router = new EventRouter(List.of(handler1, handler2), eventPublisher, eventStore, eventListener);
+        var router = new EventRouter(List.of(handler1, handler2), eventPublisher, eventStore, eventListener, dispatcher);
 
         // validation
         // Verify both handlers are invoked when an event of their type is routed
@@ -173,7 +176,7 @@ class EventRouterTest {
         when(handler1.getEventType()).thenReturn(TestEvent.class);
         when(handler2.getEventType()).thenReturn(TestEvent.class);
 
-        var router = new EventRouter(List.of(handler1, handler2), eventPublisher, eventStore, eventListener);
+        var router = new EventRouter(List.of(handler1, handler2), eventPublisher, eventStore, eventListener, dispatcher);
 
         var event = new TestEvent();
         when(handler1.shouldHandle(event)).thenReturn(true);
@@ -189,4 +192,87 @@ class EventRouterTest {
         verify(handler2).handle(event);
         verify(eventStore, times(2)).save(event);
     }
+
+    @Test
+    void shouldHandleInline_whenDispatcherDisabled() throws Exception {
+        // setup
+        var event = new TestEvent();
+        when(dispatcher.isEnabled()).thenReturn(false);
+        when(handler.shouldHandle(event)).thenReturn(true);
+
+        // expectation
+        eventRouter.routeEvent(event);
+
+        // validation
+        verify(handler).handle(event);
+        verify(dispatcher, never()).dispatch(any(), any());
+    }
+
+    @Test
+    void shouldDispatchOnExecutionLane_whenDispatcherEnabled() throws Exception {
+        // setup
+        var event = new TestOrchestrationEvent();
+        event.setWorkflowExecutionId("exec-1");
+        event.setCorrelationId("corr-1");
+        when(dispatcher.isEnabled()).thenReturn(true);
+
+        // expectation
+        eventRouter.routeEvent(event);
+
+        // validation
+        verify(dispatcher).dispatch(eq("exec-1"), any(Runnable.class));
+    }
+
+    @Test
+    void shouldAcknowledgeDelivery_onlyOnceLaneHandledEvent() throws Exception {
+        // setup
+        var event = new TestOrchestrationEvent();
+        event.setWorkflowExecutionId("exec-1");
+        EventDelivery delivery = mock(EventDelivery.class);
+        when(dispatcher.isEnabled()).thenReturn(true);
+        ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+
+        // expectation
+        eventRouter.routeEvent(event, delivery);
+
+        // validation
+        verify(dispatcher).dispatch(eq("exec-1"), task.capture());
+        verify(delivery, never()).acknowledge();
+        task.getValue().run();
+        verify(delivery).acknowledge();
+        verify(delivery, never()).requeue();
+    }
+
+    @Test
+    void shouldRequeueDelivery_whenEventCannotBeDispatched() {
+        // setup
+        var event = new TestOrchestrationEvent();
+        event.setWorkflowExecutionId("exec-1");
+        EventDelivery delivery = mock(EventDelivery.class);
+        when(dispatcher.isEnabled()).thenReturn(true);
+        doThrow(new IllegalStateException("interrupted")).when(dispatcher).dispatch(eq("exec-1"), any());
+
+        // expectation
+        assertThrows(IllegalStateException.class, () -> eventRouter.routeEvent(event, delivery));
+
+        // validation
+        verify(delivery).requeue();
+        verify(delivery, never()).acknowledge();
+    }
+
+    @Test
+    void shouldUseCorrelationIdAsPartitionKey_whenNoExecution() {
+        // setup
+        var event = new TestEvent();
+        event.setCorrelationId("corr-1");
+
+        // expectation
+        String key = EventRouter.partitionKey(event);
+
+        // validation
+        assertEquals("corr-1", key);
+    }
+
+    static class TestOrchestrationEvent extends OrchestrationEvent {
+    }
 }
@@ -0,0 +1,150 @@
+package dev.fusionize.workflow.events;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PartitionedEventDispatcherTest {
+
+    private PartitionedEventDispatcher dispatcher;
+
+    @AfterEach
+    void tearDown() {
+        if (dispatcher != null) {
+            dispatcher.destroy();
+        }
+    }
+
+    @Test
+    void shouldRunInline_whenDisabled() {
+        // setup
+        dispatcher = new PartitionedEventDispatcher(new EventDispatchProperties());
+        List<Thread> threads = new ArrayList<>();
+
+        // expectation
+        dispatcher.dispatch("exec-1", () -> threads.add(Thread.currentThread()));
+
+        // validation
+        assertThat(dispatcher.isEnabled()).isFalse();
+        assertThat(threads).containsExactly(Thread.currentThread());
+    }
+
+    @Test
+    void shouldKeepOrderPerPartitionKey() throws Exception {
+        // setup
+        dispatcher = new PartitionedEventDispatcher(properties(4, 16));
+        List<Integer> seen = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch done = new CountDownLatch(100);
+
+        // expectation
+        for (int i = 0; i < 100; i++) {
+            int value = i;
+            dispatcher.dispatch("exec-1", () -> {
+                seen.add(value);
+                done.countDown();
+            });
+        }
+
+        // validation
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(seen).isSorted().hasSize(100);
+    }
+
+    @Test
+    void shouldRunDifferentLanesInParallel() throws Exception {
+        // setup
+        dispatcher = new PartitionedEventDispatcher(properties(2, 16));
+        String first = keyForLane(0);
+        String second = keyForLane(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch otherLaneRan = new CountDownLatch(1);
+
+        // expectation
+        dispatcher.dispatch(first, () -> await(release));
+        dispatcher.dispatch(second, otherLaneRan::countDown);
+
+        // validation
+        assertThat(otherLaneRan.await(5, TimeUnit.SECONDS)).isTrue();
+        release.countDown();
+    }
+
+    @Test
+    void shouldBlockSubmitter_whenLaneIsFull() throws Exception {
+        // setup
+        dispatcher = new PartitionedEventDispatcher(properties(1, 1));
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        dispatcher.dispatch("exec-1", () -> {
+            started.countDown();
+            await(release);
+        });
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        dispatcher.dispatch("exec-1", () -> { });
+        AtomicBoolean submitted = new AtomicBoolean();
+
+        // expectation
+        Thread producer = new Thread(() -> {
+            dispatcher.dispatch("exec-1", () -> { });
+            submitted.set(true);
+        });
+        producer.start();
+        producer.join(200);
+
+        // validation
+        assertThat(submitted).isFalse();
+        assertThat(dispatcher.getQueueDepth(0)).isEqualTo(1);
+        release.countDown();
+        producer.join(5000);
+        assertThat(submitted).isTrue();
+    }
+
+    @Test
+    void shouldNotBlock_whenSubmittingFromLaneThread() throws Exception {
+        // setup
+        dispatcher = new PartitionedEventDispatcher(properties(1, 1));
+        CountDownLatch done = new CountDownLatch(3);
+
+        // expectation
+        dispatcher.dispatch("exec-1", () -> {
+            for (int i = 0; i < 3; i++) {
+                dispatcher.dispatch("exec-1", done::countDown);
+            }
+        });
+
+        // validation
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    private String keyForLane(int lane) {
+        for (int i = 0; ; i++) {
+            String key = "exec-" + i;
+            if (dispatcher.laneOf(key) == lane) {
+                return key;
+            }
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static EventDispatchProperties properties(int lanes, int capacity) {
+        EventDispatchProperties properties = new EventDispatchProperties();
+        properties.setEnabled(true);
+        properties.setLanes(lanes);
+        properties.setLaneCapacity(capacity);
+        return properties;
+    }
+}
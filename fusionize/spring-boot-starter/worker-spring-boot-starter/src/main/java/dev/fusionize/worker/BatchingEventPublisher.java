@@ -0,0 +1,209 @@
+package dev.fusionize.worker;
+
+import dev.fusionize.workflow.events.Event;
+import dev.fusionize.workflow.events.EventPublisher;
+import dev.fusionize.workflow.events.EventRouter;
+import dev.fusionize.workflow.events.EventStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.AmqpTimeoutException;
+import org.springframework.amqp.rabbit.core.RabbitOperations;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Publishes events in batches. Events are collected for a short linger window
+ * or until the batch is full, saved with a single bulk insert, sent on one
+ * channel and confirmed by the broker as a whole.
+ * <p>
+ * Batches are flushed by a single thread, so events keep the order in which
+ * they were published. {@link #publishAsync(Event)} completes once the event
+ * is stored and confirmed; {@link #publish(Event)} waits for that, up to
+ * {@code publishTimeout}, and throws if the batch failed.
+ * <p>
+ * At most {@code queueCapacity} events wait for a batch. Publishers block
+ * while the queue is full and are rejected if no room frees up within
+ * {@code queueTimeout}.
+ */
+public class BatchingEventPublisher extends EventPublisher<Event> implements DisposableBean {
+    private static final Logger logger = LoggerFactory.getLogger(BatchingEventPublisher.class);
+    /**
+     * Message header carrying {@link EventRouter#partitionKey(Event)}, hashed by
+     * the partitioned worker topology.
+     */
+    public static final String PARTITION_HEADER = "fusionize-partition";
+
+    private final EventStore<Event> eventStore;
+    private final RabbitOperations rabbitOperations;
+    private final String exchange;
+    private final int batchSize;
+    private final long lingerNanos;
+    private final long confirmTimeoutMillis;
+    private final long queueTimeoutNanos;
+    private final long publishTimeoutNanos;
+    private final LinkedBlockingQueue<Pending> queue;
+    private final Thread flusher;
+    private volatile boolean running = true;
+
+    public BatchingEventPublisher(EventStore<Event> eventStore,
+                                  RabbitOperations rabbitOperations,
+                                  String exchange,
+                                  int batchSize,
+                                  Duration linger,
+                                  Duration confirmTimeout,
+                                  int queueCapacity,
+                                  Duration queueTimeout,
+                                  Duration publishTimeout) {
+        super(eventStore);
+        this.eventStore = eventStore;
+        this.rabbitOperations = rabbitOperations;
+        this.exchange = exchange;
+        this.batchSize = Math.max(1, batchSize);
+        this.lingerNanos = linger.toNanos();
+        this.confirmTimeoutMillis = confirmTimeout.toMillis();
+        this.queueTimeoutNanos = queueTimeout.toNanos();
+        this.publishTimeoutNanos = publishTimeout.toNanos();
+        this.queue = new LinkedBlockingQueue<>(Math.max(1, queueCapacity));
+        this.flusher = new Thread(this::run, "fusionize-event-publisher");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    /**
+     * Queues the event for the next batch and waits until it is stored and
+     * confirmed by the broker.
+     *
+     * @throws RejectedExecutionException if the publisher is shut down or its
+     *                                    queue stayed full
+     * @throws AmqpTimeoutException       if the batch was not confirmed within
+     *                                    {@code publishTimeout}
+     * @throws RuntimeException           the failure of the batch the event was in
+     */
+    @Override
+    public void publish(Event event) {
+        Pending pending = new Pending(event, new CompletableFuture<>());
+        enqueue(pending);
+        try {
+            pending.future().get(publishTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause
+                    : new AmqpException("Failed to publish event " + event.getEventId(), e.getCause());
+        } catch (TimeoutException e) {
+            throw new AmqpTimeoutException("Event " + event.getEventId() + " was not confirmed within "
+                    + Duration.ofNanos(publishTimeoutNanos), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AmqpException("Interrupted while waiting for event " + event.getEventId()
+                    + " to be confirmed", e);
+        }
+    }
+
+    /**
+     * Queues the event for the next batch.
+     *
+     * @return a future completed with the event once it is stored and
+     * confirmed by the broker, or exceptionally if the batch failed or the
+     * event was rejected
+     */
+    public CompletableFuture<Event> publishAsync(Event event) {
+        Pending pending = new Pending(event, new CompletableFuture<>());
+        try {
+            enqueue(pending);
+        } catch (RejectedExecutionException e) {
+            pending.future().completeExceptionally(e);
+        }
+        return pending.future();
+    }
+
+    private void enqueue(Pending pending) {
+        if (!running) {
+            throw new RejectedExecutionException("Event publisher is shut down");
+        }
+        try {
+            if (!queue.offer(pending, queueTimeoutNanos, TimeUnit.NANOSECONDS)) {
+                throw new RejectedExecutionException("Event publisher queue is full, rejected event "
+                        + pending.event().getEventId());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while waiting to queue event "
+                    + pending.event().getEventId(), e);
+        }
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    private void run() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + lingerNanos;
+                while (batch.size() < batchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    Pending next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                running = false;
+                queue.drainTo(batch);
+            }
+            if (!batch.isEmpty()) {
+                flush(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    void flush(List<Pending> batch) {
+        List<Event> events = batch.stream().map(Pending::event).toList();
+        try {
+            eventStore.saveAll(events);
+            rabbitOperations.invoke(operations -> {
+                for (Event event : events) {
+                    logger.debug("Publishing event: eventClass={}, eventId={}, causationId={}, correlationId={}",
+                            event.getEventClass(), event.getEventId(), event.getCausationId(), event.getCorrelationId());
+                    String partitionKey = EventRouter.partitionKey(event);
+                    operations.convertAndSend(exchange, CapabilityRouting.routingKey(event), event, message -> {
+                        message.getMessageProperties().setHeader(PARTITION_HEADER, partitionKey);
+                        return message;
+                    });
+                }
+                operations.waitForConfirmsOrDie(confirmTimeoutMillis);
+                return null;
+            });
+            batch.forEach(p -> p.future().complete(p.event()));
+        } catch (Exception e) {
+            logger.error("Failed to publish batch of {} events", events.size(), e);
+            batch.forEach(p -> p.future().completeExceptionally(e));
+        }
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+        flusher.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    record Pending(Event event, CompletableFuture<Event> future) {
+    }
+}
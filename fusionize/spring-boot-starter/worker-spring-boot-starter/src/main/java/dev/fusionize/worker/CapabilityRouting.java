@@ -0,0 +1,52 @@
+package dev.fusionize.worker;
+
+import dev.fusionize.workflow.component.Actor;
+import dev.fusionize.workflow.events.Event;
+import dev.fusionize.workflow.events.RuntimeEvent;
+import dev.fusionize.workflow.events.orchestration.ActivationRequestEvent;
+import dev.fusionize.workflow.events.orchestration.InvocationRequestEvent;
+import dev.fusionize.workflow.events.orchestration.TerminationRequestEvent;
+
+import java.util.Locale;
+
+/**
+ * Routing keys and queue names of the capability-routed topology.
+ * <p>
+ * Requests for a component are routed as
+ * {@code component.<actor>.<domain>} and consumed from one queue per
+ * component, so only workers that registered the component receive them.
+ * Requests for local components, which carry no actor, and every other event
+ * are routed as {@code orchestrator.<event>} onto the orchestrator lane.
+ */
+public final class CapabilityRouting {
+    public static final String COMPONENT_PREFIX = "component.";
+    public static final String ORCHESTRATOR_PREFIX = "orchestrator.";
+
+    private CapabilityRouting() {
+    }
+
+    public static String routingKey(Event event) {
+        if (isComponentRequest(event)) {
+            String component = ((RuntimeEvent) event).getComponent();
+            if (component != null && component.contains(":")) {
+                String[] parts = component.split(":", 2);
+                return COMPONENT_PREFIX + parts[0].toLowerCase(Locale.ROOT) + "." + parts[1].toLowerCase(Locale.ROOT);
+            }
+        }
+        return ORCHESTRATOR_PREFIX + event.getClass().getSimpleName().toLowerCase(Locale.ROOT);
+    }
+
+    public static boolean isComponentRequest(Event event) {
+        return event instanceof ActivationRequestEvent
+                || event instanceof InvocationRequestEvent
+                || event instanceof TerminationRequestEvent;
+    }
+
+    public static String componentKey(Actor actor, String domain) {
+        return COMPONENT_PREFIX + actor.name().toLowerCase(Locale.ROOT) + "." + domain.toLowerCase(Locale.ROOT);
+    }
+
+    public static String componentQueue(Actor actor, String domain) {
+        return "fusionize." + componentKey(actor, domain);
+    }
+}
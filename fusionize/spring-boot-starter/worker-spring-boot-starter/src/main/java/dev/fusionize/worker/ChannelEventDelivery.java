@@ -0,0 +1,60 @@
+package dev.fusionize.worker;
+
+import com.rabbitmq.client.Channel;
+import dev.fusionize.workflow.events.EventDelivery;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.Message;
+
+import java.io.IOException;
+
+/**
+ * Settles a message consumed with manual acknowledgement on the channel it was
+ * delivered on. A message that fails again after being redelivered is
+ * rejected instead of requeued, so it cannot go round forever.
+ * <p>
+ * If the channel closed in the meantime the broker delivers the message again
+ * anyway, so failing to settle it is only logged.
+ */
+class ChannelEventDelivery implements EventDelivery {
+    private static final Logger logger = LoggerFactory.getLogger(ChannelEventDelivery.class);
+
+    private final Channel channel;
+    private final long deliveryTag;
+    private final boolean redelivered;
+
+    ChannelEventDelivery(Channel channel, Message message) {
+        this.channel = channel;
+        this.deliveryTag = message.getMessageProperties().getDeliveryTag();
+        this.redelivered = Boolean.TRUE.equals(message.getMessageProperties().isRedelivered());
+    }
+
+    @Override
+    public void acknowledge() {
+        try {
+            channel.basicAck(deliveryTag, false);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Failed to acknowledge delivery {}, it will be delivered again", deliveryTag, e);
+        }
+    }
+
+    @Override
+    public void requeue() {
+        try {
+            channel.basicNack(deliveryTag, false, !redelivered);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Failed to reject delivery {}, it will be delivered again", deliveryTag, e);
+        }
+    }
+
+    /**
+     * Rejects a message that cannot be read as an event without requeueing it.
+     */
+    void discard() {
+        try {
+            channel.basicNack(deliveryTag, false, false);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Failed to reject delivery {}", deliveryTag, e);
+        }
+    }
+}
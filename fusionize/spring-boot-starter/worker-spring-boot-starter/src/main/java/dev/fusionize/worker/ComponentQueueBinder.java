@@ -0,0 +1,111 @@
+package dev.fusionize.worker;
+
+import dev.fusionize.workflow.component.Actor;
+import dev.fusionize.workflow.component.WorkflowComponent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.QueueBuilder;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.listener.MessageListenerContainer;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.context.SmartLifecycle;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Declares and consumes the queues of the capability-routed topology: one
+ * queue per registered component, plus the orchestrator lane and the queue
+ * collecting requests no worker is bound for.
+ * <p>
+ * Component queues are shared by every worker registering the component, so
+ * workers offering the same component compete for its requests and each
+ * request is delivered once.
+ */
+public class ComponentQueueBinder implements SmartLifecycle {
+    private static final Logger logger = LoggerFactory.getLogger(ComponentQueueBinder.class);
+
+    private final WorkerProperties properties;
+    private final AmqpAdmin amqpAdmin;
+    private final Function<String, MessageListenerContainer> containerFactory;
+    private final Map<String, MessageListenerContainer> containers = new ConcurrentHashMap<>();
+    private volatile boolean running;
+
+    public ComponentQueueBinder(WorkerProperties properties,
+                                AmqpAdmin amqpAdmin,
+                                ConnectionFactory connectionFactory,
+                                MessageConverter messageConverter,
+                                WorkerAmqpAutoConfiguration.AmqpEventListener eventListener) {
+        this(properties, amqpAdmin, queue -> WorkerAmqpAutoConfiguration.eventListenerContainer(
+                connectionFactory, messageConverter, eventListener, queue,
+                properties.getComponentPrefetch(), 1));
+    }
+
+    ComponentQueueBinder(WorkerProperties properties,
+                         AmqpAdmin amqpAdmin,
+                         Function<String, MessageListenerContainer> containerFactory) {
+        this.properties = properties;
+        this.amqpAdmin = amqpAdmin;
+        this.containerFactory = containerFactory;
+    }
+
+    /**
+     * Binds a queue for every actor of the component and starts consuming it.
+     */
+    public void bind(WorkflowComponent component) {
+        for (Actor actor : component.getActors()) {
+            String queue = CapabilityRouting.componentQueue(actor, component.getDomain());
+            if (containers.containsKey(queue)) {
+                continue;
+            }
+            amqpAdmin.declareQueue(QueueBuilder.durable(queue).build());
+            amqpAdmin.declareBinding(new Binding(queue, Binding.DestinationType.QUEUE,
+                    WorkerAmqpAutoConfiguration.FUSIONIZE_COMPONENT_EVENTS_EXCHANGE,
+                    CapabilityRouting.componentKey(actor, component.getDomain()), null));
+            consume(queue);
+            logger.info("Bound component queue {}", queue);
+        }
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        if (properties.isConsumeOrchestratorEvents()) {
+            consume(WorkerAmqpAutoConfiguration.FUSIONIZE_UNROUTED_COMPONENT_EVENTS_QUEUE);
+            // with partitions the orchestrator lane is consumed from the partition queues
+            if (properties.getPartitions() <= 0) {
+                consume(WorkerAmqpAutoConfiguration.FUSIONIZE_ORCHESTRATOR_EVENTS_QUEUE);
+            }
+        }
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        containers.values().forEach(MessageListenerContainer::stop);
+        containers.clear();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private synchronized void consume(String queue) {
+        if (containers.containsKey(queue)) {
+            return;
+        }
+        MessageListenerContainer container = containerFactory.apply(queue);
+        container.start();
+        containers.put(queue, container);
+    }
+
+    public Set<String> getConsumedQueues() {
+        return new TreeSet<>(containers.keySet());
+    }
+}
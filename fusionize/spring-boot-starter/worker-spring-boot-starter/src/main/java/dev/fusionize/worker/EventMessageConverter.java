@@ -0,0 +1,128 @@
+package dev.fusionize.worker;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.DefaultJackson2JavaTypeMapper;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.amqp.support.converter.MessageConverter;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Converts events to AMQP messages in the configured format, optionally gzip
+ * compressed above a size threshold.
+ * <p>
+ * Incoming messages are read according to their content type and encoding,
+ * whatever the configured format, so a fleet can be upgraded by first rolling
+ * out readers and then switching the format of the writers.
+ */
+public class EventMessageConverter implements MessageConverter {
+    public static final String CONTENT_TYPE_SMILE = "application/x-jackson-smile";
+    public static final String CONTENT_ENCODING_GZIP = "gzip";
+
+    public enum Format {
+        JSON,
+        SMILE
+    }
+
+    private final Format format;
+    private final int compressionThreshold;
+    private final Jackson2JsonMessageConverter json = new Jackson2JsonMessageConverter();
+    private final ObjectMapper smile = SmileMapper.builder()
+            .findAndAddModules()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .disable(MapperFeature.DEFAULT_VIEW_INCLUSION)
+            .build();
+    private final DefaultJackson2JavaTypeMapper typeMapper = new DefaultJackson2JavaTypeMapper();
+
+    /**
+     * @param compressionThreshold the body size in bytes from which messages
+     *                             are compressed; {@code 0} never compresses
+     */
+    public EventMessageConverter(Format format, int compressionThreshold) {
+        this.format = format == null ? Format.JSON : format;
+        this.compressionThreshold = compressionThreshold;
+        this.typeMapper.setTrustedPackages("*");
+    }
+
+    @Override
+    public Message toMessage(Object object, MessageProperties messageProperties) throws MessageConversionException {
+        Message message = format == Format.SMILE
+                ? toSmileMessage(object, messageProperties)
+                : json.toMessage(object, messageProperties);
+        byte[] body = message.getBody();
+        if (compressionThreshold <= 0 || body.length < compressionThreshold) {
+            return message;
+        }
+        MessageProperties properties = message.getMessageProperties();
+        properties.setContentEncoding(CONTENT_ENCODING_GZIP);
+        byte[] compressed = compress(body);
+        properties.setContentLength(compressed.length);
+        return new Message(compressed, properties);
+    }
+
+    private Message toSmileMessage(Object object, MessageProperties properties) {
+        try {
+            byte[] body = smile.writeValueAsBytes(object);
+            properties.setContentType(CONTENT_TYPE_SMILE);
+            properties.setContentLength(body.length);
+            typeMapper.fromJavaType(smile.constructType(object.getClass()), properties);
+            return new Message(body, properties);
+        } catch (IOException e) {
+            throw new MessageConversionException("Failed to convert to Smile", e);
+        }
+    }
+
+    @Override
+    public Object fromMessage(Message message) throws MessageConversionException {
+        MessageProperties properties = message.getMessageProperties();
+        if (properties != null && CONTENT_ENCODING_GZIP.equals(properties.getContentEncoding())) {
+            // the JSON converter reads the content encoding as the charset
+            properties.setContentEncoding(null);
+            message = new Message(decompress(message.getBody()), properties);
+        }
+        String contentType = properties == null ? null : properties.getContentType();
+        if (contentType != null && contentType.startsWith(CONTENT_TYPE_SMILE)) {
+            try {
+                JavaType type = typeMapper.toJavaType(properties);
+                return smile.readValue(message.getBody(), type);
+            } catch (IOException e) {
+                throw new MessageConversionException("Failed to convert from Smile", e);
+            }
+        }
+        return json.fromMessage(message);
+    }
+
+    static byte[] compress(byte[] body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        } catch (IOException e) {
+            throw new MessageConversionException("Failed to compress message", e);
+        }
+        return out.toByteArray();
+    }
+
+    static byte[] decompress(byte[] body) {
+        try (InputStream gzip = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            return gzip.readAllBytes();
+        } catch (IOException e) {
+            throw new MessageConversionException("Failed to decompress message", e);
+        }
+    }
+
+    public Format getFormat() {
+        return format;
+    }
+}
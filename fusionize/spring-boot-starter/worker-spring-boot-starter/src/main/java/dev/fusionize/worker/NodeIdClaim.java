@@ -0,0 +1,152 @@
+package dev.fusionize.worker;
+
+import dev.fusionize.common.utility.KeyUtil;
+import dev.fusionize.common.utility.SortableId;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Claims the node this worker generates {@link SortableId}s as, so no two
+ * live workers share one.
+ * <p>
+ * A claim is a document in {@code worker-node} keyed by the node and renewed
+ * by a heartbeat; a claim that missed three heartbeats is left by a worker
+ * that went away and can be taken over. A configured node claimed by another
+ * live worker fails startup, a random one is drawn again.
+ */
+public class NodeIdClaim implements DisposableBean {
+    static final String COLLECTION = "worker-node";
+    private static final Logger logger = LoggerFactory.getLogger(NodeIdClaim.class);
+    private static final int EXPIRY_HEARTBEATS = 3;
+    private static final int MAX_ATTEMPTS = 10;
+
+    private final MongoTemplate mongoTemplate;
+    private final String holder;
+    private final Duration heartbeat;
+    private final Clock clock;
+    private final LongSupplier randomNode;
+    private volatile Long node;
+    private ScheduledExecutorService scheduler;
+
+    public NodeIdClaim(MongoTemplate mongoTemplate, Duration heartbeat) {
+        this(mongoTemplate, KeyUtil.getFlatUUID(), heartbeat, Clock.systemUTC(), SortableId::randomNode);
+    }
+
+    NodeIdClaim(MongoTemplate mongoTemplate, String holder, Duration heartbeat, Clock clock,
+                LongSupplier randomNode) {
+        this.mongoTemplate = mongoTemplate;
+        this.holder = holder;
+        this.heartbeat = heartbeat;
+        this.clock = clock;
+        this.randomNode = randomNode;
+    }
+
+    /**
+     * Claims the configured node, or a random one for {@code null}, sets it
+     * as the node of {@link SortableId} and starts renewing the claim.
+     *
+     * @throws IllegalStateException if the configured node is claimed by
+     *                               another live worker, or no random node
+     *                               could be claimed
+     */
+    public long claim(Long configured) {
+        long claimed = configured != null ? claimConfigured(configured) : claimRandom();
+        SortableId.setNode(claimed);
+        node = claimed;
+        logger.info("Claimed node {}", claimed);
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "fusionize-node-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = heartbeat.toMillis();
+        scheduler.scheduleAtFixedRate(this::renewQuietly, interval, interval, TimeUnit.MILLISECONDS);
+        return claimed;
+    }
+
+    private long claimConfigured(long configured) {
+        if (!tryClaim(configured)) {
+            Document claim = mongoTemplate.findById(configured, Document.class, COLLECTION);
+            throw new IllegalStateException("Node " + configured + " is claimed by worker "
+                    + (claim == null ? null : claim.get("holder")) + ", configure a unique node id");
+        }
+        return configured;
+    }
+
+    private long claimRandom() {
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            long candidate = randomNode.getAsLong();
+            if (tryClaim(candidate)) {
+                return candidate;
+            }
+            logger.debug("Node {} is claimed by another worker, drawing another", candidate);
+        }
+        throw new IllegalStateException("Failed to claim a node after " + MAX_ATTEMPTS + " attempts");
+    }
+
+    private boolean tryClaim(long candidate) {
+        Instant now = clock.instant();
+        Date expiry = Date.from(now.minus(heartbeat.multipliedBy(EXPIRY_HEARTBEATS)));
+        Query query = Query.query(Criteria.where("_id").is(candidate).orOperator(
+                Criteria.where("holder").is(holder),
+                Criteria.where("heartbeat").lt(expiry)));
+        Update update = new Update()
+                .set("holder", holder)
+                .set("heartbeat", Date.from(now));
+        try {
+            // a claim of another live worker fails the upsert on the _id
+            mongoTemplate.upsert(query, update, COLLECTION);
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Renews the claim. A claim lost while this worker missed its heartbeats
+     * is only logged, as IDs already handed out cannot be taken back.
+     */
+    void renew() {
+        Long current = node;
+        if (current != null && !tryClaim(current)) {
+            logger.error("Node {} was taken over by another worker, IDs of both may collide", current);
+        }
+    }
+
+    private void renewQuietly() {
+        try {
+            renew();
+        } catch (Exception e) {
+            logger.warn("Failed to renew claim of node {}", node, e);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        Long current = node;
+        node = null;
+        if (current != null) {
+            mongoTemplate.remove(Query.query(Criteria.where("_id").is(current).and("holder").is(holder)),
+                    COLLECTION);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package dev.fusionize.worker;
+
+import dev.fusionize.common.utility.KeyUtil;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Tracks the workers consuming partition queues and decides which partitions
+ * each of them owns.
+ * <p>
+ * Every worker renews a heartbeat document in {@code worker-partition-member};
+ * members that missed three heartbeats are considered gone. Partitions are
+ * assigned with rendezvous hashing, so a worker joining or leaving only moves
+ * the partitions it gains or loses.
+ */
+public class PartitionMembership {
+    static final String COLLECTION = "worker-partition-member";
+    private static final int EXPIRY_HEARTBEATS = 3;
+
+    private final MongoTemplate mongoTemplate;
+    private final String memberId;
+    private final Duration heartbeat;
+    private final Clock clock;
+
+    public PartitionMembership(MongoTemplate mongoTemplate, Duration heartbeat) {
+        this(mongoTemplate, KeyUtil.getFlatUUID(), heartbeat, Clock.systemUTC());
+    }
+
+    PartitionMembership(MongoTemplate mongoTemplate, String memberId, Duration heartbeat, Clock clock) {
+        this.mongoTemplate = mongoTemplate;
+        this.memberId = memberId;
+        this.heartbeat = heartbeat;
+        this.clock = clock;
+    }
+
+    public String getMemberId() {
+        return memberId;
+    }
+
+    /**
+     * Renews this worker's heartbeat and returns the live members, this worker
+     * included.
+     */
+    public List<String> heartbeat() {
+        Instant now = clock.instant();
+        Date expiry = Date.from(now.minus(heartbeat.multipliedBy(EXPIRY_HEARTBEATS)));
+        mongoTemplate.upsert(Query.query(Criteria.where("_id").is(memberId)),
+                Update.update("heartbeat", Date.from(now)), COLLECTION);
+        mongoTemplate.remove(Query.query(Criteria.where("heartbeat").lt(expiry)), COLLECTION);
+
+        List<String> members = new ArrayList<>();
+        for (Document member : mongoTemplate.find(Query.query(Criteria.where("heartbeat").gte(expiry)),
+                Document.class, COLLECTION)) {
+            members.add(member.get("_id").toString());
+        }
+        if (!members.contains(memberId)) {
+            members.add(memberId);
+        }
+        return members;
+    }
+
+    public void leave() {
+        mongoTemplate.remove(Query.query(Criteria.where("_id").is(memberId)), COLLECTION);
+    }
+
+    /**
+     * Partitions owned by this worker among the given members.
+     */
+    public Set<Integer> owned(Collection<String> members, int partitions) {
+        return assign(members, partitions).getOrDefault(memberId, Set.of());
+    }
+
+    static Map<String, Set<Integer>> assign(Collection<String> members, int partitions) {
+        Map<String, Set<Integer>> owners = new HashMap<>();
+        for (int partition = 0; partition < partitions; partition++) {
+            String owner = null;
+            long ownerWeight = 0;
+            for (String member : members) {
+                long weight = weight(member, partition);
+                if (owner == null || weight > ownerWeight
+                        || (weight == ownerWeight && member.compareTo(owner) < 0)) {
+                    owner = member;
+                    ownerWeight = weight;
+                }
+            }
+            if (owner != null) {
+                owners.computeIfAbsent(owner, k -> new TreeSet<>()).add(partition);
+            }
+        }
+        return owners;
+    }
+
+    private static long weight(String member, int partition) {
+        // splitmix64 finalizer over member and partition
+        long z = ((long) member.hashCode() << 32) ^ partition;
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,125 @@
+package dev.fusionize.worker;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.listener.MessageListenerContainer;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.context.SmartLifecycle;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+/**
+ * Consumes the partition queues this worker owns. On every heartbeat the
+ * membership is renewed, ownership recomputed, and a listener container is
+ * started for each newly owned partition and stopped for each lost one.
+ * <p>
+ * Partition queues allow a single active consumer, so while ownership moves
+ * between workers the broker keeps delivering to the previous owner until it
+ * lets go, and events of one execution are never consumed in parallel.
+ */
+public class PartitionedEventConsumer implements SmartLifecycle {
+    private static final Logger logger = LoggerFactory.getLogger(PartitionedEventConsumer.class);
+
+    private final WorkerProperties properties;
+    private final PartitionMembership membership;
+    private final IntFunction<MessageListenerContainer> containerFactory;
+    private final Map<Integer, MessageListenerContainer> containers = new ConcurrentHashMap<>();
+    private ScheduledExecutorService scheduler;
+    private volatile boolean running;
+
+    public PartitionedEventConsumer(WorkerProperties properties,
+                                    ConnectionFactory connectionFactory,
+                                    MessageConverter messageConverter,
+                                    WorkerAmqpAutoConfiguration.AmqpEventListener eventListener,
+                                    PartitionMembership membership) {
+        this(properties, membership, partition -> WorkerAmqpAutoConfiguration.eventListenerContainer(
+                connectionFactory, messageConverter, eventListener,
+                WorkerAmqpAutoConfiguration.partitionQueue(partition),
+                properties.getPartitionPrefetch(), properties.getPartitionConcurrency()));
+    }
+
+    PartitionedEventConsumer(WorkerProperties properties,
+                             PartitionMembership membership,
+                             IntFunction<MessageListenerContainer> containerFactory) {
+        this.properties = properties;
+        this.membership = membership;
+        this.containerFactory = containerFactory;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "fusionize-partition-rebalance");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::rebalanceQuietly, 0,
+                properties.getPartitionHeartbeat().toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        containers.values().forEach(MessageListenerContainer::stop);
+        containers.clear();
+        try {
+            membership.leave();
+        } catch (Exception e) {
+            logger.warn("Failed to leave partition membership", e);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Renews membership and starts or stops partition consumers to match the
+     * current assignment.
+     */
+    void rebalance() {
+        List<String> members = membership.heartbeat();
+        Set<Integer> owned = membership.owned(members, properties.getPartitions());
+        for (Integer partition : Set.copyOf(containers.keySet())) {
+            if (!owned.contains(partition)) {
+                containers.remove(partition).stop();
+                logger.info("Released partition {}", partition);
+            }
+        }
+        for (Integer partition : owned) {
+            if (!containers.containsKey(partition)) {
+                MessageListenerContainer container = containerFactory.apply(partition);
+                container.start();
+                containers.put(partition, container);
+                logger.info("Acquired partition {} of {} across {} workers",
+                        partition, properties.getPartitions(), members.size());
+            }
+        }
+    }
+
+    private void rebalanceQuietly() {
+        try {
+            rebalance();
+        } catch (Exception e) {
+            logger.error("Partition rebalance failed", e);
+        }
+    }
+
+    public Set<Integer> getOwnedPartitions() {
+        return new TreeSet<>(containers.keySet());
+    }
+}
@@ -1,30 +1,50 @@
 package dev.fusionize.worker;
 
+import com.rabbitmq.client.Channel;
 import dev.fusionize.workflow.events.Event;
+import dev.fusionize.workflow.events.EventDelivery;
 import dev.fusionize.workflow.events.EventListener;
 import dev.fusionize.workflow.events.EventPublisher;
 
 import dev.fusionize.workflow.events.EventStore;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.AcknowledgeMode;
+import org.springframework.amqp.core.AmqpAdmin;
 import org.springframework.amqp.core.Binding;
 import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.CustomExchange;
+import org.springframework.amqp.core.Declarable;
+import org.springframework.amqp.core.Declarables;
+import org.springframework.amqp.core.Exchange;
+import org.springframework.amqp.core.ExchangeBuilder;
+import org.springframework.amqp.core.FanoutExchange;
+import org.springframework.amqp.core.Message;
 import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.QueueBuilder;
 import org.springframework.amqp.core.TopicExchange;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
 import org.springframework.amqp.rabbit.connection.CachingConnectionFactory;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
-import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
+import org.springframework.amqp.rabbit.listener.api.ChannelAwareMessageListener;
 import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.messaging.handler.annotation.Payload;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Configuration
 @Profile("!ut")
@@ -36,17 +56,29 @@ public class WorkerAmqpAutoConfiguration {
 
     public static final String FUSIONIZE_WORKFLOW_EVENTS_EXCHANGE = "fusionize.workflow.events";
     public static final String FUSIONIZE_WORKER_EVENTS_QUEUE = "fusionize.worker.events";
+    public static final String FUSIONIZE_PARTITIONED_EVENTS_EXCHANGE = "fusionize.workflow.events.partitioned";
+    public static final String FUSIONIZE_COMPONENT_EVENTS_EXCHANGE = "fusionize.workflow.components";
+    public static final String FUSIONIZE_UNROUTED_COMPONENT_EVENTS_EXCHANGE = "fusionize.workflow.components.unrouted";
+    public static final String FUSIONIZE_UNROUTED_COMPONENT_EVENTS_QUEUE = "fusionize.component.unrouted";
+    public static final String FUSIONIZE_ORCHESTRATOR_EVENTS_QUEUE = "fusionize.orchestrator.events";
+
+    static final String SHARED_QUEUE =
+            "${fusionize.worker.partitions:0} <= 0 and !${fusionize.worker.capability-routing:false}";
+    static final String PARTITIONED_QUEUES = "${fusionize.worker.partitions:0} > 0";
+    static final String CAPABILITY_ROUTING = "${fusionize.worker.capability-routing:false}";
 
     @Bean
     public ConnectionFactory connectionFactory(WorkerProperties properties) {
         final CachingConnectionFactory connectionFactory = new CachingConnectionFactory();
         connectionFactory.setUri(properties.getOrchestratorAmqp());
+        // batches are confirmed as a whole on the publishing channel
+        connectionFactory.setPublisherConfirmType(CachingConnectionFactory.ConfirmType.SIMPLE);
         return connectionFactory;
     }
 
     @Bean
-    public MessageConverter jsonMessageConverter() {
-        return new Jackson2JsonMessageConverter();
+    public MessageConverter eventMessageConverter(WorkerProperties properties) {
+        return new EventMessageConverter(properties.getEventFormat(), properties.getEventCompressionThreshold());
     }
 
     @Bean
@@ -55,26 +87,147 @@ public class WorkerAmqpAutoConfiguration {
     }
 
     @Bean
+    @ConditionalOnExpression(SHARED_QUEUE)
     public Queue fusionizeWorkerEventsQueue() {
         return new Queue(FUSIONIZE_WORKER_EVENTS_QUEUE);
     }
 
     @Bean
+    @ConditionalOnExpression(SHARED_QUEUE)
     public Binding binding(Queue fusionizeWorkerEventsQueue, TopicExchange fusionizeWorkflowEventsExchange) {
         return BindingBuilder.bind(fusionizeWorkerEventsQueue).to(fusionizeWorkflowEventsExchange).with("#");
     }
 
+    /**
+     * Routes every event from the topic exchange through a consistent-hash
+     * exchange, keyed on the partition header, into one queue per partition.
+     */
+    @Bean
+    @ConditionalOnExpression(PARTITIONED_QUEUES)
+    public Declarables fusionizePartitionedEventsTopology(WorkerProperties properties,
+                                                          TopicExchange fusionizeWorkflowEventsExchange) {
+        CustomExchange partitioned = new CustomExchange(FUSIONIZE_PARTITIONED_EVENTS_EXCHANGE,
+                "x-consistent-hash", true, false,
+                Map.of("hash-header", BatchingEventPublisher.PARTITION_HEADER));
+        List<Declarable> declarables = new ArrayList<>();
+        declarables.add(partitioned);
+        // component requests keep to their component queues when routed by capability
+        String routed = properties.isCapabilityRouting() ? CapabilityRouting.ORCHESTRATOR_PREFIX + "#" : "#";
+        declarables.add(BindingBuilder.bind(partitioned).to(fusionizeWorkflowEventsExchange).with(routed));
+        for (int partition = 0; partition < properties.getPartitions(); partition++) {
+            QueueBuilder queue = QueueBuilder.durable(partitionQueue(partition));
+            if (properties.isPartitionExclusive()) {
+                queue.singleActiveConsumer();
+            }
+            Queue partitionQueue = queue.build();
+            declarables.add(partitionQueue);
+            // equal weights spread the hash ring evenly over the partitions
+            declarables.add(BindingBuilder.bind(partitionQueue).to(partitioned).with("1").noargs());
+        }
+        return new Declarables(declarables);
+    }
+
+    @Bean
+    @ConditionalOnExpression(PARTITIONED_QUEUES)
+    public PartitionMembership partitionMembership(@Qualifier("workerMongoTemplate") MongoTemplate mongoTemplate,
+                                                   WorkerProperties properties) {
+        return new PartitionMembership(mongoTemplate, properties.getPartitionHeartbeat());
+    }
+
+    @Bean
+    @ConditionalOnExpression(PARTITIONED_QUEUES)
+    public PartitionedEventConsumer partitionedEventConsumer(WorkerProperties properties,
+                                                             ConnectionFactory connectionFactory,
+                                                             MessageConverter eventMessageConverter,
+                                                             AmqpEventListener eventListener,
+                                                             PartitionMembership partitionMembership) {
+        return new PartitionedEventConsumer(properties, connectionFactory, eventMessageConverter,
+                eventListener, partitionMembership);
+    }
+
+    public static String partitionQueue(int partition) {
+        return FUSIONIZE_WORKER_EVENTS_QUEUE + "." + partition;
+    }
+
+    /**
+     * Routes component requests into a dedicated exchange whose alternate
+     * exchange collects requests no worker has bound a queue for, and the
+     * remaining events onto the orchestrator lane. Component queues are bound
+     * by {@link ComponentQueueBinder} as components register.
+     */
+    @Bean
+    @ConditionalOnExpression(CAPABILITY_ROUTING)
+    public Declarables fusionizeCapabilityRoutingTopology(WorkerProperties properties,
+                                                          TopicExchange fusionizeWorkflowEventsExchange) {
+        FanoutExchange unrouted = new FanoutExchange(FUSIONIZE_UNROUTED_COMPONENT_EVENTS_EXCHANGE);
+        Queue unroutedQueue = new Queue(FUSIONIZE_UNROUTED_COMPONENT_EVENTS_QUEUE);
+        Exchange components = ExchangeBuilder.topicExchange(FUSIONIZE_COMPONENT_EVENTS_EXCHANGE)
+                .durable(true)
+                .alternate(FUSIONIZE_UNROUTED_COMPONENT_EVENTS_EXCHANGE)
+                .build();
+        List<Declarable> declarables = new ArrayList<>();
+        declarables.add(unrouted);
+        declarables.add(unroutedQueue);
+        declarables.add(BindingBuilder.bind(unroutedQueue).to(unrouted));
+        declarables.add(components);
+        declarables.add(BindingBuilder.bind(components).to(fusionizeWorkflowEventsExchange)
+                .with(CapabilityRouting.COMPONENT_PREFIX + "#"));
+        if (properties.getPartitions() <= 0) {
+            Queue orchestratorQueue = new Queue(FUSIONIZE_ORCHESTRATOR_EVENTS_QUEUE);
+            declarables.add(orchestratorQueue);
+            declarables.add(BindingBuilder.bind(orchestratorQueue).to(fusionizeWorkflowEventsExchange)
+                    .with(CapabilityRouting.ORCHESTRATOR_PREFIX + "#"));
+        }
+        return new Declarables(declarables);
+    }
+
     @Bean
-    public EventPublisher<Event> eventPublisher(RabbitTemplate rabbitTemplate, EventStore<Event> eventStore) {
-        return new EventPublisher<>(eventStore) {
-            @Override
-            public void publish(Event event) {
-                super.publish(event);
-                logger.debug("Publishing event: eventClass={}, eventId={}, causationId={}, correlationId={}",
-                        event.getEventClass(), event.getEventId(), event.getCausationId(), event.getCorrelationId());
-                rabbitTemplate.convertAndSend(FUSIONIZE_WORKFLOW_EVENTS_EXCHANGE, event.getClass().getName(), event);
+    @ConditionalOnExpression(CAPABILITY_ROUTING)
+    public ComponentQueueBinder componentQueueBinder(WorkerProperties properties,
+                                                     AmqpAdmin amqpAdmin,
+                                                     ConnectionFactory connectionFactory,
+                                                     MessageConverter eventMessageConverter,
+                                                     AmqpEventListener eventListener) {
+        return new ComponentQueueBinder(properties, amqpAdmin, connectionFactory, eventMessageConverter,
+                eventListener);
+    }
+
+    /**
+     * A listener container handing the events of one queue to the event
+     * listener.
+     */
+    static SimpleMessageListenerContainer eventListenerContainer(ConnectionFactory connectionFactory,
+                                                                 MessageConverter messageConverter,
+                                                                 AmqpEventListener eventListener,
+                                                                 String queue, int prefetch, int concurrency) {
+        SimpleMessageListenerContainer container = new SimpleMessageListenerContainer(connectionFactory);
+        container.setQueueNames(queue);
+        container.setPrefetchCount(prefetch);
+        container.setConcurrentConsumers(Math.max(1, concurrency));
+        // acknowledged once handled on the lane, so unhandled events survive a crash
+        container.setAcknowledgeMode(AcknowledgeMode.MANUAL);
+        container.setMessageListener((ChannelAwareMessageListener) (message, channel) -> {
+            ChannelEventDelivery delivery = new ChannelEventDelivery(channel, message);
+            Event event;
+            try {
+                event = (Event) messageConverter.fromMessage(message);
+            } catch (RuntimeException e) {
+                logger.error("Discarding unreadable message from queue {}", queue, e);
+                delivery.discard();
+                return;
             }
-        };
+            eventListener.onEvent(event, delivery);
+        });
+        return container;
+    }
+
+    @Bean
+    public EventPublisher<Event> eventPublisher(RabbitTemplate rabbitTemplate, EventStore<Event> eventStore,
+                                                WorkerProperties properties) {
+        return new BatchingEventPublisher(eventStore, rabbitTemplate, FUSIONIZE_WORKFLOW_EVENTS_EXCHANGE,
+                properties.getPublishBatchSize(), properties.getPublishLinger(),
+                properties.getPublishConfirmTimeout(), properties.getPublishQueueCapacity(),
+                properties.getPublishQueueTimeout(), properties.getPublishTimeout());
     }
 
     @Bean
@@ -93,11 +246,57 @@ public class WorkerAmqpAutoConfiguration {
             callbacks.add(callback);
         }
 
-        @RabbitListener(queues = FUSIONIZE_WORKER_EVENTS_QUEUE)
+        @RabbitListener(queues = FUSIONIZE_WORKER_EVENTS_QUEUE, autoStartup = "#{" + SHARED_QUEUE + "}",
+                ackMode = "MANUAL")
+        public void onEvent(@Payload Event event, Message message, Channel channel) {
+            onEvent(event, new ChannelEventDelivery(channel, message));
+        }
+
         public void onEvent(Event event) {
+            onEvent(event, EventDelivery.NONE);
+        }
+
+        /**
+         * Hands the event to every callback. The delivery is acknowledged once
+         * all of them handled it, and requeued as soon as one of them failed.
+         */
+        public void onEvent(Event event, EventDelivery delivery) {
             logger.debug("Received event: eventClass={}, eventId={}, causationId={}, correlationId={}",
                     event.getEventClass(), event.getEventId(), event.getCausationId(), event.getCorrelationId());
-            callbacks.forEach(c -> c.onEvent(event));
+            if (callbacks.isEmpty()) {
+                delivery.acknowledge();
+                return;
+            }
+            EventDelivery shared = callbacks.size() == 1 ? delivery : new SharedDelivery(delivery, callbacks.size());
+            callbacks.forEach(c -> c.onEvent(event, shared));
+        }
+    }
+
+    /**
+     * A delivery settled once by several callbacks.
+     */
+    private static final class SharedDelivery implements EventDelivery {
+        private final EventDelivery delivery;
+        private final AtomicInteger pending;
+        private final AtomicBoolean settled = new AtomicBoolean();
+
+        private SharedDelivery(EventDelivery delivery, int callbacks) {
+            this.delivery = delivery;
+            this.pending = new AtomicInteger(callbacks);
+        }
+
+        @Override
+        public void acknowledge() {
+            if (pending.decrementAndGet() == 0 && settled.compareAndSet(false, true)) {
+                delivery.acknowledge();
+            }
+        }
+
+        @Override
+        public void requeue() {
+            if (settled.compareAndSet(false, true)) {
+                delivery.requeue();
+            }
         }
     }
 }
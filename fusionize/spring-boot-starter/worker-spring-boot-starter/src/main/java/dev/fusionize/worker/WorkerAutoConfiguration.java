@@ -8,6 +8,7 @@ import dev.fusionize.ai.model.descriptor.ChatModelConfigDescriptor;
 import dev.fusionize.ai.service.AgentConfigManager;
 import dev.fusionize.ai.service.ChatModelManager;
 import dev.fusionize.common.parser.YamlParser;
+import dev.fusionize.common.utility.SortableId;
 import dev.fusionize.storage.StorageConfig;
 import dev.fusionize.storage.StorageConfigManager;
 import dev.fusionize.storage.descriptor.StorageConfigDescriptor;
@@ -25,6 +26,7 @@ import dev.fusionize.workflow.orchestrator.Orchestrator;
 import dev.fusionize.workflow.registry.WorkflowRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.ApplicationRunner;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
@@ -56,6 +58,9 @@ public class WorkerAutoConfiguration {
 
     public WorkerAutoConfiguration(WorkerProperties workerProperties) {
         this.workerProperties = workerProperties;
+        if (workerProperties.getNodeId() != null) {
+            SortableId.setNode(workerProperties.getNodeId());
+        }
     }
 
     @Bean
@@ -119,7 +124,8 @@ public class WorkerAutoConfiguration {
     @Order(2)
     public ApplicationRunner registerWorkflowComponents(List<ComponentRuntimeFactory<?>> factories,
             ComponentRuntimeRegistry componentRegistry,
-            RuntimeComponentRegistrar registrar) {
+            RuntimeComponentRegistrar registrar,
+            ObjectProvider<ComponentQueueBinder> componentQueueBinder) {
         return args -> factories.forEach(f -> {
             boolean validFactory = registrar.isValidComponentFactory(f.getClass());
             RuntimeComponentDefinition definition = f.getClass().getAnnotation(RuntimeComponentDefinition.class);
@@ -127,6 +133,7 @@ public class WorkerAutoConfiguration {
             if (validFactory && validAnnotation) {
                 WorkflowComponent component = registrar.registerComponent(definition);
                 componentRegistry.registerFactory(component, f);
+                componentQueueBinder.ifAvailable(binder -> binder.bind(component));
                 logger.info("Registered Factory: {} {}", f.getClass().getSimpleName(), component.getComponentId());
             }else {
                 logger.warn("Skip Factory registration: {} {}", f.getClass().getSimpleName(), validAnnotation
@@ -4,6 +4,7 @@ import com.mongodb.ConnectionString;
 import com.mongodb.MongoClientSettings;
 import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoClients;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
@@ -31,9 +32,11 @@ import java.util.List;
 @ConditionalOnClass(Worker.class)
 @EnableConfigurationProperties(WorkerProperties.class)
 public class WorkerMongoAutoConfiguration extends AbstractMongoClientConfiguration {
+    private final WorkerProperties workerProperties;
     private final ConnectionString connectionString;
 
     public WorkerMongoAutoConfiguration(WorkerProperties workerProperties) {
+        this.workerProperties = workerProperties;
         this.connectionString = new ConnectionString(workerProperties.getOrchestratorMongo());
     }
 
@@ -70,6 +73,13 @@ public class WorkerMongoAutoConfiguration extends AbstractMongoClientConfigurati
         return super.mongoTemplate(databaseFactory, converter);
     }
 
+    @Bean
+    public NodeIdClaim nodeIdClaim(@Qualifier("workerMongoTemplate") MongoTemplate mongoTemplate) {
+        NodeIdClaim nodeIdClaim = new NodeIdClaim(mongoTemplate, workerProperties.getNodeHeartbeat());
+        nodeIdClaim.claim(workerProperties.getNodeId());
+        return nodeIdClaim;
+    }
+
     public static class ZonedDateTimeReadConverter implements Converter<Date, ZonedDateTime> {
         @Override
         public ZonedDateTime convert(Date date) {
@@ -4,6 +4,7 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.time.Duration;
 
 @ConfigurationProperties(prefix = "fusionize.worker")
 public class WorkerProperties {
@@ -13,6 +14,24 @@ public class WorkerProperties {
     private String oidcClientId;
     private String oidcClientSecret;
     private String resourceRoot = "resources";
+    private Duration publishLinger = Duration.ofMillis(5);
+    private int publishBatchSize = 200;
+    private Duration publishConfirmTimeout = Duration.ofSeconds(10);
+    private int publishQueueCapacity = 10_000;
+    private Duration publishQueueTimeout = Duration.ofSeconds(10);
+    private Duration publishTimeout = Duration.ofSeconds(30);
+    private int partitions = 0;
+    private int partitionPrefetch = 250;
+    private int partitionConcurrency = 1;
+    private boolean partitionExclusive = true;
+    private Duration partitionHeartbeat = Duration.ofSeconds(5);
+    private boolean capabilityRouting = false;
+    private boolean consumeOrchestratorEvents = true;
+    private int componentPrefetch = 250;
+    private EventMessageConverter.Format eventFormat = EventMessageConverter.Format.JSON;
+    private int eventCompressionThreshold = 0;
+    private Long nodeId;
+    private Duration nodeHeartbeat = Duration.ofSeconds(10);
 
     public String getOrchestratorUrl() {
         return orchestratorUrl;
@@ -62,6 +81,204 @@ public class WorkerProperties {
         this.resourceRoot = resourceRoot;
     }
 
+    /**
+     * How long the event publisher waits for more events before flushing a batch.
+     */
+    public Duration getPublishLinger() {
+        return publishLinger;
+    }
+
+    public void setPublishLinger(Duration publishLinger) {
+        this.publishLinger = publishLinger;
+    }
+
+    public int getPublishBatchSize() {
+        return publishBatchSize;
+    }
+
+    public void setPublishBatchSize(int publishBatchSize) {
+        this.publishBatchSize = publishBatchSize;
+    }
+
+    public Duration getPublishConfirmTimeout() {
+        return publishConfirmTimeout;
+    }
+
+    public void setPublishConfirmTimeout(Duration publishConfirmTimeout) {
+        this.publishConfirmTimeout = publishConfirmTimeout;
+    }
+
+    /**
+     * Events that may wait for a batch before publishers block.
+     */
+    public int getPublishQueueCapacity() {
+        return publishQueueCapacity;
+    }
+
+    public void setPublishQueueCapacity(int publishQueueCapacity) {
+        this.publishQueueCapacity = publishQueueCapacity;
+    }
+
+    /**
+     * How long a publisher blocks on a full queue before its event is rejected.
+     */
+    public Duration getPublishQueueTimeout() {
+        return publishQueueTimeout;
+    }
+
+    public void setPublishQueueTimeout(Duration publishQueueTimeout) {
+        this.publishQueueTimeout = publishQueueTimeout;
+    }
+
+    /**
+     * How long a synchronous publish waits for its event to be stored and
+     * confirmed before it fails.
+     */
+    public Duration getPublishTimeout() {
+        return publishTimeout;
+    }
+
+    public void setPublishTimeout(Duration publishTimeout) {
+        this.publishTimeout = publishTimeout;
+    }
+
+    /**
+     * Number of consistent-hash partition queues events are spread over by
+     * workflow execution. {@code 0} keeps the single shared worker queue.
+     */
+    public int getPartitions() {
+        return partitions;
+    }
+
+    public void setPartitions(int partitions) {
+        this.partitions = partitions;
+    }
+
+    public int getPartitionPrefetch() {
+        return partitionPrefetch;
+    }
+
+    public void setPartitionPrefetch(int partitionPrefetch) {
+        this.partitionPrefetch = partitionPrefetch;
+    }
+
+    /**
+     * Consumers per owned partition. With exclusive partitions only one of
+     * them is active at a time.
+     */
+    public int getPartitionConcurrency() {
+        return partitionConcurrency;
+    }
+
+    public void setPartitionConcurrency(int partitionConcurrency) {
+        this.partitionConcurrency = partitionConcurrency;
+    }
+
+    /**
+     * Whether partition queues allow a single active consumer, which keeps
+     * events of one execution in order across workers.
+     */
+    public boolean isPartitionExclusive() {
+        return partitionExclusive;
+    }
+
+    public void setPartitionExclusive(boolean partitionExclusive) {
+        this.partitionExclusive = partitionExclusive;
+    }
+
+    /**
+     * How often a worker renews its partition membership and rebalances the
+     * partitions it consumes.
+     */
+    public Duration getPartitionHeartbeat() {
+        return partitionHeartbeat;
+    }
+
+    public void setPartitionHeartbeat(Duration partitionHeartbeat) {
+        this.partitionHeartbeat = partitionHeartbeat;
+    }
+
+    /**
+     * Whether component requests are routed only to workers that registered
+     * the component, with the remaining events on an orchestrator lane.
+     */
+    public boolean isCapabilityRouting() {
+        return capabilityRouting;
+    }
+
+    public void setCapabilityRouting(boolean capabilityRouting) {
+        this.capabilityRouting = capabilityRouting;
+    }
+
+    /**
+     * Whether this process consumes the orchestrator lane when routing by
+     * capability. Component-only workers can turn it off.
+     */
+    public boolean isConsumeOrchestratorEvents() {
+        return consumeOrchestratorEvents;
+    }
+
+    public void setConsumeOrchestratorEvents(boolean consumeOrchestratorEvents) {
+        this.consumeOrchestratorEvents = consumeOrchestratorEvents;
+    }
+
+    public int getComponentPrefetch() {
+        return componentPrefetch;
+    }
+
+    public void setComponentPrefetch(int componentPrefetch) {
+        this.componentPrefetch = componentPrefetch;
+    }
+
+    /**
+     * Format events are published in. Events are read in whichever format
+     * they arrive, so switch writers only once every reader is upgraded.
+     */
+    public EventMessageConverter.Format getEventFormat() {
+        return eventFormat;
+    }
+
+    public void setEventFormat(EventMessageConverter.Format eventFormat) {
+        this.eventFormat = eventFormat;
+    }
+
+    /**
+     * Event body size in bytes from which published events are gzip
+     * compressed. {@code 0} never compresses.
+     */
+    public int getEventCompressionThreshold() {
+        return eventCompressionThreshold;
+    }
+
+    public void setEventCompressionThreshold(int eventCompressionThreshold) {
+        this.eventCompressionThreshold = eventCompressionThreshold;
+    }
+
+    /**
+     * Node this worker generates IDs as. The node is claimed at startup, which
+     * fails while another live worker holds it. Without one a random unclaimed
+     * node is picked.
+     */
+    public Long getNodeId() {
+        return nodeId;
+    }
+
+    public void setNodeId(Long nodeId) {
+        this.nodeId = nodeId;
+    }
+
+    /**
+     * Interval at which the claim of the node is renewed; a claim that missed
+     * three heartbeats can be taken over by another worker.
+     */
+    public Duration getNodeHeartbeat() {
+        return nodeHeartbeat;
+    }
+
+    public void setNodeHeartbeat(Duration nodeHeartbeat) {
+        this.nodeHeartbeat = nodeHeartbeat;
+    }
+
     public static String toWebSocketUrl(String httpUrl) {
         if (httpUrl == null || httpUrl.trim().isEmpty()) {
             throw new IllegalArgumentException("URL cannot be null or empty");
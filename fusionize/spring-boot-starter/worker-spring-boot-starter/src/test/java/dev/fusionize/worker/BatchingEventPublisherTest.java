@@ -0,0 +1,206 @@
+package dev.fusionize.worker;
+
+import dev.fusionize.workflow.events.Event;
+import dev.fusionize.workflow.events.EventStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.AmqpTimeoutException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessagePostProcessor;
+import org.springframework.amqp.rabbit.core.RabbitOperations;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class BatchingEventPublisherTest {
+
+    private final EventStore<Event> eventStore = mock(EventStore.class);
+    private final RabbitOperations rabbitOperations = mock(RabbitOperations.class);
+    private final RabbitOperations channelOperations = mock(RabbitOperations.class);
+    private BatchingEventPublisher publisher;
+
+    static class TestEvent extends Event {}
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (publisher != null) {
+            publisher.destroy();
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldSaveAndSendEventsAsOneBatch() throws Exception {
+        // setup
+        runCallbacks();
+        publisher = new BatchingEventPublisher(eventStore, rabbitOperations, "exchange",
+                10, Duration.ofMillis(200), Duration.ofSeconds(1), 100, Duration.ZERO, Duration.ofSeconds(5));
+        List<CompletableFuture<Event>> futures = new ArrayList<>();
+
+        // expectation
+        for (int i = 0; i < 3; i++) {
+            futures.add(publisher.publishAsync(new TestEvent()));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+
+        // validation
+        ArgumentCaptor<List<Event>> batch = ArgumentCaptor.forClass(List.class);
+        verify(eventStore).saveAll(batch.capture());
+        assertThat(batch.getValue()).hasSize(3);
+        verify(channelOperations, times(3)).convertAndSend(eq("exchange"), eq("orchestrator.testevent"), any(Object.class),
+                any(MessagePostProcessor.class));
+        verify(channelOperations).waitForConfirmsOrDie(1000L);
+        verify(eventStore, never()).save(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldSplitBatchesAtMaxSize() throws Exception {
+        // setup
+        runCallbacks();
+        publisher = new BatchingEventPublisher(eventStore, rabbitOperations, "exchange",
+                2, Duration.ofMillis(200), Duration.ofSeconds(1), 100, Duration.ZERO, Duration.ofSeconds(5));
+        List<CompletableFuture<Event>> futures = new ArrayList<>();
+
+        // expectation
+        for (int i = 0; i < 4; i++) {
+            futures.add(publisher.publishAsync(new TestEvent()));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+
+        // validation
+        ArgumentCaptor<List<Event>> batch = ArgumentCaptor.forClass(List.class);
+        verify(eventStore, times(2)).saveAll(batch.capture());
+        assertThat(batch.getAllValues()).allSatisfy(events -> assertThat(events).hasSize(2));
+    }
+
+    @Test
+    void shouldFailFutures_whenBrokerDoesNotConfirm() {
+        // setup
+        runCallbacks();
+        doThrow(new AmqpException("nack")).when(channelOperations).waitForConfirmsOrDie(anyLong());
+        publisher = new BatchingEventPublisher(eventStore, rabbitOperations, "exchange",
+                10, Duration.ZERO, Duration.ofSeconds(1), 100, Duration.ZERO, Duration.ofSeconds(5));
+
+        // expectation
+        CompletableFuture<Event> future = publisher.publishAsync(new TestEvent());
+
+        // validation
+        assertThatThrownBy(() -> future.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(AmqpException.class);
+    }
+
+    @Test
+    void shouldRethrowBatchFailure_whenPublishing() {
+        // setup
+        runCallbacks();
+        doThrow(new AmqpException("nack")).when(channelOperations).waitForConfirmsOrDie(anyLong());
+        publisher = new BatchingEventPublisher(eventStore, rabbitOperations, "exchange",
+                10, Duration.ZERO, Duration.ofSeconds(1), 100, Duration.ZERO, Duration.ofSeconds(5));
+
+        // expectation & validation
+        assertThatThrownBy(() -> publisher.publish(new TestEvent()))
+                .isInstanceOf(AmqpException.class)
+                .hasMessage("nack");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldTimeOut_whenBatchIsNotConfirmedInTime() throws Exception {
+        // setup
+        CountDownLatch release = new CountDownLatch(1);
+        when(rabbitOperations.invoke(any(RabbitOperations.OperationsCallback.class))).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return null;
+        });
+        publisher = new BatchingEventPublisher(eventStore, rabbitOperations, "exchange",
+                10, Duration.ZERO, Duration.ofSeconds(1), 100, Duration.ZERO, Duration.ofMillis(50));
+
+        // expectation & validation
+        assertThatThrownBy(() -> publisher.publish(new TestEvent()))
+                .isInstanceOf(AmqpTimeoutException.class);
+        release.countDown();
+    }
+
+    @Test
+    void shouldRejectEvents_afterShutdown() throws Exception {
+        // setup
+        publisher = new BatchingEventPublisher(eventStore, rabbitOperations, "exchange",
+                10, Duration.ZERO, Duration.ofSeconds(1), 100, Duration.ZERO, Duration.ofSeconds(5));
+        publisher.destroy();
+
+        // expectation
+        CompletableFuture<Event> future = publisher.publishAsync(new TestEvent());
+
+        // validation
+        assertThat(future).isCompletedExceptionally();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldRejectEvents_whenQueueStaysFull() throws Exception {
+        // setup
+        CountDownLatch flushing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(rabbitOperations.invoke(any(RabbitOperations.OperationsCallback.class))).thenAnswer(invocation -> {
+            flushing.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return null;
+        });
+        publisher = new BatchingEventPublisher(eventStore, rabbitOperations, "exchange",
+                1, Duration.ZERO, Duration.ofSeconds(1), 1, Duration.ofMillis(10), Duration.ofSeconds(5));
+        CompletableFuture<Event> inFlight = publisher.publishAsync(new TestEvent());
+        assertThat(flushing.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // expectation
+        CompletableFuture<Event> queued = publisher.publishAsync(new TestEvent());
+        CompletableFuture<Event> rejected = publisher.publishAsync(new TestEvent());
+
+        // validation
+        assertThat(rejected).isCompletedExceptionally();
+        assertThatThrownBy(() -> publisher.publish(new TestEvent()))
+                .isInstanceOf(RejectedExecutionException.class);
+        assertThat(publisher.getQueueDepth()).isEqualTo(1);
+        release.countDown();
+        CompletableFuture.allOf(inFlight, queued).get(5, TimeUnit.SECONDS);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void shouldTagMessagesWithPartitionKey() throws Exception {
+        // setup
+        runCallbacks();
+        publisher = new BatchingEventPublisher(eventStore, rabbitOperations, "exchange",
+                10, Duration.ofMillis(1), Duration.ofSeconds(1), 100, Duration.ZERO, Duration.ofSeconds(5));
+        TestEvent event = new TestEvent();
+        event.setCorrelationId("correlation-1");
+
+        // expectation
+        publisher.publishAsync(event).get(5, TimeUnit.SECONDS);
+
+        // validation
+        ArgumentCaptor<MessagePostProcessor> postProcessor = ArgumentCaptor.forClass(MessagePostProcessor.class);
+        verify(channelOperations).convertAndSend(eq("exchange"), eq("orchestrator.testevent"), eq(event),
+                postProcessor.capture());
+        Message message = postProcessor.getValue().postProcessMessage(new Message(new byte[0]));
+        assertThat((String) message.getMessageProperties().getHeader(BatchingEventPublisher.PARTITION_HEADER))
+                .isEqualTo("correlation-1");
+    }
+
+    private void runCallbacks() {
+        when(rabbitOperations.invoke(any(RabbitOperations.OperationsCallback.class))).thenAnswer(invocation ->
+                ((RabbitOperations.OperationsCallback<Object>) invocation.getArgument(0)).doInRabbit(channelOperations));
+    }
+}
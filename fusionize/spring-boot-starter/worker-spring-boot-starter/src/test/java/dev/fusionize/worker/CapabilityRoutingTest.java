@@ -0,0 +1,62 @@
+package dev.fusionize.worker;
+
+import dev.fusionize.workflow.component.Actor;
+import dev.fusionize.workflow.events.orchestration.ActivationRequestEvent;
+import dev.fusionize.workflow.events.orchestration.ActivationResponseEvent;
+import dev.fusionize.workflow.events.orchestration.InvocationRequestEvent;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CapabilityRoutingTest {
+
+    @Test
+    void shouldRouteComponentRequestsByActorAndDomain() {
+        // setup
+        ActivationRequestEvent event = ActivationRequestEvent.builder(this)
+                .component("ai:fuz.ai.DocumentExtractor")
+                .build();
+
+        // expectation
+        String key = CapabilityRouting.routingKey(event);
+
+        // validation
+        assertThat(key).isEqualTo("component.ai.fuz.ai.documentextractor");
+        assertThat(key).isEqualTo(CapabilityRouting.componentKey(Actor.AI, "fuz.ai.DocumentExtractor"));
+    }
+
+    @Test
+    void shouldRouteLocalComponentsOnOrchestratorLane() {
+        // setup
+        InvocationRequestEvent event = InvocationRequestEvent.builder(this)
+                .component("script")
+                .build();
+
+        // expectation
+        String key = CapabilityRouting.routingKey(event);
+
+        // validation
+        assertThat(key).isEqualTo("orchestrator.invocationrequestevent");
+    }
+
+    @Test
+    void shouldRouteResponsesOnOrchestratorLane() {
+        // setup
+        ActivationResponseEvent event = ActivationResponseEvent.builder(this)
+                .component("system:fuz.connector.HttpInbound")
+                .build();
+
+        // expectation
+        String key = CapabilityRouting.routingKey(event);
+
+        // validation
+        assertThat(key).isEqualTo("orchestrator.activationresponseevent");
+    }
+
+    @Test
+    void shouldNameComponentQueues() {
+        // expectation & validation
+        assertThat(CapabilityRouting.componentQueue(Actor.SYSTEM, "fuz.connector.HttpInbound"))
+                .isEqualTo("fusionize.component.system.fuz.connector.httpinbound");
+    }
+}
@@ -0,0 +1,103 @@
+package dev.fusionize.worker;
+
+import com.rabbitmq.client.Channel;
+import dev.fusionize.workflow.events.Event;
+import dev.fusionize.workflow.events.EventDelivery;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+class ChannelEventDeliveryTest {
+
+    private final Channel channel = mock(Channel.class);
+
+    static class TestEvent extends Event {}
+
+    @Test
+    void shouldAcknowledgeDelivery() throws Exception {
+        // setup
+        ChannelEventDelivery delivery = new ChannelEventDelivery(channel, message(7, false));
+
+        // expectation
+        delivery.acknowledge();
+
+        // validation
+        verify(channel).basicAck(7, false);
+    }
+
+    @Test
+    void shouldRequeueFirstFailure() throws Exception {
+        // setup
+        ChannelEventDelivery delivery = new ChannelEventDelivery(channel, message(7, false));
+
+        // expectation
+        delivery.requeue();
+
+        // validation
+        verify(channel).basicNack(7, false, true);
+    }
+
+    @Test
+    void shouldRejectFailure_whenAlreadyRedelivered() throws Exception {
+        // setup
+        ChannelEventDelivery delivery = new ChannelEventDelivery(channel, message(7, true));
+
+        // expectation
+        delivery.requeue();
+
+        // validation
+        verify(channel).basicNack(7, false, false);
+    }
+
+    @Test
+    void shouldAcknowledgeOnce_whenEveryCallbackHandledEvent() {
+        // setup
+        WorkerAmqpAutoConfiguration.AmqpEventListener listener = new WorkerAmqpAutoConfiguration.AmqpEventListener();
+        List<Event> handled = new ArrayList<>();
+        listener.addListener(handled::add);
+        listener.addListener(handled::add);
+        EventDelivery delivery = mock(EventDelivery.class);
+
+        // expectation
+        listener.onEvent(new TestEvent(), delivery);
+
+        // validation
+        assertThat(handled).hasSize(2);
+        verify(delivery).acknowledge();
+        verify(delivery, never()).requeue();
+    }
+
+    @Test
+    void shouldRequeueDelivery_whenCallbackFails() {
+        // setup
+        WorkerAmqpAutoConfiguration.AmqpEventListener listener = new WorkerAmqpAutoConfiguration.AmqpEventListener();
+        listener.addListener(event -> {
+        });
+        listener.addListener(event -> {
+            throw new IllegalStateException("failed");
+        });
+        EventDelivery delivery = mock(EventDelivery.class);
+
+        // expectation
+        assertThatThrownBy(() -> listener.onEvent(new TestEvent(), delivery))
+                .isInstanceOf(IllegalStateException.class);
+
+        // validation
+        verify(delivery).requeue();
+        verify(delivery, never()).acknowledge();
+    }
+
+    private static Message message(long deliveryTag, boolean redelivered) {
+        MessageProperties properties = new MessageProperties();
+        properties.setDeliveryTag(deliveryTag);
+        properties.setRedelivered(redelivered);
+        return new Message(new byte[0], properties);
+    }
+}
@@ -0,0 +1,105 @@
+package dev.fusionize.worker;
+
+import dev.fusionize.workflow.component.Actor;
+import dev.fusionize.workflow.component.WorkflowComponent;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.rabbit.listener.MessageListenerContainer;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ComponentQueueBinderTest {
+
+    private final AmqpAdmin amqpAdmin = mock(AmqpAdmin.class);
+    private final WorkerProperties properties = new WorkerProperties();
+
+    @Test
+    void shouldBindAndConsumeQueuePerActor() {
+        // setup
+        MessageListenerContainer container = mock(MessageListenerContainer.class);
+        ComponentQueueBinder binder = new ComponentQueueBinder(properties, amqpAdmin, queue -> container);
+        WorkflowComponent component = component("fuz.ai.DocumentExtractor", Actor.AI, Actor.SYSTEM);
+
+        // expectation
+        binder.bind(component);
+
+        // validation
+        ArgumentCaptor<Binding> bindings = ArgumentCaptor.forClass(Binding.class);
+        verify(amqpAdmin, times(2)).declareQueue(any(Queue.class));
+        verify(amqpAdmin, times(2)).declareBinding(bindings.capture());
+        assertThat(bindings.getAllValues())
+                .extracting(Binding::getRoutingKey)
+                .containsExactlyInAnyOrder("component.ai.fuz.ai.documentextractor",
+                        "component.system.fuz.ai.documentextractor");
+        assertThat(bindings.getAllValues())
+                .extracting(Binding::getExchange)
+                .containsOnly(WorkerAmqpAutoConfiguration.FUSIONIZE_COMPONENT_EVENTS_EXCHANGE);
+        assertThat(binder.getConsumedQueues()).containsExactly(
+                "fusionize.component.ai.fuz.ai.documentextractor",
+                "fusionize.component.system.fuz.ai.documentextractor");
+        verify(container, times(2)).start();
+    }
+
+    @Test
+    void shouldBindComponentOnce() {
+        // setup
+        ComponentQueueBinder binder = new ComponentQueueBinder(properties, amqpAdmin,
+                queue -> mock(MessageListenerContainer.class));
+        WorkflowComponent component = component("fuz.connector.HttpInbound", Actor.SYSTEM);
+
+        // expectation
+        binder.bind(component);
+        binder.bind(component);
+
+        // validation
+        verify(amqpAdmin, times(1)).declareQueue(any(Queue.class));
+    }
+
+    @Test
+    void shouldConsumeOrchestratorLane_whenStarted() {
+        // setup
+        ComponentQueueBinder binder = new ComponentQueueBinder(properties, amqpAdmin,
+                queue -> mock(MessageListenerContainer.class));
+
+        // expectation
+        binder.start();
+
+        // validation
+        assertThat(binder.getConsumedQueues()).containsExactlyInAnyOrder(
+                WorkerAmqpAutoConfiguration.FUSIONIZE_ORCHESTRATOR_EVENTS_QUEUE,
+                WorkerAmqpAutoConfiguration.FUSIONIZE_UNROUTED_COMPONENT_EVENTS_QUEUE);
+    }
+
+    @Test
+    void shouldOnlyConsumeComponents_whenOrchestratorEventsDisabled() {
+        // setup
+        properties.setConsumeOrchestratorEvents(false);
+        MessageListenerContainer container = mock(MessageListenerContainer.class);
+        ComponentQueueBinder binder = new ComponentQueueBinder(properties, amqpAdmin, queue -> container);
+        binder.start();
+        binder.bind(component("fuz.connector.HttpInbound", Actor.SYSTEM));
+
+        // expectation
+        binder.stop();
+
+        // validation
+        assertThat(binder.getConsumedQueues()).isEmpty();
+        verify(container).start();
+        verify(container).stop();
+    }
+
+    private static WorkflowComponent component(String domain, Actor... actors) {
+        WorkflowComponent component = new WorkflowComponent();
+        component.setDomain(domain);
+        component.setActors(new LinkedHashSet<>(List.of(actors)));
+        return component;
+    }
+}
@@ -0,0 +1,141 @@
+package dev.fusionize.worker;
+
+import dev.fusionize.workflow.context.Context;
+import dev.fusionize.workflow.events.OrchestrationEvent;
+import dev.fusionize.workflow.events.orchestration.ActivationRequestEvent;
+import dev.fusionize.workflow.events.orchestration.InvocationResponseEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EventMessageConverterTest {
+
+    @Test
+    void shouldRoundTripJson() {
+        // setup
+        EventMessageConverter converter = new EventMessageConverter(EventMessageConverter.Format.JSON, 0);
+
+        // expectation
+        Message message = converter.toMessage(activation(), new MessageProperties());
+        Object read = converter.fromMessage(message);
+
+        // validation
+        assertThat(message.getMessageProperties().getContentType()).isEqualTo(MessageProperties.CONTENT_TYPE_JSON);
+        assertActivation(read);
+    }
+
+    @Test
+    void shouldRoundTripSmile() {
+        // setup
+        EventMessageConverter converter = new EventMessageConverter(EventMessageConverter.Format.SMILE, 0);
+
+        // expectation
+        Message message = converter.toMessage(activation(), new MessageProperties());
+        Object read = converter.fromMessage(message);
+
+        // validation
+        assertThat(message.getMessageProperties().getContentType()).isEqualTo(EventMessageConverter.CONTENT_TYPE_SMILE);
+        assertActivation(read);
+    }
+
+    @Test
+    void shouldCompressAboveThreshold() {
+        // setup
+        EventMessageConverter converter = new EventMessageConverter(EventMessageConverter.Format.SMILE, 1024);
+
+        // expectation
+        Message large = converter.toMessage(activation(), new MessageProperties());
+        Message small = converter.toMessage(ActivationRequestEvent.builder(this).component("noop").build(),
+                new MessageProperties());
+
+        // validation
+        assertThat(large.getMessageProperties().getContentEncoding())
+                .isEqualTo(EventMessageConverter.CONTENT_ENCODING_GZIP);
+        assertThat(small.getMessageProperties().getContentEncoding()).isNull();
+        assertActivation(converter.fromMessage(large));
+    }
+
+    @Test
+    void shouldReadEveryFormatWhateverItWrites() {
+        // setup
+        EventMessageConverter jsonWriter = new EventMessageConverter(EventMessageConverter.Format.JSON, 1024);
+        EventMessageConverter smileWriter = new EventMessageConverter(EventMessageConverter.Format.SMILE, 0);
+
+        // expectation
+        Object fromJson = smileWriter.fromMessage(jsonWriter.toMessage(activation(), new MessageProperties()));
+        Object fromSmile = jsonWriter.fromMessage(smileWriter.toMessage(activation(), new MessageProperties()));
+
+        // validation
+        assertActivation(fromJson);
+        assertActivation(fromSmile);
+    }
+
+    @Test
+    void shouldShrinkRepresentativePayloads() {
+        // setup
+        EventMessageConverter json = new EventMessageConverter(EventMessageConverter.Format.JSON, 0);
+        EventMessageConverter smile = new EventMessageConverter(EventMessageConverter.Format.SMILE, 0);
+        EventMessageConverter compressed = new EventMessageConverter(EventMessageConverter.Format.SMILE, 1);
+        InvocationResponseEvent response = InvocationResponseEvent.builder(this)
+                .origin(OrchestrationEvent.Origin.RUNTIME_ENGINE)
+                .workflowExecutionId("exec-1")
+                .workflowNodeExecutionId("node-exec-1")
+                .component("noop")
+                .context(context())
+                .build();
+
+        for (Object event : List.of(activation(), response)) {
+            // expectation
+            int jsonSize = json.toMessage(event, new MessageProperties()).getBody().length;
+            int smileSize = smile.toMessage(event, new MessageProperties()).getBody().length;
+            int compressedSize = compressed.toMessage(event, new MessageProperties()).getBody().length;
+
+            // validation
+            assertThat(smileSize).isLessThan(jsonSize);
+            assertThat(compressedSize).isLessThan(smileSize);
+        }
+    }
+
+    private ActivationRequestEvent activation() {
+        return ActivationRequestEvent.builder(this)
+                .origin(OrchestrationEvent.Origin.ORCHESTRATOR)
+                .workflowExecutionId("exec-1")
+                .workflowId("wf-1")
+                .workflowNodeId("node-1")
+                .workflowNodeExecutionId("node-exec-1")
+                .component("noop")
+                .context(context())
+                .build();
+    }
+
+    private static Context context() {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("id", i);
+            row.put("name", "customer-" + i);
+            row.put("active", i % 2 == 0);
+            rows.add(row);
+        }
+        return Context.builder()
+                .add("rows", rows)
+                .add("status", "pending")
+                .build();
+    }
+
+    private static void assertActivation(Object read) {
+        assertThat(read).isInstanceOf(ActivationRequestEvent.class);
+        ActivationRequestEvent event = (ActivationRequestEvent) read;
+        assertThat(event.getWorkflowExecutionId()).isEqualTo("exec-1");
+        assertThat(event.getComponent()).isEqualTo("noop");
+        assertThat(event.getContext().varString("status")).contains("pending");
+        assertThat(event.getContext().var("rows", List.class)).hasValueSatisfying(rows -> assertThat(rows).hasSize(200));
+    }
+}
@@ -0,0 +1,122 @@
+package dev.fusionize.worker;
+
+import dev.fusionize.common.utility.SortableId;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class NodeIdClaimTest {
+    private final Clock clock = Clock.fixed(Instant.parse("2026-01-01T00:00:00Z"), ZoneOffset.UTC);
+
+    @Test
+    void shouldClaimConfiguredNode() {
+        // setup
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        NodeIdClaim claim = new NodeIdClaim(mongoTemplate, "worker-a", Duration.ofSeconds(10), clock, () -> 7L);
+
+        // expectation
+        long node = claim.claim(42L);
+        claim.destroy();
+
+        // validation
+        assertThat(node).isEqualTo(42L);
+        assertThat(SortableId.getNode()).isEqualTo(42L);
+        var query = ArgumentCaptor.forClass(Query.class);
+        var update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).upsert(query.capture(), update.capture(), eq(NodeIdClaim.COLLECTION));
+        Document criteria = query.getValue().getQueryObject();
+        assertThat(criteria.get("_id")).isEqualTo(42L);
+        List<?> or = (List<?>) criteria.get("$or");
+        assertThat(or).contains(new Document("holder", "worker-a"),
+                new Document("heartbeat", new Document("$lt", Date.from(Instant.parse("2025-12-31T23:59:30Z")))));
+        Document set = (Document) update.getValue().getUpdateObject().get("$set");
+        assertThat(set.get("holder")).isEqualTo("worker-a");
+        assertThat(set.get("heartbeat")).isEqualTo(Date.from(clock.instant()));
+    }
+
+    @Test
+    void shouldFailOnConfiguredNodeClaimedByAnotherWorker() {
+        // setup
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.upsert(any(Query.class), any(Update.class), eq(NodeIdClaim.COLLECTION)))
+                .thenThrow(new DuplicateKeyException("duplicate"));
+        when(mongoTemplate.findById(42L, Document.class, NodeIdClaim.COLLECTION))
+                .thenReturn(new Document("_id", 42L).append("holder", "worker-b"));
+        NodeIdClaim claim = new NodeIdClaim(mongoTemplate, "worker-a", Duration.ofSeconds(10), clock, () -> 7L);
+
+        // expectation & validation
+        assertThatThrownBy(() -> claim.claim(42L))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Node 42 is claimed by worker worker-b");
+    }
+
+    @Test
+    void shouldDrawAnotherRandomNode_whenClaimed() {
+        // setup
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.upsert(any(Query.class), any(Update.class), eq(NodeIdClaim.COLLECTION)))
+                .thenThrow(new DuplicateKeyException("duplicate"))
+                .thenReturn(null);
+        Iterator<Long> candidates = List.of(7L, 8L).iterator();
+        NodeIdClaim claim = new NodeIdClaim(mongoTemplate, "worker-a", Duration.ofSeconds(10), clock,
+                candidates::next);
+
+        // expectation
+        long node = claim.claim(null);
+        claim.destroy();
+
+        // validation
+        assertThat(node).isEqualTo(8L);
+        assertThat(SortableId.getNode()).isEqualTo(8L);
+        verify(mongoTemplate, times(2)).upsert(any(Query.class), any(Update.class), eq(NodeIdClaim.COLLECTION));
+    }
+
+    @Test
+    void shouldFail_whenNoRandomNodeCanBeClaimed() {
+        // setup
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.upsert(any(Query.class), any(Update.class), eq(NodeIdClaim.COLLECTION)))
+                .thenThrow(new DuplicateKeyException("duplicate"));
+        NodeIdClaim claim = new NodeIdClaim(mongoTemplate, "worker-a", Duration.ofSeconds(10), clock, () -> 7L);
+
+        // expectation & validation
+        assertThatThrownBy(() -> claim.claim(null)).isInstanceOf(IllegalStateException.class);
+        verify(mongoTemplate, times(10)).upsert(any(Query.class), any(Update.class), eq(NodeIdClaim.COLLECTION));
+    }
+
+    @Test
+    void shouldRenewAndReleaseClaim() {
+        // setup
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        NodeIdClaim claim = new NodeIdClaim(mongoTemplate, "worker-a", Duration.ofSeconds(10), clock, () -> 7L);
+        claim.claim(42L);
+
+        // expectation
+        claim.renew();
+        claim.destroy();
+
+        // validation
+        verify(mongoTemplate, times(2)).upsert(any(Query.class), any(Update.class), eq(NodeIdClaim.COLLECTION));
+        var query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).remove(query.capture(), eq(NodeIdClaim.COLLECTION));
+        assertThat(query.getValue().getQueryObject())
+                .isEqualTo(new Document("_id", 42L).append("holder", "worker-a"));
+    }
+}
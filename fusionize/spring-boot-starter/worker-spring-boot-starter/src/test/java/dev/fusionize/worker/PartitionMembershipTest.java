@@ -0,0 +1,85 @@
+package dev.fusionize.worker;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class PartitionMembershipTest {
+
+    @Test
+    void shouldAssignEveryPartitionToExactlyOneMember() {
+        // setup
+        List<String> members = List.of("worker-a", "worker-b", "worker-c");
+
+        // expectation
+        Map<String, Set<Integer>> assignment = PartitionMembership.assign(members, 64);
+
+        // validation
+        Set<Integer> all = new HashSet<>();
+        assignment.values().forEach(partitions -> partitions.forEach(p -> assertThat(all.add(p)).isTrue()));
+        assertThat(all).hasSize(64);
+        assertThat(assignment.keySet()).containsExactlyInAnyOrderElementsOf(members);
+    }
+
+    @Test
+    void shouldOnlyMovePartitionsOfJoiningMember() {
+        // setup
+        Map<String, Set<Integer>> before = PartitionMembership.assign(List.of("worker-a", "worker-b"), 64);
+
+        // expectation
+        Map<String, Set<Integer>> after = PartitionMembership.assign(List.of("worker-a", "worker-b", "worker-c"), 64);
+
+        // validation
+        assertThat(before.get("worker-a")).containsAll(after.get("worker-a"));
+        assertThat(before.get("worker-b")).containsAll(after.get("worker-b"));
+        assertThat(after.get("worker-c")).isNotEmpty();
+    }
+
+    @Test
+    void shouldAssignAllPartitions_whenAlone() {
+        // setup
+        PartitionMembership membership = new PartitionMembership(mock(MongoTemplate.class), "worker-a",
+                Duration.ofSeconds(5), Clock.systemUTC());
+
+        // expectation
+        Set<Integer> owned = membership.owned(List.of("worker-a"), 8);
+
+        // validation
+        assertThat(owned).containsExactlyElementsOf(IntStream.range(0, 8).boxed().toList());
+    }
+
+    @Test
+    void shouldRenewHeartbeatAndListLiveMembers() {
+        // setup
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq(PartitionMembership.COLLECTION)))
+                .thenReturn(List.of(new Document("_id", "worker-b")));
+        Clock clock = Clock.fixed(Instant.parse("2026-01-01T00:00:00Z"), ZoneOffset.UTC);
+        PartitionMembership membership = new PartitionMembership(mongoTemplate, "worker-a",
+                Duration.ofSeconds(5), clock);
+
+        // expectation
+        List<String> members = membership.heartbeat();
+
+        // validation
+        assertThat(members).containsExactly("worker-b", "worker-a");
+        verify(mongoTemplate).upsert(any(Query.class), any(Update.class), eq(PartitionMembership.COLLECTION));
+        verify(mongoTemplate).remove(any(Query.class), eq(PartitionMembership.COLLECTION));
+    }
+}
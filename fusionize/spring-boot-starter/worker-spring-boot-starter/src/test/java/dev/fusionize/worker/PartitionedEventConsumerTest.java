@@ -0,0 +1,67 @@
+package dev.fusionize.worker;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.rabbit.listener.MessageListenerContainer;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class PartitionedEventConsumerTest {
+
+    private final PartitionMembership membership = mock(PartitionMembership.class);
+    private final Map<Integer, MessageListenerContainer> created = new HashMap<>();
+
+    @Test
+    void shouldStartAndStopContainersOnRebalance() {
+        // setup
+        WorkerProperties properties = new WorkerProperties();
+        properties.setPartitions(4);
+        PartitionedEventConsumer consumer = new PartitionedEventConsumer(properties, membership, partition -> {
+            MessageListenerContainer container = mock(MessageListenerContainer.class);
+            created.put(partition, container);
+            return container;
+        });
+        when(membership.heartbeat()).thenReturn(List.of("worker-a"));
+        when(membership.owned(anyList(), anyInt())).thenReturn(Set.of(0, 1, 2, 3), Set.of(1, 3));
+
+        // expectation
+        consumer.rebalance();
+        consumer.rebalance();
+
+        // validation
+        assertThat(consumer.getOwnedPartitions()).containsExactly(1, 3);
+        assertThat(created).hasSize(4);
+        verify(created.get(0)).stop();
+        verify(created.get(2)).stop();
+        verify(created.get(1), never()).stop();
+        verify(created.get(1), times(1)).start();
+    }
+
+    @Test
+    void shouldReleasePartitionsAndLeave_whenStopped() {
+        // setup
+        WorkerProperties properties = new WorkerProperties();
+        properties.setPartitions(2);
+        MessageListenerContainer container = mock(MessageListenerContainer.class);
+        PartitionedEventConsumer consumer = new PartitionedEventConsumer(properties, membership, p -> container);
+        when(membership.heartbeat()).thenReturn(List.of("worker-a"));
+        when(membership.owned(anyList(), anyInt())).thenReturn(Set.of(0));
+        consumer.rebalance();
+
+        // expectation
+        consumer.stop();
+
+        // validation
+        assertThat(consumer.getOwnedPartitions()).isEmpty();
+        assertThat(consumer.isRunning()).isFalse();
+        verify(container).stop();
+        verify(membership).leave();
+    }
+}
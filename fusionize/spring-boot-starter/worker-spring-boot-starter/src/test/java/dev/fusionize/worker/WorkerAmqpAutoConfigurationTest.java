@@ -3,6 +3,11 @@ package dev.fusionize.worker;
 import dev.fusionize.workflow.events.Event;
 import dev.fusionize.workflow.events.EventStore;
 import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.CustomExchange;
+import org.springframework.amqp.core.Declarables;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.TopicExchange;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.support.converter.MessageConverter;
 import org.springframework.boot.autoconfigure.AutoConfigurations;
@@ -56,4 +61,62 @@ public class WorkerAmqpAutoConfigurationTest {
                     assertThat(context).hasBean("eventListener");
                 });
     }
+
+    @Test
+    public void testPartitionedTopology() {
+        WorkerProperties properties = new WorkerProperties();
+        properties.setPartitions(3);
+        WorkerAmqpAutoConfiguration configuration = new WorkerAmqpAutoConfiguration();
+
+        Declarables topology = configuration.fusionizePartitionedEventsTopology(properties,
+                configuration.fusionizeWorkflowEventsExchange());
+
+        CustomExchange exchange = topology.getDeclarablesByType(CustomExchange.class).get(0);
+        assertThat(exchange.getType()).isEqualTo("x-consistent-hash");
+        assertThat(exchange.getArguments()).containsEntry("hash-header", BatchingEventPublisher.PARTITION_HEADER);
+        assertThat(topology.getDeclarablesByType(Queue.class))
+                .extracting(Queue::getName)
+                .containsExactly("fusionize.worker.events.0", "fusionize.worker.events.1", "fusionize.worker.events.2");
+        assertThat(topology.getDeclarablesByType(Queue.class))
+                .allSatisfy(queue -> assertThat(queue.getArguments()).containsEntry("x-single-active-consumer", true));
+        assertThat(topology.getDeclarablesByType(Binding.class)).hasSize(4);
+    }
+
+    @Test
+    public void testCapabilityRoutingTopology() {
+        WorkerProperties properties = new WorkerProperties();
+        properties.setCapabilityRouting(true);
+        WorkerAmqpAutoConfiguration configuration = new WorkerAmqpAutoConfiguration();
+
+        Declarables topology = configuration.fusionizeCapabilityRoutingTopology(properties,
+                configuration.fusionizeWorkflowEventsExchange());
+
+        assertThat(topology.getDeclarablesByType(TopicExchange.class))
+                .singleElement()
+                .satisfies(exchange -> assertThat(exchange.getArguments())
+                        .containsEntry("alternate-exchange",
+                                WorkerAmqpAutoConfiguration.FUSIONIZE_UNROUTED_COMPONENT_EVENTS_EXCHANGE));
+        assertThat(topology.getDeclarablesByType(Queue.class))
+                .extracting(Queue::getName)
+                .containsExactlyInAnyOrder(WorkerAmqpAutoConfiguration.FUSIONIZE_UNROUTED_COMPONENT_EVENTS_QUEUE,
+                        WorkerAmqpAutoConfiguration.FUSIONIZE_ORCHESTRATOR_EVENTS_QUEUE);
+        assertThat(topology.getDeclarablesByType(Binding.class))
+                .extracting(Binding::getRoutingKey)
+                .contains("component.#", "orchestrator.#");
+    }
+
+    @Test
+    public void testPartitionsOnlyCarryOrchestratorLane_whenRoutingByCapability() {
+        WorkerProperties properties = new WorkerProperties();
+        properties.setPartitions(2);
+        properties.setCapabilityRouting(true);
+        WorkerAmqpAutoConfiguration configuration = new WorkerAmqpAutoConfiguration();
+
+        Declarables topology = configuration.fusionizePartitionedEventsTopology(properties,
+                configuration.fusionizeWorkflowEventsExchange());
+
+        assertThat(topology.getDeclarablesByType(Binding.class))
+                .extracting(Binding::getRoutingKey)
+                .containsExactly("orchestrator.#", "1", "1");
+    }
 }
@@ -2,6 +2,8 @@ package dev.fusionize.worker;
 
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
@@ -38,6 +40,43 @@ class WorkerPropertiesTest {
         assertThat(props.getResourceRoot()).isEqualTo("resources");
     }
 
+    @Test
+    void shouldDefaultPublishBatching() {
+        // setup
+        var props = new WorkerProperties();
+
+        // expectation & validation
+        assertThat(props.getPublishLinger()).isEqualTo(Duration.ofMillis(5));
+        assertThat(props.getPublishBatchSize()).isEqualTo(200);
+        assertThat(props.getPublishConfirmTimeout()).isEqualTo(Duration.ofSeconds(10));
+        assertThat(props.getPublishQueueCapacity()).isEqualTo(10_000);
+        assertThat(props.getPublishQueueTimeout()).isEqualTo(Duration.ofSeconds(10));
+    }
+
+    @Test
+    void shouldDefaultToSingleSharedQueue() {
+        // setup
+        var props = new WorkerProperties();
+
+        // expectation & validation
+        assertThat(props.getPartitions()).isZero();
+        assertThat(props.getPartitionPrefetch()).isEqualTo(250);
+        assertThat(props.getPartitionConcurrency()).isEqualTo(1);
+        assertThat(props.isPartitionExclusive()).isTrue();
+        assertThat(props.getPartitionHeartbeat()).isEqualTo(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void shouldDefaultToRoutingWithoutCapabilities() {
+        // setup
+        var props = new WorkerProperties();
+
+        // expectation & validation
+        assertThat(props.isCapabilityRouting()).isFalse();
+        assertThat(props.isConsumeOrchestratorEvents()).isTrue();
+        assertThat(props.getComponentPrefetch()).isEqualTo(250);
+    }
+
     @Test
     void shouldConvertHttpToWs() {
         // setup